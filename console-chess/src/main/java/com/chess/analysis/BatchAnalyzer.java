@@ -0,0 +1,429 @@
+package com.chess.analysis;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.chess.domain.GameState;
+import com.chess.domain.GameStatus;
+import com.chess.parser.FenParser;
+import com.chess.persist.SaveLoadService;
+import com.chess.rules.RulesEngine;
+import com.chess.search.SearchLimits;
+import com.chess.search.SearchResult;
+import com.chess.search.Searcher;
+import com.chess.search.TranspositionTable;
+import com.chess.service.GameService;
+
+/**
+ * Analyses streams of positions on a fixed pool of worker threads.
+ * <p>
+ * Positions are FEN strings or whole {@link SaveLoadService} texts. Each one gets its
+ * {@link GameStatus}, its legal move count and (unless searching is switched off) a best move
+ * from a search limited to {@code moveTimeMillis} and {@code depth}, which is the time budget of
+ * one task. Every worker keeps its own {@link Searcher}. A position that cannot be parsed
+ * gives an error result; the batch carries on.
+ * </p>
+ * <p>
+ * At most {@code window} positions are taken from the input ahead of the results handed out.
+ * The input is pulled only as results are consumed, so a slow consumer holds back the input
+ * rather than filling memory, whatever the length of the stream. Results come back in input
+ * order ({@link Order#INPUT}, where one slow position holds back the ones after it) or as they
+ * finish ({@link Order#COMPLETION}); {@link PositionAnalysis#getIndex()} always tells which input
+ * a result belongs to.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * try (BatchAnalyzer analyzer = new BatchAnalyzer(8).setMoveTimeMillis(50)) {
+ *     Iterator&lt;PositionAnalysis&gt; results = analyzer.analyze(Files.lines(fens).iterator());
+ *     while (results.hasNext()) System.out.println(results.next());
+ * }
+ * </pre>
+ */
+public final class BatchAnalyzer implements AutoCloseable {
+
+    public enum Order { INPUT, COMPLETION }
+
+    public static final long DEFAULT_MOVE_TIME_MILLIS = 100;
+    public static final int DEFAULT_HASH_MB = 4;
+
+    private final int parallelism;
+    private final ExecutorService workers;
+    private final ThreadLocal<Searcher> searchers = ThreadLocal.withInitial(this::newSearcher);
+
+    // settings: change them before starting an analysis
+    private volatile boolean search = true;
+    private volatile long moveTimeMillis = DEFAULT_MOVE_TIME_MILLIS;
+    private volatile int depth = SearchLimits.MAX_DEPTH;
+    private volatile int hashMegabytes = DEFAULT_HASH_MB;
+    private volatile int window;
+    private volatile Order order = Order.INPUT;
+
+    /** One worker per available core. */
+    public BatchAnalyzer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchAnalyzer(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be >= 1");
+        this.parallelism = parallelism;
+        this.window = 2 * parallelism;
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "analysis-" + seq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public int getParallelism() { return parallelism; }
+    public int getWindow() { return window; }
+
+    /** False: status and legal move count only. */
+    public BatchAnalyzer setSearch(boolean on) { this.search = on; return this; }
+
+    /** Search time budget of each position. */
+    public BatchAnalyzer setMoveTimeMillis(long ms) {
+        if (ms < 1) throw new IllegalArgumentException("moveTimeMillis must be >= 1");
+        this.moveTimeMillis = ms;
+        return this;
+    }
+
+    /** Depth cap of each search; the time budget still applies. */
+    public BatchAnalyzer setDepth(int depth) {
+        if (depth < 1) throw new IllegalArgumentException("depth must be >= 1");
+        this.depth = Math.min(depth, SearchLimits.MAX_DEPTH);
+        return this;
+    }
+
+    /** Table size of each worker's searcher (takes effect for workers that have not searched yet). */
+    public BatchAnalyzer setHashMegabytes(int mb) {
+        if (mb < 1) throw new IllegalArgumentException("hash must be >= 1 MB");
+        this.hashMegabytes = mb;
+        return this;
+    }
+
+    /** Most positions read ahead of the consumer; at least the parallelism to keep every worker busy. */
+    public BatchAnalyzer setWindow(int window) {
+        if (window < 1) throw new IllegalArgumentException("window must be >= 1");
+        this.window = window;
+        return this;
+    }
+
+    public BatchAnalyzer setOrder(Order order) { this.order = order; return this; }
+
+    /**
+     * Lazily analyses {@code positions}: the returned iterator pulls input as it is consumed.
+     * Its {@code hasNext()} and {@code next()} block until a result is ready.
+     *
+     * @throws IllegalStateException from {@code next()} if the calling thread is interrupted
+     */
+    public Iterator<PositionAnalysis> analyze(Iterator<String> positions) {
+        return new Results(positions, order, window);
+    }
+
+    /**
+     * Analyses a reactive stream of positions. Each subscriber gets its own run on its own
+     * delivery thread. Upstream is asked for at most {@code window} positions ahead of what the
+     * subscriber has requested and received. Cancelling cancels the upstream subscription. An
+     * upstream error is passed on once the results of the positions before it have been delivered.
+     */
+    public Flow.Publisher<PositionAnalysis> analyze(Flow.Publisher<String> positions) {
+        return subscriber -> {
+            Pump pump = new Pump(positions, subscriber, order, window);
+            Thread t = new Thread(pump, "analysis-publisher");
+            t.setDaemon(true);
+            t.start();
+        };
+    }
+
+    /** Stops the workers; analyses still running are abandoned. */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Parses one position: a {@link SaveLoadService} text (recognised by its {@code toMove:}
+     * line) or a FEN string.
+     *
+     * @throws IllegalArgumentException or IOException if the text is malformed
+     */
+    public static GameState parsePosition(String text) throws IOException {
+        if (text.contains("toMove:")) {
+            return SaveLoadService.load(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+        }
+        return FenParser.parse(text);
+    }
+
+    PositionAnalysis analyzeOne(long index, String text) {
+        GameState state;
+        try {
+            state = parsePosition(text);
+        } catch (IOException | RuntimeException e) {
+            return PositionAnalysis.failed(index, (e.getMessage() != null) ? e.getMessage() : e.toString());
+        }
+        try {
+            GameStatus status = GameService.assessStatus(state);
+            int legal = RulesEngine.generateLegalMoves(state).size();
+            boolean over = (status != GameStatus.IN_PROGRESS && status != GameStatus.CHECK);
+            if (!search || over) return new PositionAnalysis(index, status, legal, null, 0, 0, 0, 0);
+
+            SearchLimits limits = SearchLimits.moveTime(moveTimeMillis).setDepth(depth);
+            SearchResult r = searchers.get().search(state, limits);
+            return new PositionAnalysis(index, status, legal, r.getBestMove(), r.getScore(), r.getDepth(),
+                                        r.getNodes(), r.getElapsedMillis());
+        } catch (RuntimeException e) {
+            return PositionAnalysis.failed(index, e.toString());
+        }
+    }
+
+    private Searcher newSearcher() {
+        return new Searcher(new TranspositionTable(hashMegabytes));
+    }
+
+    /** The pull side: keeps up to {@code window} positions in flight and hands results out in the chosen order. */
+    private final class Results implements Iterator<PositionAnalysis> {
+        private final Iterator<String> input;
+        private final Order order;
+        private final int window;
+        private final ArrayDeque<Future<PositionAnalysis>> pending = new ArrayDeque<>();   // Order.INPUT
+        private final CompletionService<PositionAnalysis> done;                           // Order.COMPLETION
+        private long nextIndex;
+        private int inFlight;
+
+        Results(Iterator<String> input, Order order, int window) {
+            this.input = input;
+            this.order = order;
+            this.window = window;
+            this.done = (order == Order.COMPLETION) ? new ExecutorCompletionService<>(workers) : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return inFlight > 0;
+        }
+
+        @Override
+        public PositionAnalysis next() {
+            fill();
+            if (inFlight == 0) throw new NoSuchElementException();
+            try {
+                Future<PositionAnalysis> f = (order == Order.INPUT) ? pending.poll() : done.take();
+                PositionAnalysis result = f.get();
+                inFlight--;
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for an analysis", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Analysis failed", e.getCause());
+            }
+        }
+
+        private void fill() {
+            while (inFlight < window) {
+                // a reactive input may not have its next position yet: only wait for it when idle
+                if (inFlight > 0 && input instanceof Inbox && !((Inbox) input).isReady()) return;
+                if (!input.hasNext()) return;
+                long index = nextIndex++;
+                String text = input.next();
+                if (order == Order.INPUT) pending.add(workers.submit(() -> analyzeOne(index, text)));
+                else done.submit(() -> analyzeOne(index, text));
+                inFlight++;
+            }
+        }
+    }
+
+    /** Upstream {@link Flow.Subscriber} seen as a blocking iterator, requesting one position per one taken. */
+    private static final class Inbox implements Flow.Subscriber<String>, Iterator<String> {
+        private static final Object END = new Object();
+
+        private final int window;
+        private final BlockingQueue<Object> queue;   // positions, then END or a Throwable
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+        private Object head;
+
+        Inbox(int window) {
+            this.window = window;
+            this.queue = new ArrayBlockingQueue<>(window + 1);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            subscription = s;
+            s.request(window);
+        }
+
+        @Override public void onNext(String item) { if (!cancelled) queue.add(item); }
+        @Override public void onError(Throwable t) { if (!cancelled) queue.add(t); }
+        @Override public void onComplete() { if (!cancelled) queue.add(END); }
+
+        boolean isReady() {
+            return head != null || !queue.isEmpty();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (head == null) {
+                try {
+                    head = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for input", e);
+                }
+            }
+            return head != END && !(head instanceof Throwable);
+        }
+
+        /** The upstream error that ended the input, or null. */
+        Throwable failure() {
+            return (head instanceof Throwable) ? (Throwable) head : null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            String item = (String) head;
+            head = null;
+            subscription.request(1);
+            return item;
+        }
+
+        /** Cancels upstream and ends the input, waking a reader blocked waiting for it. Idempotent. */
+        void cancel() {
+            cancelled = true;
+            Flow.Subscription s = subscription;
+            if (s != null) s.cancel();
+            queue.offer(END);   // a full queue has no reader waiting anyway
+        }
+    }
+
+    /** Delivery thread of one subscriber: waits for demand, then hands over the next result. */
+    private final class Pump implements Runnable, Flow.Subscription {
+        private final Flow.Publisher<String> positions;
+        private final Flow.Subscriber<? super PositionAnalysis> subscriber;
+        private final Order order;
+        private final Inbox inbox;
+        private long demand;          // guarded by this
+        private boolean cancelled;    // guarded by this
+        private Throwable badRequest; // guarded by this
+
+        Pump(Flow.Publisher<String> positions, Flow.Subscriber<? super PositionAnalysis> subscriber, Order order, int window) {
+            this.positions = positions;
+            this.subscriber = subscriber;
+            this.order = order;
+            this.inbox = new Inbox(window);
+        }
+
+        @Override
+        public void run() {
+            subscriber.onSubscribe(this);
+            positions.subscribe(inbox);
+            try {
+                Iterator<PositionAnalysis> results = new Results(inbox, order, inbox.window);
+                while (awaitDemand() && results.hasNext()) {
+                    PositionAnalysis r = results.next();
+                    synchronized (this) {
+                        if (cancelled) break;
+                        demand--;
+                    }
+                    subscriber.onNext(r);
+                }
+                Throwable error;
+                synchronized (this) {
+                    if (cancelled) return;
+                    error = (badRequest != null) ? badRequest : inbox.failure();
+                }
+                if (error != null) subscriber.onError(error);
+                else subscriber.onComplete();
+            } catch (RuntimeException e) {
+                inbox.cancel();
+                if (!isCancelled()) subscriber.onError(e);
+            } finally {
+                if (isCancelled()) inbox.cancel();
+            }
+        }
+
+        /** Waits until the subscriber wants a result; false once it cancelled or broke the protocol. */
+        private synchronized boolean awaitDemand() {
+            try {
+                while (demand == 0 && !cancelled && badRequest == null) wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+            return !cancelled && badRequest == null;
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (n <= 0) badRequest = new IllegalArgumentException("request must be positive: " + n);
+            else demand = (demand + n < 0) ? Long.MAX_VALUE : demand + n;
+            notifyAll();
+        }
+
+        /** Also cancels upstream at once, even while the pump is waiting for its next position. */
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                notifyAll();
+            }
+            inbox.cancel();
+        }
+    }
+
+    /**
+     * Usage: {@code BatchAnalyzer [--threads n] [--movetime ms] [--depth d] [--order input|completion] [--search on|off]}.
+     * Reads one FEN per line from standard input (blank lines and {@code #} comments skipped) and
+     * prints one result line per position.
+     */
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Order order = Order.INPUT;
+        long moveTime = DEFAULT_MOVE_TIME_MILLIS;
+        int depth = SearchLimits.MAX_DEPTH;
+        boolean search = true;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String v = args[i + 1];
+            switch (args[i]) {
+                case "--threads":  threads = Integer.parseInt(v); break;
+                case "--movetime": moveTime = Long.parseLong(v); break;
+                case "--depth":    depth = Integer.parseInt(v); break;
+                case "--order":    order = Order.valueOf(v.toUpperCase()); break;
+                case "--search":   search = v.equals("on"); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        Iterator<String> fens = in.lines().filter(l -> !l.isBlank() && !l.trim().startsWith("#")).iterator();
+        try (BatchAnalyzer analyzer = new BatchAnalyzer(threads)) {
+            analyzer.setMoveTimeMillis(moveTime).setDepth(depth).setSearch(search).setOrder(order);
+            Iterator<PositionAnalysis> results = analyzer.analyze(fens);
+            while (results.hasNext()) System.out.println(results.next());
+        }
+    }
+}
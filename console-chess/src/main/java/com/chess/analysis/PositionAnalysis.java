@@ -0,0 +1,73 @@
+package com.chess.analysis;
+
+import com.chess.domain.GameStatus;
+import com.chess.domain.Move;
+
+/**
+ * What {@link BatchAnalyzer} found for one input position: its status, legal move count and, when
+ * searched, best move and score. A position that could not be parsed carries an error instead.
+ */
+public final class PositionAnalysis {
+
+    private final long index;           // position in the input, from 0
+    private final GameStatus status;    // null on error
+    private final int legalMoves;
+    private final Move bestMove;        // null if not searched, on error, or with no legal moves
+    private final int score;            // centipawns from the side to move's view
+    private final int depth;
+    private final long nodes;
+    private final long elapsedMillis;
+    private final String error;
+
+    PositionAnalysis(long index, GameStatus status, int legalMoves, Move bestMove, int score, int depth,
+                     long nodes, long elapsedMillis) {
+        this.index = index;
+        this.status = status;
+        this.legalMoves = legalMoves;
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+        this.error = null;
+    }
+
+    private PositionAnalysis(long index, String error) {
+        this.index = index;
+        this.status = null;
+        this.legalMoves = 0;
+        this.bestMove = null;
+        this.score = 0;
+        this.depth = 0;
+        this.nodes = 0;
+        this.elapsedMillis = 0;
+        this.error = error;
+    }
+
+    static PositionAnalysis failed(long index, String error) {
+        return new PositionAnalysis(index, error);
+    }
+
+    public long getIndex() { return index; }
+    public GameStatus getStatus() { return status; }
+    public int getLegalMoves() { return legalMoves; }
+    public Move getBestMove() { return bestMove; }
+    public int getScore() { return score; }
+    public int getDepth() { return depth; }
+    public long getNodes() { return nodes; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public String getError() { return error; }
+    public boolean isError() { return error != null; }
+
+    /** One line, e.g. {@code 12 IN_PROGRESS moves=20 best=e2e4 score=25 depth=7 nodes=81234}. */
+    @Override
+    public String toString() {
+        if (error != null) return index + " ERROR " + error;
+        StringBuilder sb = new StringBuilder().append(index).append(' ').append(status).append(" moves=").append(legalMoves);
+        if (bestMove != null) {
+            sb.append(" best=").append(bestMove).append(" score=").append(score)
+              .append(" depth=").append(depth).append(" nodes=").append(nodes);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.chess.broadcast;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One encoded update from a {@link Broadcaster}, shared by every subscriber that receives it.
+ * <p>
+ * A frame is one text line, ready to be written to a socket as is:
+ * </p>
+ * <ul>
+ *   <li>diff: {@code d <seq> <move> <side> <status> <square><piece> ...}, listing only the squares
+ *       that changed, e.g. {@code d 7 e2e4 b IN_PROGRESS e2. e4P} ({@code .} for an empty square);</li>
+ *   <li>keyframe: {@code k <seq> <move> <status> <fen>}, the whole position, sent to new
+ *       subscribers and to ones whose backlog was coalesced.</li>
+ * </ul>
+ * {@code -} stands for a missing move or status. A diff applies to the position of the frame with
+ * the previous sequence number.
+ */
+public final class BroadcastFrame {
+
+    /** Marks the end of a dropped subscription's stream; never sent to a socket. */
+    static final BroadcastFrame END = new BroadcastFrame(-1, false, "");
+
+    private final long seq;
+    private final boolean keyframe;
+    private final byte[] bytes;   // UTF-8 line including the trailing newline
+
+    BroadcastFrame(long seq, boolean keyframe, String line) {
+        this.seq = seq;
+        this.keyframe = keyframe;
+        this.bytes = line.isEmpty() ? new byte[0] : (line + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public long getSeq() { return seq; }
+    public boolean isKeyframe() { return keyframe; }
+
+    /** Encoded size in bytes, newline included. */
+    public int size() { return bytes.length; }
+
+    /** The encoded line as a read-only view; every call returns an independent position. */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /** The line without its newline. */
+    @Override
+    public String toString() {
+        return new String(bytes, 0, Math.max(0, bytes.length - 1), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,240 @@
+package com.chess.broadcast;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.chess.domain.Color;
+import com.chess.domain.GameStatus;
+import com.chess.domain.Piece;
+import com.chess.domain.PositionSnapshot;
+import com.chess.parser.FenParser;
+
+/**
+ * Fans one game's position updates out to any number of spectators.
+ * <p>
+ * The game calls {@link #publish(PositionSnapshot, GameStatus)} after every change. The
+ * broadcaster compares the new snapshot with the last one
+ * ({@link PositionSnapshot#changedSquares(PositionSnapshot)}), encodes the changed squares,
+ * side to move and status into one {@link BroadcastFrame}, and puts that same frame into every
+ * subscriber's bounded queue: the cost per spectator is one queue offer, whatever the number
+ * of spectators. Nothing is encoded while nobody is watching.
+ * </p>
+ * <p>
+ * A subscriber whose queue is full is either dropped ({@link SlowPolicy#DROP}; its stream ends
+ * after what it already had) or coalesced ({@link SlowPolicy#COALESCE}; its backlog is replaced
+ * by one keyframe of the current position, encoded once however many subscribers need it).
+ * Either way the game thread never waits for a spectator.
+ * </p>
+ * <p>
+ * {@link #close()} ends every stream once the game is over: each subscriber reads what is still
+ * queued and then the end of the stream, and later subscribers get the final position and the end.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * Broadcaster.Subscription sub = broadcaster.subscribe();
+ * SpectatorView view = new SpectatorView();
+ * for (BroadcastFrame f; (f = sub.take()) != null; ) view.apply(f);
+ * </pre>
+ */
+public final class Broadcaster {
+
+    public enum SlowPolicy { DROP, COALESCE }
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private static final String PIECE_LETTERS = "kqrbnp";   // by PieceType ordinal
+
+    private final int capacity;
+    private final SlowPolicy policy;
+
+    // guarded by this: publish runs on the game's thread, subscribe on the spectators'
+    private final List<Subscription> subscribers = new ArrayList<>();
+    private PositionSnapshot last;
+    private GameStatus lastStatus;
+    private long seq;
+    private BroadcastFrame keyframe;   // of last, encoded when first needed
+    private long dropped;
+    private long coalesced;
+    private boolean closed;
+
+    public Broadcaster() {
+        this(DEFAULT_QUEUE_CAPACITY, SlowPolicy.COALESCE);
+    }
+
+    public Broadcaster(int capacity, SlowPolicy policy) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /** Sends the change from the previous position to {@code snapshot} to every subscriber. */
+    public synchronized void publish(PositionSnapshot snapshot, GameStatus status) {
+        if (closed) return;
+        PositionSnapshot previous = last;
+        seq++;
+        last = snapshot;
+        lastStatus = status;
+        keyframe = null;
+        if (subscribers.isEmpty()) return;
+
+        BroadcastFrame frame = (previous == null) ? keyframe() : diff(previous);
+        for (Iterator<Subscription> it = subscribers.iterator(); it.hasNext(); ) {
+            Subscription s = it.next();
+            if (s.closed) {
+                it.remove();
+            } else if (!s.queue.offer(frame)) {
+                if (policy == SlowPolicy.DROP) {
+                    s.end(true);
+                    it.remove();
+                    dropped++;
+                } else {
+                    s.queue.clear();
+                    s.queue.offer(keyframe());
+                    s.coalesced++;
+                    coalesced++;
+                }
+            }
+        }
+    }
+
+    /**
+     * A new subscription, starting with a keyframe of the current position if there is one. After
+     * {@link #close()} that keyframe is followed by the end of the stream.
+     */
+    public synchronized Subscription subscribe() {
+        Subscription s = new Subscription(this, capacity);
+        if (last != null) s.queue.offer(keyframe());
+        if (closed) s.end(false);
+        else subscribers.add(s);
+        return s;
+    }
+
+    /**
+     * Ends every subscriber's stream after the frames already queued for it (a full queue is
+     * cleared first), so a spectator blocked in {@link Subscription#take()} wakes up. Later
+     * publishes are ignored. Idempotent.
+     */
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        for (Subscription s : subscribers) s.end(false);
+        subscribers.clear();
+    }
+
+    public synchronized boolean isClosed() { return closed; }
+
+    public synchronized int subscriberCount() {
+        subscribers.removeIf(s -> s.closed);
+        return subscribers.size();
+    }
+
+    /** Sequence number of the last published update. */
+    public synchronized long getSeq() { return seq; }
+
+    /** Subscribers dropped for falling behind ({@link SlowPolicy#DROP}). */
+    public synchronized long getDropped() { return dropped; }
+
+    /** Backlogs replaced by a keyframe ({@link SlowPolicy#COALESCE}). */
+    public synchronized long getCoalesced() { return coalesced; }
+
+    private BroadcastFrame keyframe() {
+        if (keyframe == null) {
+            keyframe = new BroadcastFrame(seq, true, "k " + seq + " " + moveText() + " " + statusText()
+                                          + " " + FenParser.format(last.toGameState()));
+        }
+        return keyframe;
+    }
+
+    private BroadcastFrame diff(PositionSnapshot previous) {
+        StringBuilder sb = new StringBuilder(48).append("d ").append(seq).append(' ').append(moveText())
+                .append(' ').append(last.getToMove() == Color.WHITE ? 'w' : 'b').append(' ').append(statusText());
+        for (long changed = last.changedSquares(previous); changed != 0; changed &= changed - 1) {
+            int sq = Long.numberOfTrailingZeros(changed);
+            int file = sq & 7, rank = sq >>> 3;
+            sb.append(' ').append((char) ('a' + file)).append((char) ('1' + rank)).append(letter(last.getPiece(file, rank)));
+        }
+        return new BroadcastFrame(seq, false, sb.toString());
+    }
+
+    private String moveText() {
+        return (last.getLastMove() == null) ? "-" : last.getLastMove().toString();
+    }
+
+    private String statusText() {
+        return (lastStatus == null) ? "-" : lastStatus.name();
+    }
+
+    static char letter(Piece p) {
+        if (p == null) return '.';
+        char c = PIECE_LETTERS.charAt(p.getType().ordinal());
+        return (p.getColor() == Color.WHITE) ? Character.toUpperCase(c) : c;
+    }
+
+    /** One spectator's queue. Read it from any single thread; the game never blocks on it. */
+    public static final class Subscription implements AutoCloseable {
+        private final Broadcaster owner;
+        private final BlockingQueue<BroadcastFrame> queue;
+        private volatile boolean closed;
+        private volatile long coalesced;
+
+        Subscription(Broadcaster owner, int capacity) {
+            this.owner = owner;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        /** The next frame, or null if none is waiting or the stream has ended. */
+        public BroadcastFrame poll() {
+            return unlessEnd(queue.poll());
+        }
+
+        /** Waits up to the timeout for the next frame; null on timeout or at the end of the stream. */
+        public BroadcastFrame poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return unlessEnd(queue.poll(timeout, unit));
+        }
+
+        /** Waits for the next frame; null once the stream has ended (closed, dropped or game over) and its frames are used up. */
+        public BroadcastFrame take() throws InterruptedException {
+            if (closed && queue.isEmpty()) return null;
+            return unlessEnd(queue.take());
+        }
+
+        private static BroadcastFrame unlessEnd(BroadcastFrame f) {
+            return (f == BroadcastFrame.END) ? null : f;
+        }
+
+        /** Frames waiting to be read. */
+        public int pending() { return queue.size(); }
+
+        /** True once closed by the spectator, dropped, or ended with the game. */
+        public boolean isClosed() { return closed; }
+
+        /** How many times this subscriber's backlog was replaced by a keyframe. */
+        public long getCoalesced() { return coalesced; }
+
+        /**
+         * Stops receiving: frames still queued are discarded and a reader blocked in
+         * {@link #take()} gets the end of the stream.
+         */
+        @Override
+        public void close() {
+            synchronized (owner) {   // so a concurrent publish cannot refill the queue after END
+                if (!closed) end(true);
+                owner.subscribers.remove(this);
+            }
+        }
+
+        /** Marks the stream ended and queues END, discarding the backlog if asked to or if there is no room. Caller holds the owner's lock. */
+        void end(boolean discard) {
+            closed = true;
+            if (discard || !queue.offer(BroadcastFrame.END)) {
+                queue.clear();
+                queue.offer(BroadcastFrame.END);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.chess.broadcast;
+
+import java.util.Arrays;
+
+import com.chess.domain.Color;
+
+/**
+ * A spectator's copy of the board, kept up to date from {@link BroadcastFrame}s.
+ * <p>
+ * A keyframe replaces everything; a diff is applied only if it directly follows the last frame
+ * applied. After a gap the view reports {@link #isSynced()} false and ignores diffs until the
+ * next keyframe, which a coalescing {@link Broadcaster} sends after any backlog it throws away.
+ * </p>
+ */
+public final class SpectatorView {
+
+    private final char[] squares = new char[64];   // by rank * 8 + file, FEN letters, '.' for empty
+    private Color toMove;
+    private String lastMove = "-";
+    private String status = "-";
+    private long seq = -1;
+    private boolean synced;
+
+    public SpectatorView() {
+        Arrays.fill(squares, '.');
+    }
+
+    /** @return true if the frame was applied */
+    public boolean apply(BroadcastFrame frame) {
+        return apply(frame.toString());
+    }
+
+    /** Applies one frame line as produced by {@link BroadcastFrame#toString()}. */
+    public boolean apply(String line) {
+        String[] t = line.split(" ");
+        if (t.length < 5) throw new IllegalArgumentException("Malformed frame: " + line);
+        long frameSeq = Long.parseLong(t[1]);
+        if (t[0].equals("k")) {
+            if (t.length < 6) throw new IllegalArgumentException("Malformed keyframe: " + line);
+            Arrays.fill(squares, '.');
+            int rank = 7, file = 0;
+            for (char c : t[4].toCharArray()) {
+                if (c == '/') { rank--; file = 0; }
+                else if (Character.isDigit(c)) file += c - '0';
+                else squares[rank * 8 + file++] = c;
+            }
+            toMove = t[5].equals("w") ? Color.WHITE : Color.BLACK;
+            lastMove = t[2];
+            status = t[3];
+        } else if (t[0].equals("d")) {
+            if (!synced || frameSeq != seq + 1) {
+                synced = false;
+                return false;
+            }
+            lastMove = t[2];
+            toMove = t[3].equals("w") ? Color.WHITE : Color.BLACK;
+            status = t[4];
+            for (int i = 5; i < t.length; i++) {
+                String s = t[i];
+                squares[(s.charAt(1) - '1') * 8 + (s.charAt(0) - 'a')] = s.charAt(2);
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown frame type: " + line);
+        }
+        seq = frameSeq;
+        synced = true;
+        return true;
+    }
+
+    /** FEN letter of the piece on a square, or {@code '.'}. */
+    public char pieceAt(int file, int rank) {
+        return squares[rank * 8 + file];
+    }
+
+    public Color getToMove() { return toMove; }
+    public String getLastMove() { return lastMove; }
+    public String getStatus() { return status; }
+    public long getSeq() { return seq; }
+    public boolean isSynced() { return synced; }
+}
@@ -0,0 +1,160 @@
+package com.chess.controller;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.chess.domain.Board;
+import com.chess.domain.Piece;
+import com.chess.domain.Zobrist;
+
+/**
+ * Draws the board on a console stream, one frame per call, with a single write and flush.
+ * <p>
+ * Frames are assembled in a reusable byte buffer from cell strings encoded once up front, so
+ * drawing allocates nothing and the stream sees one write instead of one per square.
+ * </p>
+ * <ul>
+ *   <li>{@link Mode#PLAIN}: the whole board every time, the same text as
+ *       {@link Board#printBoard(PrintStream)}; works on any stream.</li>
+ *   <li>{@link Mode#ANSI}: the first frame clears the screen, draws the board in the top lines and
+ *       keeps everything else scrolling below it; later frames only move the cursor to the squares
+ *       that changed since the last frame and redraw those. Needs a VT100-compatible terminal.</li>
+ *   <li>{@link Mode#QUIET}: draws nothing, for scripted and replayed games.</li>
+ * </ul>
+ * Not thread-safe: one renderer belongs to one session's output stream.
+ */
+public final class BoardRenderer {
+
+    public enum Mode { PLAIN, ANSI, QUIET }
+
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FILES = "   a  b  c  d  e  f  g  h".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] CELLS = new byte[13][];   // by piece index + 1, 0 for an empty square
+    private static final byte[][] RANK_LABELS = new byte[8][];
+
+    private static final int BOARD_LINES = 9;   // eight ranks and the file letters
+    private static final String ESC = "\u001b";
+    private static final byte[] CLEAR = (ESC + "[2J" + ESC + "[H").getBytes(StandardCharsets.US_ASCII);
+    // scroll only the lines below the board (plus one blank line) and park the cursor there
+    private static final byte[] SCROLL_BELOW = (ESC + "[" + (BOARD_LINES + 2) + "r"
+                                                + ESC + "[" + (BOARD_LINES + 2) + ";1H").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SAVE_CURSOR = (ESC + "7").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESTORE_CURSOR = (ESC + "8").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESET_SCROLL = (ESC + "[r").getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        CELLS[0] = "-- ".getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < 12; i++) CELLS[i + 1] = (Piece.fromIndex(i) + " ").getBytes(StandardCharsets.US_ASCII);
+        for (int r = 0; r < 8; r++) RANK_LABELS[r] = ((r + 1) + " ").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private final PrintStream out;
+    private final Mode mode;
+    private final byte[] shown = new byte[64];   // cell codes on screen (ANSI), by rank * 8 + file
+    private boolean drawn;                        // ANSI: the full board is on screen
+    private byte[] buf = new byte[512];
+    private int len;
+    private long frames;
+    private long bytesWritten;
+
+    public BoardRenderer(PrintStream out, Mode mode) {
+        if (out == null || mode == null) throw new IllegalArgumentException("out and mode are required");
+        this.out = out;
+        this.mode = mode;
+    }
+
+    public Mode getMode() { return mode; }
+    public boolean isQuiet() { return mode == Mode.QUIET; }
+
+    /** Frames written so far; an ANSI frame with nothing to redraw does not count. */
+    public long getFrames() { return frames; }
+
+    /** Bytes written by all frames so far. */
+    public long getBytesWritten() { return bytesWritten; }
+
+    /** Draws {@code board}. */
+    public void render(Board board) {
+        len = 0;
+        switch (mode) {
+            case PLAIN: full(board); break;
+            case ANSI:  if (drawn) changed(board); else screen(board); break;
+            default:    return;
+        }
+        if (len == 0) return;
+        out.write(buf, 0, len);
+        out.flush();
+        frames++;
+        bytesWritten += len;
+    }
+
+    /** Makes the next ANSI frame redraw the whole screen, e.g. after other output overwrote it. */
+    public void invalidate() {
+        drawn = false;
+    }
+
+    /** Gives the terminal its whole screen back for scrolling (ANSI); a no-op in the other modes. */
+    public void close() {
+        if (mode != Mode.ANSI || !drawn) return;
+        out.write(RESET_SCROLL, 0, RESET_SCROLL.length);
+        out.flush();
+        drawn = false;
+    }
+
+    private void full(Board board) {
+        for (int r = 7; r >= 0; r--) {
+            put(RANK_LABELS[r]);
+            for (int f = 0; f < 8; f++) put(CELLS[code(board, f, r)]);
+            put(NEWLINE);
+        }
+        put(FILES);
+        put(NEWLINE);
+    }
+
+    private void screen(Board board) {
+        put(CLEAR);
+        full(board);
+        put(SCROLL_BELOW);
+        for (int sq = 0; sq < 64; sq++) shown[sq] = code(board, sq & 7, sq >>> 3);
+        drawn = true;
+    }
+
+    private void changed(Board board) {
+        boolean any = false;
+        for (int sq = 0; sq < 64; sq++) {
+            int f = sq & 7, r = sq >>> 3;
+            byte c = code(board, f, r);
+            if (c == shown[sq]) continue;
+            if (!any) put(SAVE_CURSOR);
+            any = true;
+            shown[sq] = c;
+            // rank 8 is on the first line; each cell is three columns wide after the "8 " label
+            ensure(8);
+            buf[len++] = 0x1b;
+            buf[len++] = '[';
+            buf[len++] = (byte) ('0' + (8 - r));
+            buf[len++] = ';';
+            int col = 3 + 3 * f;
+            if (col >= 10) buf[len++] = (byte) ('0' + col / 10);
+            buf[len++] = (byte) ('0' + col % 10);
+            buf[len++] = 'H';
+            put(CELLS[c]);
+        }
+        if (any) put(RESTORE_CURSOR);
+    }
+
+    private static byte code(Board board, int file, int rank) {
+        Piece p = board.getPiece(file, rank);
+        return (byte) ((p == null) ? 0 : Zobrist.pieceIndex(p) + 1);
+    }
+
+    private void put(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, len, bytes.length);
+        len += bytes.length;
+    }
+
+    private void ensure(int extra) {
+        if (len + extra > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+    }
+}
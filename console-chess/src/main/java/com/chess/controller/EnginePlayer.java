@@ -0,0 +1,165 @@
+package com.chess.controller;
+
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Zobrist;
+import com.chess.rules.RulesEngine;
+import com.chess.search.SearchLimits;
+import com.chess.search.SearchResult;
+import com.chess.search.Searcher;
+import com.chess.server.SessionThreads;
+import com.chess.service.MoveService;
+
+/**
+ * The computer side of a console game, with pondering.
+ * <p>
+ * {@link #think(GameState)} searches for a fixed time per move and remembers the reply the
+ * principal variation expects. While the human is at the prompt, {@link #startPondering(GameState)}
+ * plays that expected reply on a copy of the position and searches the result on a background
+ * thread from {@link SessionThreads} (virtual where the JDK has them, like the session loops),
+ * filling the same transposition table. When the human's move arrives:
+ * </p>
+ * <ul>
+ *   <li>if it is the expected one ({@link #onHumanInput(Move)}) the background search simply
+ *       keeps going, and the next {@link #think(GameState)} only waits for whatever is left of the
+ *       move time before taking its result: a ponder hit costs no new search at all;</li>
+ *   <li>on any other input the background search is stopped and joined before anything else
+ *       touches the position, and its result is dropped.</li>
+ * </ul>
+ * Not thread-safe: one controller thread calls every method; only the search itself runs elsewhere.
+ */
+public final class EnginePlayer {
+
+    public static final long DEFAULT_MOVE_TIME_MILLIS = 1000;
+
+    private static final ThreadFactory PONDER_THREADS = SessionThreads.create("ponder-");
+
+    private final Searcher searcher = new Searcher();
+    private final long moveTimeMillis;
+
+    private Move expectedReply;           // from the last think, null if the PV was too short
+    private Thread ponderThread;          // non-null while a ponder search runs or awaits join
+    private GameState ponderRoot;         // position the ponder search is on (after expectedReply)
+    private long ponderStartNanos;
+    private boolean ponderHit;
+    private volatile SearchResult ponderResult;
+
+    private int ponderHits;
+    private int ponderMisses;
+
+    public EnginePlayer() {
+        this(DEFAULT_MOVE_TIME_MILLIS);
+    }
+
+    public EnginePlayer(long moveTimeMillis) {
+        if (moveTimeMillis < 1) throw new IllegalArgumentException("moveTimeMillis must be >= 1");
+        this.moveTimeMillis = moveTimeMillis;
+    }
+
+    public long getMoveTimeMillis() { return moveTimeMillis; }
+    public int getPonderHits() { return ponderHits; }
+    public int getPonderMisses() { return ponderMisses; }
+    public boolean isPondering() { return ponderThread != null; }
+
+    /** The reply the engine expects to its last move, or null. */
+    public Move getExpectedReply() { return expectedReply; }
+
+    /** Result of the last ponder search, once it has stopped; null while one runs or before any. */
+    SearchResult lastPonderResult() { return ponderResult; }
+
+    /**
+     * Chooses a move for the side to move in {@code state} (which is not modified). After a
+     * ponder hit on this very position the background search is reused.
+     */
+    public SearchResult think(GameState state) {
+        SearchResult r = null;
+        if (ponderThread != null) {
+            if (ponderHit && Zobrist.hash(ponderRoot) == Zobrist.hash(state)) {
+                long pondered = (System.nanoTime() - ponderStartNanos) / 1_000_000L;
+                r = finishPondering(Math.max(0, moveTimeMillis - pondered));
+                if (r != null && r.getDepth() == 0) r = null;   // stopped before its first iteration
+            } else {
+                cancelPondering();
+            }
+        }
+        if (r == null) r = searcher.search(state, SearchLimits.moveTime(moveTimeMillis));
+        List<Move> pv = r.getPv();
+        expectedReply = (pv.size() > 1) ? pv.get(1) : null;
+        return r;
+    }
+
+    /**
+     * Starts searching the position after the expected reply, if there is one and it is legal in
+     * {@code state} (the position with the human to move). Does nothing while already pondering.
+     */
+    public void startPondering(GameState state) {
+        if (ponderThread != null || expectedReply == null) return;
+        if (!RulesEngine.isLegalMove(state, expectedReply)) return;
+
+        GameState root = GameState.copyWithHistory(state);
+        MoveService.apply(root, expectedReply);
+        root.switchTurn();
+        if (RulesEngine.generateLegalMoves(root).isEmpty()) return;   // nothing for the engine to think about
+
+        ponderRoot = root;
+        ponderHit = false;
+        ponderResult = null;
+        ponderStartNanos = System.nanoTime();
+        GameState searchRoot = GameState.copyWithHistory(root);
+        Thread t = PONDER_THREADS.newThread(
+                () -> ponderResult = searcher.search(searchRoot, new SearchLimits().setInfinite(true)));
+        ponderThread = t;
+        t.start();
+    }
+
+    /**
+     * Tells the engine what the human entered: the parsed move, or null for any other command.
+     * The expected move keeps the ponder search running; anything else cancels it.
+     */
+    public void onHumanInput(Move move) {
+        if (ponderThread == null) return;
+        if (move != null && move.equals(expectedReply)) {
+            ponderHit = true;
+            ponderHits++;
+        } else {
+            cancelPondering();
+            ponderMisses++;
+        }
+    }
+
+    /** Stops a running ponder search and waits for its thread; its result is dropped. */
+    public void cancelPondering() {
+        finishPondering(0);
+    }
+
+    /** Lets the ponder search run up to {@code millis} longer, then stops it and returns its result. */
+    private SearchResult finishPondering(long millis) {
+        Thread t = ponderThread;
+        if (t == null) return null;
+        boolean interrupted = false;
+        try {
+            if (millis > 0) t.join(millis);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        searcher.stop();
+        // the searcher is shared with the next think, so the thread must be gone before we return
+        while (t.isAlive()) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        // an infinite search that ended by itself (mate found, depth cap) never saw the stop
+        searcher.clearStop();
+        ponderThread = null;
+        ponderRoot = null;
+        ponderHit = false;
+        if (interrupted) Thread.currentThread().interrupt();
+        return ponderResult;
+    }
+}
@@ -1,149 +1,124 @@
 package com.chess.controller;
 
-import java.io.FileInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
 import java.io.FileOutputStream;
-import java.util.List;
-import java.util.Scanner;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import com.chess.domain.Color;
 import com.chess.domain.GameState;
-import com.chess.domain.GameStatus;
-import com.chess.domain.Move;
-import com.chess.parser.AlgebraicParser;
-import com.chess.persist.SaveLoadService;
-import com.chess.rules.RulesEngine;
-import com.chess.service.GameService;
-import com.chess.service.MoveService;
+import com.chess.persist.MoveJournal;
 
 public class GameController {
 
-    public static void main(String[] args) {
-        GameState state = new GameState();
-        Scanner scanner = new Scanner(System.in);
-
-        System.out.println("Welcome to Console Chess!");
-        System.out.print("Enter White player's name: ");
-        String whiteName = safeRead(scanner);
-        System.out.print("Enter Black player's name: ");
-        String blackName = safeRead(scanner);
-
-        printHelp();
-
-        while (true) {
-            state.getBoard().printBoard();
-            String currentName = (state.getToMove() == Color.WHITE) ? whiteName : blackName;
-            System.out.println(currentName + " (" + state.getToMove() + ") to move.");
-            System.out.print("Enter move (e.g., e2e4 or e7e8q), 'pip' for legal moves, 'hint' for help, 'save <file>', 'load <file>', or 'q' to quit: ");
-            String input = safeRead(scanner).trim();
-
-            // Quit
-            if (input.equalsIgnoreCase("q") || input.equalsIgnoreCase("quit")) {
-                System.out.println("Game ended. Goodbye!");
-                break;
-            }
-
-            // Help
-            if (input.equalsIgnoreCase("hint")) {
-                printHelp();
-                continue;
-            }
-
-            // pip: list legal moves
-            if (input.equalsIgnoreCase("pip")) {
-                List<Move> moves = RulesEngine.generateLegalMoves(state);
-                String msg = moves.isEmpty()
-                        ? "No legal moves."
-                        : moves.stream().map(Move::toString).sorted().collect(Collectors.joining(" "));
-                System.out.println(msg);
-                continue;
+    private static final String ENGINE_NAME = "Computer";
+
+    /**
+     * Usage: {@code GameController [--journal <dir>] [--engine white|black] [--movetime <ms>]
+     * [--render plain|ansi|quiet] [--record <file>]}.
+     * With a journal directory every move is logged there, and an interrupted game in that
+     * directory is resumed on start. With {@code --engine} the computer plays that color,
+     * thinking {@code --movetime} milliseconds per move and pondering while the human thinks.
+     * {@code --render ansi} keeps the board at the top of the terminal and redraws only the squares
+     * a move changed; {@code --render quiet} shows no board or prompt, for scripted input.
+     * {@code --record} writes every command typed to a file that {@link SessionReplay} can play back.
+     */
+    public static void main(String[] args) throws Exception {
+        Path journalDir = null;
+        Color engineColor = null;
+        long moveTime = EnginePlayer.DEFAULT_MOVE_TIME_MILLIS;
+        BoardRenderer.Mode render = BoardRenderer.Mode.PLAIN;
+        Path record = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--journal":  journalDir = Paths.get(args[i + 1]); break;
+                case "--engine":   engineColor = Color.valueOf(args[i + 1].toUpperCase()); break;
+                case "--movetime": moveTime = Long.parseLong(args[i + 1]); break;
+                case "--render":   render = BoardRenderer.Mode.valueOf(args[i + 1].toUpperCase()); break;
+                case "--record":   record = Paths.get(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
             }
+        }
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
 
-            // --- NEW: Save / Load commands ---
-            if (input.startsWith("save ")) {
-                String fn = input.substring(5).trim();
-                if (fn.isEmpty()) {
-                    System.out.println("Usage: save <filename>");
-                    continue;
-                }
-                try (FileOutputStream fos = new FileOutputStream(fn)) {
-                    SaveLoadService.save(state, fos);
-                    System.out.println("Saved to " + fn);
-                } catch (Exception e) {
-                    System.out.println("Save failed: " + e.getMessage());
-                }
-                continue;
-            }
+        System.out.println("Welcome to Console Chess!");
+        String whiteName = ENGINE_NAME;
+        if (engineColor != Color.WHITE) {
+            System.out.print("Enter White player's name: ");
+            whiteName = safeRead(in);
+        }
+        String blackName = ENGINE_NAME;
+        if (engineColor != Color.BLACK) {
+            System.out.print("Enter Black player's name: ");
+            blackName = safeRead(in);
+        }
 
-            if (input.startsWith("load ")) {
-                String fn = input.substring(5).trim();
-                if (fn.isEmpty()) {
-                    System.out.println("Usage: load <filename>");
-                    continue;
-                }
-                try (FileInputStream fis = new FileInputStream(fn)) {
-                    GameState loaded = SaveLoadService.load(fis);
-                    state = loaded;   // keep player names, but replace the game state
-                    System.out.println("Loaded from " + fn);
-                } catch (Exception e) {
-                    System.out.println("Load failed: " + e.getMessage());
-                }
-                continue;
+        GameState start = new GameState();
+        MoveJournal journal = null;
+        if (journalDir != null) {
+            if (MoveJournal.exists(journalDir)) {
+                MoveJournal.Recovery rec = MoveJournal.recover(journalDir);
+                start = rec.getState();
+                System.out.println("Recovered game from " + journalDir + " at ply " + rec.getPly() + ".");
             }
-            // --- END NEW ---
-
-            // Move input and play
-            try {
-                Move move = AlgebraicParser.parse(input);
-
-                if (!RulesEngine.isLegalMove(state, move)) {
-                    System.out.println("Illegal move. Try again.");
-                    continue;
-                }
-
-                boolean kingCaptured = MoveService.apply(state, move);
-                if (kingCaptured) {
-                    System.out.println("King captured! Winner: " + currentName + " (" + state.getToMove() + ")");
-                    state.getBoard().printBoard();
-                    break;
-                }
-
-                // Switch turn, then assess endgame for the side NOW to move
-                state.switchTurn();
-                GameStatus status = GameService.assessStatus(state);
+            journal = MoveJournal.open(journalDir);
+        }
 
-                if (status == GameStatus.CHECKMATE) {
-                    String winnerName = (state.getToMove() == Color.WHITE) ? blackName : whiteName;
-                    Color winnerColor = GameService.opponentOf(state.getToMove());
-                    state.getBoard().printBoard();
-                    System.out.println("Checkmate! Winner: " + winnerName + " (" + winnerColor + ")");
-                    break;
-                } else if (status == GameStatus.STALEMATE) {
-                    state.getBoard().printBoard();
-                    System.out.println("Stalemate! The game is a draw.");
-                    break;
-                } else if (status == GameStatus.CHECK) {
-                    System.out.println("Check!");
-                }
+        // the session's output is flushed once per prompt rather than on every line
+        System.out.flush();
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 8192), false);
+        GameSession session = new GameSession(whiteName, blackName, out, start);
+        session.setRenderMode(render);
+        if (journal != null) session.attachJournal(journal);
+        if (engineColor != null) session.attachEngine(new EnginePlayer(moveTime), engineColor);
+        session.printHelp();
+
+        Writer recorder = (record != null) ? Files.newBufferedWriter(record, StandardCharsets.UTF_8) : null;
+        try {
+            // a finished game is not resumed on the next start
+            if (run(session, in, recorder) && journal != null) journal.finish();
+        } finally {
+            if (session.getEngine() != null) session.getEngine().cancelPondering();
+            if (journal != null) journal.close();
+            if (recorder != null) recorder.close();
+            session.getRenderer().close();
+            out.flush();
+        }
+    }
 
-            } catch (Exception e) {
-                System.out.println("Invalid input: " + e.getMessage());
+    /**
+     * The command loop: prompt, read a line, run it, until the game ends or the input does.
+     * Plays the engine's opening move first if the engine has White. Every line read is also
+     * written to {@code recorder}, if not null, so the session can be replayed later.
+     *
+     * @return true if the game ended (quit, mate, draw), false if the input ran out first
+     */
+    public static boolean run(GameSession session, BufferedReader in, Writer recorder) throws IOException {
+        if (!session.playEngineMove()) return true;
+        while (true) {
+            session.printPrompt();
+            session.ponder();   // the engine searches its expected reply while we wait for input
+            String line = in.readLine();
+            if (line == null) return false;
+            if (recorder != null) {
+                recorder.write(line);
+                recorder.write('\n');
+                recorder.flush();
             }
+            if (!session.handle(line.trim())) return true;
         }
     }
 
-    private static String safeRead(Scanner sc) {
-        String s = sc.nextLine();
+    private static String safeRead(BufferedReader in) throws IOException {
+        String s = in.readLine();
         return (s == null) ? "" : s;
     }
-
-    private static void printHelp() {
-        System.out.println("Commands:");
-        System.out.println("  - Move: long algebraic like e2e4, e7e8q (promotion to q/r/b/n).");
-        System.out.println("  - pip : list all legal moves for the side to move.");
-        System.out.println("  - hint: show this help.");
-        System.out.println("  - save <file> : save the current game to a text file.");
-        System.out.println("  - load <file> : load a previously saved game from a text file.");
-        System.out.println("  - q   : quit the game.");
-    }
-}
\ No newline at end of file
+}
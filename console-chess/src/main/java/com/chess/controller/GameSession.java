@@ -0,0 +1,394 @@
+package com.chess.controller;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.chess.broadcast.Broadcaster;
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.GameStatus;
+import com.chess.domain.Move;
+import com.chess.domain.PositionSnapshot;
+import com.chess.domain.Zobrist;
+import com.chess.metrics.Metrics;
+import com.chess.parser.AlgebraicParser;
+import com.chess.persist.MoveJournal;
+import com.chess.persist.SaveLoadService;
+import com.chess.rules.RulesEngine;
+import com.chess.service.GameService;
+import com.chess.service.MoveHistory;
+
+/**
+ * One game's worth of controller state: the position, the player names and the moves played.
+ * <p>
+ * {@link #handle(String)} runs a single console command (move, pip, hint, undo, redo, stats, save, load, q)
+ * and writes its output to the session's stream. {@link GameController} drives one
+ * session from stdin; the server package drives many at once. With an {@link EnginePlayer}
+ * attached, the engine answers every human move and ponders while the human thinks.
+ * </p>
+ */
+public class GameSession {
+
+    private GameState state;
+    private volatile PositionSnapshot snapshot;   // republished after every change to state
+    private final String whiteName;
+    private final String blackName;
+    private final PrintStream out;
+    private final List<Move> history = new ArrayList<>();
+    private final MoveHistory moves = new MoveHistory();
+    private boolean finished;
+    private MoveJournal journal;   // null when not journaling
+    private EnginePlayer engine;   // null when both sides are human
+    private Broadcaster broadcaster;   // null when nobody can watch
+    private BoardRenderer renderer;
+    private Color engineColor;
+
+    public GameSession(String whiteName, String blackName, PrintStream out) {
+        this(whiteName, blackName, out, new GameState());
+    }
+
+    /** Starts from a given position, e.g. one recovered from a {@link MoveJournal}. */
+    public GameSession(String whiteName, String blackName, PrintStream out, GameState start) {
+        this.whiteName = whiteName;
+        this.blackName = blackName;
+        this.out = out;
+        this.state = start;
+        this.snapshot = PositionSnapshot.of(start);
+        this.renderer = new BoardRenderer(out, BoardRenderer.Mode.PLAIN);
+    }
+
+    /** How the board is drawn from now on: plain text (the default), ANSI redraws, or not at all. */
+    public void setRenderMode(BoardRenderer.Mode mode) {
+        renderer.close();
+        renderer = new BoardRenderer(out, mode);
+    }
+
+    public BoardRenderer getRenderer() { return renderer; }
+
+    /** Records every applied move (and every loaded position) in {@code journal} from now on. */
+    public void attachJournal(MoveJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Lets {@code engine} play {@code engineColor} from now on. Its moves follow the human's
+     * within {@link #handle(String)}; call {@link #playEngineMove()} if it is already its turn.
+     */
+    public void attachEngine(EnginePlayer engine, Color engineColor) {
+        this.engine = engine;
+        this.engineColor = engineColor;
+    }
+
+    public EnginePlayer getEngine() { return engine; }
+
+    /**
+     * Publishes the current position to {@code broadcaster} now and after every change from now on;
+     * the broadcaster is closed when the game ends.
+     */
+    public void attachBroadcaster(Broadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+        publish();
+    }
+
+    public Broadcaster getBroadcaster() { return broadcaster; }
+
+    public boolean isEngineToMove() {
+        return engine != null && state.getToMove() == engineColor;
+    }
+
+    /** Lets the engine think on the human's time; a no-op unless an engine waits for the human. */
+    public void ponder() {
+        if (engine != null && !finished && !isEngineToMove()) engine.startPondering(state);
+    }
+
+    /**
+     * Plays the engine's move if it is the engine's turn.
+     *
+     * @return false once the game is over
+     */
+    public boolean playEngineMove() {
+        if (finished) return false;
+        if (!isEngineToMove()) return true;
+        Move move = engine.think(state).getBestMove();
+        if (move == null) return true;   // no legal move; the status check after the last move already ended the game
+        out.println("Engine plays " + move + ".");
+        return play(move);
+    }
+
+    public GameState getState() { return state; }
+
+    /**
+     * The current position as an immutable snapshot. Unlike {@link #getState()} this may be read
+     * from any thread while the game goes on: it is replaced, never changed, after each move,
+     * undo, redo and load.
+     */
+    public PositionSnapshot getSnapshot() { return snapshot; }
+    public String getWhiteName() { return whiteName; }
+    public String getBlackName() { return blackName; }
+    public boolean isFinished() { return finished; }
+
+    /** Moves applied since the game started or was last loaded. */
+    public List<Move> getHistory() { return Collections.unmodifiableList(history); }
+
+    public String currentName() {
+        return (state.getToMove() == Color.WHITE) ? whiteName : blackName;
+    }
+
+    /**
+     * Board plus the "to move" prompt shown before each command, then a flush of everything the
+     * last command printed. Quiet mode shows neither.
+     */
+    public void printPrompt() {
+        if (!renderer.isQuiet()) {
+            renderer.render(state.getBoard());
+            out.println(currentName() + " (" + state.getToMove() + ") to move.");
+            out.print("Enter move (e.g., e2e4 or e7e8q), 'pip' for legal moves, 'hint' for help, 'undo', 'redo', 'save <file>', 'load <file>', or 'q' to quit: ");
+        }
+        out.flush();
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @return false once the game is over (quit, king captured, checkmate, stalemate or a draw by rule)
+     */
+    public boolean handle(String input) {
+        if (finished) return false;
+        input = input.trim();
+        if (engine != null) engine.onHumanInput(parseOrNull(input));
+
+        // Quit
+        if (input.equalsIgnoreCase("q") || input.equalsIgnoreCase("quit")) {
+            out.println("Game ended. Goodbye!");
+            return end();
+        }
+
+        // Help
+        if (input.equalsIgnoreCase("hint")) {
+            printHelp();
+            return true;
+        }
+
+        // pip: list legal moves
+        if (input.equalsIgnoreCase("pip")) {
+            List<Move> moves = RulesEngine.generateLegalMoves(state);
+            String msg = moves.isEmpty()
+                    ? "No legal moves."
+                    : moves.stream().map(Move::toString).sorted().collect(Collectors.joining(" "));
+            out.println(msg);
+            return true;
+        }
+
+        // Take back / replay moves
+        if (input.equalsIgnoreCase("undo")) {
+            if (!moves.canUndo()) {
+                out.println("Nothing to undo.");
+                return true;
+            }
+            // against the engine, take back its reply too so the human is to move again
+            do {
+                Move m = moves.undo(state);
+                history.remove(history.size() - 1);
+                PositionSnapshot before = snapshot.getPrevious();
+                snapshot = (before != null && before.getKey() == Zobrist.hash(state)) ? before : PositionSnapshot.of(state);
+                out.println("Undid " + m + ".");
+            } while (isEngineToMove() && moves.canUndo());
+            publish();
+            checkpointJournal();
+            return playEngineMove();   // only when the engine opened the game and that was taken back
+        }
+
+        if (input.equalsIgnoreCase("redo")) {
+            if (!moves.canRedo()) {
+                out.println("Nothing to redo.");
+                return true;
+            }
+            do {
+                Move m = moves.redo(state);
+                history.add(m);
+                snapshot = PositionSnapshot.after(snapshot, state, m);
+                out.println("Redid " + m + ".");
+            } while (isEngineToMove() && moves.canRedo());
+            publish();
+            checkpointJournal();
+            return playEngineMove();
+        }
+
+        // Metrics: stats [on|off|reset|json]
+        if (input.equalsIgnoreCase("stats") || input.toLowerCase().startsWith("stats ")) {
+            String arg = input.substring(5).trim().toLowerCase();
+            switch (arg) {
+                case "":      out.print(Metrics.report()); break;
+                case "on":    Metrics.setEnabled(true); out.println("Metrics on."); break;
+                case "off":   Metrics.setEnabled(false); out.println("Metrics off."); break;
+                case "reset": Metrics.reset(); out.println("Metrics reset."); break;
+                case "json":  out.println(Metrics.snapshotJson()); break;
+                default:      out.println("Usage: stats [on|off|reset|json]");
+            }
+            return true;
+        }
+
+        // Save / Load commands
+        if (input.startsWith("save ")) {
+            String fn = input.substring(5).trim();
+            if (fn.isEmpty()) {
+                out.println("Usage: save <filename>");
+                return true;
+            }
+            try (FileOutputStream fos = new FileOutputStream(fn)) {
+                SaveLoadService.save(state, fos);
+                out.println("Saved to " + fn);
+            } catch (Exception e) {
+                out.println("Save failed: " + e.getMessage());
+            }
+            return true;
+        }
+
+        if (input.startsWith("load ")) {
+            String fn = input.substring(5).trim();
+            if (fn.isEmpty()) {
+                out.println("Usage: load <filename>");
+                return true;
+            }
+            try (FileInputStream fis = new FileInputStream(fn)) {
+                GameState loaded = SaveLoadService.load(fis);
+                state = loaded;   // keep player names, but replace the game state
+                history.clear();
+                moves.clear();
+                snapshot = PositionSnapshot.of(state);
+                publish();
+                if (journal != null) journal.checkpoint(state);
+                out.println("Loaded from " + fn);
+            } catch (Exception e) {
+                out.println("Load failed: " + e.getMessage());
+                return true;
+            }
+            return playEngineMove();
+        }
+
+        // Move input and play
+        try {
+            Move move = AlgebraicParser.parse(input);
+
+            if (!RulesEngine.isLegalMove(state, move)) {
+                out.println("Illegal move. Try again.");
+                return true;
+            }
+
+            if (!play(move)) return false;
+            return playEngineMove();
+        } catch (Exception e) {
+            out.println("Invalid input: " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Applies a legal move for the side to move, journals it and reports the resulting status.
+     *
+     * @return false once the game is over
+     */
+    private boolean play(Move move) {
+        String currentName = currentName();
+        Color mover = state.getToMove();
+        boolean kingCaptured = moves.play(state, move);   // also passes the turn
+        history.add(move);
+        snapshot = PositionSnapshot.after(snapshot, state, move);
+        journal(move);
+        if (kingCaptured) {
+            publish(null);
+            out.println("King captured! Winner: " + currentName + " (" + mover + ")");
+            renderer.render(state.getBoard());
+            return end();
+        }
+
+        // Assess endgame for the side NOW to move
+        GameStatus status = GameService.assessStatus(state);
+        publish(status);
+
+        if (status == GameStatus.CHECKMATE) {
+            String winnerName = (state.getToMove() == Color.WHITE) ? blackName : whiteName;
+            Color winnerColor = GameService.opponentOf(state.getToMove());
+            renderer.render(state.getBoard());
+            out.println("Checkmate! Winner: " + winnerName + " (" + winnerColor + ")");
+            return end();
+        } else if (status == GameStatus.STALEMATE) {
+            renderer.render(state.getBoard());
+            out.println("Stalemate! The game is a draw.");
+            return end();
+        } else if (status == GameStatus.THREEFOLD_REPETITION) {
+            renderer.render(state.getBoard());
+            out.println("Threefold repetition! The game is a draw.");
+            return end();
+        } else if (status == GameStatus.FIFTY_MOVE_RULE) {
+            renderer.render(state.getBoard());
+            out.println("Fifty moves without a capture or pawn move! The game is a draw.");
+            return end();
+        } else if (status == GameStatus.CHECK) {
+            out.println("Check!");
+        }
+        return true;
+    }
+
+    /** Sends the current snapshot to the broadcaster, if any, with its status. */
+    private void publish() {
+        if (broadcaster != null) publish(GameService.assessStatus(state));
+    }
+
+    private void publish(GameStatus status) {
+        if (broadcaster != null) broadcaster.publish(snapshot, status);
+    }
+
+    private static Move parseOrNull(String input) {
+        try {
+            return AlgebraicParser.parse(input);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void journal(Move move) {
+        if (journal == null) return;
+        try {
+            journal.append(move, state);
+        } catch (Exception e) {
+            out.println("Journal write failed: " + e.getMessage());
+        }
+    }
+
+    /** The journal log only grows, so a taken-back or replayed move is recorded as a fresh checkpoint. */
+    private void checkpointJournal() {
+        if (journal == null) return;
+        try {
+            journal.checkpoint(state);
+        } catch (Exception e) {
+            out.println("Journal write failed: " + e.getMessage());
+        }
+    }
+
+    private boolean end() {
+        finished = true;
+        if (engine != null) engine.cancelPondering();
+        if (broadcaster != null) broadcaster.close();
+        renderer.close();
+        out.flush();
+        return false;
+    }
+
+    public void printHelp() {
+        out.println("Commands:");
+        out.println("  - Move: long algebraic like e2e4, e7e8q (promotion to q/r/b/n).");
+        out.println("  - pip : list all legal moves for the side to move.");
+        out.println("  - hint: show this help.");
+        out.println("  - undo / redo : take back the last move / play it again.");
+        out.println("  - stats [on|off|reset|json] : rules-layer counters and latencies.");
+        out.println("  - save <file> : save the current game to a text file.");
+        out.println("  - load <file> : load a previously saved game from a text file.");
+        out.println("  - q   : quit the game.");
+    }
+}
@@ -0,0 +1,306 @@
+package com.chess.controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.chess.metrics.LatencyHistogram;
+import com.chess.parser.FenParser;
+
+/**
+ * Replays recorded console sessions through {@link GameController#run}, the loop the console
+ * itself uses, and measures every command end to end: parsing, validation, move application,
+ * status checks, save/load, drawing the next prompt and starting any ponder search. A command's
+ * time runs from the moment the loop is handed its line until it asks for the next one.
+ * <p>
+ * A script is a text file with one command per line, as typed at the prompt (what
+ * {@code GameController --record} writes); blank lines and lines starting with {@code #} are
+ * skipped, and {@code {tmp}} is replaced by a scratch directory so save/load commands do not
+ * touch the working directory. Each script is played from the initial position in a fresh
+ * session, {@link #setWarmup(int) warm-up} rounds first, then the measured ones. Every round of
+ * a script has to end in the same position, so a change in behaviour fails the replay instead of
+ * skewing its numbers.
+ * </p>
+ * <pre>
+ * java -cp target/classes com.chess.controller.SessionReplay [--iterations 20] [--warmup 5]
+ *     [--render quiet|plain|ansi] [script file or directory ...]
+ * </pre>
+ * Without scripts the bundled {@code replay-default.txt} game is played.
+ */
+public final class SessionReplay {
+
+    /** Command groups reported separately. */
+    public enum Kind { MOVE, PIP, UNDO, REDO, SAVE, LOAD, STATS, OTHER }
+
+    public static final String BUILTIN_SCRIPT = "replay-default.txt";
+
+    private int iterations = 10;
+    private int warmup = 3;
+    private BoardRenderer.Mode render = BoardRenderer.Mode.QUIET;
+
+    public SessionReplay setIterations(int iterations) {
+        if (iterations < 1) throw new IllegalArgumentException("iterations must be >= 1");
+        this.iterations = iterations;
+        return this;
+    }
+
+    public SessionReplay setWarmup(int warmup) {
+        if (warmup < 0) throw new IllegalArgumentException("warmup must be >= 0");
+        this.warmup = warmup;
+        return this;
+    }
+
+    /** How each session draws its board; the output goes to a byte counter. Quiet by default. */
+    public SessionReplay setRender(BoardRenderer.Mode render) {
+        this.render = render;
+        return this;
+    }
+
+    /** One recorded session. */
+    public static final class Script {
+        private final String name;
+        private final List<String> commands;
+
+        public Script(String name, List<String> commands) {
+            this.name = name;
+            this.commands = Collections.unmodifiableList(new ArrayList<>(commands));
+        }
+
+        public String getName() { return name; }
+        public List<String> getCommands() { return commands; }
+
+        /** Parses script text: one command per line, without blank lines and {@code #} comments. */
+        public static Script parse(String name, String text) {
+            List<String> commands = new ArrayList<>();
+            for (String line : text.split("\r?\n")) {
+                String t = line.trim();
+                if (!t.isEmpty() && !t.startsWith("#")) commands.add(t);
+            }
+            return new Script(name, commands);
+        }
+
+        public static Script load(Path file) throws IOException {
+            return parse(file.getFileName().toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        }
+
+        /** The script shipped with the game. */
+        public static Script builtin() throws IOException {
+            try (InputStream in = SessionReplay.class.getResourceAsStream(BUILTIN_SCRIPT)) {
+                if (in == null) throw new IOException("Missing resource " + BUILTIN_SCRIPT);
+                return parse(BUILTIN_SCRIPT, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /** Latencies and totals of the measured rounds. */
+    public static final class Result {
+        private final Map<Kind, LatencyHistogram> byKind = new EnumMap<>(Kind.class);
+        private final LatencyHistogram all = new LatencyHistogram("all");
+        private final Map<String, String> finalFens = new LinkedHashMap<>();
+        private long elapsedNanos;
+        private long outputBytes;
+
+        Result() {
+            for (Kind k : Kind.values()) byKind.put(k, new LatencyHistogram(k.name().toLowerCase(Locale.ROOT)));
+        }
+
+        /** Commands measured, over all scripts and rounds. */
+        public long getCommands() { return all.getCount(); }
+
+        /** Wall time of the measured rounds. */
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /** Bytes the sessions printed during the measured rounds. */
+        public long getOutputBytes() { return outputBytes; }
+
+        public double getCommandsPerSecond() {
+            return (elapsedNanos == 0) ? 0.0 : getCommands() * 1e9 / elapsedNanos;
+        }
+
+        /** Latencies of every command. */
+        public LatencyHistogram getLatency() { return all; }
+
+        public LatencyHistogram getLatency(Kind kind) { return byKind.get(kind); }
+
+        /** FEN of the position each script ended in, by script name. */
+        public Map<String, String> getFinalFens() { return Collections.unmodifiableMap(finalFens); }
+
+        /** One line per command kind seen, latencies in microseconds, then the totals. */
+        public void report(PrintStream out) {
+            out.printf(Locale.ROOT, "%-8s %8s %9s %9s %9s %9s %9s %9s%n",
+                       "command", "count", "mean us", "p50", "p90", "p99", "p99.9", "max");
+            for (Kind k : Kind.values()) {
+                LatencyHistogram h = byKind.get(k);
+                if (h.getCount() > 0) line(out, h.getName(), h);
+            }
+            line(out, "all", all);
+            out.printf(Locale.ROOT, "%,d commands in %.3f s: %,.0f commands/sec, %,d bytes of output%n",
+                       getCommands(), elapsedNanos / 1e9, getCommandsPerSecond(), outputBytes);
+        }
+
+        private static void line(PrintStream out, String name, LatencyHistogram h) {
+            out.printf(Locale.ROOT, "%-8s %8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", name, h.getCount(),
+                       h.getMean() / 1e3, h.getPercentile(50) / 1e3, h.getPercentile(90) / 1e3,
+                       h.getPercentile(99) / 1e3, h.getPercentile(99.9) / 1e3, h.getMax() / 1e3);
+        }
+    }
+
+    /**
+     * Plays every script {@code warmup + iterations} times and returns the measurements of the
+     * last {@code iterations} rounds.
+     *
+     * @throws IllegalStateException if a script does not end in the same position every round
+     */
+    public Result run(List<Script> scripts) throws IOException {
+        Result result = new Result();
+        Path tmp = Files.createTempDirectory("chess-replay");
+        try {
+            for (int round = 0; round < warmup + iterations; round++) {
+                boolean measured = round >= warmup;
+                for (Script script : scripts) {
+                    String fen = play(script, tmp, measured ? result : null);
+                    String before = result.finalFens.putIfAbsent(script.getName(), fen);
+                    if (before != null && !before.equals(fen)) {
+                        throw new IllegalStateException("Replay of " + script.getName() + " diverged: ended in "
+                                                        + fen + " after " + before);
+                    }
+                }
+            }
+        } finally {
+            deleteTree(tmp);
+        }
+        return result;
+    }
+
+    /** Plays one script in a fresh session, recording into {@code result} unless it is null. */
+    private String play(Script script, Path tmp, Result result) throws IOException {
+        ByteCounter sink = new ByteCounter();
+        PrintStream out = new PrintStream(sink, false, StandardCharsets.UTF_8);
+        GameSession session = new GameSession("White", "Black", out);
+        session.setRenderMode(render);
+        String dir = tmp.toString();
+        List<String> lines = new ArrayList<>(script.getCommands().size());
+        for (String command : script.getCommands()) lines.add(command.replace("{tmp}", dir));
+
+        ScriptReader in = new ScriptReader(lines, result);
+        long start = System.nanoTime();
+        GameController.run(session, in, null);
+        in.endCommand(System.nanoTime());   // the command that ended the game, if one did
+        session.getRenderer().close();
+        out.flush();
+        if (result != null) {
+            result.elapsedNanos += System.nanoTime() - start;
+            result.outputBytes += sink.count;
+        }
+        return FenParser.format(session.getState());
+    }
+
+    /** The group a command line is reported under. */
+    static Kind classify(String line) {
+        String l = line.toLowerCase(Locale.ROOT);
+        if (l.equals("pip")) return Kind.PIP;
+        if (l.equals("undo")) return Kind.UNDO;
+        if (l.equals("redo")) return Kind.REDO;
+        if (l.startsWith("save ")) return Kind.SAVE;
+        if (l.startsWith("load ")) return Kind.LOAD;
+        if (l.equals("stats") || l.startsWith("stats ")) return Kind.STATS;
+        if (l.length() >= 4 && l.length() <= 5 && Character.isLetter(l.charAt(0)) && Character.isDigit(l.charAt(1))) {
+            return Kind.MOVE;   // legal or not: an illegal move still goes through parsing and validation
+        }
+        return Kind.OTHER;
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) Files.deleteIfExists(p);
+        }
+    }
+
+    /**
+     * Hands a script to {@link GameController#run} one line at a time and times each command
+     * from the moment its line is returned until the loop asks for the next line.
+     */
+    private static final class ScriptReader extends BufferedReader {
+        private final List<String> lines;
+        private final Result result;   // null: not measured
+        private int next;
+        private String current;
+        private long handedOut;
+
+        ScriptReader(List<String> lines, Result result) {
+            super(Reader.nullReader());
+            this.lines = lines;
+            this.result = result;
+        }
+
+        @Override
+        public String readLine() {
+            endCommand(System.nanoTime());
+            if (next == lines.size()) return null;
+            current = lines.get(next++);
+            handedOut = System.nanoTime();
+            return current;
+        }
+
+        void endCommand(long now) {
+            if (current != null && result != null) {
+                long dt = now - handedOut;
+                result.all.record(dt);
+                result.byKind.get(classify(current)).record(dt);
+            }
+            current = null;
+        }
+    }
+
+    /** Discards output, counting it. */
+    private static final class ByteCounter extends OutputStream {
+        long count;
+
+        @Override public void write(int b) { count++; }
+        @Override public void write(byte[] b, int off, int len) { count += len; }
+    }
+
+    public static void main(String[] args) throws Exception {
+        SessionReplay replay = new SessionReplay();
+        List<Script> scripts = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--iterations": replay.setIterations(Integer.parseInt(args[++i])); break;
+                case "--warmup":     replay.setWarmup(Integer.parseInt(args[++i])); break;
+                case "--render":     replay.setRender(BoardRenderer.Mode.valueOf(args[++i].toUpperCase(Locale.ROOT))); break;
+                default:
+                    if (args[i].startsWith("--")) throw new IllegalArgumentException("Unknown option: " + args[i]);
+                    Path p = Paths.get(args[i]);
+                    if (Files.isDirectory(p)) {
+                        try (Stream<Path> files = Files.list(p)) {
+                            for (Path f : files.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                                scripts.add(Script.load(f));
+                            }
+                        }
+                    } else {
+                        scripts.add(Script.load(p));
+                    }
+            }
+        }
+        if (scripts.isEmpty()) scripts.add(Script.builtin());
+        Result r = replay.run(scripts);
+        r.report(System.out);
+    }
+}
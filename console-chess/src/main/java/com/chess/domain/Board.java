@@ -1,7 +1,21 @@
 package com.chess.domain;
 
+import java.io.PrintStream;
+import java.util.Arrays;
+
 public class Board {
     private final Piece[][] squares = new Piece[8][8];
+    private long pieceKey;   // Zobrist keys of all pieces, kept up to date by setPiece
+    private long pawnKey;    // the same, pawns only
+    private final long[] bitboards = new long[12];   // by Zobrist.pieceIndex, bit rank * 8 + file
+    private long occupied;
+    private BoardListener[] listeners = NO_LISTENERS;
+
+    private static final BoardListener[] NO_LISTENERS = new BoardListener[0];
+    private static final String[] CELLS = new String[12];   // printBoard text by Zobrist.pieceIndex
+    static {
+        for (int i = 0; i < 12; i++) CELLS[i] = Piece.fromIndex(i) + " ";
+    }
 
     public Board() {
         setupInitial();
@@ -10,30 +24,30 @@ public class Board {
     private void setupInitial() {
         // Pawns
         for(int i=0;i<8;i++) {
-            squares[1][i] = new Piece(PieceType.PAWN, Color.WHITE);
-            squares[6][i] = new Piece(PieceType.PAWN, Color.BLACK);
+            setPiece(i, 1, new Piece(PieceType.PAWN, Color.WHITE));
+            setPiece(i, 6, new Piece(PieceType.PAWN, Color.BLACK));
         }
         // Rooks
-        squares[0][0] = new Piece(PieceType.ROOK, Color.WHITE);
-        squares[0][7] = new Piece(PieceType.ROOK, Color.WHITE);
-        squares[7][0] = new Piece(PieceType.ROOK, Color.BLACK);
-        squares[7][7] = new Piece(PieceType.ROOK, Color.BLACK);
+        setPiece(0, 0, new Piece(PieceType.ROOK, Color.WHITE));
+        setPiece(7, 0, new Piece(PieceType.ROOK, Color.WHITE));
+        setPiece(0, 7, new Piece(PieceType.ROOK, Color.BLACK));
+        setPiece(7, 7, new Piece(PieceType.ROOK, Color.BLACK));
         // Knights
-        squares[0][1] = new Piece(PieceType.KNIGHT, Color.WHITE);
-        squares[0][6] = new Piece(PieceType.KNIGHT, Color.WHITE);
-        squares[7][1] = new Piece(PieceType.KNIGHT, Color.BLACK);
-        squares[7][6] = new Piece(PieceType.KNIGHT, Color.BLACK);
+        setPiece(1, 0, new Piece(PieceType.KNIGHT, Color.WHITE));
+        setPiece(6, 0, new Piece(PieceType.KNIGHT, Color.WHITE));
+        setPiece(1, 7, new Piece(PieceType.KNIGHT, Color.BLACK));
+        setPiece(6, 7, new Piece(PieceType.KNIGHT, Color.BLACK));
         // Bishops
-        squares[0][2] = new Piece(PieceType.BISHOP, Color.WHITE);
-        squares[0][5] = new Piece(PieceType.BISHOP, Color.WHITE);
-        squares[7][2] = new Piece(PieceType.BISHOP, Color.BLACK);
-        squares[7][5] = new Piece(PieceType.BISHOP, Color.BLACK);
+        setPiece(2, 0, new Piece(PieceType.BISHOP, Color.WHITE));
+        setPiece(5, 0, new Piece(PieceType.BISHOP, Color.WHITE));
+        setPiece(2, 7, new Piece(PieceType.BISHOP, Color.BLACK));
+        setPiece(5, 7, new Piece(PieceType.BISHOP, Color.BLACK));
         // Queens
-        squares[0][3] = new Piece(PieceType.QUEEN, Color.WHITE);
-        squares[7][3] = new Piece(PieceType.QUEEN, Color.BLACK);
+        setPiece(3, 0, new Piece(PieceType.QUEEN, Color.WHITE));
+        setPiece(3, 7, new Piece(PieceType.QUEEN, Color.BLACK));
         // Kings
-        squares[0][4] = new Piece(PieceType.KING, Color.WHITE);
-        squares[7][4] = new Piece(PieceType.KING, Color.BLACK);
+        setPiece(4, 0, new Piece(PieceType.KING, Color.WHITE));
+        setPiece(4, 7, new Piece(PieceType.KING, Color.BLACK));
     }
 
     public Piece getPiece(Square square) {
@@ -41,18 +55,89 @@ public class Board {
     }
 
     public void setPiece(Square square, Piece piece) {
-        squares[square.getRank()][square.getFile()] = piece;
+        setPiece(square.getFile(), square.getRank(), piece);
+    }
+
+    public Piece getPiece(int file, int rank) {
+        return squares[rank][file];
+    }
+
+    public void setPiece(int file, int rank, Piece piece) {
+        Piece old = squares[rank][file];
+        long bit = 1L << (rank * 8 + file);
+        if (old != null) {
+            long k = Zobrist.pieceKey(old, file, rank);
+            pieceKey ^= k;
+            if (old.getType() == PieceType.PAWN) pawnKey ^= k;
+            bitboards[Zobrist.pieceIndex(old)] &= ~bit;
+            occupied &= ~bit;
+        }
+        if (piece != null) {
+            long k = Zobrist.pieceKey(piece, file, rank);
+            pieceKey ^= k;
+            if (piece.getType() == PieceType.PAWN) pawnKey ^= k;
+            bitboards[Zobrist.pieceIndex(piece)] |= bit;
+            occupied |= bit;
+        }
+        squares[rank][file] = piece;
+        for (BoardListener l : listeners) l.pieceChanged(file, rank, old, piece);
+    }
+
+    public void addListener(BoardListener listener) {
+        BoardListener[] next = Arrays.copyOf(listeners, listeners.length + 1);
+        next[listeners.length] = listener;
+        listeners = next;
+    }
+
+    public void removeListener(BoardListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                BoardListener[] next = new BoardListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, next, 0, i);
+                System.arraycopy(listeners, i + 1, next, i, next.length - i);
+                listeners = next;
+                return;
+            }
+        }
+    }
+
+    /** XOR of the Zobrist keys of every piece on the board, maintained incrementally. */
+    public long getPieceKey() {
+        return pieceKey;
+    }
+
+    /** Zobrist key of the pawns alone; changes only on pawn moves, pawn captures and promotions. */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /** Squares holding this kind of piece, as a bitboard (bit rank * 8 + file), maintained incrementally. */
+    public long getBitboard(PieceType type, Color color) {
+        return bitboards[color.ordinal() * 6 + type.ordinal()];
+    }
+
+    /** Squares holding any piece, as a bitboard. */
+    public long getOccupied() {
+        return occupied;
     }
 
     public void printBoard() {
+        printBoard(System.out);
+    }
+
+    /** Writes the board as text in one piece; see {@code BoardRenderer} for repeated drawing. */
+    public void printBoard(PrintStream out) {
+        StringBuilder sb = new StringBuilder(256);
+        String nl = System.lineSeparator();
         for(int r=7;r>=0;r--) {
-            System.out.print((r+1) + " ");
+            sb.append(r+1).append(' ');
             for(int f=0;f<8;f++) {
                 Piece p = squares[r][f];
-                System.out.print(p == null ? "-- " : p + " ");
+                sb.append(p == null ? "-- " : CELLS[Zobrist.pieceIndex(p)]);
             }
-            System.out.println();
+            sb.append(nl);
         }
-        System.out.println("   a  b  c  d  e  f  g  h");
+        sb.append("   a  b  c  d  e  f  g  h").append(nl);
+        out.print(sb);
     }
 }
\ No newline at end of file
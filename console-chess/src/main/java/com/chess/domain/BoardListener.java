@@ -0,0 +1,12 @@
+package com.chess.domain;
+
+/**
+ * Told about every change {@link Board#setPiece(int, int, Piece)} makes, so derived terms
+ * (evaluation sums, feature accumulators) can be kept up to date instead of rescanning the board.
+ * Moves, take-backs, promotions, castling and en passant all come through as square changes.
+ */
+public interface BoardListener {
+
+    /** {@code removed} and {@code placed} are null for an empty square. */
+    void pieceChanged(int file, int rank, Piece removed, Piece placed);
+}
@@ -17,6 +17,19 @@ public final class CastlingRights {
     public void revokeBlackKingSide()  { blackKingSide = false; }
     public void revokeBlackQueenSide() { blackQueenSide = false; }
 
+    /** Bits K=1, Q=2, k=4, q=8. */
+    public int toMask() {
+        return (whiteKingSide ? 1 : 0) | (whiteQueenSide ? 2 : 0) | (blackKingSide ? 4 : 0) | (blackQueenSide ? 8 : 0);
+    }
+
+    /** Restores rights saved with {@link #toMask()}, e.g. when a move is taken back. */
+    public void restore(int mask) {
+        whiteKingSide = (mask & 1) != 0;
+        whiteQueenSide = (mask & 2) != 0;
+        blackKingSide = (mask & 4) != 0;
+        blackQueenSide = (mask & 8) != 0;
+    }
+
     /** Revoke both rights for a color when its king moves. */
     public void revokeBoth(Color color) {
         if (color == Color.WHITE) { whiteKingSide = false; whiteQueenSide = false; }
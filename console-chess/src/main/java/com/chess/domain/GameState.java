@@ -1,5 +1,7 @@
 package com.chess.domain;
 
+import com.chess.metrics.Metrics;
+
 public class GameState {
     private final Board board;
     private Color toMove;
@@ -9,6 +11,10 @@ public class GameState {
     private Square enPassantSquare;        // null if none
     private Color enPassantFor;            // side eligible to capture EP/ opponent of last double-step(null if none)
 
+    // Draw bookkeeping
+    private int halfmoveClock;             // plies since the last capture or pawn move
+    private PositionHistory history = new PositionHistory();
+
     public GameState() {
         this(new Board(), Color.WHITE, new CastlingRights(), null, null);
     }
@@ -39,8 +45,18 @@ public class GameState {
     public Color getEnPassantFor() { return enPassantFor; }
     public void setEnPassantFor(Color c) { this.enPassantFor = c; }
 
-    /** Deep copy helper used by MoveValidator simulation. */
+    public int getHalfmoveClock() { return halfmoveClock; }
+    public void setHalfmoveClock(int plies) { this.halfmoveClock = plies; }
+
+    /** Keys of earlier positions, maintained by MoveService. */
+    public PositionHistory getHistory() { return history; }
+
+    /**
+     * Deep copy helper used by MoveValidator simulation. The copy keeps the halfmove clock but
+     * starts with an empty position history; see {@link #copyWithHistory(GameState)}.
+     */
     public static GameState deepCopy(GameState original) {
+        Metrics.DEEP_COPIES.increment();
         Board ob = original.getBoard();
         Board nb = new Board();
         for (int r = 0; r < 8; r++) {
@@ -55,17 +71,21 @@ public class GameState {
         if (!original.getRights().canBlackKingSide())  nr.revokeBlackKingSide();
         if (!original.getRights().canBlackQueenSide()) nr.revokeBlackQueenSide();
 
-        return new GameState(
+        GameState copy = new GameState(
                 nb,
                 original.getToMove(),
                 nr,
                 original.getEnPassantSquare(), // EP square can be reused (Square is immutable in your design)
                 original.getEnPassantFor()
         );
+        copy.halfmoveClock = original.halfmoveClock;
+        return copy;
     }
-}
-
-
-
-fdgndfjfdjfdjkfd
 
+    /** Deep copy that also carries the position history, for anything that must see repetitions (e.g. search). */
+    public static GameState copyWithHistory(GameState original) {
+        GameState copy = deepCopy(original);
+        copy.history = original.history.copy();
+        return copy;
+    }
+}
@@ -4,5 +4,7 @@ public enum GameStatus {
     IN_PROGRESS,
     CHECK,
     CHECKMATE,
-    STALEMATE
+    STALEMATE,
+    THREEFOLD_REPETITION,
+    FIFTY_MOVE_RULE
 }
\ No newline at end of file
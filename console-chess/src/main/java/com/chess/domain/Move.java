@@ -22,6 +22,32 @@ public class Move {
     public PieceType getPromotion() { return promotion; }
     public boolean isPromotion() { return promotion != null; }
 
+    /** Packs the move into 15 bits: from (6) | to (6) | promotion (3, 0 = none). Never 0 for a real move. */
+    public int pack() {
+        int promo = (promotion == null) ? 0 : switch (promotion) {
+            case QUEEN -> 1;
+            case ROOK -> 2;
+            case BISHOP -> 3;
+            case KNIGHT -> 4;
+            default -> 1;
+        };
+        return from.index() | (to.index() << 6) | (promo << 12);
+    }
+
+    /** Inverse of {@link #pack()}. */
+    public static Move unpack(int packed) {
+        int from = packed & 63;
+        int to = (packed >>> 6) & 63;
+        PieceType promo = switch ((packed >>> 12) & 7) {
+            case 1 -> PieceType.QUEEN;
+            case 2 -> PieceType.ROOK;
+            case 3 -> PieceType.BISHOP;
+            case 4 -> PieceType.KNIGHT;
+            default -> null;
+        };
+        return new Move(Square.at(from), Square.at(to), promo);
+    }
+
     @Override
     public String toString() {
         String base = from.toString() + to.toString();
@@ -0,0 +1,211 @@
+package com.chess.domain;
+
+/**
+ * A position in 32 bytes: four {@code long}s and no other objects, for holding millions of
+ * positions at once (see {@link PackedPositionArena}).
+ * <p>
+ * Layout:
+ * </p>
+ * <ul>
+ *   <li>word 0: occupancy bitboard, bit {@code rank * 8 + file};</li>
+ *   <li>words 1 and 2: one 4-bit {@link Zobrist#pieceIndex(Piece)} per occupied square, in square
+ *       order, up to 32 pieces (word 1 holds the first sixteen);</li>
+ *   <li>word 3: side to move (bit 0), castling mask as {@link CastlingRights#toMask()} (bits 1-4),
+ *       en passant square plus one (bits 5-11, 0 for none), the side en passant is open for
+ *       (bits 12-13: 0 none, 1 White, 2 Black) and the halfmove clock (bits 16-31).</li>
+ * </ul>
+ * Unused bits are always zero, so two packed positions are equal exactly when their words are,
+ * and {@link #equals(Object)} and {@link #hashCode()} only look at the words. Conversion to and
+ * from {@link GameState} keeps everything but the repetition history.
+ *
+ * Example usage:
+ * <pre>
+ * PackedPosition p = PackedPosition.of(state);
+ * GameState copy = p.toGameState();      // same board, side, rights, en passant and clock
+ * </pre>
+ */
+public final class PackedPosition {
+
+    /** Longs per position. */
+    public static final int WORDS = 4;
+    public static final int MAX_PIECES = 32;
+    public static final int MAX_HALFMOVE_CLOCK = 0xFFFF;
+
+    private final long occupied;
+    private final long pieces0;
+    private final long pieces1;
+    private final long meta;
+
+    private PackedPosition(long occupied, long pieces0, long pieces1, long meta) {
+        this.occupied = occupied;
+        this.pieces0 = pieces0;
+        this.pieces1 = pieces1;
+        this.meta = meta;
+    }
+
+    /**
+     * Packs {@code state}.
+     *
+     * @throws IllegalArgumentException with more than {@link #MAX_PIECES} pieces on the board or a
+     *         halfmove clock outside 0..{@link #MAX_HALFMOVE_CLOCK}
+     */
+    public static PackedPosition of(GameState state) {
+        long[] w = new long[WORDS];
+        pack(state, w, 0);
+        return new PackedPosition(w[0], w[1], w[2], w[3]);
+    }
+
+    /** The position stored at {@code offset} in {@code words}, as written by {@link #writeTo(long[], int)}. */
+    public static PackedPosition of(long[] words, int offset) {
+        return new PackedPosition(words[offset], words[offset + 1], words[offset + 2], words[offset + 3]);
+    }
+
+    /** Packs {@code state} straight into {@code words[offset..offset + 3]}, without a PackedPosition. */
+    public static void pack(GameState state, long[] words, int offset) {
+        Board b = state.getBoard();
+        long occ = b.getOccupied();
+        if (Long.bitCount(occ) > MAX_PIECES) {
+            throw new IllegalArgumentException("More than " + MAX_PIECES + " pieces on the board");
+        }
+        int clock = state.getHalfmoveClock();
+        if (clock < 0 || clock > MAX_HALFMOVE_CLOCK) throw new IllegalArgumentException("Halfmove clock out of range: " + clock);
+
+        long p0 = 0, p1 = 0;
+        int n = 0;
+        for (long rest = occ; rest != 0; rest &= rest - 1, n++) {
+            int sq = Long.numberOfTrailingZeros(rest);
+            long code = Zobrist.pieceIndex(b.getPiece(sq & 7, sq >>> 3));
+            if (n < 16) p0 |= code << (n * 4);
+            else p1 |= code << ((n - 16) * 4);
+        }
+        Square ep = state.getEnPassantSquare();
+        Color epFor = state.getEnPassantFor();
+        long meta = (state.getToMove() == Color.BLACK ? 1L : 0L)
+                  | (long) state.getRights().toMask() << 1
+                  | (long) (ep == null ? 0 : ep.index() + 1) << 5
+                  | (long) (epFor == null ? 0 : epFor.ordinal() + 1) << 12
+                  | (long) clock << 16;
+        words[offset] = occ;
+        words[offset + 1] = p0;
+        words[offset + 2] = p1;
+        words[offset + 3] = meta;
+    }
+
+    /** Copies the four words into {@code words[offset..offset + 3]}. */
+    public void writeTo(long[] words, int offset) {
+        words[offset] = occupied;
+        words[offset + 1] = pieces0;
+        words[offset + 2] = pieces1;
+        words[offset + 3] = meta;
+    }
+
+    /** Word {@code i} (0 to 3) of the layout above. */
+    public long getWord(int i) {
+        switch (i) {
+            case 0:  return occupied;
+            case 1:  return pieces0;
+            case 2:  return pieces1;
+            case 3:  return meta;
+            default: throw new IndexOutOfBoundsException("word " + i);
+        }
+    }
+
+    public long getOccupied() { return occupied; }
+    public int getPieceCount() { return Long.bitCount(occupied); }
+
+    public Piece getPiece(int file, int rank) {
+        int sq = rank * 8 + file;
+        long bit = 1L << sq;
+        if ((occupied & bit) == 0) return null;
+        int n = Long.bitCount(occupied & (bit - 1));   // pieces on lower squares
+        long word = (n < 16) ? pieces0 : pieces1;
+        return Piece.fromIndex((int) (word >>> ((n & 15) * 4)) & 0xF);
+    }
+
+    public Color getToMove() { return toMove(meta); }
+    public int getCastlingMask() { return castlingMask(meta); }
+    public Square getEnPassantSquare() { return enPassantSquare(meta); }
+    public Color getEnPassantFor() { return enPassantFor(meta); }
+    public int getHalfmoveClock() { return halfmoveClock(meta); }
+
+    private static Color toMove(long meta) {
+        return ((meta & 1) == 0) ? Color.WHITE : Color.BLACK;
+    }
+
+    private static int castlingMask(long meta) {
+        return (int) (meta >>> 1) & 0xF;
+    }
+
+    private static Square enPassantSquare(long meta) {
+        int ep = (int) (meta >>> 5) & 0x7F;
+        return (ep == 0) ? null : Square.at(ep - 1);
+    }
+
+    private static Color enPassantFor(long meta) {
+        int c = (int) (meta >>> 12) & 0x3;
+        return (c == 0) ? null : Color.values()[c - 1];
+    }
+
+    private static int halfmoveClock(long meta) {
+        return (int) (meta >>> 16) & 0xFFFF;
+    }
+
+    /** A new mutable position equal to this one (its repetition history starts empty). */
+    public GameState toGameState() {
+        return toGameState(occupied, pieces0, pieces1, meta);
+    }
+
+    /** {@link #toGameState()} for a position stored as four words. */
+    public static GameState toGameState(long[] words, int offset) {
+        return toGameState(words[offset], words[offset + 1], words[offset + 2], words[offset + 3]);
+    }
+
+    private static GameState toGameState(long occupied, long pieces0, long pieces1, long meta) {
+        Board b = new Board();
+        for (int sq = 0; sq < 64; sq++) {
+            if (b.getPiece(sq & 7, sq >>> 3) != null) b.setPiece(sq & 7, sq >>> 3, null);
+        }
+        int n = 0;
+        for (long rest = occupied; rest != 0; rest &= rest - 1, n++) {
+            int sq = Long.numberOfTrailingZeros(rest);
+            long word = (n < 16) ? pieces0 : pieces1;
+            b.setPiece(sq & 7, sq >>> 3, Piece.fromIndex((int) (word >>> ((n & 15) * 4)) & 0xF));
+        }
+        CastlingRights rights = new CastlingRights();
+        rights.restore(castlingMask(meta));
+        GameState state = new GameState(b, toMove(meta), rights, enPassantSquare(meta), enPassantFor(meta));
+        state.setHalfmoveClock(halfmoveClock(meta));
+        return state;
+    }
+
+    /** Hash of four position words; what {@link #hashCode()} uses, exposed for stores of raw words. */
+    public static long hash(long occupied, long pieces0, long pieces1, long meta) {
+        long h = occupied * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 29) ^ pieces0) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 29) ^ pieces1) * 0x94D049BB133111EBL;
+        h = (h ^ (h >>> 29) ^ meta) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    public long hash64() {
+        return hash(occupied, pieces0, pieces1, meta);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PackedPosition)) return false;
+        PackedPosition p = (PackedPosition) o;
+        return occupied == p.occupied && pieces0 == p.pieces0 && pieces1 == p.pieces1 && meta == p.meta;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) hash64();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PackedPosition[%016x %016x %016x %016x]", occupied, pieces0, pieces1, meta);
+    }
+}
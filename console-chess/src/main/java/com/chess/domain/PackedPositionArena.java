@@ -0,0 +1,128 @@
+package com.chess.domain;
+
+import java.util.Arrays;
+
+/**
+ * An append-only store of {@link PackedPosition}s as raw words: 32 bytes per position and no
+ * object per entry, so tens of millions of positions cost their bytes and nothing more, and the
+ * garbage collector sees a few large arrays instead of millions of small objects.
+ * <p>
+ * Positions live in fixed pages of {@link #PAGE_POSITIONS} positions (8 MB each); growing
+ * allocates one new page and never copies the ones already filled, and no single array has to
+ * hold the whole store. Positions are numbered from 0 in the order they were added.
+ * {@link #add(GameState)} packs straight into the page, and the word, equality and hash accessors
+ * read a stored position without creating a {@code PackedPosition}.
+ * </p>
+ * Not thread-safe; fill it from one thread, or give each thread its own arena.
+ *
+ * Example usage:
+ * <pre>
+ * PackedPositionArena arena = new PackedPositionArena();
+ * long i = arena.add(state);
+ * GameState again = arena.toGameState(i);
+ * </pre>
+ */
+public final class PackedPositionArena {
+
+    public static final int PAGE_SHIFT = 18;
+    public static final int PAGE_POSITIONS = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_POSITIONS - 1;
+    private static final int W = PackedPosition.WORDS;
+
+    private long[][] pages = new long[4][];
+    private int pageCount;
+    private long size;
+
+    /** Number of positions stored. */
+    public long size() { return size; }
+
+    /** Positions that fit before another page is needed. */
+    public long getCapacity() { return (long) pageCount << PAGE_SHIFT; }
+
+    /** Bytes held by the pages. */
+    public long getMemoryBytes() { return getCapacity() * W * Long.BYTES; }
+
+    /**
+     * Packs {@code state} into the next slot.
+     *
+     * @return its index
+     * @throws IllegalArgumentException if the position cannot be packed (see {@link PackedPosition#pack})
+     */
+    public long add(GameState state) {
+        long i = size;
+        long[] page = pageFor(i);
+        PackedPosition.pack(state, page, (int) (i & PAGE_MASK) * W);
+        size++;
+        return i;
+    }
+
+    /** Stores {@code p} in the next slot and returns its index. */
+    public long add(PackedPosition p) {
+        long i = size;
+        p.writeTo(pageFor(i), (int) (i & PAGE_MASK) * W);
+        size++;
+        return i;
+    }
+
+    public PackedPosition get(long index) {
+        check(index);
+        return PackedPosition.of(pages[(int) (index >>> PAGE_SHIFT)], (int) (index & PAGE_MASK) * W);
+    }
+
+    public GameState toGameState(long index) {
+        check(index);
+        return PackedPosition.toGameState(pages[(int) (index >>> PAGE_SHIFT)], (int) (index & PAGE_MASK) * W);
+    }
+
+    /** Word {@code word} (0 to 3, see {@link PackedPosition}) of the position at {@code index}. */
+    public long getWord(long index, int word) {
+        check(index);
+        if (word < 0 || word >= W) throw new IndexOutOfBoundsException("word " + word);
+        return pages[(int) (index >>> PAGE_SHIFT)][(int) (index & PAGE_MASK) * W + word];
+    }
+
+    /** True if the position at {@code index} equals {@code p}. */
+    public boolean matches(long index, PackedPosition p) {
+        check(index);
+        long[] page = pages[(int) (index >>> PAGE_SHIFT)];
+        int o = (int) (index & PAGE_MASK) * W;
+        return page[o] == p.getWord(0) && page[o + 1] == p.getWord(1)
+            && page[o + 2] == p.getWord(2) && page[o + 3] == p.getWord(3);
+    }
+
+    /** True if the positions at {@code a} and {@code b} are equal. */
+    public boolean equalAt(long a, long b) {
+        check(a);
+        check(b);
+        long[] pa = pages[(int) (a >>> PAGE_SHIFT)], pb = pages[(int) (b >>> PAGE_SHIFT)];
+        int oa = (int) (a & PAGE_MASK) * W, ob = (int) (b & PAGE_MASK) * W;
+        return pa[oa] == pb[ob] && pa[oa + 1] == pb[ob + 1] && pa[oa + 2] == pb[ob + 2] && pa[oa + 3] == pb[ob + 3];
+    }
+
+    /** {@link PackedPosition#hash64()} of the position at {@code index}. */
+    public long hashAt(long index) {
+        check(index);
+        long[] page = pages[(int) (index >>> PAGE_SHIFT)];
+        int o = (int) (index & PAGE_MASK) * W;
+        return PackedPosition.hash(page[o], page[o + 1], page[o + 2], page[o + 3]);
+    }
+
+    /** Forgets every position but keeps the pages for reuse. */
+    public void clear() {
+        size = 0;
+    }
+
+    private long[] pageFor(long index) {
+        int p = (int) (index >>> PAGE_SHIFT);
+        if (p == pageCount) {
+            if (p == pages.length) pages = Arrays.copyOf(pages, p * 2);
+            if (pages[p] == null) pages[p] = new long[PAGE_POSITIONS * W];
+            pageCount++;
+        }
+        return pages[p];
+    }
+
+    private void check(long index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("position " + index + " of " + size);
+    }
+}
@@ -1,9 +1,26 @@
 package com.chess.domain;
 
 public class Piece {
+    private static final Piece[] SHARED = new Piece[12];
+    static {
+        for (Color c : Color.values())
+            for (PieceType t : PieceType.values())
+                SHARED[c.ordinal() * 6 + t.ordinal()] = new Piece(t, c);
+    }
+
     private final PieceType type;
     private final Color color;
 
+    /** Shared instance for a type and color; pieces are immutable, so any copy will do. */
+    public static Piece of(PieceType type, Color color) {
+        return SHARED[color.ordinal() * 6 + type.ordinal()];
+    }
+
+    /** Inverse of {@link Zobrist#pieceIndex(Piece)}: color * 6 + type ordinal. */
+    public static Piece fromIndex(int index) {
+        return SHARED[index];
+    }
+
     public Piece(PieceType type, Color color) {
         this.type = type;
         this.color = color;
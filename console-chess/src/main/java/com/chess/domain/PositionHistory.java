@@ -0,0 +1,80 @@
+package com.chess.domain;
+
+/**
+ * Hashes of the positions a game has passed through, for repetition detection.
+ * <p>
+ * The last {@link #SIZE} keys are kept in a ring along with the number of plies since the last
+ * irreversible move (a capture, a pawn move or a change of castling rights). No position from
+ * before such a move can occur again, so {@link #repetitions(long)} only scans that far back,
+ * and only at every second entry (same side to move), which keeps it cheap enough to call at
+ * every search node.
+ * </p>
+ */
+public final class PositionHistory {
+
+    /** Covers the fifty-move window (100 plies), beyond which the game is drawn anyway. */
+    public static final int SIZE = 128;
+
+    private final long[] keys = new long[SIZE];
+    private int head;              // slot for the next key
+    private int stored;            // valid keys, at most SIZE
+    private int reversiblePlies;
+
+    /**
+     * Records the key of the position a move is leaving.
+     *
+     * @param irreversible whether that move can never be undone over the board
+     */
+    public void push(long key, boolean irreversible) {
+        keys[head] = key;
+        head = (head + 1) & (SIZE - 1);
+        if (stored < SIZE) stored++;
+        reversiblePlies = irreversible ? 0 : reversiblePlies + 1;
+    }
+
+    /** Drops the last key, e.g. when its move is taken back. */
+    public void pop(int previousReversiblePlies) {
+        head = (head - 1) & (SIZE - 1);
+        if (stored > 0) stored--;
+        reversiblePlies = previousReversiblePlies;
+    }
+
+    /** Plies since the last capture, pawn move or castling-rights change. */
+    public int getReversiblePlies() { return reversiblePlies; }
+
+    /** Earlier occurrences of {@code key} (with the same side to move) since the last irreversible move. */
+    public int repetitions(long key) {
+        int window = Math.min(reversiblePlies, stored);
+        int count = 0;
+        for (int back = 2; back <= window; back += 2) {
+            if (keys[(head - back) & (SIZE - 1)] == key) count++;
+        }
+        return count;
+    }
+
+    /** The last {@code n} keys (at most the number stored), oldest first. */
+    public long[] recent(int n) {
+        n = Math.min(n, stored);
+        long[] out = new long[n];
+        for (int i = 0; i < n; i++) out[i] = keys[(head - n + i) & (SIZE - 1)];
+        return out;
+    }
+
+    /** Replaces the contents with {@code recent} (oldest first), e.g. from a {@link #recent(int)} window saved earlier. */
+    public void restore(long[] recent, int reversiblePlies) {
+        int n = Math.min(recent.length, SIZE);
+        System.arraycopy(recent, recent.length - n, keys, 0, n);
+        head = n & (SIZE - 1);
+        stored = n;
+        this.reversiblePlies = reversiblePlies;
+    }
+
+    public PositionHistory copy() {
+        PositionHistory c = new PositionHistory();
+        System.arraycopy(keys, 0, c.keys, 0, SIZE);
+        c.head = head;
+        c.stored = stored;
+        c.reversiblePlies = reversiblePlies;
+        return c;
+    }
+}
@@ -0,0 +1,175 @@
+package com.chess.domain;
+
+import java.util.Objects;
+
+/**
+ * An immutable position, safe to hand to any thread without locks or copies.
+ * <p>
+ * The board is packed four bits per square (0 for empty, else 1 + {@link Zobrist#pieceIndex(Piece)}),
+ * two ranks per {@code long}, so a whole position is four words plus the side to move, castling
+ * mask, en passant square and halfmove clock. {@link #after(PositionSnapshot, GameState, Move)}
+ * repacks only the words holding the ranks a move touched and takes the others over unchanged.
+ * Each snapshot also links to the one before it, so consecutive snapshots share their entire
+ * history and taking a move back is just going back one link.
+ * </p>
+ * <p>
+ * All fields are final: once a snapshot has been published through a volatile field (as
+ * {@code GameSession} does after every move), a reader on another thread sees all of it.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * PositionSnapshot s = session.getSnapshot();   // any thread, no lock
+ * Piece p = s.getPiece(4, 3);
+ * String fen = FenParser.format(s.toGameState());
+ * </pre>
+ */
+public final class PositionSnapshot {
+
+    private final long ranks01;
+    private final long ranks23;
+    private final long ranks45;
+    private final long ranks67;
+    private final Color toMove;
+    private final int castlingMask;       // as CastlingRights.toMask()
+    private final Square enPassantSquare; // null if none
+    private final Color enPassantFor;
+    private final int halfmoveClock;
+    private final long key;               // Zobrist.hash of the position
+    private final int ply;                // snapshots since the first one in this chain
+    private final Move lastMove;          // the move that led here, null for the first
+    private final PositionSnapshot previous;
+
+    private PositionSnapshot(long[] words, GameState state, int ply, Move lastMove, PositionSnapshot previous) {
+        this.ranks01 = words[0];
+        this.ranks23 = words[1];
+        this.ranks45 = words[2];
+        this.ranks67 = words[3];
+        this.toMove = state.getToMove();
+        this.castlingMask = state.getRights().toMask();
+        this.enPassantSquare = state.getEnPassantSquare();
+        this.enPassantFor = state.getEnPassantFor();
+        this.halfmoveClock = state.getHalfmoveClock();
+        this.key = Zobrist.hash(state);
+        this.ply = ply;
+        this.lastMove = lastMove;
+        this.previous = previous;
+    }
+
+    /** Snapshot of {@code state} with no history: the start of a new chain. */
+    public static PositionSnapshot of(GameState state) {
+        Board b = state.getBoard();
+        long[] words = new long[4];
+        for (int w = 0; w < 4; w++) words[w] = pack(b, w);
+        return new PositionSnapshot(words, state, 0, null, null);
+    }
+
+    /**
+     * Snapshot of {@code state}, which must be the position {@code previous} described with
+     * {@code move} played on it. Only the words holding the move's ranks are read from the board.
+     */
+    public static PositionSnapshot after(PositionSnapshot previous, GameState state, Move move) {
+        if (previous == null) return of(state);
+        long[] words = {previous.ranks01, previous.ranks23, previous.ranks45, previous.ranks67};
+        // castling moves the rook along the king's rank, and en passant takes a pawn on the from rank
+        Board b = state.getBoard();
+        int fromWord = move.getFrom().getRank() >>> 1;
+        int toWord = move.getTo().getRank() >>> 1;
+        words[fromWord] = pack(b, fromWord);
+        if (toWord != fromWord) words[toWord] = pack(b, toWord);
+        return new PositionSnapshot(words, state, previous.ply + 1, move, previous);
+    }
+
+    private static long pack(Board b, int word) {
+        long packed = 0;
+        for (int r = word * 2, shift = 0; r < word * 2 + 2; r++) {
+            for (int f = 0; f < 8; f++, shift += 4) {
+                Piece p = b.getPiece(f, r);
+                if (p != null) packed |= (long) (Zobrist.pieceIndex(p) + 1) << shift;
+            }
+        }
+        return packed;
+    }
+
+    private long word(int rank) {
+        switch (rank >>> 1) {
+            case 0:  return ranks01;
+            case 1:  return ranks23;
+            case 2:  return ranks45;
+            default: return ranks67;
+        }
+    }
+
+    public Piece getPiece(int file, int rank) {
+        int code = (int) (word(rank) >>> (((rank & 1) * 8 + file) * 4)) & 0xF;
+        return (code == 0) ? null : Piece.fromIndex(code - 1);
+    }
+
+    public Piece getPiece(Square square) {
+        return getPiece(square.getFile(), square.getRank());
+    }
+
+    public Color getToMove() { return toMove; }
+
+    /** Castling rights as {@link CastlingRights#toMask()}: K=1, Q=2, k=4, q=8. */
+    public int getCastlingMask() { return castlingMask; }
+
+    public Square getEnPassantSquare() { return enPassantSquare; }
+    public Color getEnPassantFor() { return enPassantFor; }
+    public int getHalfmoveClock() { return halfmoveClock; }
+
+    /** {@link Zobrist#hash(GameState)} of this position. */
+    public long getKey() { return key; }
+
+    /** Number of moves between the start of this chain and here. */
+    public int getPly() { return ply; }
+
+    /** The move that led here, or null at the start of the chain. */
+    public Move getLastMove() { return lastMove; }
+
+    /** The position before {@link #getLastMove()}, or null at the start of the chain. */
+    public PositionSnapshot getPrevious() { return previous; }
+
+    /** A new mutable position equal to this one (its repetition history starts empty). */
+    public GameState toGameState() {
+        Board b = new Board();
+        for (int r = 0; r < 8; r++) {
+            for (int f = 0; f < 8; f++) b.setPiece(f, r, getPiece(f, r));
+        }
+        CastlingRights rights = new CastlingRights();
+        rights.restore(castlingMask);
+        GameState state = new GameState(b, toMove, rights, enPassantSquare, enPassantFor);
+        state.setHalfmoveClock(halfmoveClock);
+        return state;
+    }
+
+    /**
+     * The squares whose contents differ between this board and {@code other}'s, as a bitboard
+     * (bit {@code rank * 8 + file}). Found by comparing the packed words, so unchanged ranks cost
+     * nothing.
+     */
+    public long changedSquares(PositionSnapshot other) {
+        return nibblesToBits(ranks01 ^ other.ranks01)
+             | nibblesToBits(ranks23 ^ other.ranks23) << 16
+             | nibblesToBits(ranks45 ^ other.ranks45) << 32
+             | nibblesToBits(ranks67 ^ other.ranks67) << 48;
+    }
+
+    /** One bit per non-zero nibble of {@code x}: 16 nibbles to 16 bits. */
+    private static long nibblesToBits(long x) {
+        if (x == 0) return 0;
+        long bits = 0;
+        for (int i = 0; i < 16; i++) {
+            if (((x >>> (i * 4)) & 0xF) != 0) bits |= 1L << i;
+        }
+        return bits;
+    }
+
+    /** True if the boards, side to move, rights, en passant state and clocks are the same. */
+    public boolean samePosition(PositionSnapshot other) {
+        return ranks01 == other.ranks01 && ranks23 == other.ranks23 && ranks45 == other.ranks45
+            && ranks67 == other.ranks67 && toMove == other.toMove && castlingMask == other.castlingMask
+            && Objects.equals(enPassantSquare, other.enPassantSquare)
+            && enPassantFor == other.enPassantFor && halfmoveClock == other.halfmoveClock;
+    }
+}
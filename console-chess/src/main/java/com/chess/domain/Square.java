@@ -11,9 +11,29 @@ public class Square {
         this.rank = rank;
     }
 
+    private static final Square[] SHARED = new Square[64];
+    static {
+        for (int i = 0; i < 64; i++) SHARED[i] = new Square(i & 7, i >>> 3);
+    }
+
+    /** Shared instance; squares are immutable, so hot paths can avoid allocating them. */
+    public static Square of(int file, int rank) {
+        if(file < 0 || file > 7 || rank < 0 || rank > 7)
+            throw new IllegalArgumentException("Invalid square");
+        return SHARED[rank * 8 + file];
+    }
+
+    /** Shared instance for an {@link #index()} value. */
+    public static Square at(int index) {
+        return SHARED[index];
+    }
+
     public int getFile() { return file; }
     public int getRank() { return rank; }
 
+    /** 0..63, a1 = 0, h8 = 63. */
+    public int index() { return rank * 8 + file; }
+
     public static Square fromNotation(String notation) {
         if(notation.length() != 2) throw new IllegalArgumentException("Bad notation");
         int file = notation.charAt(0) - 'a';
@@ -21,6 +41,18 @@ public class Square {
         return new Square(file, rank);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Square)) return false;
+        Square s = (Square) o;
+        return file == s.file && rank == s.rank;
+    }
+
+    @Override
+    public int hashCode() {
+        return index();
+    }
+
     @Override
     public String toString() {
         return "" + (char)('a' + file) + (rank + 1);
@@ -0,0 +1,107 @@
+package com.chess.domain;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for hashing positions into a single long.
+ * <p>
+ * The keys come from a fixed seed so hashes are stable across runs; anything
+ * persisted by hash (e.g. the position index) depends on that.
+ * </p>
+ */
+public final class Zobrist {
+    private Zobrist() {}
+
+    private static final long SEED = 0x5EED_C0FF_EE15_BADL;
+
+    /** [pieceIndex][squareIndex], pieceIndex = color * 6 + type ordinal, squareIndex = rank * 8 + file. */
+    private static final long[][] PIECE_KEYS = new long[12][64];
+    private static final long[] CASTLING_KEYS = new long[4]; // K, Q, k, q
+    private static final long[] EP_FILE_KEYS = new long[8];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        SplittableRandom rnd = new SplittableRandom(SEED);
+        for (int p = 0; p < 12; p++) {
+            for (int s = 0; s < 64; s++) PIECE_KEYS[p][s] = rnd.nextLong();
+        }
+        for (int i = 0; i < 4; i++) CASTLING_KEYS[i] = rnd.nextLong();
+        for (int i = 0; i < 8; i++) EP_FILE_KEYS[i] = rnd.nextLong();
+        BLACK_TO_MOVE_KEY = rnd.nextLong();
+    }
+
+    public static int pieceIndex(Piece p) {
+        return p.getColor().ordinal() * 6 + p.getType().ordinal();
+    }
+
+    public static long pieceKey(Piece p, int file, int rank) {
+        return PIECE_KEYS[pieceIndex(p)][rank * 8 + file];
+    }
+
+    public static long castlingKey(CastlingRights cr) {
+        long h = 0L;
+        if (cr.canWhiteKingSide())  h ^= CASTLING_KEYS[0];
+        if (cr.canWhiteQueenSide()) h ^= CASTLING_KEYS[1];
+        if (cr.canBlackKingSide())  h ^= CASTLING_KEYS[2];
+        if (cr.canBlackQueenSide()) h ^= CASTLING_KEYS[3];
+        return h;
+    }
+
+    /**
+     * EP only counts when the side to move could actually capture: otherwise the same
+     * position reached by transposition (with or without a double step) would hash apart.
+     */
+    public static long enPassantKey(GameState state) {
+        Square ep = state.getEnPassantSquare();
+        Color side = state.getToMove();
+        if (ep == null || state.getEnPassantFor() != side) return 0L;
+        int fromRank = (side == Color.WHITE) ? ep.getRank() - 1 : ep.getRank() + 1;
+        if (fromRank < 0 || fromRank > 7) return 0L;
+        Board b = state.getBoard();
+        for (int df = -1; df <= 1; df += 2) {
+            int f = ep.getFile() + df;
+            if (f < 0 || f > 7) continue;
+            Piece p = b.getPiece(new Square(f, fromRank));
+            if (p != null && p.getType() == PieceType.PAWN && p.getColor() == side) return EP_FILE_KEYS[ep.getFile()];
+        }
+        return 0L;
+    }
+
+    public static long sideKey(Color toMove) {
+        return toMove == Color.BLACK ? BLACK_TO_MOVE_KEY : 0L;
+    }
+
+    /**
+     * Hash of a position: pieces, side to move, castling rights and EP file. Constant time:
+     * the piece part is kept up to date by {@link Board#setPiece(int, int, Piece)}.
+     */
+    public static long hash(GameState state) {
+        return state.getBoard().getPieceKey() ^ sideKey(state.getToMove())
+                ^ castlingKey(state.getRights()) ^ enPassantKey(state);
+    }
+
+    /** Rescans the board for the pawn-only key; a cross-check for {@link Board#getPawnKey()}. */
+    public static long pawnKey(Board b) {
+        long h = 0L;
+        for (int r = 0; r < 8; r++) {
+            for (int f = 0; f < 8; f++) {
+                Piece p = b.getPiece(f, r);
+                if (p != null && p.getType() == PieceType.PAWN) h ^= pieceKey(p, f, r);
+            }
+        }
+        return h;
+    }
+
+    /** Same as {@link #hash(GameState)} but rescans the board; a cross-check for the incremental key. */
+    public static long recompute(GameState state) {
+        Board b = state.getBoard();
+        long h = 0L;
+        for (int r = 0; r < 8; r++) {
+            for (int f = 0; f < 8; f++) {
+                Piece p = b.getPiece(new Square(f, r));
+                if (p != null) h ^= pieceKey(p, f, r);
+            }
+        }
+        return h ^ sideKey(state.getToMove()) ^ castlingKey(state.getRights()) ^ enPassantKey(state);
+    }
+}
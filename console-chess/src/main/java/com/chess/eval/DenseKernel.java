@@ -0,0 +1,34 @@
+package com.chess.eval;
+
+/**
+ * The dense (fully connected) layer arithmetic of {@link NnueEvaluator}, with a SIMD and a scalar
+ * implementation.
+ * <p>
+ * {@link #best()} picks {@code VectorKernel} when the {@code jdk.incubator.vector} module has been
+ * added to the runtime ({@code --add-modules jdk.incubator.vector}) and {@link ScalarKernel}
+ * otherwise; the vector class is only loaded in the first case, so running without the module
+ * costs nothing. {@code -Dchess.nnue.scalar=true} forces the scalar path.
+ * </p>
+ */
+public interface DenseKernel {
+
+    /** {@code out[j] = bias[j] + sum over i < n of weights[j * n + i] * in[i]}, for every j < m. */
+    void affine(float[] in, int n, float[] weights, float[] bias, float[] out, int m);
+
+    /** {@code sum over i < n of a[i] * b[i]}. */
+    float dot(float[] a, float[] b, int n);
+
+    String name();
+
+    static DenseKernel best() {
+        if (!Boolean.getBoolean("chess.nnue.scalar")
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (DenseKernel) Class.forName("com.chess.eval.VectorKernel").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // fall through to the scalar kernel
+            }
+        }
+        return new ScalarKernel();
+    }
+}
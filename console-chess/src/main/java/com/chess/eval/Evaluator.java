@@ -0,0 +1,181 @@
+package com.chess.eval;
+
+import com.chess.domain.Board;
+import com.chess.domain.BoardListener;
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.Piece;
+import com.chess.domain.PieceType;
+import com.chess.domain.Zobrist;
+
+/**
+ * Material, tapered middlegame/endgame piece-square and pawn-structure evaluation, kept up to
+ * date incrementally.
+ * <p>
+ * {@link #attach(GameState)} scores the board once and then listens to it: every square change
+ * made by {@link com.chess.service.MoveService} or a take-back (including the rook hop of
+ * castling, the pawn removed by en passant and the piece swapped in by a promotion) adjusts the
+ * running middlegame and endgame sums, the piece counts and the game phase. {@link #evaluate()}
+ * is then a handful of arithmetic operations.
+ * </p>
+ * <p>
+ * Pawn bitboards are maintained the same way. Pawn-structure terms are looked up in a
+ * {@link PawnTable} under the board's incrementally kept pawn key and only recomputed on a miss;
+ * the king shield is added on top from the bitboards.
+ * </p>
+ * <p>
+ * {@link #evaluateFull(GameState)} rescans the board and must always agree with the running
+ * total; with {@code -Dchess.eval.verify=true} every {@link #evaluate()} checks that and throws
+ * {@link IllegalStateException} on a mismatch.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * Evaluator eval = Evaluator.attach(state);
+ * MoveService.apply(state, move);
+ * state.switchTurn();
+ * int score = eval.evaluate();   // from the side to move's point of view
+ * eval.detach();
+ * </pre>
+ */
+public final class Evaluator implements BoardListener, IncrementalEvaluator {
+
+    static final boolean VERIFY = Boolean.getBoolean("chess.eval.verify");
+
+    private static final int KING = PieceType.KING.ordinal();
+    private static final int PAWN = PieceType.PAWN.ordinal();
+
+    private final GameState state;
+    private final PawnTable pawnTable;
+    private final int[] counts = new int[12];   // by Zobrist.pieceIndex
+    private final long[] pawns = new long[2];   // bitboards by color ordinal
+    private final int[] kings = {-1, -1};       // square by color ordinal, -1 when absent
+    private int mg;                             // White minus Black, material included
+    private int eg;
+    private int phase;                          // sum of PHASE_WEIGHT, may exceed MAX_PHASE after promotions
+
+    private Evaluator(GameState state, PawnTable pawnTable) {
+        this.state = state;
+        this.pawnTable = pawnTable;
+    }
+
+    /** Scores {@code state}'s board and keeps the score current as the board changes. */
+    public static Evaluator attach(GameState state) {
+        return attach(state, new PawnTable());
+    }
+
+    /** Same, sharing a pawn table that outlives this evaluator (e.g. across searches on one thread). */
+    public static Evaluator attach(GameState state, PawnTable pawnTable) {
+        Evaluator e = new Evaluator(state, pawnTable);
+        Board b = state.getBoard();
+        for (int r = 0; r < 8; r++) {
+            for (int f = 0; f < 8; f++) {
+                Piece p = b.getPiece(f, r);
+                if (p != null) e.add(Zobrist.pieceIndex(p), r * 8 + f);
+            }
+        }
+        b.addListener(e);
+        return e;
+    }
+
+    @Override
+    public void detach() {
+        state.getBoard().removeListener(this);
+    }
+
+    @Override
+    public void pieceChanged(int file, int rank, Piece removed, Piece placed) {
+        int sq = rank * 8 + file;
+        if (removed != null) remove(Zobrist.pieceIndex(removed), sq);
+        if (placed != null) add(Zobrist.pieceIndex(placed), sq);
+    }
+
+    private void add(int piece, int sq) {
+        mg += PieceSquareTables.MG[piece][sq];
+        eg += PieceSquareTables.EG[piece][sq];
+        phase += PieceSquareTables.PHASE_WEIGHT[piece % 6];
+        counts[piece]++;
+        if (piece % 6 == PAWN) pawns[piece / 6] |= 1L << sq;
+        else if (piece % 6 == KING) kings[piece / 6] = sq;
+    }
+
+    private void remove(int piece, int sq) {
+        mg -= PieceSquareTables.MG[piece][sq];
+        eg -= PieceSquareTables.EG[piece][sq];
+        phase -= PieceSquareTables.PHASE_WEIGHT[piece % 6];
+        counts[piece]--;
+        if (piece % 6 == PAWN) pawns[piece / 6] &= ~(1L << sq);
+        else if (piece % 6 == KING && kings[piece / 6] == sq) kings[piece / 6] = -1;
+    }
+
+    @Override
+    public int evaluate() {
+        int slot = pawnTable.probe(state.getBoard().getPawnKey(), pawns[0], pawns[1]);
+        int white = combine(mg, eg, phase, pawnTable.score(slot), pawns, kings);
+        if (VERIFY) {
+            int full = whiteScore(state.getBoard());
+            if (full != white) {
+                throw new IllegalStateException("Incremental eval " + white + " != full eval " + full);
+            }
+        }
+        return (state.getToMove() == Color.WHITE) ? white : -white;
+    }
+
+    /** Game phase from 0 (bare kings and pawns) to 24 (all pieces on the board). */
+    public int getPhase() {
+        return Math.min(phase, PieceSquareTables.MAX_PHASE);
+    }
+
+    /** Passed pawns of {@code color} as a bitboard (bit rank * 8 + file). */
+    public long passedPawns(Color color) {
+        int slot = pawnTable.probe(state.getBoard().getPawnKey(), pawns[0], pawns[1]);
+        return pawnTable.passed(slot, color.ordinal());
+    }
+
+    public PawnTable getPawnTable() { return pawnTable; }
+
+    /** Pieces of this kind currently on the board. */
+    public int count(Piece piece) {
+        return counts[Zobrist.pieceIndex(piece)];
+    }
+
+    /** Full rescan of the board; the reference for the incremental score. */
+    public static int evaluateFull(GameState state) {
+        int white = whiteScore(state.getBoard());
+        return (state.getToMove() == Color.WHITE) ? white : -white;
+    }
+
+    private static int whiteScore(Board b) {
+        int mg = 0, eg = 0, phase = 0;
+        long[] pawns = new long[2];
+        int[] kings = {-1, -1};
+        for (int r = 0; r < 8; r++) {
+            for (int f = 0; f < 8; f++) {
+                Piece p = b.getPiece(f, r);
+                if (p == null) continue;
+                int piece = Zobrist.pieceIndex(p);
+                mg += PieceSquareTables.MG[piece][r * 8 + f];
+                eg += PieceSquareTables.EG[piece][r * 8 + f];
+                phase += PieceSquareTables.PHASE_WEIGHT[piece % 6];
+                if (piece % 6 == PAWN) pawns[piece / 6] |= 1L << (r * 8 + f);
+                else if (piece % 6 == KING) kings[piece / 6] = r * 8 + f;
+            }
+        }
+        long pw = PawnStructure.passed(0, pawns[0], pawns[1]);
+        long pb = PawnStructure.passed(1, pawns[1], pawns[0]);
+        return combine(mg, eg, phase, PawnStructure.score(pawns[0], pawns[1], pw, pb), pawns, kings);
+    }
+
+    private static int combine(int mg, int eg, int phase, long pawnScore, long[] pawns, int[] kings) {
+        mg += PawnStructure.mg(pawnScore);
+        eg += PawnStructure.eg(pawnScore);
+        if (kings[0] >= 0) mg += PawnStructure.shield(0, kings[0], pawns[0]);
+        if (kings[1] >= 0) mg -= PawnStructure.shield(1, kings[1], pawns[1]);
+        return taper(mg, eg, phase);
+    }
+
+    private static int taper(int mg, int eg, int phase) {
+        int p = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (mg * p + eg * (PieceSquareTables.MAX_PHASE - p)) / PieceSquareTables.MAX_PHASE;
+    }
+}
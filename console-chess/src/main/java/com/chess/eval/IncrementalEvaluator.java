@@ -0,0 +1,14 @@
+package com.chess.eval;
+
+/**
+ * An evaluator attached to one position that keeps its terms current as the board changes,
+ * so scoring a search leaf costs no board scan.
+ */
+public interface IncrementalEvaluator {
+
+    /** Score in centipawns from the side to move's point of view. */
+    int evaluate();
+
+    /** Stops following the board; the evaluator is stale afterwards. */
+    void detach();
+}
@@ -0,0 +1,187 @@
+package com.chess.eval;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+import com.chess.domain.Piece;
+import com.chess.domain.PieceType;
+
+/**
+ * Weights of a small NNUE-style network: a sparse feature transformer followed by two dense layers.
+ * <p>
+ * Inputs are king-relative piece-square features, seen from each side ("perspective"): the square
+ * of every non-king piece, whether it is the perspective's own or the opponent's, its type, and one
+ * of {@link #BUCKETS} buckets for where the perspective's king stands. Black's view is mirrored
+ * vertically so both sides share weights. The transformer maps the active features to
+ * {@link #HIDDEN} int16 sums per perspective, which {@link NnueEvaluator} keeps incrementally;
+ * the side to move's sums, then the opponent's, are clipped and fed through a
+ * {@code 2*HIDDEN -> L1} layer and an {@code L1 -> 1} output in centipawns.
+ * </p>
+ * <p>
+ * File layout (little endian): magic "CNN1", version, features, hidden, l1 (ints), transformer
+ * weights int16[features][hidden], transformer bias int16[hidden], layer weights
+ * float[l1][2*hidden], layer bias float[l1], output weights float[l1], output bias float.
+ * {@link #load(Path)} maps the file read-only and reads the transformer weights straight from the
+ * mapping, so the bulk of the network is shared between processes; only the small dense layers
+ * are copied onto the heap. Loading scans the transformer once to check that no position's sums
+ * can leave the int16 range (see {@link #MAX_ACTIVE}).
+ * </p>
+ */
+public final class Network {
+
+    public static final int MAGIC = 0x314E4E43;  // "CNN1"
+    public static final int VERSION = 1;
+    public static final int BUCKETS = 4;
+    public static final int FEATURES = BUCKETS * 10 * 64;
+    public static final int HIDDEN = 128;
+    public static final int L1 = 32;
+    /** Transformer sums are clipped to [0, CLIP] before the dense layers. */
+    public static final int CLIP = 255;
+    /** Most features active in one perspective at once: every piece but the kings, plus one in mid-move. */
+    public static final int MAX_ACTIVE = 31;
+
+    private static final int HEADER_BYTES = 5 * 4;
+
+    final ShortBuffer ftWeights;      // [feature * HIDDEN + i]
+    final short[] ftBias;
+    final float[] l1Weights;          // [j * 2 * HIDDEN + i]
+    final float[] l1Bias;
+    final float[] outWeights;
+    final float outBias;
+
+    private Network(ShortBuffer ftWeights, short[] ftBias, float[] l1Weights, float[] l1Bias,
+                    float[] outWeights, float outBias) {
+        this.ftWeights = ftWeights;
+        this.ftBias = ftBias;
+        this.l1Weights = l1Weights;
+        this.l1Bias = l1Bias;
+        this.outWeights = outWeights;
+        this.outBias = outBias;
+    }
+
+    static long fileSize() {
+        return HEADER_BYTES + 2L * FEATURES * HIDDEN + 2L * HIDDEN
+                + 4L * L1 * 2 * HIDDEN + 4L * L1 + 4L * L1 + 4;
+    }
+
+    /** Maps a network file written by {@link #save(Path)} or a trainer using the same layout. */
+    public static Network load(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() != fileSize()) {
+                throw new IOException("Network file " + file + " has " + ch.size() + " bytes, expected " + fileSize());
+            }
+            ByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (map.getInt() != MAGIC) throw new IOException("Not a network file: " + file);
+            int version = map.getInt();
+            if (version != VERSION) throw new IOException("Unsupported network version " + version);
+            if (map.getInt() != FEATURES || map.getInt() != HIDDEN || map.getInt() != L1) {
+                throw new IOException("Network dimensions do not match this build");
+            }
+            ShortBuffer ft = map.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+            ft.limit(FEATURES * HIDDEN);
+            map.position(map.position() + 2 * FEATURES * HIDDEN);
+
+            short[] ftBias = new short[HIDDEN];
+            for (int i = 0; i < HIDDEN; i++) ftBias[i] = map.getShort();
+            float[] l1w = new float[L1 * 2 * HIDDEN];
+            for (int i = 0; i < l1w.length; i++) l1w[i] = map.getFloat();
+            float[] l1b = new float[L1];
+            for (int i = 0; i < L1; i++) l1b[i] = map.getFloat();
+            float[] ow = new float[L1];
+            for (int i = 0; i < L1; i++) ow[i] = map.getFloat();
+            checkRange(ft, ftBias, file);
+            return new Network(ft.slice(), ftBias, l1w, l1b, ow, map.getFloat());
+        }
+    }
+
+    /**
+     * Rejects a transformer whose sums could overflow int16: {@link NnueEvaluator} adds weights
+     * without saturating, so every hidden unit's bias plus {@link #MAX_ACTIVE} of its largest
+     * weights must stay in range.
+     */
+    private static void checkRange(ShortBuffer ft, short[] ftBias, Path file) throws IOException {
+        int[] maxAbs = new int[HIDDEN];
+        for (int f = 0; f < FEATURES; f++) {
+            int base = f * HIDDEN;
+            for (int i = 0; i < HIDDEN; i++) maxAbs[i] = Math.max(maxAbs[i], Math.abs(ft.get(base + i)));
+        }
+        for (int i = 0; i < HIDDEN; i++) {
+            if (Math.abs(ftBias[i]) + MAX_ACTIVE * maxAbs[i] > Short.MAX_VALUE) {
+                throw new IOException("Network " + file + ": transformer weights of hidden unit " + i
+                                      + " can overflow its int16 sum");
+            }
+        }
+    }
+
+    /** Writes this network in the {@link #load(Path)} layout, atomically replacing {@code file}. */
+    public void save(Path file) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) fileSize()).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(FEATURES).putInt(HIDDEN).putInt(L1);
+        for (int i = 0; i < FEATURES * HIDDEN; i++) buf.putShort(ftWeights.get(i));
+        for (short b : ftBias) buf.putShort(b);
+        for (float w : l1Weights) buf.putFloat(w);
+        for (float b : l1Bias) buf.putFloat(b);
+        for (float w : outWeights) buf.putFloat(w);
+        buf.putFloat(outBias);
+        buf.flip();
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * An untrained network with small random weights, for tests and benchmarks. Its scores are
+     * deterministic for a seed but carry no chess knowledge.
+     */
+    public static Network random(long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        short[] ft = new short[FEATURES * HIDDEN];
+        for (int i = 0; i < ft.length; i++) ft[i] = (short) rnd.nextInt(-32, 33);
+        short[] ftBias = new short[HIDDEN];
+        for (int i = 0; i < HIDDEN; i++) ftBias[i] = (short) rnd.nextInt(0, 64);
+        float[] l1w = new float[L1 * 2 * HIDDEN];
+        for (int i = 0; i < l1w.length; i++) l1w[i] = (float) (rnd.nextDouble() - 0.5) / 16f;
+        float[] l1b = new float[L1];
+        for (int i = 0; i < L1; i++) l1b[i] = (float) (rnd.nextDouble() - 0.5) / 4f;
+        float[] ow = new float[L1];
+        for (int i = 0; i < L1; i++) ow[i] = (float) (rnd.nextDouble() - 0.5) * 200f;
+        return new Network(ShortBuffer.wrap(ft), ftBias, l1w, l1b, ow, 0f);
+    }
+
+    /** King bucket of a perspective: home ranks or advanced, queen side or king side. */
+    static int bucket(int relativeKingSq) {
+        return ((relativeKingSq >>> 3) < 2 ? 0 : 2) + ((relativeKingSq & 7) < 4 ? 0 : 1);
+    }
+
+    /** Square as seen from a perspective (0 = White); Black's view is flipped vertically. */
+    static int relative(int perspective, int sq) {
+        return (perspective == 0) ? sq : sq ^ 56;
+    }
+
+    /**
+     * Feature index of a non-king piece on {@code sq} for {@code perspective}, whose king bucket is
+     * {@code bucket}.
+     */
+    static int feature(int perspective, int bucket, Piece piece, int sq) {
+        int own = (piece.getColor().ordinal() == perspective) ? 0 : 1;
+        int type = piece.getType().ordinal() - 1;   // QUEEN..PAWN -> 0..4; kings are not features
+        return ((bucket * 2 + own) * 5 + type) * 64 + relative(perspective, sq);
+    }
+
+    static boolean isFeature(Piece piece) {
+        return piece.getType() != PieceType.KING;
+    }
+}
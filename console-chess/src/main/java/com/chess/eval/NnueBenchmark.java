@@ -0,0 +1,100 @@
+package com.chess.eval;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.rules.RulesEngine;
+import com.chess.service.MoveHistory;
+
+/**
+ * Evaluations per second of {@link NnueEvaluator} on the vector and the scalar {@link DenseKernel},
+ * with the classical {@link Evaluator} for reference.
+ * <p>
+ * Each round replays the same random games, making and taking back every move and evaluating
+ * after each one, so the numbers include the incremental accumulator updates a search would pay.
+ * Run with {@code java --add-modules jdk.incubator.vector -cp target/classes com.chess.eval.NnueBenchmark [network file]};
+ * without a file an untrained random network of the same shape is used.
+ * </p>
+ */
+public final class NnueBenchmark {
+    private NnueBenchmark() {}
+
+    private static final int GAMES = 16;
+    private static final int PLIES = 80;
+    private static final int ROUNDS = 40;
+
+    public static void main(String[] args) throws Exception {
+        Network net = (args.length > 0) ? Network.load(Paths.get(args[0])) : Network.random(1);
+        List<List<Move>> games = randomGames(new Random(42));
+
+        DenseKernel best = DenseKernel.best();
+        System.out.println("preferred kernel: " + best.name());
+        if (best instanceof ScalarKernel) {
+            System.out.println("(add --add-modules jdk.incubator.vector to compare against the vector kernel)");
+        }
+        report("classical", games, st -> Evaluator.attach(st));
+        report("nnue scalar", games, st -> NnueEvaluator.attach(st, net, new ScalarKernel()));
+        if (!(best instanceof ScalarKernel)) {
+            report("nnue " + best.name(), games, st -> NnueEvaluator.attach(st, net, best));
+        }
+    }
+
+    interface Attach {
+        IncrementalEvaluator attach(GameState state);
+    }
+
+    private static void report(String label, List<List<Move>> games, Attach attach) {
+        run(games, attach, ROUNDS / 4);   // warm-up
+        long start = System.nanoTime();
+        long evals = run(games, attach, ROUNDS);
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-28s %,12.0f evals/sec%n", label, evals / secs);
+    }
+
+    private static long run(List<List<Move>> games, Attach attach, int rounds) {
+        long evals = 0;
+        long sink = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (List<Move> game : games) {
+                GameState st = new GameState();
+                IncrementalEvaluator e = attach.attach(st);
+                MoveHistory h = new MoveHistory(PLIES);
+                for (Move m : game) {
+                    h.play(st, m);
+                    sink += e.evaluate();
+                    evals++;
+                }
+                while (h.canUndo()) {
+                    h.unplay(st);
+                    sink += e.evaluate();
+                    evals++;
+                }
+                e.detach();
+            }
+        }
+        if (sink == Long.MIN_VALUE) System.out.println(sink);   // keep the results alive
+        return evals;
+    }
+
+    private static List<List<Move>> randomGames(Random rnd) {
+        List<List<Move>> games = new ArrayList<>();
+        for (int g = 0; g < GAMES; g++) {
+            GameState st = new GameState();
+            MoveHistory h = new MoveHistory(PLIES);
+            List<Move> game = new ArrayList<>();
+            for (int ply = 0; ply < PLIES; ply++) {
+                List<Move> moves = RulesEngine.generateLegalMoves(st);
+                if (moves.isEmpty()) break;
+                Move m = moves.get(rnd.nextInt(moves.size()));
+                h.play(st, m);
+                game.add(m);
+            }
+            games.add(game);
+        }
+        return games;
+    }
+}
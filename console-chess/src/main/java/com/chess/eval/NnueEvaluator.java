@@ -0,0 +1,149 @@
+package com.chess.eval;
+
+import java.nio.ShortBuffer;
+
+import com.chess.domain.Board;
+import com.chess.domain.BoardListener;
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.Piece;
+import com.chess.domain.PieceType;
+
+/**
+ * Evaluates with a {@link Network}, keeping its feature-transformer sums ("accumulators") current
+ * as the board changes.
+ * <p>
+ * Each square change adds or subtracts one weight column per perspective, so a normal move costs
+ * a few {@link Network#HIDDEN}-wide int16 updates instead of a pass over every active feature.
+ * Kings are not features; when a king crosses into another bucket that perspective is rebuilt
+ * from the board on the next {@link #evaluate()}. The dense layers run on a {@link DenseKernel}.
+ * </p>
+ */
+public final class NnueEvaluator implements BoardListener, IncrementalEvaluator {
+
+    private final GameState state;
+    private final Network net;
+    private final DenseKernel kernel;
+    private final short[][] acc = new short[2][Network.HIDDEN];
+    private final int[] bucket = new int[2];
+    private final int[] kings = {-1, -1};
+    private final boolean[] kingMoved = new boolean[2];
+    private final float[] input = new float[2 * Network.HIDDEN];
+    private final float[] hidden = new float[Network.L1];
+
+    private NnueEvaluator(GameState state, Network net, DenseKernel kernel) {
+        this.state = state;
+        this.net = net;
+        this.kernel = kernel;
+    }
+
+    public static NnueEvaluator attach(GameState state, Network net) {
+        return attach(state, net, DenseKernel.best());
+    }
+
+    public static NnueEvaluator attach(GameState state, Network net, DenseKernel kernel) {
+        NnueEvaluator e = new NnueEvaluator(state, net, kernel);
+        Board b = state.getBoard();
+        for (int sq = 0; sq < 64; sq++) {
+            Piece p = b.getPiece(sq & 7, sq >>> 3);
+            if (p != null && p.getType() == PieceType.KING) e.kings[p.getColor().ordinal()] = sq;
+        }
+        e.refresh(0);
+        e.refresh(1);
+        b.addListener(e);
+        return e;
+    }
+
+    @Override
+    public void detach() {
+        state.getBoard().removeListener(this);
+    }
+
+    public DenseKernel getKernel() { return kernel; }
+
+    @Override
+    public void pieceChanged(int file, int rank, Piece removed, Piece placed) {
+        int sq = rank * 8 + file;
+        if (removed != null) {
+            if (Network.isFeature(removed)) {
+                update(0, removed, sq, -1);
+                update(1, removed, sq, -1);
+            } else {
+                kingMoved[removed.getColor().ordinal()] = true;
+            }
+        }
+        if (placed != null) {
+            if (Network.isFeature(placed)) {
+                update(0, placed, sq, 1);
+                update(1, placed, sq, 1);
+            } else {
+                kings[placed.getColor().ordinal()] = sq;
+                kingMoved[placed.getColor().ordinal()] = true;
+            }
+        }
+    }
+
+    /** Adds or removes one feature; no sum can overflow, which {@link Network#load} checks. */
+    private void update(int perspective, Piece piece, int sq, int sign) {
+        int base = Network.feature(perspective, bucket[perspective], piece, sq) * Network.HIDDEN;
+        short[] a = acc[perspective];
+        ShortBuffer w = net.ftWeights;
+        if (sign > 0) {
+            for (int i = 0; i < Network.HIDDEN; i++) a[i] = (short) (a[i] + w.get(base + i));
+        } else {
+            for (int i = 0; i < Network.HIDDEN; i++) a[i] = (short) (a[i] - w.get(base + i));
+        }
+    }
+
+    /** Rebuilds one perspective's sums from the board. */
+    private void refresh(int perspective) {
+        int king = kings[perspective];
+        bucket[perspective] = (king < 0) ? 0 : Network.bucket(Network.relative(perspective, king));
+        System.arraycopy(net.ftBias, 0, acc[perspective], 0, Network.HIDDEN);
+        Board b = state.getBoard();
+        for (int sq = 0; sq < 64; sq++) {
+            Piece p = b.getPiece(sq & 7, sq >>> 3);
+            if (p != null && Network.isFeature(p)) update(perspective, p, sq, 1);
+        }
+        kingMoved[perspective] = false;
+    }
+
+    @Override
+    public int evaluate() {
+        for (int p = 0; p < 2; p++) {
+            if (!kingMoved[p]) continue;
+            int king = kings[p];
+            int b = (king < 0) ? 0 : Network.bucket(Network.relative(p, king));
+            if (b != bucket[p]) refresh(p);
+            else kingMoved[p] = false;
+        }
+        return forward(state.getToMove() == Color.WHITE ? 0 : 1);
+    }
+
+    /** Full rebuild of both perspectives and a forward pass; the reference for the incremental path. */
+    public static int evaluateFull(GameState state, Network net, DenseKernel kernel) {
+        NnueEvaluator e = new NnueEvaluator(state, net, kernel);
+        Board b = state.getBoard();
+        for (int sq = 0; sq < 64; sq++) {
+            Piece p = b.getPiece(sq & 7, sq >>> 3);
+            if (p != null && p.getType() == PieceType.KING) e.kings[p.getColor().ordinal()] = sq;
+        }
+        e.refresh(0);
+        e.refresh(1);
+        return e.forward(state.getToMove() == Color.WHITE ? 0 : 1);
+    }
+
+    private int forward(int us) {
+        clip(acc[us], input, 0);
+        clip(acc[1 - us], input, Network.HIDDEN);
+        kernel.affine(input, 2 * Network.HIDDEN, net.l1Weights, net.l1Bias, hidden, Network.L1);
+        for (int j = 0; j < Network.L1; j++) hidden[j] = Math.min(Math.max(hidden[j], 0f), 1f);
+        return Math.round(net.outBias + kernel.dot(hidden, net.outWeights, Network.L1));
+    }
+
+    private static void clip(short[] a, float[] out, int off) {
+        for (int i = 0; i < Network.HIDDEN; i++) {
+            out[off + i] = Math.min(Math.max(a[i], 0), Network.CLIP) * (1f / Network.CLIP);
+        }
+    }
+}
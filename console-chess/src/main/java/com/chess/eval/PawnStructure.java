@@ -0,0 +1,124 @@
+package com.chess.eval;
+
+/**
+ * Pawn-structure terms computed from pawn bitboards (bit {@code rank * 8 + file}, color 0 = White).
+ * <p>
+ * Doubled, isolated, backward and passed pawns depend on the pawns alone, which is what lets
+ * {@link PawnTable} cache them by pawn key. The king shield also needs the king square, so it
+ * is scored on every evaluation, but from the same bitboards and in a couple of operations.
+ * </p>
+ */
+final class PawnStructure {
+    private PawnStructure() {}
+
+    static final int DOUBLED_MG = -10, DOUBLED_EG = -20;
+    static final int ISOLATED_MG = -10, ISOLATED_EG = -15;
+    static final int BACKWARD_MG = -8, BACKWARD_EG = -10;
+    /** By rank counted from the pawn's own side (1 = home rank). */
+    static final int[] PASSED_MG = {0, 0, 5, 10, 20, 35, 60, 0};
+    static final int[] PASSED_EG = {0, 0, 10, 20, 35, 60, 100, 0};
+    static final int SHIELD_MG = 8;
+
+    static final long[] FILE = new long[8];
+    static final long[] ADJACENT_FILES = new long[8];
+    /** [color][sq]: own and adjacent files, strictly ahead; an enemy pawn there stops a passer. */
+    static final long[][] PASSED_SPAN = new long[2][64];
+    /** [color][sq]: adjacent files, same rank or behind; a friendly pawn there can still support. */
+    static final long[][] SUPPORT_SPAN = new long[2][64];
+    /** [color][sq]: squares a pawn of that color on sq attacks. */
+    static final long[][] ATTACKS = new long[2][64];
+    /** [color][sq]: the three files around a king on sq, one and two ranks towards the enemy. */
+    static final long[][] SHIELD = new long[2][64];
+
+    static {
+        for (int f = 0; f < 8; f++) FILE[f] = 0x0101010101010101L << f;
+        for (int f = 0; f < 8; f++) {
+            ADJACENT_FILES[f] = (f > 0 ? FILE[f - 1] : 0L) | (f < 7 ? FILE[f + 1] : 0L);
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            int f = sq & 7, r = sq >>> 3;
+            long span = FILE[f] | ADJACENT_FILES[f];
+            long above = (r < 7) ? -1L << ((r + 1) * 8) : 0L;
+            long below = (r > 0) ? -1L >>> ((8 - r) * 8) : 0L;
+            long rank = 0xFFL << (r * 8);
+            PASSED_SPAN[0][sq] = span & above;
+            PASSED_SPAN[1][sq] = span & below;
+            SUPPORT_SPAN[0][sq] = ADJACENT_FILES[f] & (below | rank);
+            SUPPORT_SPAN[1][sq] = ADJACENT_FILES[f] & (above | rank);
+            for (int df = -1; df <= 1; df += 2) {
+                int af = f + df;
+                if (af < 0 || af > 7) continue;
+                if (r < 7) ATTACKS[0][sq] |= 1L << ((r + 1) * 8 + af);
+                if (r > 0) ATTACKS[1][sq] |= 1L << ((r - 1) * 8 + af);
+            }
+            long around = FILE[f] | ADJACENT_FILES[f];
+            long up = 0L, down = 0L;
+            for (int d = 1; d <= 2; d++) {
+                if (r + d <= 7) up |= 0xFFL << ((r + d) * 8);
+                if (r - d >= 0) down |= 0xFFL << ((r - d) * 8);
+            }
+            SHIELD[0][sq] = around & up;
+            SHIELD[1][sq] = around & down;
+        }
+    }
+
+    /** Pawns of {@code color} with no enemy pawn ahead of them on their own or adjacent files. */
+    static long passed(int color, long own, long enemy) {
+        long passed = 0L;
+        for (long bb = own; bb != 0; bb &= bb - 1) {
+            int sq = Long.numberOfTrailingZeros(bb);
+            if ((enemy & PASSED_SPAN[color][sq]) == 0) passed |= 1L << sq;
+        }
+        return passed;
+    }
+
+    /** White-minus-Black structure score, packed as {@link #pack(int, int)}. */
+    static long score(long white, long black, long passedWhite, long passedBlack) {
+        long w = side(0, white, black, passedWhite);
+        long b = side(1, black, white, passedBlack);
+        return pack(mg(w) - mg(b), eg(w) - eg(b));
+    }
+
+    private static long side(int color, long own, long enemy, long passed) {
+        int mg = 0, eg = 0;
+        for (int f = 0; f < 8; f++) {
+            int n = Long.bitCount(own & FILE[f]);
+            if (n > 1) {
+                mg += DOUBLED_MG * (n - 1);
+                eg += DOUBLED_EG * (n - 1);
+            }
+        }
+        for (long bb = own; bb != 0; bb &= bb - 1) {
+            int sq = Long.numberOfTrailingZeros(bb);
+            int f = sq & 7;
+            int relRank = (color == 0) ? sq >>> 3 : 7 - (sq >>> 3);
+            if ((passed & (1L << sq)) != 0) {
+                mg += PASSED_MG[relRank];
+                eg += PASSED_EG[relRank];
+            }
+            if ((own & ADJACENT_FILES[f]) == 0) {
+                mg += ISOLATED_MG;
+                eg += ISOLATED_EG;
+            } else if ((passed & (1L << sq)) == 0 && (own & SUPPORT_SPAN[color][sq]) == 0) {
+                int stop = (color == 0) ? sq + 8 : sq - 8;
+                if (stop >= 0 && stop < 64 && (enemy & ATTACKS[color][stop]) != 0) {
+                    mg += BACKWARD_MG;
+                    eg += BACKWARD_EG;
+                }
+            }
+        }
+        return pack(mg, eg);
+    }
+
+    /** Middlegame bonus for own pawns shielding a king on {@code kingSq}. */
+    static int shield(int color, int kingSq, long own) {
+        return SHIELD_MG * Long.bitCount(own & SHIELD[color][kingSq]);
+    }
+
+    static long pack(int mg, int eg) {
+        return ((long) mg << 32) | (eg & 0xFFFFFFFFL);
+    }
+
+    static int mg(long packed) { return (int) (packed >> 32); }
+    static int eg(long packed) { return (int) packed; }
+}
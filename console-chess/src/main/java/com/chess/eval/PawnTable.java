@@ -0,0 +1,81 @@
+package com.chess.eval;
+
+import java.util.Arrays;
+
+/**
+ * Small fixed-size cache of pawn-structure results keyed by the board's pawn key.
+ * <p>
+ * Pawn configurations repeat far more than whole positions (only pawn moves and pawn captures
+ * change them), so almost every probe during a search hits. Each slot holds the full key, the
+ * packed middlegame/endgame score and both sides' passed-pawn masks; a colliding key simply
+ * replaces the slot. Not thread-safe: give each search thread its own table.
+ * </p>
+ */
+public final class PawnTable {
+
+    public static final int DEFAULT_ENTRIES = 1 << 12;
+
+    private final long[] keys;
+    private final long[] scores;
+    private final long[] passed;      // two per slot: White, Black
+    private final int mask;
+    private long probes;
+    private long hits;
+
+    public PawnTable() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /** @param entries rounded up to a power of two */
+    public PawnTable(int entries) {
+        if (entries < 1) throw new IllegalArgumentException("entries must be >= 1");
+        int n = (entries == 1) ? 1 : Integer.highestOneBit(entries - 1) << 1;
+        keys = new long[n];
+        scores = new long[n];
+        passed = new long[2 * n];
+        mask = n - 1;
+        // slot contents start as the (correct) all-zero entry for key 0, the board without pawns
+    }
+
+    /**
+     * Returns the slot holding the structure of these pawns, computing and storing it on a miss.
+     * Read the slot with {@link #score(int)} and {@link #passed(int, int)} before the next probe.
+     */
+    int probe(long pawnKey, long white, long black) {
+        probes++;
+        int slot = (int) pawnKey & mask;
+        if (keys[slot] == pawnKey) {
+            hits++;
+            return slot;
+        }
+        long pw = PawnStructure.passed(0, white, black);
+        long pb = PawnStructure.passed(1, black, white);
+        keys[slot] = pawnKey;
+        scores[slot] = PawnStructure.score(white, black, pw, pb);
+        passed[2 * slot] = pw;
+        passed[2 * slot + 1] = pb;
+        return slot;
+    }
+
+    /** White-minus-Black score, packed as middlegame in the high and endgame in the low 32 bits. */
+    long score(int slot) { return scores[slot]; }
+
+    /** Passed-pawn bitboard of {@code color} (0 = White). */
+    long passed(int slot, int color) { return passed[2 * slot + color]; }
+
+    public int capacity() { return keys.length; }
+    public long getProbes() { return probes; }
+    public long getHits() { return hits; }
+
+    public double hitRate() {
+        return probes == 0 ? 0.0 : (double) hits / probes;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(scores, 0L);
+        Arrays.fill(passed, 0L);
+        probes = 0;
+        hits = 0;
+    }
+}
@@ -0,0 +1,25 @@
+package com.chess.eval;
+
+/** Plain loops; the reference for {@link VectorKernel} and the fallback without the vector module. */
+public final class ScalarKernel implements DenseKernel {
+
+    @Override
+    public void affine(float[] in, int n, float[] weights, float[] bias, float[] out, int m) {
+        for (int j = 0; j < m; j++) {
+            float sum = 0f;
+            int row = j * n;
+            for (int i = 0; i < n; i++) sum += weights[row + i] * in[i];
+            out[j] = bias[j] + sum;
+        }
+    }
+
+    @Override
+    public float dot(float[] a, float[] b, int n) {
+        float sum = 0f;
+        for (int i = 0; i < n; i++) sum += a[i] * b[i];
+        return sum;
+    }
+
+    @Override
+    public String name() { return "scalar"; }
+}
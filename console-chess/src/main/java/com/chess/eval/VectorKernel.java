@@ -0,0 +1,44 @@
+package com.chess.eval;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link DenseKernel} on the JDK Vector API: fused multiply-adds over the widest float vectors
+ * the CPU supports, reduced once per output. Only loaded by {@link DenseKernel#best()} when the
+ * incubator module is present.
+ */
+final class VectorKernel implements DenseKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public void affine(float[] in, int n, float[] weights, float[] bias, float[] out, int m) {
+        for (int j = 0; j < m; j++) {
+            out[j] = bias[j] + dot(weights, j * n, in, n);
+        }
+    }
+
+    @Override
+    public float dot(float[] a, float[] b, int n) {
+        return dot(a, 0, b, n);
+    }
+
+    private static float dot(float[] a, int aOff, float[] b, int n) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOff + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) sum += a[aOff + i] * b[i];
+        return sum;
+    }
+
+    @Override
+    public String name() { return "vector(" + SPECIES.length() + "x float)"; }
+}
@@ -0,0 +1,32 @@
+package com.chess.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named event count. Increments go to a {@link LongAdder}, whose cells are striped across
+ * threads, so concurrent sessions counting the same event do not fight over one cache line.
+ * Nothing is counted while {@link Metrics} is disabled.
+ */
+public final class Counter {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+
+    public void increment() {
+        if (Metrics.enabled) count.increment();
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    void reset() {
+        count.reset();
+    }
+}
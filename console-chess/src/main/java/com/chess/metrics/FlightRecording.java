@@ -0,0 +1,58 @@
+package com.chess.metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * The console-chess JDK Flight Recorder events and the bundled {@code chess.jfc} settings.
+ * <p>
+ * Cold events (status assessment, search iterations, save and load) are on in any recording.
+ * The hot ones, {@link MoveApplyEvent} and {@link LegalityCheckEvent}, are disabled by their
+ * annotations and cost a JIT-eliminated allocation until a recording enables them; the bundled
+ * profile does, with a threshold so only slow calls are written. From the command line:
+ * </p>
+ * <pre>
+ * java -XX:StartFlightRecording:settings=default,settings=src/main/resources/com/chess/metrics/chess.jfc,filename=chess.jfr ...
+ * </pre>
+ *
+ * Example usage:
+ * <pre>
+ * try (Recording r = FlightRecording.withDefaults()) {
+ *     r.start();
+ *     // ... play or search ...
+ *     r.dump(Paths.get("chess.jfr"));
+ * }
+ * </pre>
+ */
+public final class FlightRecording {
+    private FlightRecording() {}
+
+    private static final String RESOURCE = "chess.jfc";
+
+    /** The bundled profile: every chess event, hot ones above their thresholds. */
+    public static Configuration configuration() throws IOException, ParseException {
+        InputStream in = FlightRecording.class.getResourceAsStream(RESOURCE);
+        if (in == null) throw new IOException("Missing resource " + RESOURCE);
+        try (Reader r = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return Configuration.create(r);
+        }
+    }
+
+    /** A new (not started) recording with the JDK's "default" settings plus the chess profile. */
+    public static Recording withDefaults() throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        settings.putAll(configuration().getSettings());
+        Recording recording = new Recording(settings);
+        recording.setName("console-chess");
+        return recording;
+    }
+}
@@ -0,0 +1,106 @@
+package com.chess.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution of one operation, in nanoseconds, with HDR-style log-linear buckets.
+ * <p>
+ * Values below 16 ns get a bucket each; above that every power of two is split into 16 equal
+ * sub-buckets, so any recorded value is reported within about 6% (one sub-bucket) across the whole
+ * range from nanoseconds to hours, in a fixed 960 counters. Recording is a bucket-index computation
+ * and two lock-free increments, and never allocates.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * long t = Metrics.start();
+ * doWork();
+ * histogram.stop(t);     // records only while metrics are enabled
+ * </pre>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /** A histogram of one's own, outside the {@link Metrics} registry; it records whether or not metrics are on. */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+
+    /** Records the time since {@code startNanos} from {@link Metrics#start()}; a no-op for a start of 0 (metrics were off). */
+    public void stop(long startNanos) {
+        if (startNanos != 0L) record(System.nanoTime() - startNanos);
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(index(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int magnitude = 63 - Long.numberOfLeadingZeros(v);
+        int shift = magnitude - SUB_BITS;
+        int sub = (int) (v >>> shift) & (SUB - 1);
+        return (shift + 1) * SUB + sub;
+    }
+
+    /** Largest value that falls into bucket {@code index}. */
+    static long highestEquivalent(int index) {
+        if (index < SUB) return index;
+        int shift = index / SUB - 1;
+        long lowest = (long) (SUB + index % SUB) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    public long getCount() { return count.sum(); }
+    public long getMax() { return max.get(); }
+
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) total.sum() / n;
+    }
+
+    /**
+     * Value at {@code percentile} (0..100]: the top of the bucket holding that rank, capped at the
+     * maximum seen. 0 when nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+        long n = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(highestEquivalent(i), getMax());
+        }
+        return getMax();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+}
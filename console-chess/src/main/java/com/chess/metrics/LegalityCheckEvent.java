@@ -0,0 +1,26 @@
+package com.chess.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/** One {@code MoveValidator.isLegal}. Hot in move generation and search, so off by default. */
+@Name("com.chess.LegalityCheck")
+@Label("Legality Check")
+@Category({"Chess", "Rules"})
+@Description("A single move checked against the rules")
+@Enabled(false)
+@Threshold("20 us")
+@StackTrace(false)
+public final class LegalityCheckEvent extends jdk.jfr.Event {
+
+    @Label("Move")
+    public String move;
+
+    @Label("Legal")
+    public boolean legal;
+}
@@ -0,0 +1,24 @@
+package com.chess.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/** One {@code SaveLoadService.load}; a load that fails still records what it read. */
+@Name("com.chess.Load")
+@Label("Game Load")
+@Category({"Chess", "Persistence"})
+@Description("A game state read from a stream")
+@Threshold("0 ms")
+public final class LoadEvent extends jdk.jfr.Event {
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,103 @@
+package com.chess.metrics;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Process-wide counters and latency histograms for the rules layer and persistence.
+ * <p>
+ * Off by default (start the JVM with {@code -Dchess.metrics=true}, or call
+ * {@link #setEnabled(boolean)} at any time, e.g. from the console's {@code stats on}). While off,
+ * every probe is one read of a flag: {@link #start()} returns 0 without reading the clock and
+ * {@link LatencyHistogram#stop(long)} and {@link Counter#increment()} return at once.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * long t = Metrics.start();
+ * List&lt;Move&gt; moves = generate(state);
+ * Metrics.GENERATE_LEGAL_MOVES.stop(t);
+ * </pre>
+ */
+public final class Metrics {
+    private Metrics() {}
+
+    static volatile boolean enabled = Boolean.getBoolean("chess.metrics");
+
+    public static final Counter LEGALITY_CHECKS = new Counter("legality_checks");
+    public static final Counter DEEP_COPIES = new Counter("deep_copies");
+    public static final Counter CHECK_SCANS = new Counter("check_scans");
+
+    public static final LatencyHistogram GENERATE_LEGAL_MOVES = new LatencyHistogram("generate_legal_moves");
+    public static final LatencyHistogram ASSESS_STATUS = new LatencyHistogram("assess_status");
+    public static final LatencyHistogram MOVE_APPLY = new LatencyHistogram("move_apply");
+    public static final LatencyHistogram SAVE = new LatencyHistogram("save");
+    public static final LatencyHistogram LOAD = new LatencyHistogram("load");
+
+    private static final List<Counter> COUNTERS = List.of(LEGALITY_CHECKS, DEEP_COPIES, CHECK_SCANS);
+    private static final List<LatencyHistogram> HISTOGRAMS =
+            List.of(GENERATE_LEGAL_MOVES, ASSESS_STATUS, MOVE_APPLY, SAVE, LOAD);
+
+    public static boolean isEnabled() { return enabled; }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /** Start time for {@link LatencyHistogram#stop(long)}, or 0 while metrics are off. */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public static List<Counter> counters() { return COUNTERS; }
+    public static List<LatencyHistogram> histograms() { return HISTOGRAMS; }
+
+    /** Zeroes every counter and histogram. */
+    public static void reset() {
+        for (Counter c : COUNTERS) c.reset();
+        for (LatencyHistogram h : HISTOGRAMS) h.reset();
+    }
+
+    /** Human-readable table: counters, then count / mean / p50 / p99 / max per histogram in microseconds. */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("metrics ").append(enabled ? "on" : "off").append('\n');
+        for (Counter c : COUNTERS) {
+            sb.append(String.format(Locale.ROOT, "  %-22s %,12d%n", c.getName(), c.get()));
+        }
+        sb.append(String.format(Locale.ROOT, "  %-22s %10s %10s %10s %10s %10s%n", "latency (us)", "count", "mean", "p50", "p99", "max"));
+        for (LatencyHistogram h : HISTOGRAMS) {
+            sb.append(String.format(Locale.ROOT, "  %-22s %10d %10.1f %10.1f %10.1f %10.1f%n", h.getName(), h.getCount(),
+                    h.getMean() / 1e3, h.getPercentile(50) / 1e3, h.getPercentile(99) / 1e3, h.getMax() / 1e3));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * One-line JSON snapshot, e.g.
+     * {@code {"enabled":true,"counters":{"legality_checks":12,...},"latency_ns":{"move_apply":{"count":3,"mean":...,"p50":...,"p90":...,"p99":...,"max":...},...}}}.
+     */
+    public static String snapshotJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"enabled\":").append(enabled).append(",\"counters\":{");
+        for (int i = 0; i < COUNTERS.size(); i++) {
+            Counter c = COUNTERS.get(i);
+            if (i > 0) sb.append(',');
+            sb.append('"').append(c.getName()).append("\":").append(c.get());
+        }
+        sb.append("},\"latency_ns\":{");
+        for (int i = 0; i < HISTOGRAMS.size(); i++) {
+            LatencyHistogram h = HISTOGRAMS.get(i);
+            if (i > 0) sb.append(',');
+            sb.append('"').append(h.getName()).append("\":{")
+              .append("\"count\":").append(h.getCount())
+              .append(",\"mean\":").append(Math.round(h.getMean()))
+              .append(",\"p50\":").append(h.getPercentile(50))
+              .append(",\"p90\":").append(h.getPercentile(90))
+              .append(",\"p99\":").append(h.getPercentile(99))
+              .append(",\"max\":").append(h.getMax())
+              .append('}');
+        }
+        return sb.append("}}").toString();
+    }
+}
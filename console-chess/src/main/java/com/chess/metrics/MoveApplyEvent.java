@@ -0,0 +1,26 @@
+package com.chess.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One {@code MoveService.apply}. The search makes a move per node, so this is off unless a
+ * recording turns it on (the bundled {@code chess.jfc} does, above a threshold).
+ */
+@Name("com.chess.MoveApply")
+@Label("Move Apply")
+@Category({"Chess", "Rules"})
+@Description("A move applied to a game state")
+@Enabled(false)
+@Threshold("20 us")
+@StackTrace(false)
+public final class MoveApplyEvent extends jdk.jfr.Event {
+
+    @Label("Move")
+    public String move;
+}
@@ -0,0 +1,24 @@
+package com.chess.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/** One {@code SaveLoadService.save}; a save that fails still records what it wrote. */
+@Name("com.chess.Save")
+@Label("Game Save")
+@Category({"Chess", "Persistence"})
+@Description("A game state written to a stream")
+@Threshold("0 ms")
+public final class SaveEvent extends jdk.jfr.Event {
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,43 @@
+package com.chess.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One completed depth of iterative deepening on one search thread. The duration is that
+ * iteration alone; nodes and nodes per second count from the start of the search.
+ */
+@Name("com.chess.SearchIteration")
+@Label("Search Iteration")
+@Category({"Chess", "Search"})
+@Description("A completed iterative-deepening depth")
+@Threshold("0 ms")
+@StackTrace(false)
+public final class SearchIterationEvent extends jdk.jfr.Event {
+
+    @Label("Worker")
+    @Description("0 for the main search thread, 1.. for helpers")
+    public int worker;
+
+    @Label("Depth")
+    public int depth;
+
+    @Label("Nodes")
+    public long nodes;
+
+    @Label("Nodes per Second")
+    @Frequency
+    public long nps;
+
+    @Label("Score")
+    @Description("Centipawns from the side to move's point of view")
+    public int score;
+
+    @Label("Best Move")
+    public String bestMove;
+}
@@ -0,0 +1,19 @@
+package com.chess.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/** One {@code GameService.assessStatus}: once per move played in a game, so on by default. */
+@Name("com.chess.StatusAssessment")
+@Label("Status Assessment")
+@Category({"Chess", "Rules"})
+@Description("Check, mate, stalemate and draw detection after a move")
+@Threshold("0 ms")
+public final class StatusAssessmentEvent extends jdk.jfr.Event {
+
+    @Label("Status")
+    public String status;
+}
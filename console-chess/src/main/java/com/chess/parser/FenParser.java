@@ -0,0 +1,134 @@
+package com.chess.parser;
+
+import com.chess.domain.Board;
+import com.chess.domain.CastlingRights;
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.Piece;
+import com.chess.domain.PieceType;
+import com.chess.domain.Square;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation, the position format used by UCI and most chess tools.
+ * <p>
+ * The halfmove clock is kept; the fullmove number is accepted but not kept, since
+ * {@link GameState} does not track it, and {@link #format(GameState)} writes 1 for it.
+ * </p>
+ */
+public final class FenParser {
+    private FenParser() {}
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    public static GameState parse(String fen) {
+        if (fen == null) throw new IllegalArgumentException("Empty FEN");
+        String[] parts = fen.trim().split("\\s+");
+        if (parts.length < 4) throw new IllegalArgumentException("FEN needs at least 4 fields: " + fen);
+
+        Board b = new Board();
+        for (int r = 0; r < 8; r++) for (int f = 0; f < 8; f++) b.setPiece(new Square(f, r), null);
+
+        String[] ranks = parts[0].split("/");
+        if (ranks.length != 8) throw new IllegalArgumentException("FEN board needs 8 ranks: " + parts[0]);
+        for (int i = 0; i < 8; i++) {
+            int r = 7 - i;
+            int f = 0;
+            for (char c : ranks[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    f += c - '0';
+                } else {
+                    if (f > 7) throw new IllegalArgumentException("FEN rank too long: " + ranks[i]);
+                    Color color = Character.isUpperCase(c) ? Color.WHITE : Color.BLACK;
+                    b.setPiece(new Square(f, r), new Piece(letterToType(Character.toLowerCase(c)), color));
+                    f++;
+                }
+            }
+            if (f != 8) throw new IllegalArgumentException("FEN rank must cover 8 files: " + ranks[i]);
+        }
+
+        Color toMove;
+        switch (parts[1]) {
+            case "w": toMove = Color.WHITE; break;
+            case "b": toMove = Color.BLACK; break;
+            default: throw new IllegalArgumentException("FEN side to move must be w or b: " + parts[1]);
+        }
+
+        CastlingRights cr = new CastlingRights();
+        String c = parts[2];
+        if (!c.contains("K")) cr.revokeWhiteKingSide();
+        if (!c.contains("Q")) cr.revokeWhiteQueenSide();
+        if (!c.contains("k")) cr.revokeBlackKingSide();
+        if (!c.contains("q")) cr.revokeBlackQueenSide();
+
+        Square ep = null;
+        Color epFor = null;
+        if (!parts[3].equals("-")) {
+            ep = Square.fromNotation(parts[3]);
+            epFor = toMove;
+        }
+        GameState state = new GameState(b, toMove, cr, ep, epFor);
+        if (parts.length > 4) {
+            try {
+                state.setHalfmoveClock(Integer.parseInt(parts[4]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("FEN halfmove clock must be a number: " + parts[4]);
+            }
+        }
+        return state;
+    }
+
+    public static String format(GameState state) {
+        StringBuilder sb = new StringBuilder(90);
+        Board b = state.getBoard();
+        for (int r = 7; r >= 0; r--) {
+            int empty = 0;
+            for (int f = 0; f < 8; f++) {
+                Piece p = b.getPiece(new Square(f, r));
+                if (p == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) { sb.append(empty); empty = 0; }
+                char l = typeToLetter(p.getType());
+                sb.append(p.getColor() == Color.WHITE ? Character.toUpperCase(l) : l);
+            }
+            if (empty > 0) sb.append(empty);
+            if (r > 0) sb.append('/');
+        }
+        sb.append(state.getToMove() == Color.WHITE ? " w " : " b ");
+
+        CastlingRights cr = state.getRights();
+        String rights = (cr.canWhiteKingSide() ? "K" : "") + (cr.canWhiteQueenSide() ? "Q" : "")
+                + (cr.canBlackKingSide() ? "k" : "") + (cr.canBlackQueenSide() ? "q" : "");
+        sb.append(rights.isEmpty() ? "-" : rights);
+
+        Square ep = state.getEnPassantSquare();
+        boolean epLive = ep != null && state.getEnPassantFor() == state.getToMove();
+        sb.append(' ').append(epLive ? ep.toString() : "-");
+        sb.append(' ').append(state.getHalfmoveClock()).append(" 1");
+        return sb.toString();
+    }
+
+    private static PieceType letterToType(char c) {
+        switch (c) {
+            case 'k': return PieceType.KING;
+            case 'q': return PieceType.QUEEN;
+            case 'r': return PieceType.ROOK;
+            case 'b': return PieceType.BISHOP;
+            case 'n': return PieceType.KNIGHT;
+            case 'p': return PieceType.PAWN;
+            default: throw new IllegalArgumentException("Unknown FEN piece letter: " + c);
+        }
+    }
+
+    private static char typeToLetter(PieceType t) {
+        switch (t) {
+            case KING: return 'k';
+            case QUEEN: return 'q';
+            case ROOK: return 'r';
+            case BISHOP: return 'b';
+            case KNIGHT: return 'n';
+            default: return 'p';
+        }
+    }
+}
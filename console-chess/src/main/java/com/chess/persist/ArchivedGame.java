@@ -0,0 +1,55 @@
+package com.chess.persist;
+
+import java.util.List;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.parser.FenParser;
+
+/** One game of a {@link GameArchiveWriter} file: where it started, its moves and how it ended. */
+public final class ArchivedGame {
+
+    /** Results in the order of their 2-bit code in the file. */
+    static final String[] RESULTS = {"*", "1-0", "0-1", "1/2-1/2"};
+
+    private final String startFen;   // null for the initial position
+    private final List<Move> moves;
+    private final String result;
+
+    /** A game from the initial position with no recorded result. */
+    public ArchivedGame(List<Move> moves) {
+        this(null, moves, "*");
+    }
+
+    /**
+     * @param startFen the starting position, or null for the initial one
+     * @param result   {@code 1-0}, {@code 0-1}, {@code 1/2-1/2} or {@code *} for unknown
+     */
+    public ArchivedGame(String startFen, List<Move> moves, String result) {
+        if (resultCode(result) < 0) throw new IllegalArgumentException("Unknown result: " + result);
+        this.startFen = startFen;
+        this.moves = List.copyOf(moves);
+        this.result = result;
+    }
+
+    public String getStartFen() { return startFen; }
+    public List<Move> getMoves() { return moves; }
+    public String getResult() { return result; }
+
+    /** A fresh copy of the starting position. */
+    public GameState startState() {
+        return (startFen == null) ? new GameState() : FenParser.parse(startFen);
+    }
+
+    static int resultCode(String result) {
+        for (int i = 0; i < RESULTS.length; i++) {
+            if (RESULTS[i].equals(result)) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return moves.size() + " plies " + result + (startFen == null ? "" : " from " + startFen);
+    }
+}
@@ -0,0 +1,125 @@
+package com.chess.persist;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.rules.RulesEngine;
+import com.chess.search.SearchLimits;
+import com.chess.search.Searcher;
+import com.chess.service.MoveService;
+
+/**
+ * Encode and decode throughput of {@link GameArchiveWriter} / {@link GameArchiveReader} in both
+ * {@link MoveRankCodec.Mode}s, with the bytes per move each one needs.
+ * <p>
+ * The games are generated up front: {@code engine} games are played by a depth-2 search after
+ * four random plies, so their moves look like real ones; {@code random} games pick uniformly
+ * among the legal moves, the worst case for the entropy coder. Run with
+ * {@code java -cp target/classes com.chess.persist.GameArchiveBenchmark [engine|random] [games]}.
+ * </p>
+ */
+public final class GameArchiveBenchmark {
+    private GameArchiveBenchmark() {}
+
+    private static final int ROUNDS = 10;
+    private static final int MAX_PLIES = 200;
+
+    public static void main(String[] args) throws Exception {
+        boolean engine = args.length == 0 || !args[0].equals("random");
+        int count = (args.length > 1) ? Integer.parseInt(args[1]) : (engine ? 50 : 200);
+        List<ArchivedGame> games = engine ? engineGames(count, 1) : randomGames(count, 1);
+        long plies = 0;
+        for (ArchivedGame g : games) plies += g.getMoves().size();
+        System.out.printf("%,d %s games, %,d plies (packed moves: 2.00 bytes/move, coordinates: 5.00)%n",
+                          games.size(), engine ? "engine" : "random", plies);
+        for (MoveRankCodec.Mode mode : MoveRankCodec.Mode.values()) report(mode, games, plies);
+    }
+
+    private static void report(MoveRankCodec.Mode mode, List<ArchivedGame> games, long plies) throws Exception {
+        byte[] file = null;
+        long moveBytes = 0;
+        for (int i = 0; i < ROUNDS / 2; i++) write(mode, games);   // warm-up
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (GameArchiveWriter w = new GameArchiveWriter(bos, mode)) {
+                for (ArchivedGame g : games) w.write(g);
+                moveBytes = w.getMoveBytes();
+            }
+            file = bos.toByteArray();
+        }
+        double encodeSecs = (System.nanoTime() - start) / 1e9;
+
+        for (int i = 0; i < ROUNDS / 2; i++) read(file);
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            if (read(file) != games.size()) throw new IllegalStateException("lost games");
+        }
+        double decodeSecs = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-8s encode %,10.0f games/sec  decode %,10.0f games/sec  %.2f bytes/move (%.2f with headers)%n",
+                          mode, games.size() * (double) ROUNDS / encodeSecs, games.size() * (double) ROUNDS / decodeSecs,
+                          (double) moveBytes / plies, (double) file.length / plies);
+    }
+
+    private static void write(MoveRankCodec.Mode mode, List<ArchivedGame> games) throws Exception {
+        try (GameArchiveWriter w = new GameArchiveWriter(new ByteArrayOutputStream(), mode)) {
+            for (ArchivedGame g : games) w.write(g);
+        }
+    }
+
+    private static long read(byte[] file) throws Exception {
+        try (GameArchiveReader r = new GameArchiveReader(new ByteArrayInputStream(file))) {
+            while (r.next() != null) { }
+            return r.getGames();
+        }
+    }
+
+    /** Games of uniformly random legal moves, until mate, stalemate, the fifty-move rule or {@link #MAX_PLIES}. */
+    static List<ArchivedGame> randomGames(int count, long seed) {
+        Random rnd = new Random(seed);
+        List<ArchivedGame> games = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            games.add(play(rnd, MAX_PLIES, st -> null));
+        }
+        return games;
+    }
+
+    /** Games played by a depth-2 search after four random plies. */
+    static List<ArchivedGame> engineGames(int count, long seed) {
+        Random rnd = new Random(seed);
+        Searcher searcher = new Searcher();
+        List<ArchivedGame> games = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int[] ply = {0};
+            games.add(play(rnd, MAX_PLIES, st -> (ply[0]++ < 4) ? null
+                    : searcher.search(st, SearchLimits.depth(2)).getBestMove()));
+        }
+        return games;
+    }
+
+    interface Player {
+        /** The move to play, or null for a random one. */
+        Move choose(GameState state);
+    }
+
+    private static ArchivedGame play(Random rnd, int maxPlies, Player player) {
+        GameState st = new GameState();
+        List<Move> moves = new ArrayList<>();
+        while (moves.size() < maxPlies && st.getHalfmoveClock() < 100) {
+            List<Move> legal = RulesEngine.generateLegalMoves(st);
+            if (legal.isEmpty()) break;
+            Move m = player.choose(st);
+            if (m == null) m = legal.get(rnd.nextInt(legal.size()));
+            MoveService.apply(st, m);
+            st.switchTurn();
+            moves.add(m);
+        }
+        return new ArchivedGame(moves);
+    }
+}
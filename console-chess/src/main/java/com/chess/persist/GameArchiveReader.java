@@ -0,0 +1,117 @@
+package com.chess.persist;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.parser.FenParser;
+
+/**
+ * Reads a {@link GameArchiveWriter} file one game at a time, replaying each game's moves through
+ * {@link MoveRankCodec} as it goes, so an archive of any size is read in constant memory.
+ *
+ * Example usage:
+ * <pre>
+ * try (GameArchiveReader r = GameArchiveReader.open(file)) {
+ *     for (ArchivedGame g; (g = r.next()) != null; ) {
+ *         GameState last = r.getFinalState();
+ *     }
+ * }
+ * </pre>
+ */
+public final class GameArchiveReader implements Closeable {
+
+    private final DataInputStream in;
+    private final MoveRankCodec codec;
+    private byte[] buf = new byte[256];
+    private GameState finalState;
+    private long games;
+
+    /** @throws IOException if the stream does not start with an archive header of a known version */
+    public GameArchiveReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        try {
+            if (this.in.readInt() != GameArchiveWriter.MAGIC) throw new IOException("Not a game archive");
+            int version = this.in.readInt();
+            if (version != GameArchiveWriter.VERSION) throw new IOException("Unsupported game archive version " + version);
+            int mode = this.in.readUnsignedByte();
+            if (mode >= MoveRankCodec.Mode.values().length) throw new IOException("Unknown archive mode " + mode);
+            this.codec = new MoveRankCodec(MoveRankCodec.Mode.values()[mode]);
+        } catch (EOFException e) {
+            throw new IOException("Not a game archive", e);
+        }
+    }
+
+    public static GameArchiveReader open(Path file) throws IOException {
+        InputStream is = Files.newInputStream(file);
+        try {
+            return new GameArchiveReader(is);
+        } catch (IOException | RuntimeException e) {
+            is.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The next game, or null at the end of the archive.
+     *
+     * @throws IOException if the archive ends inside a record or a record does not decode
+     */
+    public ArchivedGame next() throws IOException {
+        int first = in.read();
+        if (first < 0) return null;
+        int plies = readVarint(first);
+        if (plies > GameArchiveWriter.MAX_PLIES) throw new IOException("Bad ply count " + plies + " in game " + (games + 1));
+        int flags = in.readUnsignedByte();
+        if ((flags & ~(GameArchiveWriter.FLAG_FEN | 3)) != 0) throw new IOException("Bad flags in game " + (games + 1));
+        String fen = ((flags & GameArchiveWriter.FLAG_FEN) != 0) ? in.readUTF() : null;
+        int len = readVarint(in.readUnsignedByte());
+        // a rank costs at most two bytes in either mode (fewer than 512 legal moves, frequencies
+        // of at least 1 in 2^16), plus the coder's final bits; a plain rank costs at least one
+        boolean plain = codec.getMode() == MoveRankCodec.Mode.PLAIN;
+        if (len > 2 * plies + (plain ? 0 : 8) || (plain && len < plies)) {
+            throw new IOException("Bad move data length " + len + " for " + plies + " plies in game " + (games + 1));
+        }
+        if (len > buf.length) buf = new byte[Math.max(len, buf.length * 2)];
+        in.readFully(buf, 0, len);
+
+        try {
+            finalState = (fen == null) ? new GameState() : FenParser.parse(fen);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Bad start position in game " + (games + 1) + ": " + e.getMessage(), e);
+        }
+        List<Move> moves = codec.decode(finalState, buf, 0, len, plies);
+        games++;
+        return new ArchivedGame(fen, moves, ArchivedGame.RESULTS[flags & 3]);
+    }
+
+    /** The position after the last game returned by {@link #next()}. */
+    public GameState getFinalState() { return finalState; }
+
+    public MoveRankCodec.Mode getMode() { return codec.getMode(); }
+    public long getGames() { return games; }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int readVarint(int first) throws IOException {
+        int v = first & 0x7F;
+        for (int shift = 7, b = first; b >= 0x80; shift += 7) {
+            if (shift > 28) throw new IOException("Malformed length in game " + (games + 1));
+            b = in.readUnsignedByte();
+            v |= (b & 0x7F) << shift;
+        }
+        if (v < 0) throw new IOException("Malformed length in game " + (games + 1));
+        return v;
+    }
+}
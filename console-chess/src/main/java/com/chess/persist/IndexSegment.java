@@ -0,0 +1,265 @@
+package com.chess.persist;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One immutable, sorted run of (hash, gameId, ply) entries on disk.
+ * <p>
+ * Layout: a fixed header, then blocks of up to {@link #BLOCK_SIZE} entries, then a
+ * block index of (firstHash, offset) pairs. Inside a block each entry is stored as
+ * varints: hash delta from the previous entry, game id, ply. Lookups binary-search the
+ * block index straight out of the mapped file and decode only the candidate blocks.
+ * Hashes are sorted as signed longs; deltas wrap, so they are still non-negative varints.
+ * </p>
+ */
+final class IndexSegment {
+
+    static final int MAGIC = 0x43504958; // "CPIX"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int INDEX_ENTRY_BYTES = 16;
+    static final int BLOCK_SIZE = 128;
+
+    private final Path path;
+    private final MappedByteBuffer buf;
+    private final long entryCount;
+    private final int blockCount;
+    private final int indexOffset;
+
+    private IndexSegment(Path path, MappedByteBuffer buf) throws IOException {
+        this.path = path;
+        this.buf = buf;
+        if (buf.capacity() < HEADER_BYTES || buf.getInt(0) != MAGIC) {
+            throw new IOException("Not a position index segment: " + path);
+        }
+        if (buf.getInt(4) != VERSION) {
+            throw new IOException("Unsupported segment version " + buf.getInt(4) + " in " + path);
+        }
+        this.entryCount = buf.getLong(8);
+        this.blockCount = buf.getInt(16);
+        long off = buf.getLong(24);
+        if (off < HEADER_BYTES || off + (long) blockCount * INDEX_ENTRY_BYTES != buf.capacity()) {
+            throw new IOException("Corrupt block index in " + path);
+        }
+        this.indexOffset = (int) off;
+    }
+
+    static IndexSegment open(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segment larger than 2 GB, compact into smaller runs: " + path);
+            }
+            MappedByteBuffer mb = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mb.order(ByteOrder.BIG_ENDIAN);
+            return new IndexSegment(path, mb);
+        }
+    }
+
+    Path getPath() { return path; }
+    long getEntryCount() { return entryCount; }
+
+    private long blockFirstHash(int block) {
+        return buf.getLong(indexOffset + block * INDEX_ENTRY_BYTES);
+    }
+
+    private int blockOffset(int block) {
+        return (int) buf.getLong(indexOffset + block * INDEX_ENTRY_BYTES + 8);
+    }
+
+    private int blockEnd(int block) {
+        return (block + 1 < blockCount) ? blockOffset(block + 1) : indexOffset;
+    }
+
+    /** Appends every entry with the given hash to {@code out}. */
+    void lookup(long hash, List<PositionHit> out) {
+        if (blockCount == 0) return;
+        // lower bound: first block whose first hash is >= target
+        int lo = 0, hi = blockCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (blockFirstHash(mid) < hash) lo = mid + 1; else hi = mid;
+        }
+        // the previous block may end with the target hash
+        int block = Math.max(lo - 1, 0);
+        for (; block < blockCount && blockFirstHash(block) <= hash; block++) {
+            if (!scanBlock(block, hash, out)) return;
+        }
+    }
+
+    /** Decodes one block; returns false once a hash past the target has been seen. */
+    private boolean scanBlock(int block, long target, List<PositionHit> out) {
+        int pos = blockOffset(block);
+        int end = blockEnd(block);
+        long h = blockFirstHash(block);
+        long[] v = new long[1];
+        while (pos < end) {
+            pos = readVarLong(pos, v);
+            h += v[0];
+            pos = readVarLong(pos, v);
+            long gameId = v[0];
+            pos = readVarLong(pos, v);
+            if (h == target) out.add(new PositionHit(gameId, (int) v[0]));
+            else if (h > target) return false;
+        }
+        return true;
+    }
+
+    /** Sequential cursor over every entry, used by compaction. */
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    final class Cursor {
+        private int block = -1;
+        private int pos;
+        private int end;
+        private long hash;
+        private long gameId;
+        private int ply;
+        private final long[] v = new long[1];
+
+        /** Advances to the next entry; returns false at the end of the segment. */
+        boolean next() {
+            while (pos >= end) {
+                if (++block >= blockCount) return false;
+                pos = blockOffset(block);
+                end = blockEnd(block);
+                hash = blockFirstHash(block);
+            }
+            pos = readVarLong(pos, v);
+            hash += v[0];
+            pos = readVarLong(pos, v);
+            gameId = v[0];
+            pos = readVarLong(pos, v);
+            ply = (int) v[0];
+            return true;
+        }
+
+        long hash() { return hash; }
+        long gameId() { return gameId; }
+        int ply() { return ply; }
+    }
+
+    private int readVarLong(int pos, long[] out) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf.get(pos++);
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        out[0] = result;
+        return pos;
+    }
+
+    // ---------- writing ----------
+
+    /**
+     * Streams entries (already sorted by hash) into a new segment. The file is written
+     * under a temporary name and moved into place on {@link #close()}, so readers never
+     * see a half-written segment.
+     */
+    static final class Writer implements Closeable {
+        private final Path target;
+        private final Path tmp;
+        private final CountingOutput out;
+        private long[] blockHashes = new long[64];
+        private long[] blockOffsets = new long[64];
+        private int blockCount;
+        private int inBlock;
+        private long entryCount;
+        private long lastHash;
+        private boolean closed;
+
+        Writer(Path target) throws IOException {
+            this.target = target;
+            this.tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.out = new CountingOutput(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16));
+            out.write(new byte[HEADER_BYTES]); // patched on close
+        }
+
+        void add(long hash, long gameId, int ply) throws IOException {
+            if (gameId < 0 || ply < 0) throw new IllegalArgumentException("gameId and ply must be non-negative");
+            if (entryCount > 0 && hash < lastHash) throw new IllegalStateException("Entries must be added in hash order");
+            if (inBlock == 0 || inBlock == BLOCK_SIZE) {
+                startBlock(hash);
+            }
+            writeVarLong(hash - lastHash);
+            writeVarLong(gameId);
+            writeVarLong(ply);
+            lastHash = hash;
+            inBlock++;
+            entryCount++;
+        }
+
+        private void startBlock(long firstHash) {
+            if (blockCount == blockHashes.length) {
+                blockHashes = Arrays.copyOf(blockHashes, blockCount * 2);
+                blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+            }
+            blockHashes[blockCount] = firstHash;
+            blockOffsets[blockCount] = out.count;
+            blockCount++;
+            inBlock = 0;
+            lastHash = firstHash;
+        }
+
+        private void writeVarLong(long v) throws IOException {
+            while ((v & ~0x7FL) != 0) {
+                out.write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            out.write((int) v);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            long indexOffset = out.count;
+            ByteBuffer idx = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+            for (int i = 0; i < blockCount; i++) {
+                idx.clear();
+                idx.putLong(blockHashes[i]).putLong(blockOffsets[i]);
+                out.write(idx.array());
+            }
+            out.close();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(entryCount).putInt(blockCount)
+                  .putInt(BLOCK_SIZE).putLong(indexOffset);
+            header.flip();
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ch.write(header, 0);
+                ch.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static final class CountingOutput extends OutputStream {
+        private final OutputStream delegate;
+        long count;
+
+        CountingOutput(OutputStream delegate) { this.delegate = delegate; }
+
+        @Override public void write(int b) throws IOException { delegate.write(b); count++; }
+        @Override public void write(byte[] b, int off, int len) throws IOException { delegate.write(b, off, len); count += len; }
+        @Override public void close() throws IOException { delegate.close(); }
+    }
+}
@@ -0,0 +1,363 @@
+package com.chess.persist;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.PositionHistory;
+import com.chess.rules.RulesEngine;
+import com.chess.service.MoveService;
+
+/**
+ * Crash-safe record of one game: an append-only log of applied moves plus a periodic checkpoint.
+ * <p>
+ * A game directory holds {@code moves.log} and {@code checkpoint.txt}. Each applied move is one
+ * fixed 8-byte record (ply, packed move, checksum) appended to the log; records are written and
+ * fsync'ed in batches of {@code syncBatch}, so a crash loses at most the last unsynced batch.
+ * Every {@code checkpointInterval} moves the full position is written with {@link SaveLoadService}
+ * (via a temp file and an atomic rename) together with the log offset it corresponds to and the
+ * repetition window of its {@link PositionHistory}: the reversible-ply count and up to
+ * {@link #HISTORY_KEYS} position keys.
+ * </p>
+ * <p>
+ * {@link #recover(Path)} loads the checkpoint, restores that window and replays only the records
+ * after it through {@link MoveService}, so recovery costs at most one checkpoint interval of moves
+ * however long the game is. The log itself is never rewritten; after a take-back or a loaded
+ * position it holds the moves as they were played, not the line leading to the current position.
+ * </p>
+ * <p>
+ * {@link #finish()} marks a game that has ended; {@link #exists(Path)} then reports nothing to
+ * resume, and the next {@link #open(Path)} starts a fresh journal in the same directory.
+ * </p>
+ */
+public final class MoveJournal implements Closeable {
+
+    public static final String LOG_FILE = "moves.log";
+    public static final String CHECKPOINT_FILE = "checkpoint.txt";
+    public static final String FINISHED_FILE = "finished";
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 32;
+    public static final int DEFAULT_SYNC_BATCH = 8;
+    /** Position keys kept with a checkpoint: the fifty-move window, beyond which no repetition matters. */
+    public static final int HISTORY_KEYS = 100;
+
+    static final int MAGIC = 0x434A4E4C; // "CJNL"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_BYTES = 8;
+
+    private final Path dir;
+    private final FileChannel log;
+    private final int checkpointInterval;
+    private final int syncBatch;
+    private final ByteBuffer pending;
+    private int pendingRecords;
+    private int ply;                  // ply of the last appended move
+    private int sinceCheckpoint;
+    private final CRC32 crc = new CRC32();
+
+    private MoveJournal(Path dir, FileChannel log, int ply, int checkpointInterval, int syncBatch) {
+        this.dir = dir;
+        this.log = log;
+        this.ply = ply;
+        this.checkpointInterval = checkpointInterval;
+        this.syncBatch = syncBatch;
+        this.pending = ByteBuffer.allocateDirect(RECORD_BYTES * syncBatch);
+    }
+
+    public static MoveJournal open(Path dir) throws IOException {
+        return open(dir, DEFAULT_CHECKPOINT_INTERVAL, DEFAULT_SYNC_BATCH);
+    }
+
+    /**
+     * Opens (or creates) the journal in {@code dir} for appending. A torn record left at the end
+     * of the log by a crash is cut off first; a finished game's journal is discarded.
+     */
+    public static MoveJournal open(Path dir, int checkpointInterval, int syncBatch) throws IOException {
+        if (checkpointInterval < 1 || syncBatch < 1) throw new IllegalArgumentException("interval and batch must be >= 1");
+        Files.createDirectories(dir);
+        FileChannel ch = FileChannel.open(dir.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            int lastPly = 0;
+            Path finished = dir.resolve(FINISHED_FILE);
+            boolean fresh = Files.exists(finished);
+            if (fresh) {
+                ch.truncate(0);
+                Files.deleteIfExists(dir.resolve(CHECKPOINT_FILE));
+            }
+            if (ch.size() < HEADER_BYTES) {
+                ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+                h.flip();
+                ch.truncate(0);
+                ch.write(h, 0);
+                ch.force(true);
+                // only now, so a crash while starting over still finds the old game finished
+                if (fresh) Files.delete(finished);
+            } else {
+                checkHeader(ch);
+                long end = HEADER_BYTES;
+                ByteBuffer rec = ByteBuffer.allocate(RECORD_BYTES);
+                CRC32 c = new CRC32();
+                while (true) {
+                    rec.clear();
+                    if (ch.read(rec, end) < RECORD_BYTES) break;
+                    rec.flip();
+                    int recPly = rec.getInt(0);
+                    if (!valid(rec, c) || recPly != lastPly + 1) break;
+                    lastPly = recPly;
+                    end += RECORD_BYTES;
+                }
+                if (end < ch.size()) ch.truncate(end);
+            }
+            ch.position(ch.size());
+            return new MoveJournal(dir, ch, lastPly, checkpointInterval, syncBatch);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /** Ply of the last move written (0 for a fresh game). */
+    public int getPly() { return ply; }
+
+    /**
+     * Records a move that has just been applied; {@code after} is the resulting position,
+     * used when this move completes a checkpoint interval.
+     */
+    public void append(Move move, GameState after) throws IOException {
+        ply++;
+        pending.putInt(ply).putShort((short) move.pack());
+        crc.reset();
+        ByteBuffer view = pending.duplicate();
+        view.flip().position(view.limit() - 6);
+        crc.update(view);
+        pending.putShort((short) crc.getValue());
+        pendingRecords++;
+
+        if (pendingRecords >= syncBatch) sync();
+        if (++sinceCheckpoint >= checkpointInterval) checkpoint(after);
+    }
+
+    /** Writes and fsyncs any batched records. */
+    public void sync() throws IOException {
+        if (pendingRecords == 0) return;
+        pending.flip();
+        while (pending.hasRemaining()) log.write(pending);
+        pending.clear();
+        pendingRecords = 0;
+        log.force(false);
+    }
+
+    /**
+     * Syncs the log and writes a full-state checkpoint, with the state's repetition window, at the
+     * current ply. Also call this when the position is replaced wholesale (e.g. a loaded game or a
+     * take-back), so recovery starts from it.
+     */
+    public void checkpoint(GameState state) throws IOException {
+        sync();
+        PositionHistory history = state.getHistory();
+        long[] keys = history.recent(Math.min(history.getReversiblePlies(), HISTORY_KEYS));
+        StringBuilder header = new StringBuilder(40 + 17 * keys.length);
+        header.append("ply: ").append(ply).append("\noffset: ").append(log.size())
+              .append("\nhistory: ").append(history.getReversiblePlies());
+        for (long k : keys) header.append(' ').append(Long.toHexString(k));
+        header.append('\n');
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(320 + header.length());
+        bos.write(header.toString().getBytes(StandardCharsets.UTF_8));
+        SaveLoadService.save(state, bos);
+
+        Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.wrap(bos.toByteArray());
+            while (b.hasRemaining()) ch.write(b);
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE);
+        sinceCheckpoint = 0;
+    }
+
+    /**
+     * Marks the game as over: syncs the log and writes {@link #FINISHED_FILE}. The log stays
+     * readable with {@link #readMoves(Path)} until the next {@link #open(Path)} starts over.
+     */
+    public void finish() throws IOException {
+        sync();
+        Path tmp = dir.resolve(FINISHED_FILE + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.wrap(("ply: " + ply + "\n").getBytes(StandardCharsets.UTF_8));
+            while (b.hasRemaining()) ch.write(b);
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(FINISHED_FILE), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            log.close();
+        }
+    }
+
+    // ---------- recovery ----------
+
+    /** The recovered position and where it came from. */
+    public static final class Recovery {
+        private final GameState state;
+        private final int ply;
+        private final int checkpointPly;
+        private final int replayed;
+        private final boolean historyComplete;
+
+        Recovery(GameState state, int ply, int checkpointPly, int replayed, boolean historyComplete) {
+            this.state = state;
+            this.ply = ply;
+            this.checkpointPly = checkpointPly;
+            this.replayed = replayed;
+            this.historyComplete = historyComplete;
+        }
+
+        public GameState getState() { return state; }
+        public int getPly() { return ply; }
+        public int getCheckpointPly() { return checkpointPly; }
+        /** Journal records replayed on top of the checkpoint. */
+        public int getReplayed() { return replayed; }
+
+        /**
+         * True if the state's position history covers the game's repetition window; false only for
+         * a checkpoint written without one, whose history then starts at the checkpoint.
+         */
+        public boolean isHistoryComplete() { return historyComplete; }
+    }
+
+    /** True if {@code dir} holds the journal of a game that has not {@link #finish() finished}. */
+    public static boolean exists(Path dir) {
+        return Files.exists(dir.resolve(LOG_FILE)) && !Files.exists(dir.resolve(FINISHED_FILE));
+    }
+
+    /**
+     * Rebuilds the latest durable position: last checkpoint (or the initial position), with its
+     * repetition window, plus the journal records written after it. Stops at the first torn,
+     * corrupt or illegal record.
+     */
+    public static Recovery recover(Path dir) throws IOException {
+        GameState state = new GameState();
+        int checkpointPly = 0;
+        long offset = HEADER_BYTES;
+        boolean historyComplete = true;
+
+        Path cp = dir.resolve(CHECKPOINT_FILE);
+        if (Files.exists(cp)) {
+            byte[] bytes = Files.readAllBytes(cp);
+            String text = new String(bytes, StandardCharsets.ISO_8859_1);
+            int nl1 = text.indexOf('\n');
+            int nl2 = text.indexOf('\n', nl1 + 1);
+            if (nl1 < 0 || nl2 < 0 || !text.startsWith("ply: ") || !text.startsWith("offset: ", nl1 + 1)) {
+                throw new IOException("Malformed checkpoint header in " + cp);
+            }
+            checkpointPly = Integer.parseInt(text.substring(5, nl1).trim());
+            offset = Long.parseLong(text.substring(nl1 + 9, nl2).trim());
+            int body = nl2 + 1;
+            String[] window = null;
+            int nl3 = text.indexOf('\n', body);
+            if (text.startsWith("history: ", body) && nl3 >= 0) {
+                window = text.substring(body + 9, nl3).trim().split(" ");
+                body = nl3 + 1;
+            }
+            state = SaveLoadService.load(new ByteArrayInputStream(bytes, body, bytes.length - body));
+            historyComplete = window != null;
+            if (window != null) {
+                try {
+                    long[] keys = new long[window.length - 1];
+                    for (int i = 0; i < keys.length; i++) keys[i] = Long.parseUnsignedLong(window[i + 1], 16);
+                    state.getHistory().restore(keys, Integer.parseInt(window[0]));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed checkpoint history in " + cp, e);
+                }
+            }
+        }
+
+        int ply = checkpointPly;
+        int replayed = 0;
+        Path logPath = dir.resolve(LOG_FILE);
+        if (Files.exists(logPath)) {
+            try (FileChannel ch = FileChannel.open(logPath, StandardOpenOption.READ)) {
+                checkHeader(ch);
+                ByteBuffer rec = ByteBuffer.allocate(RECORD_BYTES);
+                CRC32 c = new CRC32();
+                long pos = offset;
+                while (true) {
+                    rec.clear();
+                    if (ch.read(rec, pos) < RECORD_BYTES) break;
+                    rec.flip();
+                    if (!valid(rec, c) || rec.getInt(0) != ply + 1) break;
+                    Move m = Move.unpack(rec.getShort(4) & 0xFFFF);
+                    if (!RulesEngine.isLegalMove(state, m)) break;
+                    MoveService.apply(state, m);
+                    state.switchTurn();
+                    ply++;
+                    replayed++;
+                    pos += RECORD_BYTES;
+                }
+            }
+        }
+        return new Recovery(state, ply, checkpointPly, replayed, historyComplete);
+    }
+
+    /**
+     * Every valid move in the log, in the order it was played. This is the game's move list only
+     * when nothing was taken back or loaded; otherwise the current position is the last checkpoint
+     * plus the moves after it.
+     */
+    public static List<Move> readMoves(Path dir) throws IOException {
+        List<Move> moves = new ArrayList<>();
+        try (FileChannel ch = FileChannel.open(dir.resolve(LOG_FILE), StandardOpenOption.READ)) {
+            checkHeader(ch);
+            ByteBuffer rec = ByteBuffer.allocate(RECORD_BYTES);
+            CRC32 c = new CRC32();
+            long pos = HEADER_BYTES;
+            while (true) {
+                rec.clear();
+                if (ch.read(rec, pos) < RECORD_BYTES) break;
+                rec.flip();
+                if (!valid(rec, c) || rec.getInt(0) != moves.size() + 1) break;
+                moves.add(Move.unpack(rec.getShort(4) & 0xFFFF));
+                pos += RECORD_BYTES;
+            }
+        }
+        return moves;
+    }
+
+    private static void checkHeader(FileChannel ch) throws IOException {
+        ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES);
+        ch.read(h, 0);
+        h.flip();
+        if (h.remaining() < HEADER_BYTES || h.getInt() != MAGIC) throw new IOException("Not a move journal");
+        int v = h.getInt();
+        if (v != VERSION) throw new IOException("Unsupported journal version " + v);
+    }
+
+    /** Checks the 16-bit CRC stored in the last two bytes of a record. */
+    private static boolean valid(ByteBuffer rec, CRC32 c) {
+        c.reset();
+        c.update(rec.array(), rec.arrayOffset(), 6);
+        return (short) c.getValue() == rec.getShort(6);
+    }
+}
@@ -0,0 +1,374 @@
+package com.chess.persist;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.chess.domain.Board;
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Piece;
+import com.chess.domain.PieceType;
+import com.chess.rules.RulesEngine;
+import com.chess.service.MoveService;
+
+/**
+ * Encodes a game's moves as their ranks in a fixed ordering of each position's legal moves, so a
+ * move costs one byte ({@link Mode#PLAIN}) or less ({@link Mode#ENTROPY}) instead of the two of a
+ * packed move or the five of a coordinate one.
+ * <p>
+ * The ordering ({@link #orderedMoves(GameState)}) is part of the format: captures by most
+ * valuable victim then least valuable attacker, promotions, castling, then quiet moves by how much
+ * they centralize or develop the piece, ties broken by {@link Move#pack()}. It depends only on the
+ * position, not on the order {@link RulesEngine} generates moves in, and it puts the moves players
+ * usually choose near the front, which is what the entropy coder exploits.
+ * </p>
+ * <p>
+ * {@code PLAIN} stores each rank as a varint: one byte while it is below 128, which holds in all
+ * but contrived positions. {@code ENTROPY} codes the ranks with an adaptive arithmetic coder whose
+ * alphabet is cut to the legal move count of each position and whose model starts from the same
+ * prior for every game, so every game decodes on its own.
+ * </p>
+ * Decoding replays each move through {@link MoveService}. Instances keep scratch buffers and are
+ * not thread-safe; use one per thread.
+ *
+ * Example usage:
+ * <pre>
+ * MoveRankCodec codec = new MoveRankCodec(MoveRankCodec.Mode.ENTROPY);
+ * byte[] data = codec.encode(new GameState(), moves);
+ * List&lt;Move&gt; again = codec.decode(new GameState(), data, 0, data.length, moves.size());
+ * </pre>
+ */
+public final class MoveRankCodec {
+
+    public enum Mode { PLAIN, ENTROPY }
+
+    /** More legal moves than any position has; the entropy model's alphabet. */
+    static final int MAX_RANKS = 512;
+
+    // by PieceType ordinal: KING, QUEEN, ROOK, BISHOP, KNIGHT, PAWN (king as the attacker of last resort)
+    private static final int[] VALUE = {10, 9, 5, 3, 3, 1};
+    private static final int[] CENTER = new int[64];
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            int f = sq & 7, r = sq >>> 3;
+            CENTER[sq] = Math.min(f, 7 - f) + Math.min(r, 7 - r);
+        }
+    }
+    private static final int MAX_SCORE = 8191;
+
+    private final Mode mode;
+    private final RankModel model = new RankModel();
+    private long[] keys = new long[256];
+    private byte[] out = new byte[256];
+    private int outLen;
+
+    public MoveRankCodec(Mode mode) {
+        if (mode == null) throw new IllegalArgumentException("mode is required");
+        this.mode = mode;
+    }
+
+    public Mode getMode() { return mode; }
+
+    // ---------- ordering ----------
+
+    /** The legal moves of {@code state} in rank order: the move at index {@code i} is stored as {@code i}. */
+    public static List<Move> orderedMoves(GameState state) {
+        List<Move> legal = RulesEngine.generateLegalMoves(state);
+        long[] k = new long[legal.size()];
+        int n = orderKeys(state, legal, k);
+        List<Move> moves = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) moves.add(Move.unpack((int) (k[i] & 0xFFFF)));
+        return moves;
+    }
+
+    /** Fills {@code keys} with one sortable key per legal move (low 16 bits: the packed move) and sorts it. */
+    private static int orderKeys(GameState state, List<Move> legal, long[] keys) {
+        Board b = state.getBoard();
+        int n = legal.size();
+        for (int i = 0; i < n; i++) {
+            Move m = legal.get(i);
+            keys[i] = (long) (MAX_SCORE - score(b, m, state.getToMove())) << 16 | m.pack();
+        }
+        Arrays.sort(keys, 0, n);
+        return n;
+    }
+
+    private static int score(Board b, Move m, Color side) {
+        Piece mover = b.getPiece(m.getFrom());
+        Piece victim = b.getPiece(m.getTo());
+        PieceType type = mover.getType();
+        int from = m.getFrom().index(), to = m.getTo().index();
+        int promo = 0;
+        if (m.isPromotion()) promo = 2 * VALUE[m.getPromotion().ordinal()];
+        else if (type == PieceType.PAWN && (to >>> 3 == 0 || to >>> 3 == 7)) promo = 2 * VALUE[PieceType.QUEEN.ordinal()] - 1;   // queens
+        if (victim != null) return 4000 + 16 * VALUE[victim.getType().ordinal()] - VALUE[type.ordinal()] + promo;
+        if (type == PieceType.PAWN && (from & 7) != (to & 7)) return 4000 + 16 - 1;    // en passant
+        if (promo > 0) return 3000 + promo;
+        if (type == PieceType.KING && Math.abs((to & 7) - (from & 7)) == 2) return 2000;
+        int s = 1000 + 2 * (CENTER[to] - CENTER[from]);
+        int home = (side == Color.WHITE) ? 0 : 7;
+        if ((type == PieceType.KNIGHT || type == PieceType.BISHOP) && from >>> 3 == home) s += 4;
+        if (type == PieceType.PAWN) s += 1;
+        if (type == PieceType.KING) s -= 4;
+        return s;
+    }
+
+    // ---------- encoding ----------
+
+    /**
+     * Encodes {@code moves} played from {@code start}, which is left unchanged.
+     *
+     * @throws IllegalArgumentException if a move is not legal where it is played
+     */
+    public byte[] encode(GameState start, List<Move> moves) {
+        GameState st = GameState.deepCopy(start);
+        outLen = 0;
+        ArithmeticEncoder ac = (mode == Mode.ENTROPY) ? new ArithmeticEncoder() : null;
+        if (ac != null) model.reset();
+        for (int ply = 0; ply < moves.size(); ply++) {
+            Move m = moves.get(ply);
+            List<Move> legal = RulesEngine.generateLegalMoves(st);
+            int n = sortedKeys(st, legal);
+            int packed = m.pack(), rank = -1;
+            for (int i = 0; i < n; i++) {
+                if ((int) (keys[i] & 0xFFFF) == packed) {
+                    rank = i;
+                    break;
+                }
+            }
+            if (rank < 0) throw new IllegalArgumentException("Illegal move " + m + " at ply " + (ply + 1));
+            if (ac == null) writeVarint(rank);
+            else {
+                ac.encode(model.cumulative(rank), model.cumulative(rank + 1), model.cumulative(n));
+                model.update(rank);
+            }
+            MoveService.apply(st, m);
+            st.switchTurn();
+        }
+        if (ac != null) ac.finish();
+        return Arrays.copyOf(out, outLen);
+    }
+
+    // ---------- decoding ----------
+
+    /**
+     * Decodes {@code plies} moves from {@code data[off..off + len)}, replaying them on
+     * {@code start}, which ends up in the final position.
+     *
+     * @throws IOException if the data runs out or names a move that does not exist
+     */
+    public List<Move> decode(GameState start, byte[] data, int off, int len, int plies) throws IOException {
+        if (plies < 0) throw new IllegalArgumentException("plies must be >= 0");
+        List<Move> moves = new ArrayList<>(Math.min(plies, 256));   // the count may come from a corrupt file
+        ArithmeticDecoder ad = (mode == Mode.ENTROPY) ? new ArithmeticDecoder(data, off, len) : null;
+        if (ad != null) model.reset();
+        int pos = off, end = off + len;
+        for (int ply = 0; ply < plies; ply++) {
+            List<Move> legal = RulesEngine.generateLegalMoves(start);
+            int n = sortedKeys(start, legal);
+            int rank;
+            if (ad == null) {
+                rank = 0;
+                for (int shift = 0; ; shift += 7) {
+                    if (pos >= end || shift > 14) throw new IOException("Truncated move data at ply " + (ply + 1));
+                    int b = data[pos++] & 0xFF;
+                    rank |= (b & 0x7F) << shift;
+                    if (b < 0x80) break;
+                }
+            } else {
+                if (n == 0) throw new IOException("No legal move at ply " + (ply + 1));
+                int total = model.cumulative(n);
+                int target = ad.target(total);
+                rank = model.find(target, n);
+                ad.consume(model.cumulative(rank), model.cumulative(rank + 1), total);
+                model.update(rank);
+            }
+            if (rank >= n) throw new IOException("Move rank " + rank + " out of range at ply " + (ply + 1));
+            Move m = Move.unpack((int) (keys[rank] & 0xFFFF));
+            MoveService.apply(start, m);
+            start.switchTurn();
+            moves.add(m);
+        }
+        if (ad == null && pos != end) throw new IOException((end - pos) + " trailing bytes after move data");
+        return moves;
+    }
+
+    private int sortedKeys(GameState st, List<Move> legal) {
+        if (legal.size() > MAX_RANKS) throw new IllegalStateException(legal.size() + " legal moves");
+        if (legal.size() > keys.length) keys = new long[MAX_RANKS];
+        return orderKeys(st, legal, keys);
+    }
+
+    private void writeVarint(int v) {
+        while (v >= 0x80) {
+            put((byte) (v | 0x80));
+            v >>>= 7;
+        }
+        put((byte) v);
+    }
+
+    private void put(byte b) {
+        if (outLen == out.length) out = Arrays.copyOf(out, outLen * 2);
+        out[outLen++] = b;
+    }
+
+    // ---------- entropy coding ----------
+
+    /**
+     * Adaptive frequencies of ranks. Starts every game from a prior that halves every two ranks,
+     * adds {@link #INCREMENT} per coded rank and halves everything once the total passes
+     * {@link #LIMIT}; every frequency stays at least 1, so any legal rank can be coded.
+     */
+    static final class RankModel {
+        static final int INCREMENT = 32;
+        static final int LIMIT = 1 << 16;
+        private final int[] freq = new int[MAX_RANKS];
+        private int total;
+
+        void reset() {
+            total = 0;
+            for (int r = 0; r < MAX_RANKS; r++) {
+                freq[r] = 1 + (64 >> Math.min(r / 2, 31));
+                total += freq[r];
+            }
+        }
+
+        /** Sum of the frequencies of ranks below {@code rank}. */
+        int cumulative(int rank) {
+            int c = 0;
+            for (int r = 0; r < rank; r++) c += freq[r];
+            return c;
+        }
+
+        /** The rank below {@code n} whose cumulative range holds {@code target}. */
+        int find(int target, int n) {
+            int c = 0;
+            for (int r = 0; r < n - 1; r++) {
+                c += freq[r];
+                if (target < c) return r;
+            }
+            return n - 1;
+        }
+
+        void update(int rank) {
+            freq[rank] += INCREMENT;
+            total += INCREMENT;
+            if (total > LIMIT) {
+                total = 0;
+                for (int r = 0; r < MAX_RANKS; r++) {
+                    freq[r] = (freq[r] + 1) >>> 1;
+                    total += freq[r];
+                }
+            }
+        }
+    }
+
+    private static final long TOP = 0xFFFFFFFFL;
+    private static final long HALF = 1L << 31;
+    private static final long QUARTER = 1L << 30;
+
+    /** Classic 32-bit integer arithmetic coder with underflow bits; writes into the codec's buffer. */
+    private final class ArithmeticEncoder {
+        private long low, high = TOP;
+        private int pendingBits;
+        private int bitBuf, bitCount;
+
+        void encode(int cumLow, int cumHigh, int total) {
+            long range = high - low + 1;
+            high = low + range * cumHigh / total - 1;
+            low = low + range * cumLow / total;
+            while (true) {
+                if (high < HALF) {
+                    bitPlusPending(0);
+                } else if (low >= HALF) {
+                    bitPlusPending(1);
+                    low -= HALF;
+                    high -= HALF;
+                } else if (low >= QUARTER && high < HALF + QUARTER) {
+                    pendingBits++;
+                    low -= QUARTER;
+                    high -= QUARTER;
+                } else {
+                    break;
+                }
+                low <<= 1;
+                high = (high << 1) | 1;
+            }
+        }
+
+        void finish() {
+            pendingBits++;
+            bitPlusPending(low < QUARTER ? 0 : 1);
+            if (bitCount > 0) put((byte) (bitBuf << (8 - bitCount)));
+        }
+
+        private void bitPlusPending(int bit) {
+            writeBit(bit);
+            for (; pendingBits > 0; pendingBits--) writeBit(bit ^ 1);
+        }
+
+        private void writeBit(int bit) {
+            bitBuf = (bitBuf << 1) | bit;
+            if (++bitCount == 8) {
+                put((byte) bitBuf);
+                bitBuf = 0;
+                bitCount = 0;
+            }
+        }
+    }
+
+    /** Decoder for {@link ArithmeticEncoder}; reads zero bits past the end of its input. */
+    private static final class ArithmeticDecoder {
+        private final byte[] data;
+        private final long endBit;
+        private long bitPos;
+        private long low, high = TOP, value;
+
+        ArithmeticDecoder(byte[] data, int off, int len) {
+            this.data = data;
+            this.bitPos = (long) off * 8;
+            this.endBit = (long) (off + len) * 8;
+            for (int i = 0; i < 32; i++) value = (value << 1) | readBit();
+        }
+
+        /** The cumulative frequency the next symbol's range must contain. */
+        int target(int total) {
+            long range = high - low + 1;
+            return (int) (((value - low + 1) * total - 1) / range);
+        }
+
+        void consume(int cumLow, int cumHigh, int total) {
+            long range = high - low + 1;
+            high = low + range * cumHigh / total - 1;
+            low = low + range * cumLow / total;
+            while (true) {
+                if (high < HALF) {
+                    // nothing to subtract
+                } else if (low >= HALF) {
+                    low -= HALF;
+                    high -= HALF;
+                    value -= HALF;
+                } else if (low >= QUARTER && high < HALF + QUARTER) {
+                    low -= QUARTER;
+                    high -= QUARTER;
+                    value -= QUARTER;
+                } else {
+                    break;
+                }
+                low <<= 1;
+                high = (high << 1) | 1;
+                value = (value << 1) | readBit();
+            }
+        }
+
+        private int readBit() {
+            if (bitPos >= endBit) return 0;
+            int b = data[(int) (bitPos >>> 3)] >>> (7 - (int) (bitPos & 7)) & 1;
+            bitPos++;
+            return b;
+        }
+    }
+}
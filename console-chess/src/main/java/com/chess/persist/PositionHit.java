@@ -0,0 +1,32 @@
+package com.chess.persist;
+
+/** One position-index match: the game that reached the position and the ply at which it did (0 = start). */
+public final class PositionHit {
+    private final long gameId;
+    private final int ply;
+
+    public PositionHit(long gameId, int ply) {
+        this.gameId = gameId;
+        this.ply = ply;
+    }
+
+    public long getGameId() { return gameId; }
+    public int getPly() { return ply; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PositionHit)) return false;
+        PositionHit h = (PositionHit) o;
+        return gameId == h.gameId && ply == h.ply;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(gameId) * 31 + ply;
+    }
+
+    @Override
+    public String toString() {
+        return "game " + gameId + " @ ply " + ply;
+    }
+}
@@ -0,0 +1,125 @@
+package com.chess.persist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Zobrist;
+
+/**
+ * Read side of the on-disk position index: answers "which games reached this position?".
+ * <p>
+ * An index is a directory of sorted segments written by {@link PositionIndexBuilder}.
+ * Each segment is memory-mapped and searched independently, so a lookup costs one binary
+ * search over each segment's block index plus decoding one or two small blocks.
+ * {@link #compact(Path)} merges all segments into one when appends have piled up.
+ * </p>
+ */
+public final class PositionIndex implements Closeable {
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".pidx";
+
+    private final List<IndexSegment> segments;
+
+    private PositionIndex(List<IndexSegment> segments) {
+        this.segments = segments;
+    }
+
+    /** Opens every segment currently in {@code dir}. Segments added later need a re-open. */
+    public static PositionIndex open(Path dir) throws IOException {
+        List<IndexSegment> segs = new ArrayList<>();
+        for (Path p : listSegments(dir)) segs.add(IndexSegment.open(p));
+        return new PositionIndex(segs);
+    }
+
+    /** All games and plies at which the given position was reached. */
+    public List<PositionHit> lookup(GameState state) {
+        return lookup(Zobrist.hash(state));
+    }
+
+    /** All entries recorded for a {@link Zobrist} hash. */
+    public List<PositionHit> lookup(long hash) {
+        List<PositionHit> out = new ArrayList<>();
+        for (IndexSegment s : segments) s.lookup(hash, out);
+        return out;
+    }
+
+    public long entryCount() {
+        long n = 0;
+        for (IndexSegment s : segments) n += s.getEntryCount();
+        return n;
+    }
+
+    public int segmentCount() { return segments.size(); }
+
+    /** Drops the mappings; the OS unmaps them once they are garbage collected. */
+    @Override
+    public void close() {
+        segments.clear();
+    }
+
+    /**
+     * Merges every segment in {@code dir} into a single new segment and deletes the old ones.
+     * Must not run while a builder is writing to, or another process is reading, the directory.
+     */
+    public static void compact(Path dir) throws IOException {
+        List<Path> paths = listSegments(dir);
+        if (paths.size() < 2) return;
+
+        List<IndexSegment> segs = new ArrayList<>();
+        for (Path p : paths) segs.add(IndexSegment.open(p));
+
+        PriorityQueue<IndexSegment.Cursor> heap = new PriorityQueue<>((a, b) -> {
+            int c = Long.compare(a.hash(), b.hash());
+            if (c != 0) return c;
+            c = Long.compare(a.gameId(), b.gameId());
+            return (c != 0) ? c : Integer.compare(a.ply(), b.ply());
+        });
+        for (IndexSegment s : segs) {
+            IndexSegment.Cursor c = s.cursor();
+            if (c.next()) heap.add(c);
+        }
+
+        try (IndexSegment.Writer w = new IndexSegment.Writer(nextSegmentPath(dir))) {
+            while (!heap.isEmpty()) {
+                IndexSegment.Cursor c = heap.poll();
+                w.add(c.hash(), c.gameId(), c.ply());
+                if (c.next()) heap.add(c);
+            }
+        }
+        segs.clear();
+        for (Path p : paths) Files.delete(p);
+    }
+
+    static List<Path> listSegments(Path dir) throws IOException {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return out;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path p : ds) out.add(p);
+        }
+        Collections.sort(out);
+        return out;
+    }
+
+    static Path nextSegmentPath(Path dir) throws IOException {
+        long max = 0;
+        for (Path p : listSegments(dir)) {
+            String name = p.getFileName().toString();
+            String num = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+            try {
+                max = Math.max(max, Long.parseLong(num));
+            } catch (NumberFormatException ignored) {
+                // not one of ours
+            }
+        }
+        return dir.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, max + 1, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,161 @@
+package com.chess.persist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Zobrist;
+import com.chess.rules.RulesEngine;
+import com.chess.service.MoveService;
+
+/**
+ * Replays games and records (position hash, game id, ply) for every position they reach.
+ * <p>
+ * Entries are buffered in primitive arrays and written out as a new sorted segment in the
+ * index directory whenever the buffer fills or on {@link #flush()} / {@link #close()}.
+ * Existing segments are never touched, so appending new games to an index is just
+ * running another builder over the same directory.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * try (PositionIndexBuilder b = new PositionIndexBuilder(dir)) {
+ *     b.addGame(1, moves);
+ * }
+ * try (PositionIndex idx = PositionIndex.open(dir)) {
+ *     List&lt;PositionHit&gt; hits = idx.lookup(state);
+ * }
+ * </pre>
+ */
+public final class PositionIndexBuilder implements Closeable {
+
+    /** Default number of buffered entries per segment (~20 bytes each while buffered). */
+    public static final int DEFAULT_FLUSH_THRESHOLD = 1 << 22;
+
+    private final Path dir;
+    private final int flushThreshold;
+    private long[] hashes;
+    private long[] gameIds;
+    private int[] plies;
+    private int size;
+
+    public PositionIndexBuilder(Path dir) throws IOException {
+        this(dir, DEFAULT_FLUSH_THRESHOLD);
+    }
+
+    public PositionIndexBuilder(Path dir, int flushThreshold) throws IOException {
+        if (flushThreshold <= 0) throw new IllegalArgumentException("flushThreshold must be positive");
+        this.dir = dir;
+        this.flushThreshold = flushThreshold;
+        int initial = Math.min(flushThreshold, 1 << 12);
+        this.hashes = new long[initial];
+        this.gameIds = new long[initial];
+        this.plies = new int[initial];
+        Files.createDirectories(dir);
+    }
+
+    /** Replays a game from the initial position. */
+    public void addGame(long gameId, List<Move> moves) throws IOException {
+        addGame(gameId, new GameState(), moves);
+    }
+
+    /**
+     * Replays a game from {@code start} (which is modified) and indexes every position,
+     * including the starting one at ply 0.
+     *
+     * @throws IllegalArgumentException if a move is illegal in the replayed position
+     */
+    public void addGame(long gameId, GameState start, List<Move> moves) throws IOException {
+        GameState state = start;
+        addPosition(Zobrist.hash(state), gameId, 0);
+        int ply = 0;
+        for (Move m : moves) {
+            if (!RulesEngine.isLegalMove(state, m)) {
+                throw new IllegalArgumentException("Illegal move " + m + " at ply " + ply + " of game " + gameId);
+            }
+            MoveService.apply(state, m);
+            state.switchTurn();
+            ply++;
+            addPosition(Zobrist.hash(state), gameId, ply);
+        }
+    }
+
+    /** Records a single pre-hashed position. */
+    public void addPosition(long hash, long gameId, int ply) throws IOException {
+        if (gameId < 0 || ply < 0) throw new IllegalArgumentException("gameId and ply must be non-negative");
+        if (size == hashes.length) grow();
+        hashes[size] = hash;
+        gameIds[size] = gameId;
+        plies[size] = ply;
+        size++;
+        if (size >= flushThreshold) flush();
+    }
+
+    private void grow() {
+        int n = Math.min(flushThreshold, hashes.length * 2);
+        hashes = Arrays.copyOf(hashes, n);
+        gameIds = Arrays.copyOf(gameIds, n);
+        plies = Arrays.copyOf(plies, n);
+    }
+
+    /** Sorts the buffered entries and writes them as a new segment. No-op when empty. */
+    public void flush() throws IOException {
+        if (size == 0) return;
+        sort(0, size - 1);
+        try (IndexSegment.Writer w = new IndexSegment.Writer(PositionIndex.nextSegmentPath(dir))) {
+            for (int i = 0; i < size; i++) w.add(hashes[i], gameIds[i], plies[i]);
+        }
+        size = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    // ---------- in-place sort of the three parallel arrays by (hash, gameId, ply) ----------
+
+    private int compare(int i, int j) {
+        int c = Long.compare(hashes[i], hashes[j]);
+        if (c != 0) return c;
+        c = Long.compare(gameIds[i], gameIds[j]);
+        return (c != 0) ? c : Integer.compare(plies[i], plies[j]);
+    }
+
+    private void swap(int i, int j) {
+        long h = hashes[i]; hashes[i] = hashes[j]; hashes[j] = h;
+        long g = gameIds[i]; gameIds[i] = gameIds[j]; gameIds[j] = g;
+        int p = plies[i]; plies[i] = plies[j]; plies[j] = p;
+    }
+
+    private void sort(int lo, int hi) {
+        while (hi - lo > 16) {
+            // median of three into lo
+            int mid = (lo + hi) >>> 1;
+            if (compare(mid, lo) < 0) swap(mid, lo);
+            if (compare(hi, lo) < 0) swap(hi, lo);
+            if (compare(hi, mid) < 0) swap(hi, mid);
+            swap(lo, mid);
+
+            int i = lo, j = hi + 1;
+            while (true) {
+                while (compare(++i, lo) < 0) if (i == hi) break;
+                while (compare(lo, --j) < 0) if (j == lo) break;
+                if (i >= j) break;
+                swap(i, j);
+            }
+            swap(lo, j);
+            // recurse into the smaller side to bound stack depth
+            if (j - lo < hi - j) { sort(lo, j - 1); lo = j + 1; }
+            else { sort(j + 1, hi); hi = j - 1; }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && compare(j, j - 1) < 0; j--) swap(j, j - 1);
+        }
+    }
+}
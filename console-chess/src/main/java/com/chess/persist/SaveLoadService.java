@@ -1,6 +1,8 @@
 package com.chess.persist;
 
 import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -16,12 +18,52 @@ import com.chess.domain.GameState;
 import com.chess.domain.Piece;
 import com.chess.domain.PieceType;
 import com.chess.domain.Square;
+import com.chess.metrics.LoadEvent;
+import com.chess.metrics.Metrics;
+import com.chess.metrics.SaveEvent;
 
-/** Simple console-friendly save/load for GameState (board + toMove + rights + EP). */
+/** Simple console-friendly save/load for GameState (board + toMove + rights + EP + halfmove clock). */
 public final class SaveLoadService {
     private SaveLoadService() {}
 
     public static void save(GameState state, OutputStream os) throws IOException {
+        long t = Metrics.start();
+        SaveEvent event = new SaveEvent();
+        event.begin();
+        CountingOutputStream out = new CountingOutputStream(os);
+        try {
+            write(state, out);
+            event.succeeded = true;
+        } finally {
+            Metrics.SAVE.stop(t);
+            event.end();
+            if (event.shouldCommit()) {
+                event.bytes = out.count;
+                event.commit();
+            }
+        }
+    }
+
+    public static GameState load(InputStream is) throws IOException {
+        long t = Metrics.start();
+        LoadEvent event = new LoadEvent();
+        event.begin();
+        CountingInputStream in = new CountingInputStream(is);
+        try {
+            GameState state = read(in);
+            event.succeeded = true;
+            return state;
+        } finally {
+            Metrics.LOAD.stop(t);
+            event.end();
+            if (event.shouldCommit()) {
+                event.bytes = in.count;
+                event.commit();
+            }
+        }
+    }
+
+    private static void write(GameState state, OutputStream os) throws IOException {
         try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(os, "UTF-8"))) {
             Board b = state.getBoard();
             // write ranks 8..1
@@ -52,10 +94,11 @@ public final class SaveLoadService {
                 epStr = String.valueOf(fileChar) + rankNum;  // e.g., "d6"
             }
             pw.println("ep: " + epStr);
+            pw.println("halfmove: " + state.getHalfmoveClock());
         }
     }
 
-    public static GameState load(InputStream is) throws IOException {
+    private static GameState read(InputStream is) throws IOException {
         BufferedReader br = new BufferedReader(new InputStreamReader(is, "UTF-8"));
         Board b = new Board();
         // clear the board first
@@ -64,6 +107,7 @@ public final class SaveLoadService {
         Color toMove = Color.WHITE;
         CastlingRights cr = new CastlingRights();
         Square epSquare = null;
+        int halfmove = 0;   // absent from older save files
 
         String line;
         int rowsParsed = 0;
@@ -97,6 +141,14 @@ public final class SaveLoadService {
                     }
                 }
 
+            } else if (line.startsWith("halfmove:")) {
+                String v = line.substring("halfmove:".length()).trim();
+                try {
+                    halfmove = Integer.parseInt(v);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid halfmove clock in save file: " + v);
+                }
+
             } else if (Character.isDigit(line.charAt(0)) && line.contains(":")) {
                 // rank row e.g., "8: br bn ...", "1: wr ..."
                 StringTokenizer st = new StringTokenizer(line.substring(line.indexOf(':') + 1));
@@ -115,10 +167,13 @@ public final class SaveLoadService {
         }
         if (rowsParsed != 8) throw new IOException("Malformed board rows in save file.");
 
-        // EP is allowed only for the opponent next move; we keep 'enPassantFor' neutral (controller/next move will clear).
-        Color enPassantFor = null;
+        // A saved EP square always belongs to the side to move (it is cleared by any other move),
+        // so restore it for that side; journal recovery depends on EP surviving a round trip.
+        Color enPassantFor = (epSquare != null) ? toMove : null;
 
-        return new GameState(b, toMove, cr, epSquare, enPassantFor);
+        GameState state = new GameState(b, toMove, cr, epSquare, enPassantFor);
+        state.setHalfmoveClock(halfmove);
+        return state;
     }
 
     private static char pieceLetter(PieceType t) {
@@ -144,4 +199,55 @@ public final class SaveLoadService {
             default: throw new IllegalArgumentException("Unknown piece letter: " + c);
         }
     }
-}
\ No newline at end of file
+
+    /** Bytes that went through to the caller's stream, for the save event. */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /** Bytes taken from the caller's stream (including read-ahead), for the load event. */
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.chess.rules;
+
+import com.chess.domain.Board;
+import com.chess.domain.Color;
+import com.chess.domain.PieceType;
+
+/**
+ * Attack lookups on the board's piece bitboards (bit rank * 8 + file): leaper tables built once,
+ * slider rays walked against an occupancy that callers may thin out (for x-rays or to play a
+ * move without touching the board). Shared by {@link CheckDetector} and {@link StaticExchange}.
+ */
+final class Attacks {
+    private Attacks() {}
+
+    static final int KING = PieceType.KING.ordinal();
+    static final int QUEEN = PieceType.QUEEN.ordinal();
+    static final int ROOK = PieceType.ROOK.ordinal();
+    static final int BISHOP = PieceType.BISHOP.ordinal();
+    static final int KNIGHT = PieceType.KNIGHT.ordinal();
+    static final int PAWN = PieceType.PAWN.ordinal();
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    /** [color][sq]: squares from which a pawn of that color attacks sq. */
+    private static final long[][] PAWN_ATTACKERS = new long[2][64];
+    private static final int[][] ORTHOGONAL = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+    private static final int[][] DIAGONAL = {{1, 1}, {-1, 1}, {-1, -1}, {1, -1}};
+
+    static {
+        int[][] knight = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+        int[][] king = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+        for (int sq = 0; sq < 64; sq++) {
+            int f = sq & 7, r = sq >>> 3;
+            KNIGHT_ATTACKS[sq] = steps(f, r, knight);
+            KING_ATTACKS[sq] = steps(f, r, king);
+            for (int df = -1; df <= 1; df += 2) {
+                int tf = f + df;
+                if (tf < 0 || tf > 7) continue;
+                if (r < 7) PAWN_ATTACKERS[0][(r + 1) * 8 + tf] |= 1L << sq;   // White pawns attack upwards
+                if (r > 0) PAWN_ATTACKERS[1][(r - 1) * 8 + tf] |= 1L << sq;
+            }
+        }
+    }
+
+    private static long steps(int f, int r, int[][] deltas) {
+        long mask = 0;
+        for (int[] d : deltas) {
+            int tf = f + d[0], tr = r + d[1];
+            if (tf >= 0 && tf <= 7 && tr >= 0 && tr <= 7) mask |= 1L << (tr * 8 + tf);
+        }
+        return mask;
+    }
+
+    /** True if a piece of {@code by} still in {@code occupied} attacks {@code sq}. */
+    static boolean isAttacked(Board b, int sq, Color by, long occupied) {
+        int side = by.ordinal();
+        if ((PAWN_ATTACKERS[side][sq] & b.getBitboard(PieceType.PAWN, by) & occupied) != 0) return true;
+        if ((KNIGHT_ATTACKS[sq] & b.getBitboard(PieceType.KNIGHT, by) & occupied) != 0) return true;
+        if ((KING_ATTACKS[sq] & b.getBitboard(PieceType.KING, by) & occupied) != 0) return true;
+        long queens = b.getBitboard(PieceType.QUEEN, by);
+        long diagonal = (b.getBitboard(PieceType.BISHOP, by) | queens) & occupied;
+        if (diagonal != 0 && (rays(sq, occupied, DIAGONAL) & diagonal) != 0) return true;
+        long orthogonal = (b.getBitboard(PieceType.ROOK, by) | queens) & occupied;
+        return orthogonal != 0 && (rays(sq, occupied, ORTHOGONAL) & orthogonal) != 0;
+    }
+
+    /** (square << 3) | type ordinal of the cheapest piece of {@code by} in {@code occupied} attacking sq, or -1. */
+    static int leastValuableAttacker(Board b, int sq, Color by, long occupied) {
+        int side = by.ordinal();
+        long pawns = PAWN_ATTACKERS[side][sq] & b.getBitboard(PieceType.PAWN, by) & occupied;
+        if (pawns != 0) return (Long.numberOfTrailingZeros(pawns) << 3) | PAWN;
+        long knights = KNIGHT_ATTACKS[sq] & b.getBitboard(PieceType.KNIGHT, by) & occupied;
+        if (knights != 0) return (Long.numberOfTrailingZeros(knights) << 3) | KNIGHT;
+
+        long diagonal = rays(sq, occupied, DIAGONAL);
+        long bishops = diagonal & b.getBitboard(PieceType.BISHOP, by) & occupied;
+        if (bishops != 0) return (Long.numberOfTrailingZeros(bishops) << 3) | BISHOP;
+        long orthogonal = rays(sq, occupied, ORTHOGONAL);
+        long rooks = orthogonal & b.getBitboard(PieceType.ROOK, by) & occupied;
+        if (rooks != 0) return (Long.numberOfTrailingZeros(rooks) << 3) | ROOK;
+        long queens = (diagonal | orthogonal) & b.getBitboard(PieceType.QUEEN, by) & occupied;
+        if (queens != 0) return (Long.numberOfTrailingZeros(queens) << 3) | QUEEN;
+
+        long kings = KING_ATTACKS[sq] & b.getBitboard(PieceType.KING, by) & occupied;
+        if (kings != 0) return (Long.numberOfTrailingZeros(kings) << 3) | KING;
+        return -1;
+    }
+
+    /** Squares a slider on {@code sq} reaches along {@code directions}, up to and including the first piece. */
+    private static long rays(int sq, long occupied, int[][] directions) {
+        int f0 = sq & 7, r0 = sq >>> 3;
+        long reach = 0;
+        for (int[] d : directions) {
+            int f = f0 + d[0], r = r0 + d[1];
+            while (f >= 0 && f <= 7 && r >= 0 && r <= 7) {
+                long bit = 1L << (r * 8 + f);
+                reach |= bit;
+                if ((occupied & bit) != 0) break;
+                f += d[0];
+                r += d[1];
+            }
+        }
+        return reach;
+    }
+}
@@ -0,0 +1,214 @@
+package com.chess.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.chess.domain.Board;
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Piece;
+import com.chess.domain.PieceType;
+import com.chess.domain.Square;
+
+/**
+ * Generates legal moves piece by piece, in two groups that can be asked for separately.
+ * <p>
+ * "Tactical" moves are captures, en passant and every pawn move onto the last rank (the plain
+ * move as well as the four promotions, as {@link MoveValidator} accepts both); "quiet" moves are
+ * everything else, castling included. Together the two groups are exactly the moves
+ * {@link MoveValidator#isLegal(GameState, Move)} accepts, so a search can try its tactical moves
+ * first and, after a cut-off, never pay for the quiet ones.
+ * </p>
+ * <p>
+ * Candidates come from each piece's own pattern (steps, rays, pawn pushes) rather than from
+ * every from/to pair, and king safety is checked on one scratch copy of the position per call
+ * instead of one copy per candidate. Castling goes through {@link MoveValidator} unchanged.
+ * The position passed in is never modified.
+ * </p>
+ */
+public final class MoveGenerator {
+    private MoveGenerator() {}
+
+    private static final int[][] KNIGHT_STEPS = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+    private static final int[][] KING_STEPS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+    private static final int[][] ROOK_RAYS = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+    private static final int[][] BISHOP_RAYS = {{1, 1}, {-1, 1}, {-1, -1}, {1, -1}};
+    private static final PieceType[] PROMOTIONS = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+
+    /** All legal moves: the tactical ones first, then the quiet ones. */
+    public static List<Move> generateAll(GameState state) {
+        List<Move> out = new ArrayList<>();
+        new Run(state, out).generate(true, true);
+        return out;
+    }
+
+    /** Legal captures, en passant captures and pawn moves onto the last rank. */
+    public static List<Move> generateTactical(GameState state) {
+        List<Move> out = new ArrayList<>();
+        new Run(state, out).generate(true, false);
+        return out;
+    }
+
+    /** Legal moves that are not {@linkplain #isTactical(GameState, Move) tactical}, castling included. */
+    public static List<Move> generateQuiet(GameState state) {
+        List<Move> out = new ArrayList<>();
+        new Run(state, out).generate(false, true);
+        return out;
+    }
+
+    /**
+     * True if {@code move} belongs to {@link #generateTactical(GameState)}'s group in {@code state}:
+     * it lands on an occupied square, is a pawn's diagonal step, or takes a pawn to the last rank.
+     */
+    public static boolean isTactical(GameState state, Move move) {
+        Board b = state.getBoard();
+        Square from = move.getFrom();
+        Square to = move.getTo();
+        if (b.getPiece(to.getFile(), to.getRank()) != null) return true;
+        Piece p = b.getPiece(from.getFile(), from.getRank());
+        if (p == null || p.getType() != PieceType.PAWN) return false;
+        return from.getFile() != to.getFile() || to.getRank() == 0 || to.getRank() == 7;
+    }
+
+    /** One generation pass: the position, its side to move and a lazily made scratch copy. */
+    private static final class Run {
+        final GameState state;
+        final Board board;
+        final Color side;
+        final List<Move> out;
+        GameState scratch;
+
+        Run(GameState state, List<Move> out) {
+            this.state = state;
+            this.board = state.getBoard();
+            this.side = state.getToMove();
+            this.out = out;
+        }
+
+        void generate(boolean tactical, boolean quiet) {
+            for (int r = 0; r < 8; r++) {
+                for (int f = 0; f < 8; f++) {
+                    Piece p = board.getPiece(f, r);
+                    if (p == null || p.getColor() != side) continue;
+                    switch (p.getType()) {
+                        case PAWN:   pawn(f, r, tactical, quiet); break;
+                        case KNIGHT: steps(f, r, KNIGHT_STEPS, tactical, quiet); break;
+                        case BISHOP: rays(f, r, BISHOP_RAYS, tactical, quiet); break;
+                        case ROOK:   rays(f, r, ROOK_RAYS, tactical, quiet); break;
+                        case QUEEN:
+                            rays(f, r, ROOK_RAYS, tactical, quiet);
+                            rays(f, r, BISHOP_RAYS, tactical, quiet);
+                            break;
+                        case KING:
+                            steps(f, r, KING_STEPS, tactical, quiet);
+                            if (quiet) castling(f, r);
+                            break;
+                        default: break;
+                    }
+                }
+            }
+        }
+
+        private void steps(int f, int r, int[][] steps, boolean tactical, boolean quiet) {
+            for (int[] s : steps) {
+                int tf = f + s[0], tr = r + s[1];
+                if (tf < 0 || tf > 7 || tr < 0 || tr > 7) continue;
+                target(f, r, tf, tr, tactical, quiet);
+            }
+        }
+
+        private void rays(int f, int r, int[][] rays, boolean tactical, boolean quiet) {
+            for (int[] d : rays) {
+                int tf = f + d[0], tr = r + d[1];
+                while (tf >= 0 && tf <= 7 && tr >= 0 && tr <= 7) {
+                    if (!target(f, r, tf, tr, tactical, quiet)) break;
+                    tf += d[0];
+                    tr += d[1];
+                }
+            }
+        }
+
+        /** Adds the move onto (tf, tr) if wanted; returns whether a ray may continue past it. */
+        private boolean target(int f, int r, int tf, int tr, boolean tactical, boolean quiet) {
+            Piece dest = board.getPiece(tf, tr);
+            if (dest == null) {
+                if (quiet) add(f, r, tf, tr, false);
+                return true;
+            }
+            if (dest.getColor() != side && tactical) add(f, r, tf, tr, false);
+            return false;
+        }
+
+        private void pawn(int f, int r, boolean tactical, boolean quiet) {
+            int dir = (side == Color.WHITE) ? 1 : -1;
+            int startRank = (side == Color.WHITE) ? 1 : 6;
+            int lastRank = (side == Color.WHITE) ? 7 : 0;
+            int tr = r + dir;
+            if (tr < 0 || tr > 7) return;
+            boolean promoting = (tr == lastRank);
+
+            if (board.getPiece(f, tr) == null) {
+                if (promoting) {
+                    if (tactical) promotions(f, r, f, tr);
+                } else if (quiet) {
+                    add(f, r, f, tr, false);
+                    int tr2 = tr + dir;
+                    if (r == startRank && board.getPiece(f, tr2) == null) add(f, r, f, tr2, false);
+                }
+            }
+            if (!tactical) return;
+
+            Square ep = state.getEnPassantSquare();
+            boolean epOpen = (ep != null && state.getEnPassantFor() == side);
+            for (int tf = f - 1; tf <= f + 1; tf += 2) {
+                if (tf < 0 || tf > 7) continue;
+                Piece dest = board.getPiece(tf, tr);
+                if (dest == null) {
+                    if (epOpen && ep.getFile() == tf && ep.getRank() == tr) add(f, r, tf, tr, true);
+                } else if (dest.getColor() != side) {
+                    if (promoting) promotions(f, r, tf, tr);
+                    else add(f, r, tf, tr, false);
+                }
+            }
+        }
+
+        private void promotions(int f, int r, int tf, int tr) {
+            if (!leavesKingSafe(f, r, tf, tr, false)) return;
+            Square from = Square.of(f, r), to = Square.of(tf, tr);
+            out.add(new Move(from, to));
+            for (PieceType pt : PROMOTIONS) out.add(new Move(from, to, pt));
+        }
+
+        private void castling(int f, int r) {
+            int homeRank = (side == Color.WHITE) ? 0 : 7;
+            if (r != homeRank) return;
+            for (int tf = f - 2; tf <= f + 2; tf += 4) {
+                if (tf < 0 || tf > 7) continue;
+                Move m = new Move(Square.of(f, r), Square.of(tf, r));
+                if (MoveValidator.isLegal(state, m)) out.add(m);
+            }
+        }
+
+        private void add(int f, int r, int tf, int tr, boolean enPassant) {
+            if (leavesKingSafe(f, r, tf, tr, enPassant)) out.add(new Move(Square.of(f, r), Square.of(tf, tr)));
+        }
+
+        /** Plays the move on the scratch copy, asks {@link CheckDetector}, and puts the squares back. */
+        private boolean leavesKingSafe(int f, int r, int tf, int tr, boolean enPassant) {
+            if (scratch == null) scratch = GameState.deepCopy(state);
+            Board b = scratch.getBoard();
+            Piece moving = b.getPiece(f, r);
+            Piece captured = b.getPiece(tf, tr);
+            Piece bypassed = enPassant ? b.getPiece(tf, r) : null;
+            b.setPiece(tf, tr, moving);
+            b.setPiece(f, r, null);
+            if (enPassant) b.setPiece(tf, r, null);
+            boolean safe = !CheckDetector.isKingInCheck(scratch, side);
+            if (enPassant) b.setPiece(tf, r, bypassed);
+            b.setPiece(f, r, moving);
+            b.setPiece(tf, tr, captured);
+            return safe;
+        }
+    }
+}
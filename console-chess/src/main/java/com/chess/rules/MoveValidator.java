@@ -8,10 +8,26 @@ import com.chess.domain.Move;
 import com.chess.domain.Piece;
 import com.chess.domain.PieceType;
 import com.chess.domain.Square;
+import com.chess.metrics.LegalityCheckEvent;
+import com.chess.metrics.Metrics;
 
 public class MoveValidator {
 
     public static boolean isLegal(GameState state, Move move) {
+        Metrics.LEGALITY_CHECKS.increment();
+        LegalityCheckEvent event = new LegalityCheckEvent();
+        event.begin();
+        boolean legal = check(state, move);
+        event.end();
+        if (event.shouldCommit()) {
+            event.move = move.toString();
+            event.legal = legal;
+            event.commit();
+        }
+        return legal;
+    }
+
+    private static boolean check(GameState state, Move move) {
         Board board = state.getBoard();
         Piece piece = board.getPiece(move.getFrom());
         if (piece == null || piece.getColor() != state.getToMove()) return false;
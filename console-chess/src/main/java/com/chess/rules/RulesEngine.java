@@ -1,15 +1,10 @@
 package com.chess.rules;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import com.chess.domain.Board;
-import com.chess.domain.Color;
 import com.chess.domain.GameState;
 import com.chess.domain.Move;
-import com.chess.domain.Piece;
-import com.chess.domain.PieceType;
-import com.chess.domain.Square;
+import com.chess.metrics.Metrics;
 
 /**
  * RulesEngine provides high-level chess rule operations.
@@ -22,7 +17,7 @@ import com.chess.domain.Square;
  * <h2>Responsibilities:</h2>
  * <ul>
  *   <li>Check if a move is legal according to chess rules.</li>
- *   <li>Generate all legal moves for the side to move.</li>
+ *   <li>Generate all legal moves for the side to move, or only the tactical or quiet ones.</li>
  * </ul>
  *
  * Example usage:
@@ -46,38 +41,24 @@ public class RulesEngine {
         return MoveValidator.isLegal(state, move);
     }
 
+    /**
+     * Generates every legal move for the side to move: the tactical moves (captures, en passant,
+     * pawn moves onto the last rank) first, then the quiet ones. See {@link MoveGenerator}.
+     */
     public static List<Move> generateLegalMoves(GameState state) {
-        List<Move> legal = new ArrayList<>();
-        Board board = state.getBoard();
-        Color side = state.getToMove();
-
-        for (int r = 0; r < 8; r++) {
-            for (int f = 0; f < 8; f++) {
-                Square from = new Square(f, r);
-                Piece p = board.getPiece(from);
-                if (p == null || p.getColor() != side) continue;
+        long t = Metrics.start();
+        List<Move> moves = MoveGenerator.generateAll(state);
+        Metrics.GENERATE_LEGAL_MOVES.stop(t);
+        return moves;
+    }
 
-                for (int rr = 0; rr < 8; rr++) {
-                    for (int ff = 0; ff < 8; ff++) {
-                        Square to = new Square(ff, rr);
-                        // try normal move
-                        Move m = new Move(from, to);
-                        if (MoveValidator.isLegal(state, m)) legal.add(m);
+    /** Only the captures, en passant captures and pawn moves onto the last rank. */
+    public static List<Move> generateTacticalMoves(GameState state) {
+        return MoveGenerator.generateTactical(state);
+    }
 
-                        // If pawn and moving to last rank, also try promotions (q/r/b/n)
-                        if (p.getType() == PieceType.PAWN) {
-                            boolean lastRank = (side == Color.WHITE && rr == 7) || (side == Color.BLACK && rr == 0);
-                            if (lastRank) {
-                                for (PieceType pt : new PieceType[]{PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT}) {
-                                    Move pm = new Move(from, to, pt);
-                                    if (MoveValidator.isLegal(state, pm)) legal.add(pm);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return legal;
+    /** Only the moves {@link #generateTacticalMoves(GameState)} leaves out, castling included. */
+    public static List<Move> generateQuietMoves(GameState state) {
+        return MoveGenerator.generateQuiet(state);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package com.chess.rules;
+
+import com.chess.domain.Board;
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Piece;
+import com.chess.domain.PieceType;
+import com.chess.domain.Square;
+
+/**
+ * Static exchange evaluation (SEE): what a move wins or loses on its target square if both sides
+ * then keep recapturing there, each time with their least valuable attacker, and each side may
+ * stop as soon as going on would cost it.
+ * <p>
+ * Attackers are found from the board's piece bitboards. A capturer is taken out of the occupancy
+ * before the next attacker is looked for, so rooks, bishops and queens lined up behind it
+ * ("x-rays") join the exchange in turn. En passant counts the pawn taken beside the target square,
+ * and a pawn reaching the last rank counts as the piece it becomes (a queen when the move does
+ * not say). Pins and checks are ignored, except that a king never captures onto a defended square.
+ * </p>
+ * <p>
+ * Nothing is allocated and the position is not modified, so this is cheap enough to run on every
+ * capture a search generates, and safe to call from analysis code on a live game.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * if (StaticExchange.evaluate(state, capture) &lt; 0) {
+ *     // the capture loses material against best recaptures
+ * }
+ * </pre>
+ */
+public final class StaticExchange {
+    private StaticExchange() {}
+
+    /** By {@link PieceType} ordinal: KING, QUEEN, ROOK, BISHOP, KNIGHT, PAWN. */
+    private static final int[] VALUE = {20_000, 900, 500, 330, 320, 100};
+
+    /** Exchange value of a piece type in centipawns (the king counts as more than everything else). */
+    public static int pieceValue(PieceType type) {
+        return VALUE[type.ordinal()];
+    }
+
+    /**
+     * Material the side making {@code move} ends up with on the target square, in centipawns:
+     * positive if the move wins material, 0 if it is even (or a quiet move onto a safe square),
+     * negative if it loses material. {@code move} need not be a capture.
+     *
+     * @throws IllegalArgumentException if there is no piece on the move's origin square
+     */
+    public static int evaluate(GameState state, Move move) {
+        Board b = state.getBoard();
+        Square from = move.getFrom();
+        Square to = move.getTo();
+        Piece mover = b.getPiece(from.getFile(), from.getRank());
+        if (mover == null) throw new IllegalArgumentException("No piece on " + from);
+        Piece victim = b.getPiece(to.getFile(), to.getRank());
+        int sq = to.index();
+        long occupied = b.getOccupied() & ~(1L << from.index());
+
+        int gain = 0;
+        int onSquare = VALUE[mover.getType().ordinal()];
+        if (victim != null) {
+            gain = VALUE[victim.getType().ordinal()];
+        } else if (mover.getType() == PieceType.PAWN && from.getFile() != to.getFile()) {
+            gain = VALUE[Attacks.PAWN];   // en passant: the taken pawn stands beside the target square
+            occupied &= ~(1L << (from.getRank() * 8 + to.getFile()));
+        }
+        if (mover.getType() == PieceType.PAWN && (to.getRank() == 0 || to.getRank() == 7)) {
+            onSquare = VALUE[(move.getPromotion() == null) ? Attacks.QUEEN : move.getPromotion().ordinal()];
+            gain += onSquare - VALUE[Attacks.PAWN];
+        }
+        return gain - exchange(b, sq, opponent(mover.getColor()), occupied, onSquare);
+    }
+
+    /** True if {@link #evaluate(GameState, Move)} is at least {@code threshold}. */
+    public static boolean isAtLeast(GameState state, Move move, int threshold) {
+        return evaluate(state, move) >= threshold;
+    }
+
+    /**
+     * Best result {@code side} can get by capturing (or not) on {@code sq}, where a piece worth
+     * {@code onSquare} stands, given the pieces still in {@code occupied}.
+     */
+    private static int exchange(Board b, int sq, Color side, long occupied, int onSquare) {
+        int attacker = Attacks.leastValuableAttacker(b, sq, side, occupied);
+        if (attacker < 0) return 0;
+        int type = attacker & 7;
+        long rest = occupied & ~(1L << (attacker >>> 3));
+        if (type == Attacks.KING) {
+            // the king may only take if nothing defends the square any more
+            return Attacks.isAttacked(b, sq, opponent(side), rest) ? 0 : onSquare;
+        }
+        int value = onSquare;
+        int next = VALUE[type];
+        int rank = sq >>> 3;
+        if (type == Attacks.PAWN && (rank == 0 || rank == 7)) {
+            value += VALUE[Attacks.QUEEN] - VALUE[Attacks.PAWN];
+            next = VALUE[Attacks.QUEEN];
+        }
+        return Math.max(0, value - exchange(b, sq, opponent(side), rest, next));
+    }
+
+    private static Color opponent(Color c) {
+        return (c == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    }
+}
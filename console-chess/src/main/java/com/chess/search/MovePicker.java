@@ -0,0 +1,222 @@
+package com.chess.search;
+
+import java.util.List;
+
+import com.chess.domain.Board;
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Piece;
+import com.chess.domain.PieceType;
+import com.chess.rules.MoveGenerator;
+import com.chess.rules.RulesEngine;
+import com.chess.rules.StaticExchange;
+
+/**
+ * Hands out the legal moves of one node in stages, generating each group only when the
+ * previous one is used up:
+ * <ol>
+ *   <li>the hash move from the {@link TranspositionTable}, if legal here;</li>
+ *   <li>tactical moves that do not lose material by {@link StaticExchange}, most valuable victim
+ *       first, least valuable attacker breaking ties (MVV-LVA), promotions by the piece gained;</li>
+ *   <li>the two killer moves of this ply (quiet moves that caused a cut-off in a sibling);</li>
+ *   <li>the remaining quiet moves, by their history score;</li>
+ *   <li>the tactical moves that lose material, last.</li>
+ * </ol>
+ * A cut-off on the hash move or a capture ends the node before any quiet move is generated.
+ * Moves are picked by a selection pass per call rather than sorted up front, since most nodes
+ * only look at the first few. {@link #quiescence(GameState)} gives the capture-only variant used
+ * below the horizon. With ordering switched off the picker returns
+ * {@link RulesEngine#generateLegalMoves(GameState)} as generated, for comparison.
+ */
+final class MovePicker {
+
+    private static final int HASH = 0;
+    private static final int GOOD_TACTICAL = 1;
+    private static final int KILLERS = 2;
+    private static final int QUIET = 3;
+    private static final int BAD_TACTICAL = 4;
+    private static final int DONE = 5;
+
+    private static final int TRIED = Integer.MIN_VALUE;
+    private static final int LOSING = -1_000_000;   // added to the MVV-LVA score of a losing capture
+
+    private final GameState state;
+    private final int hashMove;
+    private final int killer1;
+    private final int killer2;
+    private final int[] history;    // by historyIndex, for the side to move
+    private final boolean ordered;
+    private final boolean quiescence;
+
+    private int stage;
+    private List<Move> tactical;
+    private int[] tacticalScores;
+    private int tacticalIndex;
+    private List<Move> quiet;
+    private int[] quietScores;
+    private int quietIndex;
+    private int killerIndex;
+    private int count;              // moves handed out so far
+
+    MovePicker(GameState state, int hashMove, int killer1, int killer2, int[] history, boolean ordered) {
+        this(state, hashMove, killer1, killer2, history, ordered, false);
+    }
+
+    private MovePicker(GameState state, int hashMove, int killer1, int killer2, int[] history,
+                       boolean ordered, boolean quiescence) {
+        this.state = state;
+        this.hashMove = hashMove;
+        this.killer1 = killer1;
+        this.killer2 = killer2;
+        this.history = history;
+        this.ordered = ordered;
+        this.quiescence = quiescence;
+    }
+
+    /**
+     * Picker for a quiescence node that is not in check: only captures and queen promotions that
+     * do not lose material, by MVV-LVA. Quiet moves are never generated.
+     */
+    static MovePicker quiescence(GameState state) {
+        MovePicker p = new MovePicker(state, 0, 0, 0, null, true, true);
+        p.stage = GOOD_TACTICAL;
+        return p;
+    }
+
+    /** The next move to try, or null when the node has none left. */
+    Move next() {
+        if (!ordered) {
+            if (quiet == null) quiet = RulesEngine.generateLegalMoves(state);
+            return (quietIndex < quiet.size()) ? handOut(quiet.get(quietIndex++)) : null;
+        }
+        while (true) {
+            switch (stage) {
+                case HASH:
+                    stage = GOOD_TACTICAL;
+                    if (hashMove != 0) {
+                        Move m = Move.unpack(hashMove);
+                        if (RulesEngine.isLegalMove(state, m)) return handOut(m);
+                    }
+                    break;
+                case GOOD_TACTICAL:
+                    if (tactical == null) loadTactical();
+                    if (tacticalIndex < tactical.size()) {
+                        int best = best(tacticalScores, tacticalIndex);
+                        if (tacticalScores[best] > LOSING / 2) return handOut(take(tactical, tacticalScores, tacticalIndex++, best));
+                    }
+                    stage = quiescence ? DONE : KILLERS;
+                    break;
+                case KILLERS:
+                    while (killerIndex < 2) {
+                        int k = (killerIndex++ == 0) ? killer1 : killer2;
+                        if (k == 0 || k == hashMove) continue;
+                        Move m = Move.unpack(k);
+                        if (!MoveGenerator.isTactical(state, m) && RulesEngine.isLegalMove(state, m)) return handOut(m);
+                    }
+                    stage = QUIET;
+                    break;
+                case QUIET:
+                    if (quiet == null) loadQuiet();
+                    if (quietIndex < quiet.size()) {
+                        int best = best(quietScores, quietIndex);
+                        if (quietScores[best] != TRIED) return handOut(take(quiet, quietScores, quietIndex++, best));
+                    }
+                    stage = BAD_TACTICAL;
+                    break;
+                case BAD_TACTICAL:
+                    if (tacticalIndex < tactical.size()) {
+                        int best = best(tacticalScores, tacticalIndex);
+                        if (tacticalScores[best] != TRIED) return handOut(take(tactical, tacticalScores, tacticalIndex++, best));
+                    }
+                    stage = DONE;
+                    break;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /** Number of moves returned by {@link #next()} so far. */
+    int count() { return count; }
+
+    private Move handOut(Move m) {
+        count++;
+        return m;
+    }
+
+    private void loadTactical() {
+        tactical = RulesEngine.generateTacticalMoves(state);
+        tacticalScores = new int[tactical.size()];
+        Board b = state.getBoard();
+        for (int i = 0; i < tacticalScores.length; i++) {
+            Move m = tactical.get(i);
+            if (m.pack() == hashMove || (quiescence && isQuiescenceSkip(b, m))) {
+                tacticalScores[i] = TRIED;
+                continue;
+            }
+            int score = mvvLva(b, m);
+            // taking something worth at least the capturer never loses; only the rest need an exchange
+            if (!winsOrTrades(b, m) && StaticExchange.evaluate(state, m) < 0) score += LOSING;
+            tacticalScores[i] = score;
+        }
+    }
+
+    private void loadQuiet() {
+        quiet = RulesEngine.generateQuietMoves(state);
+        quietScores = new int[quiet.size()];
+        for (int i = 0; i < quietScores.length; i++) {
+            int packed = quiet.get(i).pack();
+            quietScores[i] = (packed == hashMove || packed == killer1 || packed == killer2)
+                           ? TRIED
+                           : history[historyIndex(packed)];
+        }
+    }
+
+    /** Under-promotions, and the plain pawn move to the last rank that duplicates the queen promotion. */
+    private static boolean isQuiescenceSkip(Board b, Move m) {
+        if (m.isPromotion()) return m.getPromotion() != PieceType.QUEEN;
+        Piece p = b.getPiece(m.getFrom().getFile(), m.getFrom().getRank());
+        int rank = m.getTo().getRank();
+        return p.getType() == PieceType.PAWN && (rank == 0 || rank == 7);
+    }
+
+    /** Index of the highest score from {@code from} on. */
+    private static int best(int[] scores, int from) {
+        int best = from;
+        for (int i = from + 1; i < scores.length; i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+        return best;
+    }
+
+    /** Swaps the move at {@code best} into slot {@code at} and returns it. */
+    private static Move take(List<Move> moves, int[] scores, int at, int best) {
+        Move m = moves.get(best);
+        moves.set(best, moves.get(at));
+        scores[best] = scores[at];
+        return m;
+    }
+
+    /** Slot of a packed move in a history table: its from and to squares. */
+    static int historyIndex(int packed) {
+        return packed & 0xFFF;
+    }
+
+    private static boolean winsOrTrades(Board b, Move m) {
+        Piece victim = b.getPiece(m.getTo().getFile(), m.getTo().getRank());
+        Piece attacker = b.getPiece(m.getFrom().getFile(), m.getFrom().getRank());
+        return victim != null && !m.isPromotion()
+            && StaticExchange.pieceValue(victim.getType()) >= StaticExchange.pieceValue(attacker.getType());
+    }
+
+    static int mvvLva(Board b, Move m) {
+        Piece victim = b.getPiece(m.getTo().getFile(), m.getTo().getRank());
+        Piece attacker = b.getPiece(m.getFrom().getFile(), m.getFrom().getRank());
+        int victimValue = (victim != null) ? Searcher.pieceValue(victim.getType())
+                        : (m.getFrom().getFile() != m.getTo().getFile()) ? 100   // en passant
+                        : 0;                                                    // promotion push
+        int score = victimValue * 10 - Searcher.pieceValue(attacker.getType()) / 10;
+        if (m.isPromotion()) score += Searcher.pieceValue(m.getPromotion());
+        return score;
+    }
+}
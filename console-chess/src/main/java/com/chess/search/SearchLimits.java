@@ -0,0 +1,60 @@
+package com.chess.search;
+
+import com.chess.domain.Color;
+
+/**
+ * How long a search may run: a depth cap, a fixed move time, clock-based time control,
+ * a node cap, or none of them ("infinite", until {@link Searcher#stop()}).
+ */
+public final class SearchLimits {
+
+    public static final int MAX_DEPTH = 64;
+
+    private int depth = MAX_DEPTH;
+    private long moveTimeMillis = -1;
+    private long whiteTimeMillis = -1;
+    private long blackTimeMillis = -1;
+    private long whiteIncMillis;
+    private long blackIncMillis;
+    private int movesToGo;
+    private long nodes = -1;
+    private boolean infinite;
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits().setDepth(depth);
+    }
+
+    public static SearchLimits moveTime(long millis) {
+        return new SearchLimits().setMoveTimeMillis(millis);
+    }
+
+    public SearchLimits setDepth(int d) { this.depth = Math.max(1, Math.min(MAX_DEPTH, d)); return this; }
+    public SearchLimits setMoveTimeMillis(long ms) { this.moveTimeMillis = ms; return this; }
+    public SearchLimits setWhiteTimeMillis(long ms) { this.whiteTimeMillis = ms; return this; }
+    public SearchLimits setBlackTimeMillis(long ms) { this.blackTimeMillis = ms; return this; }
+    public SearchLimits setWhiteIncMillis(long ms) { this.whiteIncMillis = ms; return this; }
+    public SearchLimits setBlackIncMillis(long ms) { this.blackIncMillis = ms; return this; }
+    public SearchLimits setMovesToGo(int n) { this.movesToGo = n; return this; }
+    public SearchLimits setNodes(long n) { this.nodes = n; return this; }
+    public SearchLimits setInfinite(boolean b) { this.infinite = b; return this; }
+
+    public int getDepth() { return depth; }
+    public long getNodes() { return nodes; }
+    public boolean isInfinite() { return infinite; }
+
+    /**
+     * Milliseconds the side to move should spend, or -1 for no time limit.
+     * With a clock: an even share of the remaining time (30 moves if unknown) plus most of
+     * the increment, never more than half of what is left.
+     */
+    public long timeBudgetMillis(Color side) {
+        if (infinite) return -1;
+        if (moveTimeMillis >= 0) return moveTimeMillis;
+        long left = (side == Color.WHITE) ? whiteTimeMillis : blackTimeMillis;
+        if (left < 0) return -1;
+        long inc = (side == Color.WHITE) ? whiteIncMillis : blackIncMillis;
+        int mtg = (movesToGo > 0) ? Math.min(movesToGo, 30) : 30;
+        long budget = left / mtg + inc * 3 / 4;
+        return Math.max(1, Math.min(budget, left / 2));
+    }
+}
@@ -0,0 +1,46 @@
+package com.chess.search;
+
+import java.util.List;
+
+import com.chess.domain.Move;
+
+/** Outcome of one completed iteration (or the whole search): best move, score and effort. */
+public final class SearchResult {
+    private final Move bestMove;     // null when the side to move has no legal moves
+    private final int score;         // centipawns from the side to move's view
+    private final int depth;
+    private final long nodes;
+    private final long elapsedMillis;
+    private final List<Move> pv;
+
+    public SearchResult(Move bestMove, int score, int depth, long nodes, long elapsedMillis, List<Move> pv) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+        this.pv = List.copyOf(pv);
+    }
+
+    public Move getBestMove() { return bestMove; }
+    public int getScore() { return score; }
+    public int getDepth() { return depth; }
+    public long getNodes() { return nodes; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public List<Move> getPv() { return pv; }
+
+    public long getNps() {
+        return (elapsedMillis > 0) ? nodes * 1000 / elapsedMillis : nodes * 1000;
+    }
+
+    public boolean isMateScore() {
+        return Math.abs(score) >= Searcher.MATE - SearchLimits.MAX_DEPTH * 2;
+    }
+
+    /** Moves to mate (positive if the side to move mates), only meaningful when {@link #isMateScore()}. */
+    public int mateIn() {
+        int plies = Searcher.MATE - Math.abs(score);
+        int moves = (plies + 1) / 2;
+        return score > 0 ? moves : -moves;
+    }
+}
@@ -0,0 +1,418 @@
+package com.chess.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.chess.domain.Board;
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Piece;
+import com.chess.domain.PieceType;
+import com.chess.domain.Zobrist;
+import com.chess.eval.Evaluator;
+import com.chess.eval.IncrementalEvaluator;
+import com.chess.eval.Network;
+import com.chess.eval.NnueEvaluator;
+import com.chess.eval.PawnTable;
+import com.chess.metrics.SearchIterationEvent;
+import com.chess.rules.CheckDetector;
+import com.chess.rules.MoveGenerator;
+import com.chess.rules.RulesEngine;
+import com.chess.rules.StaticExchange;
+import com.chess.service.GameService;
+import com.chess.service.MoveHistory;
+import com.chess.service.MoveService;
+import com.chess.util.LongHashSet;
+
+/**
+ * Iterative-deepening alpha-beta search on top of {@link RulesEngine} and {@link MoveService}.
+ * Each thread searches one private copy of the root, making and taking back moves through a
+ * {@link MoveHistory}, with leaves scored by an incrementally updated {@link Evaluator}, or by an
+ * {@link NnueEvaluator} once a {@link Network} is set. Each node takes its moves from a
+ * {@link MovePicker}: hash move, captures by MVV-LVA, killer moves, then quiet moves by history,
+ * each group generated only when it is reached. Below the nominal depth a quiescence search
+ * plays out captures (and check evasions) before a position is scored.
+ * <p>
+ * Results are shared through a {@link TranspositionTable}. With more than one thread the
+ * extra threads search the same root independently ("lazy SMP") and help only by filling
+ * the shared table; the reported result always comes from the main thread.
+ * {@link #stop()} may be called from any thread and ends the search promptly; the best
+ * move of the last completed iteration is returned.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * Searcher searcher = new Searcher();
+ * SearchResult r = searcher.search(state, SearchLimits.depth(3));
+ * Move best = r.getBestMove();
+ * </pre>
+ */
+public final class Searcher {
+
+    public static final int MATE = 100_000;
+    static final int INFINITY = MATE + 1;
+    private static final int MATE_BOUND = MATE - 2 * SearchLimits.MAX_DEPTH;
+    private static final int HISTORY_MAX = 1 << 20;
+    /** Deepest ply the quiescence search may reach; mate scores stay above MATE_BOUND up to here. */
+    private static final int MAX_PLY = 2 * SearchLimits.MAX_DEPTH - 1;
+    /** Positional slack allowed on top of a capture's material when delta pruning. */
+    static final int DELTA_MARGIN = 200;
+
+    private final TranspositionTable table;
+    private final List<PawnTable> pawnTables = new ArrayList<>();   // one per thread, reused across searches
+    private volatile boolean stopRequested;
+    private int threads = 1;
+    private volatile Network network;   // null: classical evaluation
+    private boolean moveOrdering = true;
+
+    public Searcher() {
+        this(new TranspositionTable());
+    }
+
+    public Searcher(TranspositionTable table) {
+        this.table = table;
+    }
+
+    public TranspositionTable getTable() { return table; }
+
+    public int getThreads() { return threads; }
+
+    public void setThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+        this.threads = threads;
+    }
+
+    public Network getNetwork() { return network; }
+
+    /** Evaluates with {@code network} from the next search on; null goes back to the classical {@link Evaluator}. */
+    public void setNetwork(Network network) {
+        this.network = network;
+    }
+
+    public boolean isMoveOrdering() { return moveOrdering; }
+
+    /** Off: every node tries its moves in generation order (for measuring what ordering saves). */
+    public void setMoveOrdering(boolean moveOrdering) {
+        this.moveOrdering = moveOrdering;
+    }
+
+    /**
+     * Asks the running search to finish; safe to call from any thread. A stop that arrives
+     * before the search has started still counts, and the flag is cleared when it returns.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /** Drops a pending {@link #stop()} that no search has consumed yet. */
+    public void clearStop() {
+        stopRequested = false;
+    }
+
+    public SearchResult search(GameState root, SearchLimits limits) {
+        return search(root, limits, r -> { });
+    }
+
+    /**
+     * Searches {@code root} (which is not modified) within {@code limits}.
+     *
+     * @param onIteration called on the calling thread after every completed depth
+     */
+    public SearchResult search(GameState root, SearchLimits limits, Consumer<SearchResult> onIteration) {
+        long start = System.nanoTime();
+        long budget = limits.timeBudgetMillis(root.getToMove());
+        long deadline = (budget < 0) ? Long.MAX_VALUE : start + budget * 1_000_000L;
+
+        while (pawnTables.size() < threads) pawnTables.add(new PawnTable());
+
+        List<Worker> helpers = new ArrayList<>();
+        List<Thread> helperThreads = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            Worker w = new Worker(start, deadline, -1, i);
+            GameState copy = GameState.copyWithHistory(root);
+            Thread t = new Thread(() -> w.iterate(copy, limits.getDepth(), r -> { }), "search-helper-" + i);
+            t.setDaemon(true);
+            helpers.add(w);
+            helperThreads.add(t);
+            t.start();
+        }
+
+        Worker main = new Worker(start, deadline, limits.getNodes(), 0);
+        SearchResult result = main.iterate(GameState.copyWithHistory(root), limits.getDepth(), onIteration);
+
+        stopRequested = true;
+        long nodes = main.nodes;
+        for (int i = 0; i < helperThreads.size(); i++) {
+            try {
+                helperThreads.get(i).join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            nodes += helpers.get(i).nodes;
+        }
+        stopRequested = false;
+        long elapsed = (System.nanoTime() - start) / 1_000_000L;
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes, elapsed, result.getPv());
+    }
+
+    static int pieceValue(PieceType t) {
+        switch (t) {
+            case PAWN: return 100;
+            case KNIGHT: return 320;
+            case BISHOP: return 330;
+            case ROOK: return 500;
+            case QUEEN: return 900;
+            default: return 0; // the king is never traded
+        }
+    }
+
+    static int toTable(int score, int ply) {
+        if (score >= MATE_BOUND) return score + ply;
+        if (score <= -MATE_BOUND) return score - ply;
+        return score;
+    }
+
+    static int fromTable(int score, int ply) {
+        if (score >= MATE_BOUND) return score - ply;
+        if (score <= -MATE_BOUND) return score + ply;
+        return score;
+    }
+
+    /** One search thread: its own node counter and position copy, the shared table and stop flag. */
+    private final class Worker {
+        final long start;
+        final long deadline;
+        final long nodeLimit;
+        final int id;
+        final MoveHistory line = new MoveHistory(MAX_PLY + 1);
+        final int[][] killers = new int[SearchLimits.MAX_DEPTH + 1][2];   // by ply, packed moves
+        final int[][] history = new int[2][64 * 64];                      // by side, MovePicker.historyIndex
+        IncrementalEvaluator eval;   // follows this worker's root copy while iterate runs
+        long nodes;
+        boolean stopped;
+
+        Worker(long start, long deadline, long nodeLimit, int id) {
+            this.start = start;
+            this.deadline = deadline;
+            this.nodeLimit = nodeLimit;
+            this.id = id;
+        }
+
+        SearchResult iterate(GameState root, int maxDepth, Consumer<SearchResult> onIteration) {
+            Network net = network;
+            eval = (net != null) ? NnueEvaluator.attach(root, net) : Evaluator.attach(root, pawnTables.get(id));
+            try {
+                return iterateDepths(root, maxDepth, onIteration);
+            } finally {
+                eval.detach();
+            }
+        }
+
+        private SearchResult iterateDepths(GameState root, int maxDepth, Consumer<SearchResult> onIteration) {
+            List<Move> rootMoves = RulesEngine.generateLegalMoves(root);
+            if (rootMoves.isEmpty()) {
+                int score = CheckDetector.isKingInCheck(root, root.getToMove()) ? -MATE : 0;
+                return new SearchResult(null, score, 0, 0, 0, List.of());
+            }
+            // helpers look at the root in a different order so they fill different parts of the table
+            if (id > 0) Collections.rotate(rootMoves, id);
+
+            SearchResult last = new SearchResult(rootMoves.get(0), 0, 0, 0, 0, List.of(rootMoves.get(0)));
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                SearchIterationEvent event = new SearchIterationEvent();
+                event.begin();
+                Move best = null;
+                int alpha = -INFINITY;
+                for (Move m : rootMoves) {
+                    line.play(root, m);
+                    int score = -negamax(root, depth - 1, -INFINITY, -alpha, 1);
+                    line.unplay(root);
+                    if (stopped) break;
+                    if (score > alpha) {
+                        alpha = score;
+                        best = m;
+                    }
+                }
+                if (stopped) break; // an unfinished iteration is not trusted
+
+                table.store(Zobrist.hash(root), best.pack(), depth, TranspositionTable.BOUND_EXACT, toTable(alpha, 0));
+                // search the current best first next time
+                rootMoves.remove(best);
+                rootMoves.add(0, best);
+
+                long elapsed = (System.nanoTime() - start) / 1_000_000L;
+                last = new SearchResult(best, alpha, depth, nodes, elapsed, principalVariation(root, best, depth));
+                event.end();
+                if (event.shouldCommit()) {
+                    event.worker = id;
+                    event.depth = depth;
+                    event.nodes = nodes;
+                    event.nps = (long) (nodes * 1e9 / Math.max(1, System.nanoTime() - start));
+                    event.score = alpha;
+                    event.bestMove = best.toString();
+                    event.commit();
+                }
+                onIteration.accept(last);
+
+                if (last.isMateScore() && Math.abs(last.mateIn()) * 2 <= depth) break;
+                // not enough time left to finish another, deeper iteration
+                if (deadline != Long.MAX_VALUE && System.nanoTime() > start + (deadline - start) / 2) break;
+            }
+            return last;
+        }
+
+        int negamax(GameState state, int depth, int alpha, int beta, int ply) {
+            if ((++nodes & 15) == 0) checkLimits();
+            if (stopped) return 0;
+
+            long key = Zobrist.hash(state);
+            // a repeat inside the line is scored as the draw it can be forced into
+            if (state.getHalfmoveClock() >= GameService.FIFTY_MOVE_PLIES || state.getHistory().repetitions(key) > 0) return 0;
+            if (depth <= 0) return quiesce(state, alpha, beta, ply);
+
+            long entry = table.probe(key);
+            int hashMove = 0;
+            if (entry != 0L) {
+                hashMove = TranspositionTable.move(entry);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int s = fromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.BOUND_EXACT
+                            || (bound == TranspositionTable.BOUND_LOWER && s >= beta)
+                            || (bound == TranspositionTable.BOUND_UPPER && s <= alpha)) {
+                        return s;
+                    }
+                }
+            }
+
+            int[] killers = this.killers[ply];
+            int[] history = this.history[state.getToMove().ordinal()];
+            MovePicker picker = new MovePicker(state, hashMove, killers[0], killers[1], history, moveOrdering);
+
+            int originalAlpha = alpha;
+            int best = -INFINITY;
+            int bestMove = 0;
+            for (Move m = picker.next(); m != null; m = picker.next()) {
+                boolean quiet = !MoveGenerator.isTactical(state, m);
+                line.play(state, m);
+                int score = -negamax(state, depth - 1, -beta, -alpha, ply + 1);
+                line.unplay(state);
+                if (stopped) return 0;
+                if (score > best) {
+                    best = score;
+                    bestMove = m.pack();
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            if (quiet) rememberCutoff(killers, history, bestMove, depth);
+                            break;
+                        }
+                    }
+                }
+            }
+            if (picker.count() == 0) {
+                return CheckDetector.isKingInCheck(state, state.getToMove()) ? -MATE + ply : 0;
+            }
+
+            int bound = (best <= originalAlpha) ? TranspositionTable.BOUND_UPPER
+                      : (best >= beta) ? TranspositionTable.BOUND_LOWER
+                      : TranspositionTable.BOUND_EXACT;
+            table.store(key, bestMove, depth, bound, toTable(best, ply));
+            return best;
+        }
+
+        /**
+         * Searches captures (and, in check, every evasion) until the position is quiet, so a
+         * leaf is never scored in the middle of an exchange. Out of check the side to move may
+         * "stand pat" on the static evaluation; captures that lose material by
+         * {@link StaticExchange} are skipped, and so are captures that could not lift the score
+         * to alpha even with {@link #DELTA_MARGIN} to spare (delta pruning).
+         */
+        int quiesce(GameState state, int alpha, int beta, int ply) {
+            if ((++nodes & 15) == 0) checkLimits();
+            if (stopped) return 0;
+            if (ply >= MAX_PLY) return eval.evaluate();
+
+            boolean inCheck = CheckDetector.isKingInCheck(state, state.getToMove());
+            int best = -INFINITY;
+            int standPat = 0;
+            MovePicker picker;
+            if (inCheck) {
+                picker = new MovePicker(state, 0, 0, 0, history[state.getToMove().ordinal()], true);
+            } else {
+                standPat = eval.evaluate();
+                if (standPat >= beta) return standPat;
+                if (standPat > alpha) alpha = standPat;
+                best = standPat;
+                picker = MovePicker.quiescence(state);
+            }
+
+            Board b = state.getBoard();
+            for (Move m = picker.next(); m != null; m = picker.next()) {
+                if (!inCheck && !m.isPromotion()) {
+                    Piece victim = b.getPiece(m.getTo().getFile(), m.getTo().getRank());
+                    int gain = (victim != null) ? pieceValue(victim.getType()) : pieceValue(PieceType.PAWN);
+                    if (standPat + gain + DELTA_MARGIN <= alpha) continue;
+                }
+                line.play(state, m);
+                int score = -quiesce(state, -beta, -alpha, ply + 1);
+                line.unplay(state);
+                if (stopped) return 0;
+                if (score > best) {
+                    best = score;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) break;
+                    }
+                }
+            }
+            if (inCheck && picker.count() == 0) return -MATE + ply;
+            return best;
+        }
+
+        /** A quiet move refuted its sibling: keep it as a killer of this ply and credit its history. */
+        private void rememberCutoff(int[] killers, int[] history, int move, int depth) {
+            if (killers[0] != move) {
+                killers[1] = killers[0];
+                killers[0] = move;
+            }
+            int slot = MovePicker.historyIndex(move);
+            history[slot] += depth * depth;
+            if (history[slot] > HISTORY_MAX) {
+                // age both sides' tables so recent cut-offs keep counting for more
+                for (int[] h : this.history) {
+                    for (int i = 0; i < h.length; i++) h[i] >>= 1;
+                }
+            }
+        }
+
+        private void checkLimits() {
+            if (stopRequested
+                    || (nodeLimit >= 0 && nodes >= nodeLimit)
+                    || (deadline != Long.MAX_VALUE && System.nanoTime() >= deadline)) {
+                stopped = true;
+                if (id == 0) stopRequested = true;
+            }
+        }
+    }
+
+    /** Follows hash moves from the root to rebuild the principal variation. */
+    List<Move> principalVariation(GameState root, Move first, int maxLength) {
+        List<Move> pv = new ArrayList<>();
+        GameState st = GameState.deepCopy(root);
+        LongHashSet seen = new LongHashSet(maxLength);
+        Move m = first;
+        while (m != null && pv.size() < maxLength && RulesEngine.isLegalMove(st, m)) {
+            pv.add(m);
+            MoveService.apply(st, m);
+            st.switchTurn();
+            long key = Zobrist.hash(st);
+            if (!seen.add(key)) break;
+            long e = table.probe(key);
+            m = (e == 0L || TranspositionTable.move(e) == 0) ? null : Move.unpack(TranspositionTable.move(e));
+        }
+        return pv;
+    }
+}
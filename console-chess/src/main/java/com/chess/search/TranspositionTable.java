@@ -0,0 +1,82 @@
+package com.chess.search;
+
+import java.util.Arrays;
+
+/**
+ * Shared hash table of search results, keyed by Zobrist hash.
+ * <p>
+ * Each slot is two longs: {@code key ^ data} and {@code data}. A reader accepts an entry only
+ * if XOR-ing them gives back its own key, so torn writes from concurrent search threads are
+ * simply treated as misses and no locking is needed.
+ * </p>
+ * Data layout: move (16 bits) | depth (8) | bound (2) | unused (6) | score (32).
+ */
+public final class TranspositionTable {
+
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2; // fail-high: score >= stored
+    public static final int BOUND_UPPER = 3; // fail-low:  score <= stored
+
+    public static final int DEFAULT_MB = 16;
+
+    private long[] slots;
+    private int mask;
+
+    public TranspositionTable() {
+        this(DEFAULT_MB);
+    }
+
+    public TranspositionTable(int megabytes) {
+        resize(megabytes);
+    }
+
+    /** Reallocates (and clears) the table; entries are 16 bytes, rounded down to a power of two. */
+    public void resize(int megabytes) {
+        if (megabytes < 1) throw new IllegalArgumentException("Hash size must be at least 1 MB");
+        long entries = Long.highestOneBit(megabytes * 1024L * 1024L / 16);
+        entries = Math.min(entries, 1L << 28);
+        slots = new long[(int) entries * 2];
+        mask = (int) entries - 1;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0L);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** Raw data word for the key, or 0 on a miss. */
+    public long probe(long key) {
+        int i = ((int) key & mask) << 1;
+        long data = slots[i + 1];
+        return ((slots[i] ^ data) == key) ? data : 0L;
+    }
+
+    /** Always-replace, except that a shallower entry for the same position keeps a deeper one's move. */
+    public void store(long key, int move, int depth, int bound, int score) {
+        int i = ((int) key & mask) << 1;
+        long old = slots[i + 1];
+        if ((slots[i] ^ old) == key && move == 0) move = move(old);
+        long data = (move & 0xFFFFL)
+                | ((long) (depth & 0xFF) << 16)
+                | ((long) (bound & 3) << 24)
+                | ((long) score << 32);
+        slots[i] = key ^ data;
+        slots[i + 1] = data;
+    }
+
+    /** Per-mille of sampled slots in use, as reported by UCI "hashfull". */
+    public int hashfull() {
+        int sample = Math.min(1000, capacity());
+        int used = 0;
+        for (int i = 0; i < sample; i++) if (slots[(i << 1) + 1] != 0L) used++;
+        return used * 1000 / sample;
+    }
+
+    public static int move(long data)  { return (int) (data & 0xFFFF); }
+    public static int depth(long data) { return (int) ((data >>> 16) & 0xFF); }
+    public static int bound(long data) { return (int) ((data >>> 24) & 3); }
+    public static int score(long data) { return (int) (data >> 32); }
+}
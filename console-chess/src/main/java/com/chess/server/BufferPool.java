@@ -0,0 +1,52 @@
+package com.chess.server;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size direct buffers handed out and taken back by the NIO front-end.
+ * <p>
+ * Connections only hold a buffer while they are actively reading or have output waiting,
+ * so the pool size tracks busy connections, not open ones. At most {@code maxPooled}
+ * buffers are retained; extras are left to the GC.
+ * </p>
+ */
+public final class BufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    public BufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0 || maxPooled < 0) throw new IllegalArgumentException("Bad pool dimensions");
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    public int bufferSize() { return bufferSize; }
+
+    /** A cleared buffer, reused when one is available. */
+    public ByteBuffer acquire() {
+        ByteBuffer b = free.poll();
+        if (b == null) return ByteBuffer.allocateDirect(bufferSize);
+        pooled.decrementAndGet();
+        b.clear();
+        return b;
+    }
+
+    public void release(ByteBuffer b) {
+        if (b == null || !b.isDirect() || b.capacity() != bufferSize) return;
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        free.offer(b);
+    }
+
+    /** Buffers currently sitting idle in the pool. */
+    public int idleCount() {
+        return pooled.get();
+    }
+}
@@ -0,0 +1,381 @@
+package com.chess.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.chess.controller.GameSession;
+
+/**
+ * Selector-based TCP front-end speaking the console commands as a line protocol.
+ * <p>
+ * Every connection is its own game. A request is one line: a coordinate move
+ * ({@code e2e4}, {@code e7e8q}), {@code pip}, {@code hint}, {@code board} or {@code q}.
+ * The reply is whatever the console would have printed for that command, followed by a line
+ * containing only {@code "."}. The console's {@code save <file>} and {@code load <file>} are
+ * refused, since they would let any client read or write files as the server process, and so
+ * are {@code stats on|off|reset}, which would change the process-wide metrics for every game;
+ * {@code stats} and {@code stats json} still report them.
+ * Clients may pipeline: several lines can be sent at once and replies come back in order.
+ * The connection is closed after {@code q}, when the game ends, or after a line longer than
+ * {@link #MAX_LINE} bytes, which is answered (behind the reply of any command still running)
+ * with an error.
+ * </p>
+ * <p>
+ * One thread owns the selector and all connection bookkeeping; commands run on a small
+ * worker pool, at most one at a time per connection. An idle connection holds only its
+ * channel and a few fields: the {@link GameSession} is created on its first command and
+ * read/write buffers are borrowed from a {@link BufferPool} only while there is I/O to do.
+ * </p>
+ */
+public final class LineProtocolServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 7777;
+    static final String END_OF_REPLY = ".";
+    static final int MAX_LINE = 1024;
+    static final int MAX_PIPELINE = 64;
+    static final String LINE_TOO_LONG = "Line too long (max " + MAX_LINE + " bytes).\n" + END_OF_REPLY + "\n";
+
+    private final InetSocketAddress bindAddress;
+    private final ExecutorService workers;
+    private final BufferPool pool = new BufferPool(4096, 1024);
+    private final ConcurrentLinkedQueue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread loop;
+    private volatile boolean running;
+
+    /** Loopback on {@link #DEFAULT_PORT}, one worker per core. */
+    public LineProtocolServer() {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), DEFAULT_PORT),
+             Runtime.getRuntime().availableProcessors());
+    }
+
+    public LineProtocolServer(InetSocketAddress bindAddress, int workerThreads) {
+        if (workerThreads <= 0) throw new IllegalArgumentException("workerThreads must be positive");
+        this.bindAddress = bindAddress;
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread t = new Thread(r, "chess-nio-worker-" + seq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) return;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.configureBlocking(false);
+        server.bind(bindAddress, 1024);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        loop = new Thread(this::runLoop, "chess-nio-selector");
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    /** The bound port (useful when constructed with port 0). */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) return;
+        running = false;
+        selector.wakeup();
+        try {
+            loop.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+    }
+
+    /** Blocks until the server is closed. */
+    public void awaitTermination() throws InterruptedException {
+        loop.join();
+    }
+
+    // ---------- selector thread ----------
+
+    private void runLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) task.run();
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection c = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) read(c);
+                        if (key.isValid() && key.isWritable()) flush(c);
+                    } catch (IOException e) {
+                        closeConnection(c);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Selector loop failed: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) closeConnection((Connection) key.attachment());
+            }
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException ignored) {
+                // shutting down anyway
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel ch;
+        while ((ch = server.accept()) != null) {
+            ch.configureBlocking(false);
+            ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection c = new Connection(ch);
+            c.key = ch.register(selector, SelectionKey.OP_READ, c);
+            connectionCount.incrementAndGet();
+        }
+    }
+
+    private void read(Connection c) throws IOException {
+        ByteBuffer buf = pool.acquire();
+        try {
+            int n = c.channel.read(buf);
+            if (n < 0) {
+                c.inputClosed = true;
+            } else {
+                buf.flip();
+                if (!c.splitLines(buf)) {
+                    // stop reading and dispatching; the error goes out behind a running command's reply
+                    c.pending.clear();
+                    c.closeAfterFlush = true;
+                    c.lineTooLong = true;
+                    if (!c.busy) replyLineTooLong(c);
+                }
+            }
+        } finally {
+            pool.release(buf);
+        }
+        dispatchNext(c);
+        if (c.inputClosed && !c.busy && c.pending.isEmpty() && c.outgoing.isEmpty()) {
+            closeConnection(c);
+            return;
+        }
+        updateInterest(c);
+    }
+
+    private void dispatchNext(Connection c) {
+        if (c.busy || c.closeAfterFlush || c.pending.isEmpty()) return;
+        String line = c.pending.poll();
+        c.busy = true;
+        workers.execute(() -> {
+            boolean keepOpen;
+            String reply;
+            try {
+                keepOpen = c.execute(line);
+                reply = c.drainOutput();
+            } catch (RuntimeException e) {
+                keepOpen = true;
+                reply = "Error: " + e.getMessage() + "\n";
+            }
+            String r = reply;
+            boolean k = keepOpen;
+            selectorTasks.add(() -> complete(c, r, k));
+            selector.wakeup();
+        });
+    }
+
+    private void complete(Connection c, String reply, boolean keepOpen) {
+        if (!c.channel.isOpen()) return;
+        c.busy = false;
+        if (!keepOpen || (c.inputClosed && c.pending.isEmpty())) c.closeAfterFlush = true;
+        enqueue(c, reply + END_OF_REPLY + "\n");
+        if (c.lineTooLong) replyLineTooLong(c);
+        dispatchNext(c);
+        try {
+            flush(c);
+        } catch (IOException e) {
+            closeConnection(c);
+        }
+    }
+
+    private void replyLineTooLong(Connection c) {
+        c.lineTooLong = false;
+        enqueue(c, LINE_TOO_LONG);
+    }
+
+    /** Copies a reply into pooled direct buffers queued behind any earlier output. */
+    private void enqueue(Connection c, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int off = 0;
+        while (off < bytes.length) {
+            ByteBuffer b = pool.acquire();
+            int len = Math.min(b.remaining(), bytes.length - off);
+            b.put(bytes, off, len).flip();
+            c.outgoing.add(b);
+            off += len;
+        }
+    }
+
+    private void flush(Connection c) throws IOException {
+        while (!c.outgoing.isEmpty()) {
+            ByteBuffer b = c.outgoing.peek();
+            c.channel.write(b);
+            if (b.hasRemaining()) break;
+            pool.release(c.outgoing.poll());
+        }
+        if (c.outgoing.isEmpty() && c.closeAfterFlush && !c.busy) {
+            closeConnection(c);
+            return;
+        }
+        updateInterest(c);
+    }
+
+    private void updateInterest(Connection c) {
+        if (!c.key.isValid()) return;
+        int ops = 0;
+        // stop reading while output is backed up or the client has pipelined too far ahead
+        if (!c.inputClosed && !c.closeAfterFlush && c.outgoing.isEmpty() && c.pending.size() < MAX_PIPELINE) {
+            ops |= SelectionKey.OP_READ;
+        }
+        if (!c.outgoing.isEmpty()) ops |= SelectionKey.OP_WRITE;
+        c.key.interestOps(ops);
+    }
+
+    private void closeConnection(Connection c) {
+        if (!c.channel.isOpen()) return;
+        if (c.key != null) c.key.cancel();
+        try {
+            c.channel.close();
+        } catch (IOException ignored) {
+            // already gone
+        }
+        ByteBuffer b;
+        while ((b = c.outgoing.poll()) != null) pool.release(b);
+        connectionCount.decrementAndGet();
+    }
+
+    /** Per-connection state. Everything except the game itself is touched only by the selector thread. */
+    private static final class Connection {
+        final SocketChannel channel;
+        SelectionKey key;
+        final ArrayDeque<String> pending = new ArrayDeque<>(4);
+        final ArrayDeque<ByteBuffer> outgoing = new ArrayDeque<>(2);
+        byte[] partial;       // bytes of an unfinished line, null when none
+        int partialLen;
+        boolean busy;
+        boolean inputClosed;
+        boolean closeAfterFlush;
+        boolean lineTooLong;  // its error is still to be sent, after the running command's reply
+
+        // owned by whichever worker runs this connection's current command
+        GameSession game;
+        ByteArrayOutputStream output;
+        PrintStream printer;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /** Splits the buffer into lines; returns false if a line exceeds {@link #MAX_LINE}. */
+        boolean splitLines(ByteBuffer buf) {
+            while (buf.hasRemaining()) {
+                byte b = buf.get();
+                if (b == '\n') {
+                    String line = new String(partial == null ? new byte[0] : partial, 0, partialLen, StandardCharsets.UTF_8).trim();
+                    partialLen = 0;
+                    if (!line.isEmpty()) pending.add(line);
+                    continue;
+                }
+                if (b == '\r') continue;
+                if (partial == null) partial = new byte[64];
+                if (partialLen == MAX_LINE) return false;
+                if (partialLen == partial.length) partial = Arrays.copyOf(partial, Math.min(MAX_LINE, partial.length * 2));
+                partial[partialLen++] = b;
+            }
+            if (partialLen == 0) partial = null; // idle connections keep no line buffer
+            return true;
+        }
+
+        boolean execute(String line) {
+            if (game == null) {
+                output = new ByteArrayOutputStream(512);
+                printer = new PrintStream(output, false, StandardCharsets.UTF_8);
+                game = new GameSession("White", "Black", printer);
+            }
+            if (line.equalsIgnoreCase("board")) {
+                game.getState().getBoard().printBoard(printer);
+                printer.println(game.currentName() + " (" + game.getState().getToMove() + ") to move.");
+                return true;
+            }
+            String[] words = line.split("\\s+", 2);
+            String command = words[0].toLowerCase();
+            if (command.equals("save") || command.equals("load")) {
+                printer.println("Error: " + command + " is not available over the network.");
+                return true;
+            }
+            // the metrics are shared by every game in the process: clients may only read them
+            String arg = (words.length > 1) ? words[1].trim().toLowerCase() : "";
+            if (command.equals("stats") && !arg.isEmpty() && !arg.equals("json")) {
+                printer.println("Error: stats " + arg + " is not available over the network.");
+                return true;
+            }
+            return game.handle(line);
+        }
+
+        String drainOutput() {
+            if (printer == null) return "";
+            printer.flush();
+            String s = output.toString(StandardCharsets.UTF_8);
+            output.reset();
+            return s;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        LineProtocolServer srv = new LineProtocolServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                Runtime.getRuntime().availableProcessors());
+        srv.start();
+        System.out.println("Console Chess line server listening on " + srv.getPort());
+        srv.awaitTermination();
+    }
+}
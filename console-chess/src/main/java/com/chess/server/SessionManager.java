@@ -0,0 +1,197 @@
+package com.chess.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.chess.broadcast.Broadcaster;
+import com.chess.controller.GameSession;
+import com.chess.domain.PositionSnapshot;
+
+/**
+ * Hosts many independent games in one JVM.
+ * <p>
+ * Each game is a {@link GameSession} owned by exactly one thread (virtual where the JDK
+ * supports it, see {@link SessionThreads}). Commands are queued to that thread and answered
+ * through a {@link CompletableFuture} carrying the console output the command produced,
+ * followed by the next prompt. Sessions share no mutable state, so one slow game never
+ * holds up another.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * try (SessionManager mgr = new SessionManager()) {
+ *     long id = mgr.open("Alice", "Bob");
+ *     String reply = mgr.submit(id, "e2e4").join();
+ * }
+ * </pre>
+ */
+public final class SessionManager implements AutoCloseable {
+
+    public static final int DEFAULT_INBOX_CAPACITY = 64;
+
+    private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final ThreadFactory threads;
+    private final int inboxCapacity;
+    private volatile boolean closed;
+
+    public SessionManager() {
+        this(SessionThreads.factory(), DEFAULT_INBOX_CAPACITY);
+    }
+
+    public SessionManager(ThreadFactory threads, int inboxCapacity) {
+        if (inboxCapacity <= 0) throw new IllegalArgumentException("inboxCapacity must be positive");
+        this.threads = threads;
+        this.inboxCapacity = inboxCapacity;
+    }
+
+    /** Starts a new game and returns its session id. */
+    public long open(String whiteName, String blackName) {
+        if (closed) throw new IllegalStateException("SessionManager is closed");
+        long id = ids.incrementAndGet();
+        Session s = new Session(id, whiteName, blackName, inboxCapacity);
+        sessions.put(id, s);
+        threads.newThread(s).start();
+        return id;
+    }
+
+    /**
+     * Queues one console command for a session.
+     * The future fails with {@link IllegalArgumentException} for an unknown or finished session
+     * and with {@link IllegalStateException} when the session's inbox is full.
+     */
+    public CompletableFuture<String> submit(long id, String command) {
+        Session s = sessions.get(id);
+        if (s == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("No such session: " + id));
+        }
+        Request r = new Request(command);
+        if (!s.inbox.offer(r)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Session " + id + " is busy"));
+        }
+        // the session may have ended and drained its inbox between the lookup and the offer;
+        // if the request is still queued then, nobody else will ever answer it
+        if (s.ended && s.inbox.remove(r)) {
+            r.reply.completeExceptionally(new IllegalArgumentException("Session " + id + " has ended"));
+        }
+        return r.reply;
+    }
+
+    /** Ends a session as if its player had typed 'q'. */
+    public CompletableFuture<String> close(long id) {
+        return submit(id, "q");
+    }
+
+    /**
+     * The current position of a session, read without queueing behind its commands: the
+     * session publishes a new immutable snapshot after every move. Null for an unknown session.
+     */
+    public PositionSnapshot snapshot(long id) {
+        Session s = sessions.get(id);
+        return (s == null) ? null : s.game.getSnapshot();
+    }
+
+    /**
+     * Starts following a session as a spectator: a keyframe of the current position, then one
+     * diff per change, until the stream ends with the session. Null for an unknown session.
+     */
+    public Broadcaster.Subscription watch(long id) {
+        Session s = sessions.get(id);
+        return (s == null) ? null : s.game.getBroadcaster().subscribe();
+    }
+
+    public boolean isOpen(long id) {
+        return sessions.containsKey(id);
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    /** Stops every session; queued commands still get their replies first. */
+    @Override
+    public void close() {
+        closed = true;
+        for (Session s : sessions.values()) s.stop();
+        sessions.clear();
+    }
+
+    private static final class Request {
+        final String line; // null = stop
+        final CompletableFuture<String> reply = new CompletableFuture<>();
+
+        Request(String line) { this.line = line; }
+    }
+
+    private final class Session implements Runnable {
+        final long id;
+        final BlockingQueue<Request> inbox;
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        final PrintStream out = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+        final GameSession game;
+        volatile boolean stopping;
+        volatile boolean ended;     // set before the final drain; see submit
+
+        Session(long id, String whiteName, String blackName, int capacity) {
+            this.id = id;
+            this.inbox = new ArrayBlockingQueue<>(capacity);
+            this.game = new GameSession(whiteName, blackName, out);
+            game.attachBroadcaster(new Broadcaster());
+        }
+
+        void stop() {
+            stopping = true;
+            // wakes an idle session; a busy one sees the flag once its inbox is drained
+            inbox.offer(new Request(null));
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Request r = inbox.take();
+                    if (r.line == null) {
+                        r.reply.complete("");
+                        break;
+                    }
+                    boolean running;
+                    try {
+                        running = game.handle(r.line);
+                        if (running) game.printPrompt();
+                    } catch (RuntimeException e) {
+                        r.reply.completeExceptionally(e);
+                        buffer.reset();
+                        continue;
+                    }
+                    r.reply.complete(drain());
+                    if (!running || (stopping && inbox.isEmpty())) break;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                ended = true;
+                sessions.remove(id, this);
+                game.getBroadcaster().close();   // spectators' streams end with the session
+                // anyone still queued behind the end of the game gets a clear answer
+                Request r;
+                while ((r = inbox.poll()) != null) {
+                    r.reply.completeExceptionally(new IllegalArgumentException("Session " + id + " has ended"));
+                }
+            }
+        }
+
+        private String drain() {
+            out.flush();
+            String s = buffer.toString(StandardCharsets.UTF_8);
+            buffer.reset();
+            return s;
+        }
+    }
+}
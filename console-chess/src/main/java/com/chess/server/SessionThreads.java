@@ -0,0 +1,61 @@
+package com.chess.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread factory for session loops and their background work (such as pondering): virtual
+ * threads when the running JDK has them (21+), otherwise daemon platform threads.
+ * <p>
+ * The project still compiles for Java 17, so virtual threads are looked up reflectively
+ * instead of calling {@code Thread.ofVirtual()} directly.
+ * </p>
+ */
+public final class SessionThreads {
+    private SessionThreads() {}
+
+    private static final ThreadFactory FACTORY = create("session-");
+
+    /** Shared factory for session threads. */
+    public static ThreadFactory factory() {
+        return FACTORY;
+    }
+
+    /** True when sessions will run on virtual threads. */
+    public static boolean isVirtual() {
+        return !(FACTORY instanceof PlatformFactory);
+    }
+
+    /**
+     * A factory of the same kind as {@link #factory()} whose threads are named {@code prefix}
+     * plus a sequence number, for other per-game background work.
+     */
+    public static ThreadFactory create(String prefix) {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Object builder = ofVirtual.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // JDK < 21, or a preview build without --enable-preview
+            return new PlatformFactory(prefix);
+        }
+    }
+
+    private static final class PlatformFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicLong seq = new AtomicLong();
+
+        PlatformFactory(String prefix) { this.prefix = prefix; }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            // small stacks: session loops are shallow and there can be thousands of them
+            Thread t = new Thread(null, r, prefix + seq.getAndIncrement(), 256 * 1024);
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -5,6 +5,9 @@ import java.util.List;
 import com.chess.domain.Color;
 import com.chess.domain.GameState;
 import com.chess.domain.GameStatus;
+import com.chess.domain.Zobrist;
+import com.chess.metrics.Metrics;
+import com.chess.metrics.StatusAssessmentEvent;
 import com.chess.rules.CheckDetector;
 import com.chess.rules.RulesEngine;
 
@@ -15,16 +18,47 @@ public final class GameService {
         return (c == Color.WHITE) ? Color.BLACK : Color.WHITE;
     }
 
-    /** Returns IN_PROGRESS, CHECK, CHECKMATE or STALEMATE for the side to move. */
+    /** Plies without a capture or pawn move after which the game is drawn. */
+    public static final int FIFTY_MOVE_PLIES = 100;
+
+    /**
+     * Returns the status for the side to move. Checkmate and stalemate take precedence over
+     * the draw rules (a mate delivered on the hundredth ply still wins).
+     */
     public static GameStatus assessStatus(GameState state) {
+        long t = Metrics.start();
+        StatusAssessmentEvent event = new StatusAssessmentEvent();
+        event.begin();
+        GameStatus status = assess(state);
+        Metrics.ASSESS_STATUS.stop(t);
+        event.end();
+        if (event.shouldCommit()) {
+            event.status = status.name();
+            event.commit();
+        }
+        return status;
+    }
+
+    private static GameStatus assess(GameState state) {
         boolean inCheck = CheckDetector.isKingInCheck(state, state.getToMove());
         List<com.chess.domain.Move> moves = RulesEngine.generateLegalMoves(state);
         if (moves.isEmpty()) {
             return inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
         }
+        if (isFiftyMoveDraw(state)) return GameStatus.FIFTY_MOVE_RULE;
+        if (isThreefoldRepetition(state)) return GameStatus.THREEFOLD_REPETITION;
         return inCheck ? GameStatus.CHECK : GameStatus.IN_PROGRESS;
     }
 
+    public static boolean isFiftyMoveDraw(GameState state) {
+        return state.getHalfmoveClock() >= FIFTY_MOVE_PLIES;
+    }
+
+    /** The position to move has occurred twice before since the last irreversible move. */
+    public static boolean isThreefoldRepetition(GameState state) {
+        return state.getHistory().repetitions(Zobrist.hash(state)) >= 2;
+    }
+
     /** Helper used previously to announce "Check!" after a turn switch. */
     public static boolean sideToMoveIsInCheck(GameState state) {
         return CheckDetector.isKingInCheck(state, state.getToMove());
@@ -0,0 +1,202 @@
+package com.chess.service;
+
+import com.chess.domain.Board;
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Piece;
+import com.chess.domain.PieceType;
+import com.chess.domain.Square;
+import com.chess.domain.Zobrist;
+
+/**
+ * Undo/redo stack for one game: plays moves through {@link MoveService} and takes them back.
+ * <p>
+ * Each played move leaves one {@code long} undo record holding exactly what {@link MoveService#apply}
+ * overwrites: the move, the piece that moved (a pawn, for promotions), the captured piece and its
+ * square (which differs from the target for en passant), whether it castled, and the prior castling
+ * rights, en-passant square, en-passant side, side to move, halfmove clock and repetition window.
+ * Undoing a move writes those back in constant time without allocating; redoing re-applies the
+ * recorded move.
+ * </p>
+ * <p>
+ * Records live in a fixed ring, so memory stays bounded: once {@code capacity} moves are stored,
+ * playing another forgets the oldest one. Playing a move after an undo discards the redo tail.
+ * </p>
+ */
+public final class MoveHistory {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // record layout
+    private static final int MOVE_BITS = 15;               // Move.pack()
+    private static final int MOVED_SHIFT = 15;             // 4 bits: Zobrist.pieceIndex
+    private static final int CAPTURED_SHIFT = 19;          // 4 bits: pieceIndex + 1, 0 = none
+    private static final int CAPTURE_SQ_SHIFT = 23;        // 6 bits
+    private static final int CASTLE_SHIFT = 29;            // 1 bit
+    private static final int RIGHTS_SHIFT = 30;            // 4 bits: CastlingRights.toMask()
+    private static final int EP_SQ_SHIFT = 34;             // 7 bits: square index, 64 = none
+    private static final int EP_FOR_SHIFT = 41;            // 2 bits: 0 none, 1 white, 2 black
+    private static final int TO_MOVE_SHIFT = 43;           // 1 bit: 1 = black
+    private static final int CLOCK_SHIFT = 44;             // 10 bits: halfmove clock, saturating
+    private static final int REVERSIBLE_SHIFT = 54;        // 10 bits: PositionHistory reversible plies, saturating
+    private static final int TEN_BITS = 1023;
+    private static final int NO_EP = 64;
+
+    private final long[] records;
+    private int top;        // ring slot of the next record
+    private int undoable;
+    private int redoable;
+
+    public MoveHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveHistory(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+        this.records = new long[capacity];
+    }
+
+    public int capacity() { return records.length; }
+    public boolean canUndo() { return undoable > 0; }
+    public boolean canRedo() { return redoable > 0; }
+    public int undoCount() { return undoable; }
+    public int redoCount() { return redoable; }
+
+    /** Forgets every stored move, e.g. after a new position was loaded. */
+    public void clear() {
+        top = 0;
+        undoable = 0;
+        redoable = 0;
+    }
+
+    /**
+     * Applies a validated move and passes the turn, recording how to take it back.
+     *
+     * @return true iff the move captured the opponent's king (see {@link MoveService#apply})
+     */
+    public boolean play(GameState state, Move move) {
+        records[top] = record(state, move);
+        top = next(top);
+        if (undoable < records.length) undoable++;
+        redoable = 0;
+        boolean kingCaptured = MoveService.apply(state, move);
+        state.switchTurn();
+        return kingCaptured;
+    }
+
+    /**
+     * Takes back the last played move, restoring the exact prior state.
+     *
+     * @return the move taken back
+     * @throws IllegalStateException if there is nothing to undo
+     */
+    public Move undo(GameState state) {
+        if (undoable == 0) throw new IllegalStateException("Nothing to undo");
+        top = prev(top);
+        undoable--;
+        redoable++;
+        long rec = records[top];
+        restore(state, rec);
+        return Move.unpack((int) (rec & ((1 << MOVE_BITS) - 1)));
+    }
+
+    /**
+     * Takes back the last played move without reporting it; the allocation-free form of
+     * {@link #undo(GameState)} for search.
+     */
+    public void unplay(GameState state) {
+        top = prev(top);
+        undoable--;
+        redoable++;
+        restore(state, records[top]);
+    }
+
+    /**
+     * Plays the last undone move again.
+     *
+     * @return the move replayed
+     * @throws IllegalStateException if there is nothing to redo
+     */
+    public Move redo(GameState state) {
+        if (redoable == 0) throw new IllegalStateException("Nothing to redo");
+        Move move = Move.unpack((int) (records[top] & ((1 << MOVE_BITS) - 1)));
+        top = next(top);
+        undoable++;
+        redoable--;
+        MoveService.apply(state, move);
+        state.switchTurn();
+        return move;
+    }
+
+    private int next(int i) { return (i + 1 == records.length) ? 0 : i + 1; }
+    private int prev(int i) { return (i == 0) ? records.length - 1 : i - 1; }
+
+    /** Mirrors the move classification in {@link MoveService#apply}. */
+    private static long record(GameState state, Move move) {
+        Board board = state.getBoard();
+        Square from = move.getFrom();
+        Square to = move.getTo();
+        Piece moving = board.getPiece(from);
+        Piece captured = board.getPiece(to);
+        int captureSq = to.index();
+        boolean castle = moving.getType() == PieceType.KING
+                && Math.abs(to.getFile() - from.getFile()) == 2
+                && to.getRank() == from.getRank();
+
+        Square ep = state.getEnPassantSquare();
+        if (!castle && moving.getType() == PieceType.PAWN && captured == null && ep != null
+                && to.getFile() == ep.getFile() && to.getRank() == ep.getRank()
+                && state.getEnPassantFor() == moving.getColor()) {
+            Piece bypassed = board.getPiece(to.getFile(), from.getRank());
+            if (bypassed != null && bypassed.getType() == PieceType.PAWN) {
+                captured = bypassed;
+                captureSq = from.getRank() * 8 + to.getFile();
+            }
+        }
+
+        Color epFor = state.getEnPassantFor();
+        return move.pack()
+                | (long) Zobrist.pieceIndex(moving) << MOVED_SHIFT
+                | (long) (captured == null ? 0 : Zobrist.pieceIndex(captured) + 1) << CAPTURED_SHIFT
+                | (long) captureSq << CAPTURE_SQ_SHIFT
+                | (castle ? 1L : 0L) << CASTLE_SHIFT
+                | (long) state.getRights().toMask() << RIGHTS_SHIFT
+                | (long) (ep == null ? NO_EP : ep.index()) << EP_SQ_SHIFT
+                | (long) (epFor == null ? 0 : epFor == Color.WHITE ? 1 : 2) << EP_FOR_SHIFT
+                | (state.getToMove() == Color.BLACK ? 1L : 0L) << TO_MOVE_SHIFT
+                | (long) Math.min(state.getHalfmoveClock(), TEN_BITS) << CLOCK_SHIFT
+                | (long) Math.min(state.getHistory().getReversiblePlies(), TEN_BITS) << REVERSIBLE_SHIFT;
+    }
+
+    private static void restore(GameState state, long rec) {
+        Board board = state.getBoard();
+        int from = (int) rec & 63;
+        int to = (int) (rec >>> 6) & 63;
+
+        board.setPiece(from & 7, from >>> 3, Piece.fromIndex((int) (rec >>> MOVED_SHIFT) & 15));
+        board.setPiece(to & 7, to >>> 3, null);
+        int captured = (int) (rec >>> CAPTURED_SHIFT) & 15;
+        if (captured != 0) {
+            int sq = (int) (rec >>> CAPTURE_SQ_SHIFT) & 63;
+            board.setPiece(sq & 7, sq >>> 3, Piece.fromIndex(captured - 1));
+        }
+        if (((rec >>> CASTLE_SHIFT) & 1) != 0) {
+            int rank = from >>> 3;
+            boolean kingSide = (to & 7) > (from & 7);
+            int rookFrom = kingSide ? 7 : 0;
+            int rookTo = kingSide ? 5 : 3;
+            board.setPiece(rookFrom, rank, board.getPiece(rookTo, rank));
+            board.setPiece(rookTo, rank, null);
+        }
+
+        state.getRights().restore((int) (rec >>> RIGHTS_SHIFT) & 15);
+        int ep = (int) (rec >>> EP_SQ_SHIFT) & 127;
+        state.setEnPassantSquare(ep == NO_EP ? null : Square.at(ep));
+        int epFor = (int) (rec >>> EP_FOR_SHIFT) & 3;
+        state.setEnPassantFor(epFor == 0 ? null : epFor == 1 ? Color.WHITE : Color.BLACK);
+        state.setToMove(((rec >>> TO_MOVE_SHIFT) & 1) != 0 ? Color.BLACK : Color.WHITE);
+        state.setHalfmoveClock((int) (rec >>> CLOCK_SHIFT) & TEN_BITS);
+        state.getHistory().pop((int) (rec >>> REVERSIBLE_SHIFT) & TEN_BITS);
+    }
+}
@@ -7,12 +7,41 @@ import com.chess.domain.Move;
 import com.chess.domain.Piece;
 import com.chess.domain.PieceType;
 import com.chess.domain.Square;
+import com.chess.domain.Zobrist;
+import com.chess.metrics.Metrics;
+import com.chess.metrics.MoveApplyEvent;
 
 public final class MoveService {
     private MoveService() {}
 
-    /** Applies a validated move to the given state and returns true iff the move captured the opponent's king. */
+    /**
+     * Applies a validated move to the given state and returns true iff the move captured the opponent's king.
+     * Also advances the halfmove clock and records the position left behind in the state's history.
+     */
     public static boolean apply(GameState state, Move move) {
+        long t = Metrics.start();
+        MoveApplyEvent event = new MoveApplyEvent();
+        event.begin();
+        Board board = state.getBoard();
+        boolean resetsClock = board.getPiece(move.getFrom()).getType() == PieceType.PAWN
+                || board.getPiece(move.getTo()) != null;
+        int rightsBefore = state.getRights().toMask();
+        long keyBefore = Zobrist.hash(state);
+
+        boolean kingCaptured = applyMove(state, move);
+
+        state.setHalfmoveClock(resetsClock ? 0 : state.getHalfmoveClock() + 1);
+        state.getHistory().push(keyBefore, resetsClock || state.getRights().toMask() != rightsBefore);
+        Metrics.MOVE_APPLY.stop(t);
+        event.end();
+        if (event.shouldCommit()) {
+            event.move = move.toString();
+            event.commit();
+        }
+        return kingCaptured;
+    }
+
+    private static boolean applyMove(GameState state, Move move) {
         Board board = state.getBoard();
         Piece moving = board.getPiece(move.getFrom());
         Piece target = board.getPiece(move.getTo());
@@ -0,0 +1,82 @@
+package com.chess.tournament;
+
+/**
+ * When a {@link Tournament} game is stopped before the rules end it, from the scores the
+ * engines report for the moves they choose (from White's point of view here):
+ * <ul>
+ *   <li>a win, once the scores have been at least {@code resignScore} in the same side's favour
+ *       for {@code resignPlies} plies in a row, so both engines agree on it;</li>
+ *   <li>a draw, once after ply {@code drawAfterPly} they have stayed within {@code drawScore}
+ *       of zero for {@code drawPlies} plies in a row;</li>
+ *   <li>a draw, at {@code maxPlies} plies.</li>
+ * </ul>
+ * Mate, stalemate, repetition and the fifty-move rule always end a game first. A score of 0 for
+ * either setting switches that adjudication off.
+ */
+public final class Adjudication {
+
+    private int resignScore = 700;
+    private int resignPlies = 6;
+    private int drawAfterPly = 80;
+    private int drawScore = 10;
+    private int drawPlies = 8;
+    private int maxPlies = 400;
+
+    public int getResignScore() { return resignScore; }
+    public int getResignPlies() { return resignPlies; }
+    public int getDrawAfterPly() { return drawAfterPly; }
+    public int getDrawScore() { return drawScore; }
+    public int getDrawPlies() { return drawPlies; }
+    public int getMaxPlies() { return maxPlies; }
+
+    public Adjudication setResign(int score, int plies) {
+        if (score < 0 || plies < 1) throw new IllegalArgumentException("resign score must be >= 0 and plies >= 1");
+        this.resignScore = score;
+        this.resignPlies = plies;
+        return this;
+    }
+
+    public Adjudication setDraw(int afterPly, int score, int plies) {
+        if (afterPly < 0 || score < 0 || plies < 1) {
+            throw new IllegalArgumentException("draw ply and score must be >= 0 and plies >= 1");
+        }
+        this.drawAfterPly = afterPly;
+        this.drawScore = score;
+        this.drawPlies = plies;
+        return this;
+    }
+
+    public Adjudication setMaxPlies(int plies) {
+        if (plies < 1) throw new IllegalArgumentException("max plies must be >= 1");
+        this.maxPlies = plies;
+        return this;
+    }
+
+    /** Adjudication state of one game; feed it every searched score in move order. */
+    final class Tracker {
+        private int resignStreak;   // signed: positive while White is winning
+        private int drawStreak;
+
+        /**
+         * Records the score (White's view) chosen at {@code ply}.
+         *
+         * @return +1 if White is adjudicated the winner, -1 if Black is, 0 for a draw, or
+         *         {@code null} to play on
+         */
+        Integer update(int ply, int whiteScore) {
+            if (resignScore > 0 && Math.abs(whiteScore) >= resignScore) {
+                int sign = Integer.signum(whiteScore);
+                resignStreak = (Integer.signum(resignStreak) == sign) ? resignStreak + sign : sign;
+                if (Math.abs(resignStreak) >= resignPlies) return sign;
+            } else {
+                resignStreak = 0;
+            }
+            if (drawScore > 0 && ply >= drawAfterPly && Math.abs(whiteScore) <= drawScore) {
+                if (++drawStreak >= drawPlies) return 0;
+            } else {
+                drawStreak = 0;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.chess.tournament;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import com.chess.eval.Network;
+import com.chess.search.Searcher;
+import com.chess.search.TranspositionTable;
+
+/**
+ * One engine configuration taking part in a {@link Tournament}: a name plus the {@link Searcher}
+ * settings that make it different from the others. Each game gets searchers made by
+ * {@link #newSearcher()}, always single-threaded so that games, not search threads, use the cores.
+ *
+ * Example usage:
+ * <pre>
+ * EngineVariant base = new EngineVariant("base");
+ * EngineVariant nnue = new EngineVariant("nnue").setNetwork(Network.load(path)).setHashMegabytes(32);
+ * </pre>
+ */
+public final class EngineVariant {
+
+    private final String name;
+    private int hashMegabytes = TranspositionTable.DEFAULT_MB;
+    private Network network;          // null: classical evaluation
+    private boolean moveOrdering = true;
+
+    public EngineVariant(String name) {
+        if (name == null || name.isEmpty()) throw new IllegalArgumentException("Engine name must not be empty");
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+    public int getHashMegabytes() { return hashMegabytes; }
+    public Network getNetwork() { return network; }
+    public boolean isMoveOrdering() { return moveOrdering; }
+
+    public EngineVariant setHashMegabytes(int mb) {
+        if (mb < 1) throw new IllegalArgumentException("hash must be >= 1 MB");
+        this.hashMegabytes = mb;
+        return this;
+    }
+
+    public EngineVariant setNetwork(Network network) { this.network = network; return this; }
+    public EngineVariant setMoveOrdering(boolean on) { this.moveOrdering = on; return this; }
+
+    /** A fresh single-threaded searcher with this variant's settings and its own table. */
+    public Searcher newSearcher() {
+        return newSearcher(hashMegabytes);
+    }
+
+    /** As {@link #newSearcher()}, with a table of {@code megabytes} instead of the variant's own size. */
+    public Searcher newSearcher(int megabytes) {
+        Searcher s = new Searcher(new TranspositionTable(megabytes));
+        s.setNetwork(network);
+        s.setMoveOrdering(moveOrdering);
+        return s;
+    }
+
+    /**
+     * Parses a command-line spec {@code name[:key=value,...]} with keys {@code hash} (megabytes),
+     * {@code nnue} (network file) and {@code ordering} ({@code on}/{@code off}), e.g.
+     * {@code nnue:nnue=net.bin,hash=32}.
+     *
+     * @throws IllegalArgumentException on an unknown key or malformed value
+     * @throws IOException if a network file cannot be loaded
+     */
+    public static EngineVariant parse(String spec) throws IOException {
+        int colon = spec.indexOf(':');
+        EngineVariant v = new EngineVariant((colon < 0) ? spec : spec.substring(0, colon));
+        if (colon < 0) return v;
+        for (String option : spec.substring(colon + 1).split(",")) {
+            int eq = option.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value in engine spec: " + option);
+            String key = option.substring(0, eq);
+            String value = option.substring(eq + 1);
+            switch (key) {
+                case "hash":     v.setHashMegabytes(Integer.parseInt(value)); break;
+                case "nnue":     v.setNetwork(Network.load(Paths.get(value))); break;
+                case "ordering": v.setMoveOrdering(onOff(value)); break;
+                default: throw new IllegalArgumentException("Unknown engine option: " + key);
+            }
+        }
+        return v;
+    }
+
+    private static boolean onOff(String value) {
+        switch (value) {
+            case "on":  return true;
+            case "off": return false;
+            default: throw new IllegalArgumentException("Expected on or off: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,48 @@
+package com.chess.tournament;
+
+import java.util.List;
+
+import com.chess.domain.Move;
+
+/** One finished tournament game: who played which color from which opening, and how it ended. */
+public final class GameRecord {
+
+    private final int index;
+    private final int opening;
+    private final String white;
+    private final String black;
+    private final int result;        // +1 White won, -1 Black won, 0 draw
+    private final String reason;
+    private final List<Move> moves;  // played after the opening position
+
+    GameRecord(int index, int opening, String white, String black, int result, String reason, List<Move> moves) {
+        this.index = index;
+        this.opening = opening;
+        this.white = white;
+        this.black = black;
+        this.result = result;
+        this.reason = reason;
+        this.moves = List.copyOf(moves);
+    }
+
+    public int getIndex() { return index; }
+    public int getOpening() { return opening; }
+    public String getWhite() { return white; }
+    public String getBlack() { return black; }
+    public String getReason() { return reason; }
+    public List<Move> getMoves() { return moves; }
+
+    /** +1 if White won, -1 if Black won, 0 for a draw. */
+    public int getResult() { return result; }
+
+    /** {@code 1-0}, {@code 0-1} or {@code 1/2-1/2}. */
+    public String getResultText() {
+        return (result > 0) ? "1-0" : (result < 0) ? "0-1" : "1/2-1/2";
+    }
+
+    @Override
+    public String toString() {
+        return "Game " + (index + 1) + " (opening " + (opening + 1) + "): " + white + " - " + black + " "
+             + getResultText() + " {" + reason + "}";
+    }
+}
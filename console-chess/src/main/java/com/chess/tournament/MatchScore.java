@@ -0,0 +1,71 @@
+package com.chess.tournament;
+
+import java.util.Locale;
+
+/**
+ * Wins, draws and losses of the first engine of a match against the second, with the logistic
+ * Elo difference they imply and its 95% confidence margin (from the per-game score variance).
+ */
+public final class MatchScore {
+
+    private final int wins;
+    private final int draws;
+    private final int losses;
+
+    public MatchScore(int wins, int draws, int losses) {
+        if (wins < 0 || draws < 0 || losses < 0) throw new IllegalArgumentException("Counts must be >= 0");
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+    }
+
+    public int getWins() { return wins; }
+    public int getDraws() { return draws; }
+    public int getLosses() { return losses; }
+    public int getGames() { return wins + draws + losses; }
+
+    /** Points per game, 0..1 (0.5 before any game). */
+    public double getScore() {
+        int n = getGames();
+        return (n == 0) ? 0.5 : (wins + 0.5 * draws) / n;
+    }
+
+    /** Variance of a single game's points (1, 0.5 or 0) around {@link #getScore()}. */
+    public double getVariance() {
+        int n = getGames();
+        if (n == 0) return 0;
+        double s = getScore();
+        return (wins * (1 - s) * (1 - s) + draws * (0.5 - s) * (0.5 - s) + losses * s * s) / n;
+    }
+
+    /** Elo difference for {@link #getScore()}; infinite after only wins or only losses. */
+    public double getElo() {
+        return elo(getScore());
+    }
+
+    /** Half-width of the 95% confidence interval of {@link #getElo()}; infinite until the results vary. */
+    public double getEloMargin() {
+        int n = getGames();
+        if (n == 0 || getVariance() == 0) return Double.POSITIVE_INFINITY;
+        double sd = Math.sqrt(getVariance() / n);
+        double lo = elo(Math.max(1e-9, getScore() - 1.959964 * sd));
+        double hi = elo(Math.min(1 - 1e-9, getScore() + 1.959964 * sd));
+        return (hi - lo) / 2;
+    }
+
+    /** Logistic Elo difference that gives an expected score of {@code score}. */
+    public static double elo(double score) {
+        return -400 * Math.log10(1 / score - 1) + 0.0;   // + 0.0: no "-0.0" at an even score
+    }
+
+    /** Expected score against an opponent {@code elo} points weaker. */
+    public static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "+%d -%d =%d score %.3f elo %+.1f +/- %.1f",
+                wins, losses, draws, getScore(), getElo(), getEloMargin());
+    }
+}
@@ -0,0 +1,63 @@
+package com.chess.tournament;
+
+import java.util.Locale;
+
+/**
+ * Sequential probability ratio test between "the first engine is {@code elo0} stronger" (H0) and
+ * "it is {@code elo1} stronger" (H1), with error rates {@code alpha} (accepting H1 when H0
+ * holds) and {@code beta} (the reverse). The log-likelihood ratio uses the normal approximation
+ * of the trinomial game outcome, so it can be checked after every game and a match stopped as
+ * soon as it leaves {@code [ln(beta / (1 - alpha)), ln((1 - beta) / alpha)]}.
+ *
+ * Example usage:
+ * <pre>
+ * Sprt sprt = new Sprt(0, 5, 0.05, 0.05);
+ * if (sprt.test(score) != Sprt.Decision.CONTINUE) stopMatch();
+ * </pre>
+ */
+public final class Sprt {
+
+    public enum Decision { CONTINUE, ACCEPT_H0, ACCEPT_H1 }
+
+    private final double elo0;
+    private final double elo1;
+    private final double lower;
+    private final double upper;
+
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0) throw new IllegalArgumentException("elo1 must be greater than elo0");
+        if (alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("alpha and beta must be in (0, 1)");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lower = Math.log(beta / (1 - alpha));
+        this.upper = Math.log((1 - beta) / alpha);
+    }
+
+    public double getElo0() { return elo0; }
+    public double getElo1() { return elo1; }
+    public double getLowerBound() { return lower; }
+    public double getUpperBound() { return upper; }
+
+    /** Log-likelihood ratio of H1 against H0; 0 until the results vary at all. */
+    public double llr(MatchScore score) {
+        double var = score.getVariance();
+        if (var == 0) return 0;
+        double s0 = MatchScore.expectedScore(elo0);
+        double s1 = MatchScore.expectedScore(elo1);
+        return score.getGames() * (s1 - s0) * (2 * score.getScore() - s0 - s1) / (2 * var);
+    }
+
+    public Decision test(MatchScore score) {
+        double llr = llr(score);
+        if (llr >= upper) return Decision.ACCEPT_H1;
+        if (llr <= lower) return Decision.ACCEPT_H0;
+        return Decision.CONTINUE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "SPRT elo0=%.1f elo1=%.1f bounds [%.2f, %.2f]", elo0, elo1, lower, upper);
+    }
+}
@@ -0,0 +1,298 @@
+package com.chess.tournament;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.GameStatus;
+import com.chess.domain.Move;
+import com.chess.parser.AlgebraicParser;
+import com.chess.parser.FenParser;
+import com.chess.rules.RulesEngine;
+import com.chess.search.SearchLimits;
+import com.chess.search.SearchResult;
+import com.chess.search.Searcher;
+import com.chess.service.GameService;
+import com.chess.service.MoveService;
+
+/**
+ * Plays two {@link EngineVariant}s against each other, many games at a time.
+ * <p>
+ * Games are paired: each opening of the suite is played twice with colors swapped, so an
+ * unbalanced opening favours neither engine. {@code concurrency} worker threads (one per core by
+ * default) each take the next game number, play it with their own single-threaded searchers
+ * (tables cleared between games) and report it. The searchers' tables share one hash budget
+ * ({@link #DEFAULT_HASH_MB} unless set): each gets its engine's own size, capped at an equal share
+ * of the budget, so memory stays bounded however many games run at once. Every move is searched with the same
+ * {@link SearchLimits}. Games end by the rules or by {@link Adjudication}. After each game the
+ * running {@link MatchScore} is printed, and with an {@link Sprt} the match stops handing out games
+ * once the test decides; games already being played are finished and counted.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * Tournament.Result r = new Tournament(new EngineVariant("new"), new EngineVariant("old").setMoveOrdering(false))
+ *         .setGames(2000)
+ *         .setLimits(SearchLimits.moveTime(50))
+ *         .setSprt(new Sprt(0, 5, 0.05, 0.05))
+ *         .run(System.out);
+ * </pre>
+ */
+public final class Tournament {
+
+    /** Total transposition-table memory of all concurrent games, in megabytes. */
+    public static final int DEFAULT_HASH_MB = 256;
+
+    /** Short, balanced openings in coordinate notation, from the standard starting position. */
+    public static final List<String> DEFAULT_OPENINGS = List.of(
+        "e2e4 e7e5 g1f3 b8c6",
+        "e2e4 c7c5 g1f3 d7d6",
+        "e2e4 e7e6 d2d4 d7d5",
+        "e2e4 c7c6 d2d4 d7d5",
+        "e2e4 e7e5 f1c4 g8f6",
+        "e2e4 d7d5 e4d5 d8d5",
+        "d2d4 d7d5 c2c4 e7e6",
+        "d2d4 d7d5 c2c4 c7c6",
+        "d2d4 g8f6 c2c4 g7g6",
+        "d2d4 g8f6 c2c4 e7e6",
+        "c2c4 e7e5 b1c3 g8f6",
+        "g1f3 d7d5 g2g3 g8f6");
+
+    private final EngineVariant first;
+    private final EngineVariant second;
+    private List<GameState> openings = parseOpenings(DEFAULT_OPENINGS);
+    private int games = 100;
+    private int concurrency = Runtime.getRuntime().availableProcessors();
+    private int hashMegabytes = DEFAULT_HASH_MB;
+    private SearchLimits limits = SearchLimits.moveTime(100);
+    private Adjudication adjudication = new Adjudication();
+    private Sprt sprt;
+
+    // shared by the workers of one run
+    private final AtomicInteger nextGame = new AtomicInteger();
+    private volatile boolean stopped;
+    private final List<GameRecord> records = new ArrayList<>();
+    private int wins, draws, losses;   // for the first engine
+    private Sprt.Decision decision = Sprt.Decision.CONTINUE;
+    private Throwable failure;
+
+    public Tournament(EngineVariant first, EngineVariant second) {
+        if (first.getName().equals(second.getName())) throw new IllegalArgumentException("Engine names must differ");
+        this.first = first;
+        this.second = second;
+    }
+
+    /** Starting positions, each played with both color assignments. */
+    public Tournament setOpenings(List<GameState> openings) {
+        if (openings.isEmpty()) throw new IllegalArgumentException("At least one opening is needed");
+        this.openings = List.copyOf(openings);
+        return this;
+    }
+
+    /** Games to play (fewer if the SPRT decides first); an even number plays every pair out. */
+    public Tournament setGames(int games) {
+        if (games < 1) throw new IllegalArgumentException("games must be >= 1");
+        this.games = games;
+        return this;
+    }
+
+    public Tournament setConcurrency(int concurrency) {
+        if (concurrency < 1) throw new IllegalArgumentException("concurrency must be >= 1");
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /** Total table memory of all games being played at once; at least 1 MB per searcher is always used. */
+    public Tournament setHashMegabytes(int mb) {
+        if (mb < 1) throw new IllegalArgumentException("hash must be >= 1 MB");
+        this.hashMegabytes = mb;
+        return this;
+    }
+
+    /** Table size of each searcher: two per concurrent game, within the hash budget. */
+    int searcherHashMegabytes(EngineVariant engine) {
+        int searchers = 2 * Math.min(concurrency, games);
+        return Math.min(engine.getHashMegabytes(), Math.max(1, hashMegabytes / searchers));
+    }
+
+    /** Limits of every move's search, e.g. {@link SearchLimits#moveTime(long)} or fixed nodes. */
+    public Tournament setLimits(SearchLimits limits) { this.limits = limits; return this; }
+    public Tournament setAdjudication(Adjudication adjudication) { this.adjudication = adjudication; return this; }
+
+    /** Stop early once this test decides; null plays all games. */
+    public Tournament setSprt(Sprt sprt) { this.sprt = sprt; return this; }
+
+    /** The outcome of a run: every game in order, the first engine's score and the SPRT verdict. */
+    public static final class Result {
+        private final List<GameRecord> games;
+        private final MatchScore score;
+        private final Sprt.Decision decision;
+        private final double llr;
+
+        Result(List<GameRecord> games, MatchScore score, Sprt.Decision decision, double llr) {
+            this.games = List.copyOf(games);
+            this.score = score;
+            this.decision = decision;
+            this.llr = llr;
+        }
+
+        public List<GameRecord> getGames() { return games; }
+        public MatchScore getScore() { return score; }
+        public Sprt.Decision getDecision() { return decision; }
+        public double getLlr() { return llr; }
+    }
+
+    /**
+     * Plays the match, printing one line per finished game to {@code out}, and returns when every
+     * started game is over. Can be called once per instance.
+     *
+     * @throws IllegalStateException if a game failed (the other games are still finished first)
+     */
+    public Result run(PrintStream out) throws InterruptedException {
+        if (nextGame.get() != 0) throw new IllegalStateException("Tournament already run");
+        out.println(first + " vs " + second + ": " + games + " games, " + concurrency + " at a time, "
+                    + openings.size() + " openings, hash " + searcherHashMegabytes(first) + "/"
+                    + searcherHashMegabytes(second) + " MB" + ((sprt != null) ? ", " + sprt : ""));
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(concurrency, games); i++) {
+            Thread t = new Thread(() -> work(out), "tournament-" + i);
+            t.setDaemon(true);
+            workers.add(t);
+            t.start();
+        }
+        try {
+            for (Thread t : workers) t.join();
+        } finally {
+            stopped = true;
+        }
+        synchronized (this) {
+            if (failure != null) throw new IllegalStateException("Tournament game failed", failure);
+            records.sort(Comparator.comparingInt(GameRecord::getIndex));
+            MatchScore score = new MatchScore(wins, draws, losses);
+            return new Result(records, score, decision, (sprt != null) ? sprt.llr(score) : 0);
+        }
+    }
+
+    private void work(PrintStream out) {
+        Searcher firstSearcher = first.newSearcher(searcherHashMegabytes(first));
+        Searcher secondSearcher = second.newSearcher(searcherHashMegabytes(second));
+        try {
+            while (!stopped) {
+                int g = nextGame.getAndIncrement();
+                if (g >= games) return;
+                firstSearcher.getTable().clear();
+                secondSearcher.getTable().clear();
+                boolean firstIsWhite = (g % 2 == 0);
+                GameRecord rec = (firstIsWhite)
+                        ? play(g, first, firstSearcher, second, secondSearcher)
+                        : play(g, second, secondSearcher, first, firstSearcher);
+                finished(rec, firstIsWhite, out);
+            }
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                if (failure == null) failure = e;
+            }
+            stopped = true;
+        }
+    }
+
+    private GameRecord play(int g, EngineVariant white, Searcher whiteSearcher, EngineVariant black, Searcher blackSearcher) {
+        int opening = (g / 2) % openings.size();
+        GameState state = GameState.copyWithHistory(openings.get(opening));
+        Adjudication.Tracker tracker = adjudication.new Tracker();
+        List<Move> moves = new ArrayList<>();
+        for (int ply = 0; ; ply++) {
+            GameStatus status = GameService.assessStatus(state);
+            int sideSign = (state.getToMove() == Color.WHITE) ? 1 : -1;
+            switch (status) {
+                case CHECKMATE:            return record(g, opening, white, black, -sideSign, "checkmate", moves);
+                case STALEMATE:            return record(g, opening, white, black, 0, "stalemate", moves);
+                case THREEFOLD_REPETITION: return record(g, opening, white, black, 0, "threefold repetition", moves);
+                case FIFTY_MOVE_RULE:      return record(g, opening, white, black, 0, "fifty-move rule", moves);
+                default: break;
+            }
+            if (ply >= adjudication.getMaxPlies()) return record(g, opening, white, black, 0, "move limit", moves);
+
+            SearchResult r = ((sideSign > 0) ? whiteSearcher : blackSearcher).search(state, limits);
+            Integer verdict = tracker.update(ply, sideSign * r.getScore());
+            if (verdict != null) {
+                return record(g, opening, white, black, verdict, (verdict == 0) ? "adjudicated draw" : "adjudicated win", moves);
+            }
+            MoveService.apply(state, r.getBestMove());
+            state.switchTurn();
+            moves.add(r.getBestMove());
+        }
+    }
+
+    private static GameRecord record(int g, int opening, EngineVariant white, EngineVariant black,
+                                     int result, String reason, List<Move> moves) {
+        return new GameRecord(g, opening, white.getName(), black.getName(), result, reason, moves);
+    }
+
+    private synchronized void finished(GameRecord rec, boolean firstIsWhite, PrintStream out) {
+        records.add(rec);
+        int forFirst = firstIsWhite ? rec.getResult() : -rec.getResult();
+        if (forFirst > 0) wins++;
+        else if (forFirst < 0) losses++;
+        else draws++;
+        MatchScore score = new MatchScore(wins, draws, losses);
+        StringBuilder line = new StringBuilder(rec.toString()).append(" | ").append(first).append(": ").append(score);
+        if (sprt != null) {
+            line.append(String.format(Locale.ROOT, " | LLR %.2f", sprt.llr(score)));
+            if (decision == Sprt.Decision.CONTINUE) {
+                decision = sprt.test(score);
+                if (decision != Sprt.Decision.CONTINUE) {
+                    stopped = true;
+                    line.append(" -> ").append(decision == Sprt.Decision.ACCEPT_H1 ? "H1 accepted" : "H0 accepted");
+                }
+            }
+        }
+        out.println(line);
+    }
+
+    /**
+     * An opening position from one line: a FEN, or moves in coordinate notation played from the
+     * standard starting position (an empty line is the starting position itself).
+     *
+     * @throws IllegalArgumentException if a move cannot be parsed or is illegal
+     */
+    public static GameState parseOpening(String line) {
+        String s = line.trim();
+        if (s.indexOf('/') >= 0) return FenParser.parse(s);
+        GameState state = new GameState();
+        if (s.isEmpty()) return state;
+        for (String token : s.split("\\s+")) {
+            Move m = AlgebraicParser.parse(token);
+            if (!RulesEngine.isLegalMove(state, m)) {
+                throw new IllegalArgumentException("Illegal opening move " + token + " in: " + line);
+            }
+            MoveService.apply(state, m);
+            state.switchTurn();
+        }
+        return state;
+    }
+
+    public static List<GameState> parseOpenings(List<String> lines) {
+        List<GameState> out = new ArrayList<>();
+        for (String line : lines) out.add(parseOpening(line));
+        return out;
+    }
+
+    /** One opening per line as in {@link #parseOpening(String)}; blank lines and {@code #} comments are skipped. */
+    public static List<GameState> loadOpenings(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (!line.isBlank() && !line.trim().startsWith("#")) lines.add(line);
+        }
+        return parseOpenings(lines);
+    }
+}
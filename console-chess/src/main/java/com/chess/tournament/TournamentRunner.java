@@ -0,0 +1,79 @@
+package com.chess.tournament;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.chess.search.SearchLimits;
+
+/**
+ * Command-line front-end of {@link Tournament}:
+ * <pre>
+ * java -cp target/classes com.chess.tournament.TournamentRunner
+ *     --engine new --engine old:ordering=off [--games 1000] [--concurrency 8] [--hash 256]
+ *     [--movetime 100 | --nodes 20000 | --depth 5] [--openings file] [--maxplies 400]
+ *     [--sprt 0,5] [--alpha 0.05] [--beta 0.05]
+ * </pre>
+ * Engine specs are described at {@link EngineVariant#parse(String)}. The first engine is the one
+ * being tested: scores, Elo and the SPRT are from its point of view. {@code --hash} is the total
+ * table memory in megabytes of all games played at once (see {@link Tournament#setHashMegabytes(int)}).
+ */
+public final class TournamentRunner {
+    private TournamentRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        List<EngineVariant> engines = new ArrayList<>();
+        SearchLimits limits = SearchLimits.moveTime(100);
+        Adjudication adjudication = new Adjudication();
+        double[] sprtElo = null;
+        double alpha = 0.05, beta = 0.05;
+        String openings = null;
+        int games = 100;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        int hash = Tournament.DEFAULT_HASH_MB;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String v = args[i + 1];
+            switch (args[i]) {
+                case "--engine":      engines.add(EngineVariant.parse(v)); break;
+                case "--games":       games = Integer.parseInt(v); break;
+                case "--concurrency": concurrency = Integer.parseInt(v); break;
+                case "--hash":        hash = Integer.parseInt(v); break;
+                case "--movetime":    limits = SearchLimits.moveTime(Long.parseLong(v)); break;
+                case "--nodes":       limits = new SearchLimits().setNodes(Long.parseLong(v)); break;
+                case "--depth":       limits = SearchLimits.depth(Integer.parseInt(v)); break;
+                case "--openings":    openings = v; break;
+                case "--maxplies":    adjudication.setMaxPlies(Integer.parseInt(v)); break;
+                case "--sprt":        sprtElo = parsePair(v); break;
+                case "--alpha":       alpha = Double.parseDouble(v); break;
+                case "--beta":        beta = Double.parseDouble(v); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (engines.size() != 2) throw new IllegalArgumentException("Exactly two --engine options are needed");
+
+        Tournament t = new Tournament(engines.get(0), engines.get(1))
+                .setGames(games)
+                .setConcurrency(concurrency)
+                .setHashMegabytes(hash)
+                .setLimits(limits)
+                .setAdjudication(adjudication);
+        if (openings != null) t.setOpenings(Tournament.loadOpenings(Paths.get(openings)));
+        if (sprtElo != null) t.setSprt(new Sprt(sprtElo[0], sprtElo[1], alpha, beta));
+        Tournament.Result result = t.run(System.out);
+
+        MatchScore s = result.getScore();
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%s vs %s after %d games: %s%n", engines.get(0), engines.get(1), s.getGames(), s);
+        if (sprtElo != null) {
+            System.out.printf(Locale.ROOT, "SPRT: LLR %.2f, %s%n", result.getLlr(),
+                    (result.getDecision() == Sprt.Decision.CONTINUE) ? "inconclusive" : result.getDecision());
+        }
+    }
+
+    private static double[] parsePair(String v) {
+        String[] parts = v.split(",");
+        if (parts.length != 2) throw new IllegalArgumentException("Expected elo0,elo1: " + v);
+        return new double[] {Double.parseDouble(parts[0]), Double.parseDouble(parts[1])};
+    }
+}
@@ -0,0 +1,322 @@
+package com.chess.uci;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.eval.Network;
+import com.chess.parser.AlgebraicParser;
+import com.chess.parser.FenParser;
+import com.chess.rules.RulesEngine;
+import com.chess.search.SearchLimits;
+import com.chess.search.SearchResult;
+import com.chess.search.Searcher;
+import com.chess.search.TranspositionTable;
+import com.chess.service.MoveService;
+
+/**
+ * Universal Chess Interface front-end, so GUIs and match tools can drive the engine.
+ * <p>
+ * Supported commands: {@code uci}, {@code isready}, {@code setoption name Hash|Threads value N},
+ * {@code setoption name EvalFile value <path>} (a {@link Network} file; empty for the classical eval),
+ * {@code ucinewgame}, {@code position startpos|fen <fen> [moves ...]},
+ * {@code go [depth N] [movetime ms] [wtime ms btime ms winc ms binc ms movestogo N] [nodes N] [infinite]},
+ * {@code stop}, {@code quit}, plus {@code d} to print the current board.
+ * </p>
+ * <p>
+ * Searches run on a single worker thread so that {@code stop} and {@code isready} are answered
+ * while the engine thinks. GUIs resend the whole game with every {@code position} command; when
+ * the new move list extends the previous one from the same start, only the new moves are applied.
+ * </p>
+ */
+public final class UciAdapter {
+
+    public static final String ENGINE_NAME = "Console Chess";
+    public static final String ENGINE_AUTHOR = "console-chess contributors";
+
+    private final PrintStream out;
+    private final Searcher searcher;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "uci-search");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // position bookkeeping for incremental "position ... moves" handling
+    private String positionBase;          // "startpos" or "fen <fields>"
+    private final List<String> appliedMoves = new ArrayList<>();
+    private GameState current = new GameState();
+
+    private final Object searchLock = new Object();
+    private boolean searching;            // guarded by searchLock
+    private boolean infiniteSearch;       // guarded by searchLock; bestmove waits for "stop"
+    private boolean stopReceived;         // guarded by searchLock
+    private Future<?> pending;            // guarded by searchLock
+
+    public UciAdapter(PrintStream out) {
+        this.out = out;
+        this.searcher = new Searcher(new TranspositionTable());
+    }
+
+    public GameState getCurrentPosition() { return current; }
+
+    Searcher getSearcher() { return searcher; }
+
+    /** Reads commands until {@code quit} or end of input. */
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!handle(line)) break;
+        }
+        stopAndWait();
+        worker.shutdownNow();
+    }
+
+    /**
+     * Handles one command line.
+     *
+     * @return false on {@code quit}
+     */
+    public boolean handle(String line) {
+        String[] tok = line.trim().split("\\s+");
+        if (tok.length == 0 || tok[0].isEmpty()) return true;
+        switch (tok[0]) {
+            case "uci":
+                out.println("id name " + ENGINE_NAME);
+                out.println("id author " + ENGINE_AUTHOR);
+                out.println("option name Hash type spin default " + TranspositionTable.DEFAULT_MB + " min 1 max 4096");
+                out.println("option name Threads type spin default 1 min 1 max 256");
+                out.println("option name EvalFile type string default <empty>");
+                out.println("uciok");
+                break;
+            case "isready":
+                out.println("readyok");
+                break;
+            case "setoption":
+                setOption(tok);
+                break;
+            case "ucinewgame":
+                stopAndWait();
+                searcher.getTable().clear();
+                positionBase = null;
+                appliedMoves.clear();
+                current = new GameState();
+                break;
+            case "position":
+                stopAndWait();
+                position(tok);
+                break;
+            case "go":
+                go(tok);
+                break;
+            case "stop":
+                stopAndWait();
+                break;
+            case "d":
+                current.getBoard().printBoard(out);
+                out.println("Fen: " + FenParser.format(current));
+                break;
+            case "quit":
+                return false;
+            default:
+                out.println("info string unknown command: " + tok[0]);
+        }
+        return true;
+    }
+
+    private void setOption(String[] tok) {
+        // setoption name <id> [value <x>]
+        int nameAt = indexOf(tok, "name");
+        int valueAt = indexOf(tok, "value");
+        if (nameAt < 0) return;
+        String name = String.join(" ", Arrays.copyOfRange(tok, nameAt + 1, (valueAt < 0) ? tok.length : valueAt));
+        // an empty value is meaningful for EvalFile (back to the built-in evaluation)
+        String value = (valueAt < 0) ? "" : String.join(" ", Arrays.copyOfRange(tok, valueAt + 1, tok.length));
+        stopAndWait();
+        try {
+            if (name.equalsIgnoreCase("Hash")) {
+                searcher.getTable().resize(Integer.parseInt(value));
+            } else if (name.equalsIgnoreCase("Threads")) {
+                searcher.setThreads(Integer.parseInt(value));
+            } else if (name.equalsIgnoreCase("EvalFile")) {
+                if (value.isEmpty() || value.equals("<empty>")) {
+                    searcher.setNetwork(null);
+                } else {
+                    try {
+                        searcher.setNetwork(Network.load(Paths.get(value)));
+                        out.println("info string loaded network " + value);
+                    } catch (IOException e) {
+                        out.println("info string cannot load network: " + e.getMessage());
+                    }
+                }
+            } else {
+                out.println("info string unknown option " + name);
+            }
+        } catch (IllegalArgumentException e) {
+            out.println("info string bad value for " + name + ": " + value);
+        }
+    }
+
+    private void position(String[] tok) {
+        int movesAt = indexOf(tok, "moves");
+        int baseEnd = (movesAt < 0) ? tok.length : movesAt;
+        if (tok.length < 2) return;
+        String base = String.join(" ", Arrays.copyOfRange(tok, 1, baseEnd));
+        List<String> moves = (movesAt < 0) ? List.of() : Arrays.asList(Arrays.copyOfRange(tok, movesAt + 1, tok.length));
+
+        boolean extendsCurrent = base.equals(positionBase)
+                && moves.size() >= appliedMoves.size()
+                && moves.subList(0, appliedMoves.size()).equals(appliedMoves);
+        if (!extendsCurrent) {
+            try {
+                if (base.equals("startpos")) {
+                    current = new GameState();
+                } else if (base.startsWith("fen ")) {
+                    current = FenParser.parse(base.substring(4));
+                } else {
+                    out.println("info string bad position: " + base);
+                    return;
+                }
+            } catch (IllegalArgumentException e) {
+                out.println("info string bad fen: " + e.getMessage());
+                return;
+            }
+            positionBase = base;
+            appliedMoves.clear();
+        }
+        for (int i = appliedMoves.size(); i < moves.size(); i++) {
+            String mv = moves.get(i);
+            Move m;
+            try {
+                m = AlgebraicParser.parse(mv);
+            } catch (IllegalArgumentException e) {
+                m = null;
+            }
+            if (m == null || !RulesEngine.isLegalMove(current, m)) {
+                out.println("info string illegal move " + mv);
+                return;
+            }
+            MoveService.apply(current, m);
+            current.switchTurn();
+            appliedMoves.add(mv);
+        }
+    }
+
+    private void go(String[] tok) {
+        SearchLimits limits = new SearchLimits();
+        boolean limited = false;
+        for (int i = 1; i < tok.length; i++) {
+            String key = tok[i];
+            if (key.equals("infinite")) {
+                limits.setInfinite(true);
+                continue;
+            }
+            if (i + 1 >= tok.length) break;
+            long v;
+            try {
+                v = Long.parseLong(tok[i + 1]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            switch (key) {
+                case "depth":     limits.setDepth((int) v); limited = true; i++; break;
+                case "movetime":  limits.setMoveTimeMillis(v); limited = true; i++; break;
+                case "wtime":     limits.setWhiteTimeMillis(v); limited = true; i++; break;
+                case "btime":     limits.setBlackTimeMillis(v); limited = true; i++; break;
+                case "winc":      limits.setWhiteIncMillis(v); i++; break;
+                case "binc":      limits.setBlackIncMillis(v); i++; break;
+                case "movestogo": limits.setMovesToGo((int) v); i++; break;
+                case "nodes":     limits.setNodes(v); limited = true; i++; break;
+                default: break;
+            }
+        }
+        if (!limited) limits.setInfinite(true);
+
+        GameState root = GameState.copyWithHistory(current);
+        synchronized (searchLock) {
+            if (searching) {
+                out.println("info string search already running");
+                return;
+            }
+            searching = true;
+            infiniteSearch = limits.isInfinite();
+            stopReceived = false;
+            pending = worker.submit(() -> runSearch(root, limits));
+        }
+    }
+
+    private void runSearch(GameState root, SearchLimits limits) {
+        SearchResult result = searcher.search(root, limits, this::printInfo);
+        synchronized (searchLock) {
+            // UCI: after "go infinite" the bestmove must wait for "stop"
+            while (infiniteSearch && !stopReceived) {
+                try {
+                    searchLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            // bestmove goes out before the search counts as over, so a quit or go that sees
+            // searching == false can never overtake it
+            Move best = result.getBestMove();
+            out.println("bestmove " + (best == null ? "0000" : best.toString()));
+            searching = false;
+            searcher.clearStop();
+            searchLock.notifyAll();
+        }
+    }
+
+    private void printInfo(SearchResult r) {
+        StringBuilder sb = new StringBuilder("info depth ").append(r.getDepth());
+        if (r.isMateScore()) sb.append(" score mate ").append(r.mateIn());
+        else sb.append(" score cp ").append(r.getScore());
+        sb.append(" nodes ").append(r.getNodes())
+          .append(" nps ").append(r.getNps())
+          .append(" time ").append(r.getElapsedMillis())
+          .append(" hashfull ").append(searcher.getTable().hashfull());
+        if (!r.getPv().isEmpty()) {
+            sb.append(" pv");
+            for (Move m : r.getPv()) sb.append(' ').append(m);
+        }
+        out.println(sb);
+    }
+
+    /** Stops any running search and waits until its bestmove has been printed. */
+    private void stopAndWait() {
+        Future<?> f;
+        synchronized (searchLock) {
+            if (!searching) return;
+            stopReceived = true;
+            searcher.stop();
+            searchLock.notifyAll();
+            f = pending;
+        }
+        try {
+            f.get();
+        } catch (Exception e) {
+            out.println("info string search failed: " + e.getMessage());
+        }
+    }
+
+    private static int indexOf(String[] tok, String word) {
+        for (int i = 0; i < tok.length; i++) if (tok[i].equals(word)) return i;
+        return -1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+        new UciAdapter(out).run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+    }
+}
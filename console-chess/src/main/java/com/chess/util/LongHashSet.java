@@ -0,0 +1,151 @@
+package com.chess.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A set of {@code long}s, typically position hashes, without boxing: one {@code long[]} with
+ * linear probing, doubled when three quarters full: 8 bytes per slot, 11 to 21 bytes per key
+ * depending on how full the table is, against roughly 50 for a {@code HashSet<Long>}.
+ * <p>
+ * 0 marks an empty slot, so the key 0 is kept in a separate flag. Removal shifts the following
+ * entries back instead of leaving tombstones, so lookups never slow down after many removals.
+ * </p>
+ * Not thread-safe; see {@link StripedLongHashSet}.
+ *
+ * Example usage:
+ * <pre>
+ * LongHashSet seen = new LongHashSet();
+ * if (seen.add(Zobrist.hash(state))) {
+ *     // first visit to this position
+ * }
+ * </pre>
+ */
+public final class LongHashSet {
+
+    private long[] keys;
+    private int shift;
+    private int size;          // keys in the table, not counting 0
+    private int resizeAt;
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(0);
+    }
+
+    /** A set that holds {@code expectedSize} keys without resizing. */
+    public LongHashSet(int expectedSize) {
+        allocate(LongHashing.capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        shift = LongHashing.shiftFor(capacity);
+        resizeAt = LongHashing.resizeAt(capacity);
+    }
+
+    /** @return true if {@code key} was not in the set */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            return true;
+        }
+        int mask = keys.length - 1;
+        for (int i = LongHashing.slot(key, shift); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) return false;
+            if (k == 0) {
+                keys[i] = key;
+                if (++size > resizeAt) grow();
+                return true;
+            }
+        }
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) return hasZero;
+        int mask = keys.length - 1;
+        for (int i = LongHashing.slot(key, shift); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) return true;
+            if (k == 0) return false;
+        }
+    }
+
+    /** @return true if {@code key} was in the set */
+    public boolean remove(long key) {
+        if (key == 0) {
+            boolean had = hasZero;
+            hasZero = false;
+            return had;
+        }
+        int mask = keys.length - 1;
+        for (int i = LongHashing.slot(key, shift); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == 0) return false;
+            if (k == key) {
+                shiftBack(i);
+                size--;
+                return true;
+            }
+        }
+    }
+
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        for (int j = (gap + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            if (LongHashing.canFill(gap, j, LongHashing.slot(keys[j], shift))) {
+                keys[gap] = keys[j];
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    private void grow() {
+        long[] old = keys;
+        if (old.length == LongHashing.MAX_CAPACITY) throw new IllegalStateException("LongHashSet is full");
+        allocate(old.length * 2);
+        int mask = keys.length - 1;
+        for (long k : old) {
+            if (k == 0) continue;
+            int i = LongHashing.slot(k, shift);
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = k;
+        }
+    }
+
+    public int size() {
+        return size + (hasZero ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Removes every key; the table keeps its capacity. */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        size = 0;
+        hasZero = false;
+    }
+
+    /** Calls {@code action} with every key, in no particular order. */
+    public void forEach(LongConsumer action) {
+        if (hasZero) action.accept(0L);
+        for (long k : keys) {
+            if (k != 0) action.accept(k);
+        }
+    }
+
+    /** Slots in the table. */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /** Bytes held by the table. */
+    public long memoryBytes() {
+        return (long) keys.length * Long.BYTES;
+    }
+}
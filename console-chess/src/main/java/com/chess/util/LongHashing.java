@@ -0,0 +1,51 @@
+package com.chess.util;
+
+/** Slot arithmetic shared by the open-addressing tables in this package. */
+final class LongHashing {
+    private LongHashing() {}
+
+    static final int MAX_CAPACITY = 1 << 30;
+    static final int MIN_CAPACITY = 16;
+
+    private static final long SLOT_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long STRIPE_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+
+    /**
+     * Home slot of {@code key} in a table of {@code 1 << (64 - shift)} slots: the top bits of a
+     * multiplicative hash, so keys differing only in low bits still spread out.
+     */
+    static int slot(long key, int shift) {
+        return (int) ((key * SLOT_MULTIPLIER) >>> shift);
+    }
+
+    /** Stripe of {@code key} among {@code 1 << (64 - shift)}; independent of {@link #slot}. */
+    static int stripe(long key, int shift) {
+        return (int) ((key * STRIPE_MULTIPLIER) >>> shift);
+    }
+
+    /** Smallest power-of-two table that holds {@code expected} entries under a 3/4 load factor. */
+    static int capacityFor(int expected) {
+        if (expected < 0) throw new IllegalArgumentException("expected size must be >= 0");
+        long needed = ((long) expected * 4 + 2) / 3;
+        if (needed > MAX_CAPACITY) throw new IllegalArgumentException("Too many entries: " + expected);
+        int c = MIN_CAPACITY;
+        while (c < needed) c <<= 1;
+        return c;
+    }
+
+    static int resizeAt(int capacity) {
+        return capacity / 4 * 3;
+    }
+
+    static int shiftFor(int capacity) {
+        return 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /**
+     * True if an entry found at {@code j} while shifting back after a removal at {@code gap} may
+     * move into the gap: its home slot {@code home} is not cyclically within (gap, j].
+     */
+    static boolean canFill(int gap, int j, int home) {
+        return (j > gap) ? (home <= gap || home > j) : (home <= gap && home > j);
+    }
+}
@@ -0,0 +1,208 @@
+package com.chess.util;
+
+import java.util.Arrays;
+
+/**
+ * A map from {@code long} keys (typically position hashes) to {@code long} values without
+ * boxing, for totals that outgrow an {@code int} (node counts, accumulated scores) or values
+ * that are themselves packed. Same design as {@link LongIntHashMap}: parallel {@code long[]}
+ * tables with linear probing and a 3/4 load factor, 16 bytes per slot.
+ * <p>
+ * Not thread-safe.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * LongLongHashMap nodes = new LongLongHashMap();
+ * nodes.addTo(Zobrist.hash(state), searched);
+ * </pre>
+ */
+public final class LongLongHashMap {
+
+    /** Receives the entries of {@link #forEach(Visitor)}. */
+    @FunctionalInterface
+    public interface Visitor {
+        void accept(long key, long value);
+    }
+
+    private long[] keys;
+    private long[] values;
+    private int shift;
+    private int size;          // entries in the table, not counting key 0
+    private int resizeAt;
+    private boolean hasZero;
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(0);
+    }
+
+    /** A map that holds {@code expectedSize} entries without resizing. */
+    public LongLongHashMap(int expectedSize) {
+        allocate(LongHashing.capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        shift = LongHashing.shiftFor(capacity);
+        resizeAt = LongHashing.resizeAt(capacity);
+    }
+
+    /** Slot holding {@code key}, or -1. Not for key 0. */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int i = LongHashing.slot(key, shift); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) return i;
+            if (k == 0) return -1;
+        }
+    }
+
+    /** Slot holding {@code key}, or the empty slot where it would go (encoded as -slot - 1). Not for key 0. */
+    private int findOrFree(long key) {
+        int mask = keys.length - 1;
+        for (int i = LongHashing.slot(key, shift); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) return i;
+            if (k == 0) return -i - 1;
+        }
+    }
+
+    private void insertAt(int slot, long key, long value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) grow();
+    }
+
+    public boolean containsKey(long key) {
+        return (key == 0) ? hasZero : find(key) >= 0;
+    }
+
+    public long getOrDefault(long key, long defaultValue) {
+        if (key == 0) return hasZero ? zeroValue : defaultValue;
+        int i = find(key);
+        return (i >= 0) ? values[i] : defaultValue;
+    }
+
+    public void put(long key, long value) {
+        if (key == 0) {
+            hasZero = true;
+            zeroValue = value;
+            return;
+        }
+        int i = findOrFree(key);
+        if (i >= 0) values[i] = value;
+        else insertAt(-i - 1, key, value);
+    }
+
+    /**
+     * Stores {@code value} unless {@code key} is already there.
+     *
+     * @return true if the entry was added
+     */
+    public boolean putIfAbsent(long key, long value) {
+        if (key == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            zeroValue = value;
+            return true;
+        }
+        int i = findOrFree(key);
+        if (i >= 0) return false;
+        insertAt(-i - 1, key, value);
+        return true;
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key}, a missing key counting as 0.
+     *
+     * @return the new value
+     */
+    public long addTo(long key, long delta) {
+        if (key == 0) {
+            zeroValue = hasZero ? zeroValue + delta : delta;
+            hasZero = true;
+            return zeroValue;
+        }
+        int i = findOrFree(key);
+        if (i >= 0) return values[i] += delta;
+        insertAt(-i - 1, key, delta);
+        return delta;
+    }
+
+    /** @return true if {@code key} was in the map */
+    public boolean remove(long key) {
+        if (key == 0) {
+            boolean had = hasZero;
+            hasZero = false;
+            return had;
+        }
+        int i = find(key);
+        if (i < 0) return false;
+        shiftBack(i);
+        size--;
+        return true;
+    }
+
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        for (int j = (gap + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            if (LongHashing.canFill(gap, j, LongHashing.slot(keys[j], shift))) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        if (oldKeys.length == LongHashing.MAX_CAPACITY) throw new IllegalStateException("LongLongHashMap is full");
+        allocate(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long k = oldKeys[j];
+            if (k == 0) continue;
+            int i = LongHashing.slot(k, shift);
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = k;
+            values[i] = oldValues[j];
+        }
+    }
+
+    public int size() {
+        return size + (hasZero ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Removes every entry; the table keeps its capacity. */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        size = 0;
+        hasZero = false;
+    }
+
+    /** Calls {@code visitor} with every entry, in no particular order. */
+    public void forEach(Visitor visitor) {
+        if (hasZero) visitor.accept(0L, zeroValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) visitor.accept(keys[i], values[i]);
+        }
+    }
+
+    /** Slots in the table. */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /** Bytes held by the tables. */
+    public long memoryBytes() {
+        return (long) keys.length * (Long.BYTES + Long.BYTES);
+    }
+}
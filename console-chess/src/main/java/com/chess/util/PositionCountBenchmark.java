@@ -0,0 +1,104 @@
+package com.chess.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Zobrist;
+import com.chess.rules.RulesEngine;
+import com.chess.service.MoveHistory;
+
+/**
+ * Counts how often each position occurs in the game tree from the initial position, with a
+ * {@code HashMap<Long, Integer>}, a {@link LongIntHashMap} and a {@link StripedLongIntHashMap}
+ * filled by several threads.
+ * <p>
+ * The tree is walked once up front to collect the Zobrist key of every node, so the timed rounds
+ * measure only the counting. Run with
+ * {@code java -cp target/classes com.chess.util.PositionCountBenchmark [depth] [threads]};
+ * depth 4 (the default) reaches about 207,000 nodes and 78,000 distinct positions.
+ * </p>
+ */
+public final class PositionCountBenchmark {
+    private PositionCountBenchmark() {}
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int depth = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long[] keys = treeKeys(depth);
+        System.out.printf("%,d nodes to depth %d%n", keys.length, depth);
+
+        report("HashMap<Long, Integer>", keys, () -> {
+            Map<Long, Integer> m = new HashMap<>();
+            for (long k : keys) m.merge(k, 1, Integer::sum);
+            return new long[] {m.size(), 80L * m.size()};   // rough: node, boxed key and value, table slot
+        });
+        report("LongIntHashMap", keys, () -> {
+            LongIntHashMap m = new LongIntHashMap();
+            for (long k : keys) m.addTo(k, 1);
+            return new long[] {m.size(), m.memoryBytes()};
+        });
+        report("StripedLongIntHashMap x" + threads, keys, () -> {
+            StripedLongIntHashMap m = new StripedLongIntHashMap();
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int from = (int) ((long) keys.length * t / threads), to = (int) ((long) keys.length * (t + 1) / threads);
+                Thread w = new Thread(() -> {
+                    for (int i = from; i < to; i++) m.addTo(keys[i], 1);
+                });
+                workers.add(w);
+                w.start();
+            }
+            for (Thread w : workers) w.join();
+            return new long[] {m.size(), m.memoryBytes()};
+        });
+    }
+
+    interface Run {
+        /** @return distinct positions and bytes used */
+        long[] run() throws Exception;
+    }
+
+    private static void report(String label, long[] keys, Run run) throws Exception {
+        for (int i = 0; i < ROUNDS / 2; i++) run.run();   // warm-up
+        long start = System.nanoTime();
+        long[] r = null;
+        for (int i = 0; i < ROUNDS; i++) r = run.run();
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-28s %,12.0f keys/sec  %,9d distinct  %6.1f bytes/entry%n",
+                          label, keys.length * (double) ROUNDS / secs, r[0], (double) r[1] / r[0]);
+    }
+
+    /** Zobrist keys of every node of the tree below the initial position, root included. */
+    static long[] treeKeys(int depth) {
+        Keys keys = new Keys();
+        walk(new GameState(), new MoveHistory(depth + 1), depth, keys);
+        return Arrays.copyOf(keys.keys, keys.size);
+    }
+
+    private static final class Keys {
+        long[] keys = new long[1 << 16];
+        int size;
+
+        void add(long key) {
+            if (size == keys.length) keys = Arrays.copyOf(keys, size * 2);
+            keys[size++] = key;
+        }
+    }
+
+    private static void walk(GameState st, MoveHistory h, int depth, Keys keys) {
+        keys.add(Zobrist.hash(st));
+        if (depth == 0) return;
+        for (Move m : RulesEngine.generateLegalMoves(st)) {
+            h.play(st, m);
+            walk(st, h, depth - 1, keys);
+            h.unplay(st);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.chess.util;
+
+import java.util.function.LongConsumer;
+
+/**
+ * A thread-safe {@link LongHashSet} for deduplicating positions found by several threads:
+ * stripes of ordinary sets, each behind its own lock, chosen the same way as in
+ * {@link StripedLongIntHashMap}. Single-key operations are atomic; {@link #size()} and
+ * {@link #forEach(LongConsumer)} go stripe by stripe.
+ *
+ * Example usage:
+ * <pre>
+ * StripedLongHashSet seen = new StripedLongHashSet();
+ * // on any number of threads:
+ * if (seen.add(Zobrist.hash(state))) expand(state);
+ * </pre>
+ */
+public final class StripedLongHashSet {
+
+    private final LongHashSet[] stripes;
+    private final int stripeShift;
+
+    /** As many stripes as four per processor, at least 16. */
+    public StripedLongHashSet() {
+        this(StripedLongIntHashMap.defaultStripes(), 0);
+    }
+
+    /**
+     * @param stripes      number of stripes, rounded up to a power of two
+     * @param expectedSize keys the set should hold without resizing
+     */
+    public StripedLongHashSet(int stripes, int expectedSize) {
+        int n = StripedLongIntHashMap.stripeCount(stripes);
+        this.stripes = new LongHashSet[n];
+        for (int i = 0; i < n; i++) this.stripes[i] = new LongHashSet(expectedSize / n);
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(n);
+    }
+
+    private LongHashSet stripe(long key) {
+        return stripes[(stripeShift == 64) ? 0 : LongHashing.stripe(key, stripeShift)];
+    }
+
+    public int getStripeCount() { return stripes.length; }
+
+    /** @return true if no thread had added {@code key} before */
+    public boolean add(long key) {
+        LongHashSet s = stripe(key);
+        synchronized (s) {
+            return s.add(key);
+        }
+    }
+
+    public boolean contains(long key) {
+        LongHashSet s = stripe(key);
+        synchronized (s) {
+            return s.contains(key);
+        }
+    }
+
+    public boolean remove(long key) {
+        LongHashSet s = stripe(key);
+        synchronized (s) {
+            return s.remove(key);
+        }
+    }
+
+    public int size() {
+        int n = 0;
+        for (LongHashSet s : stripes) {
+            synchronized (s) {
+                n += s.size();
+            }
+        }
+        return n;
+    }
+
+    public void clear() {
+        for (LongHashSet s : stripes) {
+            synchronized (s) {
+                s.clear();
+            }
+        }
+    }
+
+    /** Visits every key, one stripe at a time while holding that stripe's lock. */
+    public void forEach(LongConsumer action) {
+        for (LongHashSet s : stripes) {
+            synchronized (s) {
+                s.forEach(action);
+            }
+        }
+    }
+
+    public long memoryBytes() {
+        long n = 0;
+        for (LongHashSet s : stripes) {
+            synchronized (s) {
+                n += s.memoryBytes();
+            }
+        }
+        return n;
+    }
+}
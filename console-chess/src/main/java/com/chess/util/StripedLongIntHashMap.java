@@ -0,0 +1,143 @@
+package com.chess.util;
+
+/**
+ * A thread-safe {@link LongIntHashMap} for ingesting positions from several threads at once:
+ * the keys are split over a power-of-two number of stripes, each an ordinary
+ * {@code LongIntHashMap} behind its own lock, so threads only contend when they touch the same
+ * stripe. The stripe is picked with a different hash than the slot inside it, so every stripe
+ * still spreads its keys over its whole table.
+ * <p>
+ * Single-key operations are atomic. {@link #size()}, {@link #forEach} and
+ * {@link #memoryBytes()} visit the stripes one after the other, so under concurrent updates they
+ * are accurate per stripe but not a snapshot of the whole map.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * StripedLongIntHashMap counts = new StripedLongIntHashMap();
+ * // on any number of threads:
+ * if (counts.addTo(key, 1) == 1) {
+ *     // first time any thread saw this position
+ * }
+ * </pre>
+ */
+public final class StripedLongIntHashMap {
+
+    private final LongIntHashMap[] stripes;
+    private final int stripeShift;
+
+    /** As many stripes as four per processor, at least 16. */
+    public StripedLongIntHashMap() {
+        this(defaultStripes(), 0);
+    }
+
+    /**
+     * @param stripes      number of stripes, rounded up to a power of two
+     * @param expectedSize entries the map should hold without resizing
+     */
+    public StripedLongIntHashMap(int stripes, int expectedSize) {
+        int n = stripeCount(stripes);
+        this.stripes = new LongIntHashMap[n];
+        for (int i = 0; i < n; i++) this.stripes[i] = new LongIntHashMap(expectedSize / n);
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(n);
+    }
+
+    static int defaultStripes() {
+        return Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    static int stripeCount(int stripes) {
+        if (stripes < 1 || stripes > (1 << 16)) throw new IllegalArgumentException("stripes must be in 1..65536");
+        int n = 1;
+        while (n < stripes) n <<= 1;
+        return n;
+    }
+
+    private LongIntHashMap stripe(long key) {
+        // a shift of 64 would be taken as 0 by the JVM; one stripe needs no hash at all
+        return stripes[(stripeShift == 64) ? 0 : LongHashing.stripe(key, stripeShift)];
+    }
+
+    public int getStripeCount() { return stripes.length; }
+
+    public boolean containsKey(long key) {
+        LongIntHashMap s = stripe(key);
+        synchronized (s) {
+            return s.containsKey(key);
+        }
+    }
+
+    public int getOrDefault(long key, int defaultValue) {
+        LongIntHashMap s = stripe(key);
+        synchronized (s) {
+            return s.getOrDefault(key, defaultValue);
+        }
+    }
+
+    public void put(long key, int value) {
+        LongIntHashMap s = stripe(key);
+        synchronized (s) {
+            s.put(key, value);
+        }
+    }
+
+    /** @see LongIntHashMap#putIfAbsent(long, int) */
+    public boolean putIfAbsent(long key, int value) {
+        LongIntHashMap s = stripe(key);
+        synchronized (s) {
+            return s.putIfAbsent(key, value);
+        }
+    }
+
+    /** @see LongIntHashMap#addTo(long, int) */
+    public int addTo(long key, int delta) {
+        LongIntHashMap s = stripe(key);
+        synchronized (s) {
+            return s.addTo(key, delta);
+        }
+    }
+
+    public boolean remove(long key) {
+        LongIntHashMap s = stripe(key);
+        synchronized (s) {
+            return s.remove(key);
+        }
+    }
+
+    public int size() {
+        int n = 0;
+        for (LongIntHashMap s : stripes) {
+            synchronized (s) {
+                n += s.size();
+            }
+        }
+        return n;
+    }
+
+    public void clear() {
+        for (LongIntHashMap s : stripes) {
+            synchronized (s) {
+                s.clear();
+            }
+        }
+    }
+
+    /** Visits every entry, one stripe at a time while holding that stripe's lock. */
+    public void forEach(LongIntHashMap.Visitor visitor) {
+        for (LongIntHashMap s : stripes) {
+            synchronized (s) {
+                s.forEach(visitor);
+            }
+        }
+    }
+
+    public long memoryBytes() {
+        long n = 0;
+        for (LongIntHashMap s : stripes) {
+            synchronized (s) {
+                n += s.memoryBytes();
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,141 @@
+package com.chess.analysis;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.GameState;
+import com.chess.domain.GameStatus;
+import com.chess.parser.FenParser;
+import com.chess.persist.SaveLoadService;
+
+public class BatchAnalyzerTest {
+
+    private static final String MATED = "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3";
+
+    private static List<String> inputs(int n) throws Exception {
+        ByteArrayOutputStream saved = new ByteArrayOutputStream();
+        SaveLoadService.save(new GameState(), saved);
+        List<String> in = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            switch (i % 4) {
+                case 0: in.add(FenParser.START_FEN); break;
+                case 1: in.add(MATED); break;
+                case 2: in.add(saved.toString("UTF-8")); break;
+                default: in.add("not a position"); break;
+            }
+        }
+        return in;
+    }
+
+    @Test
+    void testInputOrder() throws Exception {
+        try (BatchAnalyzer a = new BatchAnalyzer(4).setDepth(1).setWindow(3)) {
+            Iterator<PositionAnalysis> it = a.analyze(inputs(20).iterator());
+            for (int i = 0; i < 20; i++) {
+                PositionAnalysis r = it.next();
+                assertEquals(i, r.getIndex());
+                switch (i % 4) {
+                    case 0:
+                    case 2:
+                        assertEquals(GameStatus.IN_PROGRESS, r.getStatus());
+                        assertEquals(20, r.getLegalMoves());
+                        assertNotNull(r.getBestMove());
+                        assertEquals(1, r.getDepth());
+                        break;
+                    case 1:
+                        assertEquals(GameStatus.CHECKMATE, r.getStatus());
+                        assertEquals(0, r.getLegalMoves());
+                        assertNull(r.getBestMove());
+                        break;
+                    default:
+                        assertTrue(r.isError(), r.toString());
+                        break;
+                }
+            }
+            assertTrue(!it.hasNext());
+        }
+    }
+
+    @Test
+    void testCompletionOrderReturnsEveryPosition() throws Exception {
+        try (BatchAnalyzer a = new BatchAnalyzer(3).setSearch(false).setOrder(BatchAnalyzer.Order.COMPLETION)) {
+            Set<Long> seen = new HashSet<>();
+            a.analyze(inputs(50).iterator()).forEachRemaining(r -> seen.add(r.getIndex()));
+            assertEquals(50, seen.size());
+        }
+    }
+
+    @Test
+    void testInputIsPulledOnlyAheadOfTheConsumer() {
+        AtomicInteger pulled = new AtomicInteger();
+        Iterator<String> endless = new Iterator<String>() {
+            @Override public boolean hasNext() { return true; }
+            @Override public String next() { pulled.incrementAndGet(); return FenParser.START_FEN; }
+        };
+        try (BatchAnalyzer a = new BatchAnalyzer(2).setSearch(false).setWindow(5)) {
+            Iterator<PositionAnalysis> it = a.analyze(endless);
+            for (int i = 0; i < 100; i++) it.next();
+            assertTrue(pulled.get() <= 100 + 5, "pulled " + pulled.get());
+        }
+    }
+
+    @Test
+    void testPublisherRespectsDemand() throws Exception {
+        List<String> in = inputs(40);
+        List<PositionAnalysis> out = new ArrayList<>();
+        CompletableFuture<Throwable> done = new CompletableFuture<>();
+        // closed inside the block: closing the source is what completes the stream
+        SubmissionPublisher<String> source = new SubmissionPublisher<>();
+        try (BatchAnalyzer a = new BatchAnalyzer(2).setSearch(false).setWindow(4)) {
+            a.analyze(source).subscribe(new Flow.Subscriber<PositionAnalysis>() {
+                Flow.Subscription s;
+                @Override public void onSubscribe(Flow.Subscription s) { this.s = s; s.request(1); }
+                @Override public void onNext(PositionAnalysis r) { out.add(r); s.request(1); }
+                @Override public void onError(Throwable t) { done.complete(t); }
+                @Override public void onComplete() { done.complete(null); }
+            });
+            while (source.getNumberOfSubscribers() == 0) Thread.sleep(1);   // the pump subscribes on its own thread
+            for (String p : in) source.submit(p);
+            source.close();
+            assertNull(done.get(30, TimeUnit.SECONDS));
+        }
+        assertEquals(40, out.size());
+        for (int i = 0; i < out.size(); i++) assertEquals(i, out.get(i).getIndex());
+    }
+
+    @Test
+    void testCancelReachesAnIdleUpstream() throws Exception {
+        CompletableFuture<Void> upstreamCancelled = new CompletableFuture<>();
+        Flow.Publisher<String> idle = sub -> sub.onSubscribe(new Flow.Subscription() {
+            @Override public void request(long n) { }
+            @Override public void cancel() { upstreamCancelled.complete(null); }
+        });
+        CompletableFuture<Flow.Subscription> subscription = new CompletableFuture<>();
+        try (BatchAnalyzer a = new BatchAnalyzer(1).setSearch(false)) {
+            a.analyze(idle).subscribe(new Flow.Subscriber<PositionAnalysis>() {
+                @Override public void onSubscribe(Flow.Subscription s) { s.request(1); subscription.complete(s); }
+                @Override public void onNext(PositionAnalysis r) { }
+                @Override public void onError(Throwable t) { }
+                @Override public void onComplete() { }
+            });
+            Thread.sleep(50);   // the pump is now waiting for a position that never comes
+            subscription.get(5, TimeUnit.SECONDS).cancel();
+            upstreamCancelled.get(5, TimeUnit.SECONDS);
+        }
+    }
+}
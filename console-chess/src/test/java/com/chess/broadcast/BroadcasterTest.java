@@ -0,0 +1,273 @@
+package com.chess.broadcast;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.controller.GameSession;
+import com.chess.domain.GameState;
+import com.chess.domain.GameStatus;
+import com.chess.domain.Move;
+import com.chess.domain.PositionSnapshot;
+import com.chess.parser.AlgebraicParser;
+import com.chess.parser.FenParser;
+import com.chess.rules.RulesEngine;
+import com.chess.server.SessionManager;
+import com.chess.service.GameService;
+import com.chess.service.MoveHistory;
+
+public class BroadcasterTest {
+
+    /** Plays {@code move} on {@code state} and publishes the result; returns the new snapshot. */
+    private static PositionSnapshot play(Broadcaster b, MoveHistory h, GameState state, PositionSnapshot prev, String move) {
+        Move m = AlgebraicParser.parse(move);
+        h.play(state, m);
+        PositionSnapshot next = PositionSnapshot.after(prev, state, m);
+        b.publish(next, GameService.assessStatus(state));
+        return next;
+    }
+
+    private static void assertViewMatches(GameState state, SpectatorView view) {
+        for (int r = 0; r < 8; r++) {
+            for (int f = 0; f < 8; f++) {
+                assertEquals(Broadcaster.letter(state.getBoard().getPiece(f, r)), view.pieceAt(f, r), "square " + f + "," + r);
+            }
+        }
+        assertEquals(state.getToMove(), view.getToMove());
+    }
+
+    @Test
+    void testDiffListsOnlyChangedSquares() {
+        Broadcaster b = new Broadcaster();
+        GameState state = new GameState();
+        MoveHistory h = new MoveHistory(16);
+        PositionSnapshot s = PositionSnapshot.of(state);
+        b.publish(s, GameStatus.IN_PROGRESS);
+        Broadcaster.Subscription sub = b.subscribe();
+        assertTrue(sub.poll().isKeyframe());
+
+        s = play(b, h, state, s, "e2e4");
+        assertEquals("d 2 e2e4 b IN_PROGRESS e2. e4P", sub.poll().toString());
+
+        state = FenParser.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        h = new MoveHistory(16);
+        b.publish(s = PositionSnapshot.of(state), GameStatus.IN_PROGRESS);
+        sub.poll();
+        play(b, h, state, s, "e1g1");
+        BroadcastFrame castle = sub.poll();
+        assertFalse(castle.isKeyframe());
+        assertEquals(4, castle.toString().split(" ").length - 5, castle.toString());
+        assertEquals(castle.size(), castle.asByteBuffer().remaining());
+    }
+
+    @Test
+    void testFrameEncodedOnceForAllSubscribers() {
+        Broadcaster b = new Broadcaster();
+        GameState state = new GameState();
+        PositionSnapshot s = PositionSnapshot.of(state);
+        b.publish(s, GameStatus.IN_PROGRESS);
+        Broadcaster.Subscription a = b.subscribe();
+        Broadcaster.Subscription c = b.subscribe();
+        assertSame(a.poll(), c.poll(), "one keyframe per position");
+
+        play(b, new MoveHistory(4), state, s, "d2d4");
+        assertSame(a.poll(), c.poll());
+    }
+
+    @Test
+    void testNothingEncodedWithoutSubscribersButSeqAdvances() {
+        Broadcaster b = new Broadcaster();
+        GameState state = new GameState();
+        MoveHistory h = new MoveHistory(4);
+        PositionSnapshot s = PositionSnapshot.of(state);
+        b.publish(s, null);
+        s = play(b, h, state, s, "e2e4");
+        assertEquals(2, b.getSeq());
+
+        Broadcaster.Subscription sub = b.subscribe();
+        BroadcastFrame k = sub.poll();
+        assertEquals(2, k.getSeq());
+        assertTrue(k.toString().startsWith("k 2 e2e4 IN_PROGRESS "), k.toString());
+    }
+
+    @Test
+    void testSlowSubscriberCoalescedToKeyframe() {
+        Broadcaster b = new Broadcaster(2, Broadcaster.SlowPolicy.COALESCE);
+        GameState state = new GameState();
+        MoveHistory h = new MoveHistory(8);
+        PositionSnapshot s = PositionSnapshot.of(state);
+        b.publish(s, GameStatus.IN_PROGRESS);
+        Broadcaster.Subscription fast = b.subscribe();
+        Broadcaster.Subscription slow = b.subscribe();
+        SpectatorView fastView = new SpectatorView();
+        SpectatorView slowView = new SpectatorView();
+        fastView.apply(fast.poll());
+
+        for (String m : new String[] {"e2e4", "e7e5", "g1f3", "b8c6"}) {
+            s = play(b, h, state, s, m);
+            assertTrue(fastView.apply(fast.poll()));
+        }
+        assertEquals(2, slow.getCoalesced());   // overflowed on e7e5 and again on b8c6
+        assertEquals(2, b.getCoalesced());
+        for (BroadcastFrame f; (f = slow.poll()) != null; ) slowView.apply(f);
+        assertTrue(slowView.isSynced());
+        assertEquals(b.getSeq(), slowView.getSeq());
+        assertViewMatches(state, slowView);
+        assertViewMatches(state, fastView);
+        assertEquals("b8c6", fastView.getLastMove());
+    }
+
+    @Test
+    void testSlowSubscriberDropped() throws InterruptedException {
+        Broadcaster b = new Broadcaster(2, Broadcaster.SlowPolicy.DROP);
+        GameState state = new GameState();
+        MoveHistory h = new MoveHistory(8);
+        PositionSnapshot s = PositionSnapshot.of(state);
+        b.publish(s, GameStatus.IN_PROGRESS);
+        Broadcaster.Subscription slow = b.subscribe();
+        for (String m : new String[] {"e2e4", "e7e5", "g1f3"}) s = play(b, h, state, s, m);
+
+        assertTrue(slow.isClosed());
+        assertEquals(1, b.getDropped());
+        assertEquals(0, b.subscriberCount());
+        assertNull(slow.take(), "the stream ends instead of blocking");
+    }
+
+    @Test
+    void testCloseWakesBlockedReader() throws InterruptedException {
+        Broadcaster b = new Broadcaster(4, Broadcaster.SlowPolicy.COALESCE);
+        Broadcaster.Subscription sub = b.subscribe();
+        BroadcastFrame[] got = {BroadcastFrame.END};
+        Thread reader = new Thread(() -> {
+            try {
+                got[0] = sub.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        reader.start();
+        Thread.sleep(50);   // let it block on the empty queue
+        sub.close();
+        reader.join(5000);
+        assertFalse(reader.isAlive(), "take() returns once the subscription is closed");
+        assertNull(got[0]);
+        assertEquals(0, b.subscriberCount());
+    }
+
+    @Test
+    void testGameEndEndsEveryStream() throws InterruptedException {
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        GameSession game = new GameSession("W", "B", out);
+        Broadcaster b = new Broadcaster(4, Broadcaster.SlowPolicy.COALESCE);
+        game.attachBroadcaster(b);
+        Broadcaster.Subscription sub = b.subscribe();
+        for (String m : new String[] {"f2f3", "e7e5", "g2g4"}) game.handle(m);
+        assertFalse(game.handle("d8h4"));   // fool's mate
+
+        SpectatorView view = new SpectatorView();
+        for (BroadcastFrame f; (f = sub.take()) != null; ) view.apply(f);
+        assertTrue(view.isSynced());
+        assertEquals("d8h4", view.getLastMove());
+        assertTrue(b.isClosed());
+        assertTrue(sub.isClosed());
+
+        // a late spectator sees the final position and the end of the stream
+        Broadcaster.Subscription late = b.subscribe();
+        assertNotNull(late.take());
+        assertNull(late.take());
+    }
+
+    @Test
+    void testDiffAfterGapIgnoredUntilKeyframe() {
+        SpectatorView view = new SpectatorView();
+        assertTrue(view.apply("k 5 - IN_PROGRESS " + FenParser.START_FEN));
+        assertFalse(view.apply("d 7 e2e4 b IN_PROGRESS e2. e4P"));
+        assertFalse(view.isSynced());
+        assertEquals('P', view.pieceAt(4, 1));
+        assertTrue(view.apply("k 8 e2e4 IN_PROGRESS rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1"));
+        assertTrue(view.apply("d 9 e7e5 w IN_PROGRESS e7. e5p"));
+        assertEquals('p', view.pieceAt(4, 4));
+    }
+
+    @Test
+    void testManySubscribersFollowRandomGame() {
+        Broadcaster b = new Broadcaster(256, Broadcaster.SlowPolicy.DROP);
+        GameState state = new GameState();
+        MoveHistory h = new MoveHistory(64);
+        PositionSnapshot s = PositionSnapshot.of(state);
+        b.publish(s, GameStatus.IN_PROGRESS);
+        List<Broadcaster.Subscription> subs = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) subs.add(b.subscribe());
+
+        Random rnd = new Random(3);
+        for (int ply = 0; ply < 40; ply++) {
+            List<Move> moves = RulesEngine.generateLegalMoves(state);
+            if (moves.isEmpty()) break;
+            Move m = moves.get(rnd.nextInt(moves.size()));
+            h.play(state, m);
+            s = PositionSnapshot.after(s, state, m);
+            b.publish(s, GameService.assessStatus(state));
+        }
+        assertEquals(0, b.getDropped());
+        for (Broadcaster.Subscription sub : new Broadcaster.Subscription[] {subs.get(0), subs.get(4999)}) {
+            SpectatorView view = new SpectatorView();
+            for (BroadcastFrame f; (f = sub.poll()) != null; ) assertTrue(view.apply(f));
+            assertViewMatches(state, view);
+        }
+        for (Broadcaster.Subscription sub : subs) sub.close();
+        assertEquals(0, b.subscriberCount());
+    }
+
+    @Test
+    void testGameSessionPublishesMovesAndUndo() {
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        GameSession game = new GameSession("W", "B", out);
+        Broadcaster b = new Broadcaster();
+        game.attachBroadcaster(b);
+        Broadcaster.Subscription sub = b.subscribe();
+        SpectatorView view = new SpectatorView();
+
+        game.handle("e2e4");
+        game.handle("e7e5");
+        game.handle("e1e3");   // illegal: nothing published
+        game.handle("undo");
+        for (BroadcastFrame f; (f = sub.poll()) != null; ) assertTrue(view.apply(f));
+        assertEquals(4, view.getSeq());
+        assertEquals('.', view.pieceAt(4, 4));
+        assertEquals('P', view.pieceAt(4, 3));
+        assertEquals(game.getSnapshot().getToMove(), view.getToMove());
+    }
+
+    @Test
+    void testSessionManagerWatch() throws InterruptedException {
+        try (SessionManager mgr = new SessionManager()) {
+            long id = mgr.open("W", "B");
+            Broadcaster.Subscription sub = mgr.watch(id);
+            assertNotNull(sub);
+            assertNull(mgr.watch(id + 1000));
+            mgr.submit(id, "d2d4").join();
+
+            SpectatorView view = new SpectatorView();
+            assertTrue(view.apply(sub.poll(5, TimeUnit.SECONDS)));
+            assertTrue(view.apply(sub.poll(5, TimeUnit.SECONDS)));
+            assertEquals("d2d4", view.getLastMove());
+            assertEquals('P', view.pieceAt(3, 3));
+
+            mgr.close(id).join();
+            assertNull(sub.poll(5, TimeUnit.SECONDS), "the stream ends with the session");
+            assertTrue(sub.isClosed());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.chess.controller;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.Board;
+import com.chess.domain.GameState;
+import com.chess.parser.AlgebraicParser;
+import com.chess.parser.FenParser;
+import com.chess.service.MoveHistory;
+
+public class BoardRendererTest {
+
+    /** Counts the writes that reach the underlying stream. */
+    private static final class CountingStream extends OutputStream {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int writes;
+
+        @Override public void write(int b) { writes++; bytes.write(b); }
+        @Override public void write(byte[] b, int off, int len) { writes++; bytes.write(b, off, len); }
+
+        String text() { return bytes.toString(StandardCharsets.UTF_8); }
+    }
+
+    private static String printBoard(Board b) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        b.printBoard(new PrintStream(bos, true, StandardCharsets.UTF_8));
+        return bos.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testPlainFrameMatchesPrintBoardInOneWrite() {
+        GameState st = FenParser.parse("r3k2r/pp3ppp/2n5/3qp3/8/2N5/PPP2PPP/R2QK2R w KQkq - 0 1");
+        CountingStream sink = new CountingStream();
+        BoardRenderer r = new BoardRenderer(new PrintStream(sink, false, StandardCharsets.UTF_8), BoardRenderer.Mode.PLAIN);
+        r.render(st.getBoard());
+
+        assertEquals(printBoard(st.getBoard()), sink.text());
+        assertEquals(1, sink.writes);
+        assertEquals(1, r.getFrames());
+        assertEquals(sink.bytes.size(), r.getBytesWritten());
+    }
+
+    @Test
+    void testAnsiRedrawsOnlyChangedSquares() {
+        GameState st = new GameState();
+        MoveHistory h = new MoveHistory(8);
+        CountingStream sink = new CountingStream();
+        BoardRenderer r = new BoardRenderer(new PrintStream(sink, false, StandardCharsets.UTF_8), BoardRenderer.Mode.ANSI);
+
+        r.render(st.getBoard());
+        String first = sink.text();
+        assertTrue(first.startsWith("\u001b[2J\u001b[H"));
+        assertTrue(first.contains(printBoard(st.getBoard())));
+        assertTrue(first.endsWith("\u001b[11r\u001b[11;1H"));
+
+        sink.bytes.reset();
+        h.play(st, AlgebraicParser.parse("e2e4"));
+        r.render(st.getBoard());
+        // e2 is on screen line 7, e4 on line 5, both in the cell starting at column 15
+        assertEquals("\u001b7\u001b[7;15H-- \u001b[5;15HWP \u001b8", sink.text());
+
+        sink.bytes.reset();
+        r.render(st.getBoard());
+        assertEquals("", sink.text(), "nothing changed, nothing written");
+        assertEquals(2, r.getFrames());
+
+        h.play(st, AlgebraicParser.parse("g8f6"));   // knights print as "BK", as in printBoard
+        sink.bytes.reset();
+        r.render(st.getBoard());
+        assertTrue(sink.text().contains("\u001b[1;21H-- ") && sink.text().contains("\u001b[3;18HBK "), sink.text());
+
+        sink.bytes.reset();
+        r.close();
+        assertEquals("\u001b[r", sink.text());
+    }
+
+    @Test
+    void testQuietSessionPrintsNoBoardOrPrompt() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GameSession s = new GameSession("W", "B", new PrintStream(bos, false, StandardCharsets.UTF_8));
+        s.setRenderMode(BoardRenderer.Mode.QUIET);
+
+        s.printPrompt();
+        assertTrue(s.handle("f2f3"));
+        s.printPrompt();
+        assertTrue(s.handle("e7e5"));
+        assertTrue(s.handle("g2g4"));
+        assertFalse(s.handle("d8h4"));
+
+        String out = bos.toString(StandardCharsets.UTF_8);
+        assertEquals("Checkmate! Winner: B (BLACK)" + System.lineSeparator(), out);
+        assertEquals(0, s.getRenderer().getFrames());
+    }
+
+    @Test
+    void testPromptFlushesBufferedOutput() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        PrintStream buffered = new PrintStream(new BufferedOutputStream(bos, 8192), false, StandardCharsets.UTF_8);
+        GameSession s = new GameSession("W", "B", buffered);
+        assertTrue(s.handle("e2e5"));
+        s.printPrompt();
+        String out = bos.toString(StandardCharsets.UTF_8);
+        assertTrue(out.startsWith("Illegal move."), out);
+        assertTrue(out.contains("W (WHITE) to move."), out);
+    }
+}
@@ -0,0 +1,98 @@
+package com.chess.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.parser.FenParser;
+import com.chess.search.SearchResult;
+import com.chess.service.MoveService;
+
+public class EnginePlayerTest {
+
+    private static void play(GameState st, Move m) {
+        MoveService.apply(st, m);
+        st.switchTurn();
+    }
+
+    @Test
+    void testPonderHitReusesTheBackgroundSearch() throws Exception {
+        EnginePlayer engine = new EnginePlayer(300);
+        GameState st = new GameState();
+        play(st, engine.think(st).getBestMove());
+        Move expected = engine.getExpectedReply();
+        assertNotNull(expected);
+
+        engine.startPondering(st);
+        assertTrue(engine.isPondering());
+        Thread.sleep(400);   // the human thinks longer than the engine's move time
+
+        engine.onHumanInput(expected);
+        play(st, expected);
+        SearchResult r = engine.think(st);
+
+        assertEquals(1, engine.getPonderHits());
+        assertFalse(engine.isPondering());
+        // the move comes from the background search itself, not from a fresh one
+        assertSame(engine.lastPonderResult(), r);
+        assertNotNull(r.getBestMove());
+        assertTrue(r.getDepth() > 0);
+    }
+
+    @Test
+    void testOtherInputCancelsPondering() {
+        EnginePlayer engine = new EnginePlayer(100);
+        GameState st = new GameState();
+        play(st, engine.think(st).getBestMove());
+        engine.startPondering(st);
+        assertTrue(engine.isPondering());
+
+        engine.onHumanInput(null);   // e.g. "pip"
+        assertFalse(engine.isPondering());
+        assertEquals(1, engine.getPonderMisses());
+
+        // the shared searcher is free again and a stale stop does not cut the next search short
+        engine.startPondering(st);
+        engine.cancelPondering();
+        SearchResult r = engine.think(st);
+        assertTrue(r.getDepth() > 0);
+    }
+
+    @Test
+    void testSessionAgainstEngine() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GameSession s = new GameSession("W", "Computer", new PrintStream(bos, true, StandardCharsets.UTF_8));
+        s.attachEngine(new EnginePlayer(50), Color.BLACK);
+
+        assertTrue(s.handle("e2e4"));
+        assertEquals(2, s.getHistory().size());
+        assertEquals(Color.WHITE, s.getState().getToMove());
+        assertTrue(bos.toString(StandardCharsets.UTF_8).contains("Engine plays "));
+
+        s.ponder();
+        assertTrue(s.handle("undo"));   // takes back the engine's reply and the human's move
+        assertFalse(s.getEngine().isPondering());
+        assertTrue(s.getHistory().isEmpty());
+        assertEquals(Color.WHITE, s.getState().getToMove());
+    }
+
+    @Test
+    void testEngineMatesWhenItCan() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GameState st = FenParser.parse("r1bqkbnr/pppp1ppp/2n5/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 0 1");
+        GameSession s = new GameSession("Computer", "B", new PrintStream(bos, true, StandardCharsets.UTF_8), st);
+        s.attachEngine(new EnginePlayer(200), Color.WHITE);
+        assertFalse(s.playEngineMove());
+        assertTrue(bos.toString(StandardCharsets.UTF_8).contains("Checkmate! Winner: Computer (WHITE)"));
+    }
+}
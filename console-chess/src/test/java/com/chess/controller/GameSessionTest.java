@@ -0,0 +1,61 @@
+package com.chess.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.Color;
+
+public class GameSessionTest {
+
+    @Test
+    void testFoolsMateEndsGameAndRecordsHistory() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GameSession s = new GameSession("W", "B", new PrintStream(bos, true, StandardCharsets.UTF_8));
+
+        assertTrue(s.handle("f2f3"));
+        assertTrue(s.handle("e7e5"));
+        assertTrue(s.handle("g2g4"));
+        assertFalse(s.handle("d8h4"));
+
+        assertTrue(s.isFinished());
+        assertEquals(4, s.getHistory().size());
+        assertEquals(Color.WHITE, s.getState().getToMove());
+        assertTrue(bos.toString(StandardCharsets.UTF_8).contains("Checkmate! Winner: B (BLACK)"));
+    }
+
+    @Test
+    void testIllegalMoveLeavesStateUntouched() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GameSession s = new GameSession("W", "B", new PrintStream(bos, true, StandardCharsets.UTF_8));
+
+        assertTrue(s.handle("e2e5"));
+        assertTrue(s.getHistory().isEmpty());
+        assertEquals(Color.WHITE, s.getState().getToMove());
+        assertTrue(bos.toString(StandardCharsets.UTF_8).startsWith("Illegal move."));
+    }
+
+    @Test
+    void testUndoRedoCommands() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GameSession s = new GameSession("W", "B", new PrintStream(bos, true, StandardCharsets.UTF_8));
+        assertTrue(s.handle("undo"));
+        assertTrue(s.handle("e2e4"));
+        assertTrue(s.handle("e7e5"));
+        assertTrue(s.handle("undo"));
+        assertEquals(1, s.getHistory().size());
+        assertEquals(Color.BLACK, s.getState().getToMove());
+        assertTrue(s.handle("redo"));
+        assertEquals(2, s.getHistory().size());
+        assertEquals(Color.WHITE, s.getState().getToMove());
+        String out = bos.toString(StandardCharsets.UTF_8);
+        assertTrue(out.contains("Nothing to undo."));
+        assertTrue(out.contains("Undid e7e5."));
+        assertTrue(out.contains("Redid e7e5."));
+    }
+}
@@ -0,0 +1,78 @@
+package com.chess.controller;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.parser.FenParser;
+
+public class SessionReplayTest {
+
+    @Test
+    void testBuiltinScriptReplaysToMate() throws Exception {
+        SessionReplay.Script script = SessionReplay.Script.builtin();
+        SessionReplay.Result r = new SessionReplay().setIterations(3).setWarmup(1).run(List.of(script));
+
+        assertEquals(3L * script.getCommands().size(), r.getCommands());
+        assertEquals(3, r.getLatency(SessionReplay.Kind.SAVE).getCount());
+        assertEquals(3, r.getLatency(SessionReplay.Kind.LOAD).getCount());
+        assertEquals(6, r.getLatency(SessionReplay.Kind.UNDO).getCount());
+        assertTrue(r.getLatency().getPercentile(99) >= r.getLatency().getPercentile(50));
+        assertTrue(r.getCommandsPerSecond() > 0);
+        assertTrue(r.getFinalFens().get(SessionReplay.BUILTIN_SCRIPT)
+                           .startsWith("1n1Rkb1r/p4ppp/4q3/4p1B1/4P3/8/PPP2PPP/2K5 b k"),
+                   r.getFinalFens().toString());
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        r.report(new PrintStream(bos, true, StandardCharsets.UTF_8));
+        String report = bos.toString(StandardCharsets.UTF_8);
+        assertTrue(report.contains("move ") && report.contains("commands/sec"), report);
+    }
+
+    @Test
+    void testRecordedSessionReplaysToSamePosition() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GameSession live = new GameSession("W", "B", new PrintStream(bos, false, StandardCharsets.UTF_8));
+        StringWriter recorded = new StringWriter();
+        String typed = "e2e4\nc7c5\nhint\ng1f3\ne7e9\nundo\nredo\nd7d6\n";
+
+        assertFalse(GameController.run(live, new BufferedReader(new StringReader(typed)), recorded),
+                    "input ran out before the game ended");
+        assertEquals(typed, recorded.toString());
+        assertTrue(bos.toString(StandardCharsets.UTF_8).contains("to move."));
+
+        SessionReplay.Result r = new SessionReplay().setIterations(2).setWarmup(0)
+                .setRender(BoardRenderer.Mode.PLAIN)
+                .run(List.of(SessionReplay.Script.parse("recorded", "# comment\n\n" + recorded)));
+        assertEquals(FenParser.format(live.getState()), r.getFinalFens().get("recorded"));
+        assertEquals(16, r.getCommands());
+        assertTrue(r.getOutputBytes() > 0);
+    }
+
+    @Test
+    void testRunStopsWhenGameEnds() throws Exception {
+        GameSession s = new GameSession("W", "B", new PrintStream(new ByteArrayOutputStream(), false, StandardCharsets.UTF_8));
+        s.setRenderMode(BoardRenderer.Mode.QUIET);
+        assertTrue(GameController.run(s, new BufferedReader(new StringReader("f2f3\ne7e5\ng2g4\nd8h4\ne2e4\n")), null));
+        assertTrue(s.isFinished());
+        assertEquals(4, s.getHistory().size());
+    }
+
+    @Test
+    void testClassify() {
+        assertEquals(SessionReplay.Kind.MOVE, SessionReplay.classify("e7e8q"));
+        assertEquals(SessionReplay.Kind.MOVE, SessionReplay.classify("e2e9"));
+        assertEquals(SessionReplay.Kind.SAVE, SessionReplay.classify("save /tmp/x"));
+        assertEquals(SessionReplay.Kind.STATS, SessionReplay.classify("stats json"));
+        assertEquals(SessionReplay.Kind.OTHER, SessionReplay.classify("hint"));
+    }
+}
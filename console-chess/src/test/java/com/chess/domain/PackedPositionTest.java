@@ -0,0 +1,128 @@
+package com.chess.domain;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.parser.FenParser;
+import com.chess.rules.RulesEngine;
+import com.chess.service.MoveHistory;
+
+public class PackedPositionTest {
+
+    private static void assertSamePosition(GameState expected, GameState actual) {
+        for (int r = 0; r < 8; r++) {
+            for (int f = 0; f < 8; f++) {
+                assertEquals(String.valueOf(expected.getBoard().getPiece(f, r)), String.valueOf(actual.getBoard().getPiece(f, r)));
+            }
+        }
+        assertEquals(expected.getToMove(), actual.getToMove());
+        assertEquals(expected.getRights().toMask(), actual.getRights().toMask());
+        assertEquals(expected.getEnPassantSquare(), actual.getEnPassantSquare());
+        assertEquals(expected.getEnPassantFor(), actual.getEnPassantFor());
+        assertEquals(expected.getHalfmoveClock(), actual.getHalfmoveClock());
+        assertEquals(Zobrist.hash(expected), Zobrist.hash(actual));
+    }
+
+    @Test
+    void testRoundTripThroughRandomGames() {
+        Random rnd = new Random(5);
+        String[] starts = {
+            FenParser.START_FEN,
+            "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1",
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1",
+            "1n2k3/P7/8/8/8/8/8/4K3 w - - 37 1",
+        };
+        for (String fen : starts) {
+            for (int game = 0; game < 10; game++) {
+                GameState st = FenParser.parse(fen);
+                MoveHistory h = new MoveHistory(120);
+                for (int ply = 0; ply < 120; ply++) {
+                    PackedPosition p = PackedPosition.of(st);
+                    GameState back = p.toGameState();
+                    assertSamePosition(st, back);
+                    assertEquals(p, PackedPosition.of(back));
+                    assertEquals(p.hashCode(), PackedPosition.of(back).hashCode());
+                    for (int sq = 0; sq < 64; sq++) {
+                        assertEquals(String.valueOf(st.getBoard().getPiece(sq & 7, sq >>> 3)), String.valueOf(p.getPiece(sq & 7, sq >>> 3)));
+                    }
+                    List<Move> moves = RulesEngine.generateLegalMoves(st);
+                    if (moves.isEmpty()) break;
+                    h.play(st, moves.get(rnd.nextInt(moves.size())));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFieldsDistinguishPositions() {
+        PackedPosition start = PackedPosition.of(new GameState());
+        GameState other = new GameState();
+        other.switchTurn();
+        assertNotEquals(start, PackedPosition.of(other));
+        other.switchTurn();
+        other.getRights().revokeBlackQueenSide();
+        assertNotEquals(start, PackedPosition.of(other));
+        other = new GameState();
+        other.setHalfmoveClock(1);
+        assertNotEquals(start, PackedPosition.of(other));
+        assertEquals(start, PackedPosition.of(new GameState()));
+
+        PackedPosition ep = PackedPosition.of(FenParser.parse("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1"));
+        assertEquals(Square.of(3, 5), ep.getEnPassantSquare());
+        assertEquals(Color.WHITE, ep.getEnPassantFor());
+        assertEquals(4, ep.getPieceCount());
+    }
+
+    @Test
+    void testRejectsWhatDoesNotFit() {
+        GameState crowded = FenParser.parse("qqqqkqqq/qqqqqqqq/8/8/8/8/QQQQQQQQ/QQQQKQQQ w - - 0 1");
+        crowded.getBoard().setPiece(0, 3, Piece.of(PieceType.PAWN, Color.WHITE));
+        assertThrows(IllegalArgumentException.class, () -> PackedPosition.of(crowded));
+
+        GameState slow = new GameState();
+        slow.setHalfmoveClock(PackedPosition.MAX_HALFMOVE_CLOCK + 1);
+        assertThrows(IllegalArgumentException.class, () -> PackedPosition.of(slow));
+    }
+
+    @Test
+    void testArenaAcrossPages() {
+        PackedPositionArena arena = new PackedPositionArena();
+        GameState st = new GameState();
+        PackedPosition start = PackedPosition.of(st);
+        GameState e4 = FenParser.parse("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        long n = PackedPositionArena.PAGE_POSITIONS + 1000;
+        for (long i = 0; i < n; i++) {
+            st.setHalfmoveClock((int) (i % 1000));
+            arena.add(st);
+        }
+        long last = arena.add(e4);
+        assertEquals(n + 1, arena.size());
+        assertEquals(2L * PackedPositionArena.PAGE_POSITIONS, arena.getCapacity());
+        assertEquals(arena.getCapacity() * 32, arena.getMemoryBytes());
+
+        assertTrue(arena.matches(0, start));
+        assertEquals(start, arena.get(0));
+        assertTrue(arena.equalAt(0, 262_000));   // same clock, same page
+        assertTrue(arena.equalAt(0, 263_000));   // same clock, second page
+        assertFalse(arena.equalAt(0, 1));
+        assertEquals(start.hash64(), arena.hashAt(0));
+        assertEquals(PackedPosition.of(e4), arena.get(last));
+        assertSamePosition(e4, arena.toGameState(last));
+        assertEquals(999, PackedPosition.of(arena.toGameState(999)).getHalfmoveClock());
+        assertEquals(e4.getToMove() == Color.BLACK ? 1 : 0, arena.getWord(last, 3) & 1);
+        assertThrows(IndexOutOfBoundsException.class, () -> arena.get(n + 1));
+
+        arena.clear();
+        assertEquals(0, arena.size());
+        assertEquals(2L * PackedPositionArena.PAGE_POSITIONS, arena.getCapacity(), "pages are kept");
+        assertEquals(0, arena.add(PackedPosition.of(e4)));
+        assertTrue(arena.matches(0, PackedPosition.of(e4)));
+    }
+}
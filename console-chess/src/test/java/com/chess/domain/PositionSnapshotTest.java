@@ -0,0 +1,113 @@
+package com.chess.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.controller.GameSession;
+import com.chess.parser.FenParser;
+import com.chess.rules.RulesEngine;
+import com.chess.service.MoveHistory;
+
+public class PositionSnapshotTest {
+
+    private static void assertMatches(GameState state, PositionSnapshot s) {
+        for (int r = 0; r < 8; r++) {
+            for (int f = 0; f < 8; f++) {
+                Piece expected = state.getBoard().getPiece(f, r);
+                assertEquals(String.valueOf(expected), String.valueOf(s.getPiece(f, r)));
+            }
+        }
+        assertEquals(Zobrist.hash(state), s.getKey());
+        assertTrue(s.samePosition(PositionSnapshot.of(state)));
+        assertEquals(Zobrist.hash(state), Zobrist.hash(s.toGameState()));
+    }
+
+    @Test
+    void testIncrementalSnapshotsFollowRandomGames() {
+        Random rnd = new Random(11);
+        String[] starts = {
+            FenParser.START_FEN,
+            "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1",
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1",
+            "1n2k3/P7/8/8/8/8/8/4K3 w - - 0 1",
+        };
+        for (String fen : starts) {
+            for (int game = 0; game < 10; game++) {
+                GameState st = FenParser.parse(fen);
+                MoveHistory h = new MoveHistory();
+                PositionSnapshot s = PositionSnapshot.of(st);
+                assertMatches(st, s);
+                for (int ply = 0; ply < 60; ply++) {
+                    List<Move> moves = RulesEngine.generateLegalMoves(st);
+                    if (moves.isEmpty()) break;
+                    Move m = moves.get(rnd.nextInt(moves.size()));
+                    h.play(st, m);
+                    PositionSnapshot next = PositionSnapshot.after(s, st, m);
+                    assertMatches(st, next);
+                    assertSame(s, next.getPrevious());
+                    assertEquals(m, next.getLastMove());
+                    assertEquals(ply + 1, next.getPly());
+                    s = next;
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSessionPublishesSnapshots() {
+        GameSession game = new GameSession("W", "B", new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+        PositionSnapshot start = game.getSnapshot();
+        assertNull(start.getPrevious());
+
+        game.handle("e2e4");
+        PositionSnapshot after = game.getSnapshot();
+        assertEquals(PieceType.PAWN, after.getPiece(4, 3).getType());
+        assertNull(after.getPiece(4, 1));
+        assertEquals(Color.BLACK, after.getToMove());
+        assertSame(start, after.getPrevious());
+        // the old snapshot is untouched
+        assertNull(start.getPiece(4, 3));
+
+        game.handle("undo");
+        assertSame(start, game.getSnapshot());
+        game.handle("redo");
+        assertTrue(after.samePosition(game.getSnapshot()));
+    }
+
+    @Test
+    void testReadersSeeConsistentPositionsWithoutLocks() throws Exception {
+        GameSession game = new GameSession("W", "B", new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> problem = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            int lastPly = 0;
+            while (!done.get()) {
+                PositionSnapshot s = game.getSnapshot();
+                if (Zobrist.recompute(s.toGameState()) != s.getKey()) problem.set("torn snapshot at ply " + s.getPly());
+                if (s.getPly() < lastPly) problem.set("went back from " + lastPly + " to " + s.getPly());
+                lastPly = s.getPly();
+            }
+        });
+        reader.start();
+        Random rnd = new Random(5);
+        for (int ply = 0; ply < 150 && !game.isFinished(); ply++) {
+            List<Move> moves = RulesEngine.generateLegalMoves(game.getState());
+            if (moves.isEmpty()) break;
+            game.handle(moves.get(rnd.nextInt(moves.size())).toString());
+        }
+        done.set(true);
+        reader.join();
+        assertNull(problem.get());
+    }
+}
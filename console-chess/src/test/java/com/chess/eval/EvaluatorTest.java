@@ -0,0 +1,67 @@
+package com.chess.eval;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Piece;
+import com.chess.domain.PieceType;
+import com.chess.parser.FenParser;
+import com.chess.rules.RulesEngine;
+import com.chess.service.MoveHistory;
+
+public class EvaluatorTest {
+
+    @Test
+    void testStartPositionIsBalanced() {
+        GameState st = new GameState();
+        Evaluator e = Evaluator.attach(st);
+        assertEquals(0, e.evaluate());
+        assertEquals(24, e.getPhase());
+        assertEquals(8, e.count(Piece.of(PieceType.PAWN, Color.BLACK)));
+    }
+
+    @Test
+    void testIncrementalMatchesFullThroughMovesAndTakeBacks() {
+        String[] positions = {
+            FenParser.START_FEN,
+            "r3k2r/pppq1ppp/2n2n2/3pp3/1b1PP3/2N2N2/PPPQ1PPP/R3K2R w KQkq - 0 1",   // castling
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1",                                   // en passant
+            "1n2k3/P7/8/8/8/8/6p1/4K2R b K - 0 1",                                 // promotions
+        };
+        Random rnd = new Random(7);
+        for (String fen : positions) {
+            GameState st = FenParser.parse(fen);
+            Evaluator e = Evaluator.attach(st);
+            MoveHistory h = new MoveHistory();
+            for (int ply = 0; ply < 40; ply++) {
+                List<Move> moves = RulesEngine.generateLegalMoves(st);
+                if (moves.isEmpty()) break;
+                h.play(st, moves.get(rnd.nextInt(moves.size())));
+                assertEquals(Evaluator.evaluateFull(st), e.evaluate(), fen + " ply " + ply);
+            }
+            while (h.canUndo()) {
+                h.undo(st);
+                assertEquals(Evaluator.evaluateFull(st), e.evaluate(), fen);
+            }
+            assertEquals(Evaluator.evaluateFull(FenParser.parse(fen)), e.evaluate());
+            e.detach();
+        }
+    }
+
+    @Test
+    void testExtraMaterialAndTapering() {
+        // White is a rook up: good for White, bad for Black
+        GameState w = FenParser.parse("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        GameState b = FenParser.parse("4k3/8/8/8/8/8/8/R3K3 b - - 0 1");
+        assertTrue(Evaluator.attach(w).evaluate() > 400);
+        assertEquals(-Evaluator.evaluateFull(w), Evaluator.evaluateFull(b));
+        assertEquals(2, Evaluator.attach(w).getPhase());
+    }
+}
@@ -0,0 +1,90 @@
+package com.chess.eval;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.parser.FenParser;
+import com.chess.rules.RulesEngine;
+import com.chess.service.MoveHistory;
+
+public class NnueEvaluatorTest {
+
+    private static final Network NET = Network.random(3);
+
+    @Test
+    void testIncrementalMatchesFullRebuild() {
+        String[] positions = {
+            FenParser.START_FEN,
+            "r3k2r/pppq1ppp/2n2n2/3pp3/1b1PP3/2N2N2/PPPQ1PPP/R3K2R w KQkq - 0 1",
+            "1n2k3/P7/8/8/8/8/6p1/4K2R b K - 0 1",
+        };
+        DenseKernel scalar = new ScalarKernel();
+        Random rnd = new Random(5);
+        for (String fen : positions) {
+            GameState st = FenParser.parse(fen);
+            NnueEvaluator e = NnueEvaluator.attach(st, NET, scalar);
+            MoveHistory h = new MoveHistory();
+            for (int ply = 0; ply < 60; ply++) {
+                List<Move> moves = RulesEngine.generateLegalMoves(st);
+                if (moves.isEmpty()) break;
+                h.play(st, moves.get(rnd.nextInt(moves.size())));
+                assertEquals(NnueEvaluator.evaluateFull(st, NET, scalar), e.evaluate(), fen + " ply " + ply);
+            }
+            while (h.canUndo()) {
+                h.undo(st);
+                assertEquals(NnueEvaluator.evaluateFull(st, NET, scalar), e.evaluate(), fen);
+            }
+            e.detach();
+        }
+    }
+
+    @Test
+    void testVectorKernelAgreesWithScalar() {
+        DenseKernel best = DenseKernel.best();
+        // surefire adds the vector module; without it there is only the scalar kernel to compare
+        assumeTrue(best instanceof VectorKernel, "jdk.incubator.vector is not available: " + best.name());
+        Random rnd = new Random(9);
+        float[] in = new float[2 * Network.HIDDEN + 3];
+        float[] w = new float[7 * in.length];
+        float[] bias = new float[7];
+        for (int i = 0; i < in.length; i++) in[i] = rnd.nextFloat();
+        for (int i = 0; i < w.length; i++) w[i] = rnd.nextFloat() - 0.5f;
+        float[] a = new float[7], b = new float[7];
+        best.affine(in, in.length, w, bias, a, 7);
+        new ScalarKernel().affine(in, in.length, w, bias, b, 7);
+        for (int j = 0; j < 7; j++) assertEquals(b[j], a[j], 1e-3f);
+    }
+
+    @Test
+    void testMappedFileRoundTrip(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("net.cnn");
+        NET.save(file);
+        Network loaded = Network.load(file);
+        GameState st = FenParser.parse("r3k2r/pppq1ppp/2n2n2/3pp3/1b1PP3/2N2N2/PPPQ1PPP/R3K2R w KQkq - 0 1");
+        DenseKernel scalar = new ScalarKernel();
+        assertEquals(NnueEvaluator.evaluateFull(st, NET, scalar), NnueEvaluator.evaluateFull(st, loaded, scalar));
+
+        Files.write(dir.resolve("bad.cnn"), new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> Network.load(dir.resolve("bad.cnn")));
+
+        // one weight of 2000 on 31 active features would wrap the int16 sum
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] = (byte) 0xD0;
+        bytes[21] = 0x07;
+        Files.write(dir.resolve("overflow.cnn"), bytes);
+        IOException e = assertThrows(IOException.class, () -> Network.load(dir.resolve("overflow.cnn")));
+        assertTrue(e.getMessage().contains("overflow"), e.getMessage());
+    }
+}
@@ -0,0 +1,86 @@
+package com.chess.eval;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Zobrist;
+import com.chess.parser.FenParser;
+import com.chess.rules.RulesEngine;
+import com.chess.service.MoveHistory;
+
+public class PawnTableTest {
+
+    private static long bit(String square) {
+        return 1L << ((square.charAt(1) - '1') * 8 + (square.charAt(0) - 'a'));
+    }
+
+    @Test
+    void testPassedPawnMasks() {
+        // d5 is passed; a2 faces a7, h4 faces g6 on the neighbouring file (and each stops the other)
+        GameState st = FenParser.parse("4k3/p7/6p1/3P4/7P/8/P7/4K3 w - - 0 1");
+        Evaluator e = Evaluator.attach(st);
+        assertEquals(bit("d5"), e.passedPawns(Color.WHITE));
+        assertEquals(0L, e.passedPawns(Color.BLACK));
+    }
+
+    @Test
+    void testStructurePenalties() {
+        // doubled c-pawns, all three isolated, all passed (no black pawns)
+        long white = bit("c2") | bit("c3") | bit("e4");
+        long passed = PawnStructure.passed(0, white, 0L);
+        assertEquals(white, passed);
+        long score = PawnStructure.score(white, 0L, passed, 0L);
+        int expectedMg = PawnStructure.DOUBLED_MG + 3 * PawnStructure.ISOLATED_MG
+                + PawnStructure.PASSED_MG[1] + PawnStructure.PASSED_MG[2] + PawnStructure.PASSED_MG[3];
+        assertEquals(expectedMg, PawnStructure.mg(score));
+
+        // b2 cannot advance safely and has no neighbour behind it: backward; both black pawns are isolated
+        long w2 = bit("b2") | bit("c4");
+        long b2 = bit("a4") | bit("c5");
+        long s2 = PawnStructure.score(w2, b2, PawnStructure.passed(0, w2, b2), PawnStructure.passed(1, b2, w2));
+        assertEquals(PawnStructure.BACKWARD_MG - 2 * PawnStructure.ISOLATED_MG, PawnStructure.mg(s2));
+    }
+
+    @Test
+    void testPawnKeyAndCachedTermsFollowPlay() {
+        GameState st = new GameState();
+        PawnTable table = new PawnTable(1024);
+        Evaluator e = Evaluator.attach(st, table);
+        MoveHistory h = new MoveHistory();
+        Random rnd = new Random(11);
+        Set<Long> seen = new HashSet<>();
+        seen.add(st.getBoard().getPawnKey());
+        assertEquals(Evaluator.evaluateFull(st), e.evaluate());
+        int plies = 0, repeated = 0;
+        for (; plies < 60; plies++) {
+            List<Move> moves = RulesEngine.generateLegalMoves(st);
+            if (moves.isEmpty()) break;
+            h.play(st, moves.get(rnd.nextInt(moves.size())));
+            assertEquals(Zobrist.pawnKey(st.getBoard()), st.getBoard().getPawnKey());
+            if (!seen.add(st.getBoard().getPawnKey())) repeated++;
+            assertEquals(Evaluator.evaluateFull(st), e.evaluate());
+        }
+        // one probe per position: it hits exactly when an earlier ply had the same pawns
+        assertEquals(plies + 1, table.getProbes());
+        assertEquals(repeated, table.getHits());
+        assertTrue(repeated > plies / 2, "most moves leave the pawns alone: " + repeated + " of " + plies);
+
+        // every structure on the way back is already cached
+        long probes = table.getProbes(), hits = table.getHits();
+        while (h.canUndo()) {
+            h.undo(st);
+            assertEquals(Evaluator.evaluateFull(st), e.evaluate());
+        }
+        assertEquals(plies, table.getProbes() - probes);
+        assertEquals(plies, table.getHits() - hits);
+    }
+}
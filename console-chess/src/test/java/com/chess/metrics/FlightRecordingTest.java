@@ -0,0 +1,92 @@
+package com.chess.metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Square;
+import com.chess.persist.SaveLoadService;
+import com.chess.search.SearchLimits;
+import com.chess.search.Searcher;
+import com.chess.service.GameService;
+import com.chess.service.MoveService;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecordingTest {
+
+    private static void exercise() throws Exception {
+        GameState state = new GameState();
+        MoveService.apply(state, new Move(Square.of(4, 1), Square.of(4, 3)));
+        state.switchTurn();
+        GameService.assessStatus(state);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        SaveLoadService.save(state, bos);
+        SaveLoadService.load(new ByteArrayInputStream(bos.toByteArray()));
+        new Searcher().search(new GameState(), SearchLimits.depth(2));
+    }
+
+    private static List<RecordedEvent> record(Recording r, Path dir) throws Exception {
+        r.start();
+        exercise();
+        r.stop();
+        Path file = dir.resolve("chess.jfr");
+        r.dump(file);
+        r.close();
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("com.chess."))
+                .collect(Collectors.toList());
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    @Test
+    void testBundledProfileRecordsEveryEvent(@TempDir Path dir) throws Exception {
+        Recording r = new Recording(FlightRecording.configuration());
+        r.enable(MoveApplyEvent.class).withThreshold(Duration.ZERO);
+        r.enable(LegalityCheckEvent.class).withThreshold(Duration.ZERO);
+        List<RecordedEvent> events = record(r, dir);
+
+        RecordedEvent apply = named(events, "com.chess.MoveApply").get(0);
+        assertEquals("e2e4", apply.getString("move"));
+        assertFalse(named(events, "com.chess.LegalityCheck").isEmpty());
+        assertEquals("IN_PROGRESS", named(events, "com.chess.StatusAssessment").get(0).getString("status"));
+
+        RecordedEvent save = named(events, "com.chess.Save").get(0);
+        RecordedEvent load = named(events, "com.chess.Load").get(0);
+        assertTrue(save.getLong("bytes") > 100);
+        assertEquals(save.getLong("bytes"), load.getLong("bytes"));
+        assertTrue(load.getBoolean("succeeded"));
+
+        List<RecordedEvent> iterations = named(events, "com.chess.SearchIteration");
+        assertEquals(2, iterations.size());
+        assertEquals(2, iterations.get(1).getInt("depth"));
+        assertTrue(iterations.get(1).getLong("nodes") > iterations.get(0).getLong("nodes"));
+        assertTrue(iterations.get(1).getLong("nps") > 0);
+    }
+
+    @Test
+    void testHotEventsAreOffByDefault(@TempDir Path dir) throws Exception {
+        List<RecordedEvent> events = record(new Recording(Configuration.getConfiguration("default")), dir);
+        assertTrue(named(events, "com.chess.MoveApply").isEmpty());
+        assertTrue(named(events, "com.chess.LegalityCheck").isEmpty());
+        assertEquals(1, named(events, "com.chess.Save").size());
+        assertEquals(2, named(events, "com.chess.SearchIteration").size());
+    }
+}
@@ -0,0 +1,86 @@
+package com.chess.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.chess.controller.GameSession;
+import com.chess.domain.GameState;
+import com.chess.rules.RulesEngine;
+import com.chess.service.GameService;
+
+public class MetricsTest {
+
+    @AfterEach
+    void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    void testHistogramBucketsStayWithinOneSubBucket() {
+        for (long v : new long[]{0, 1, 15, 16, 17, 31, 32, 33, 1000, 123_456, 1L << 40, Long.MAX_VALUE}) {
+            int i = LatencyHistogram.index(v);
+            long top = LatencyHistogram.highestEquivalent(i);
+            assertTrue(top >= v, v + " -> " + top);
+            assertTrue(top - v <= Math.max(0, v / 16), v + " -> " + top);
+            if (i > 0) assertTrue(LatencyHistogram.highestEquivalent(i - 1) < v, "bucket below holds " + v);
+        }
+
+        LatencyHistogram h = new LatencyHistogram("test");
+        for (int i = 1; i <= 1000; i++) h.record(i * 1000L);
+        assertEquals(1000, h.getCount());
+        assertEquals(1_000_000, h.getMax());
+        assertEquals(500_500, h.getMean(), 0.5);
+        long p50 = h.getPercentile(50);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 17 / 16, "p50 " + p50);
+        assertEquals(1_000_000, h.getPercentile(100));
+    }
+
+    @Test
+    void testNothingIsRecordedWhileOff() {
+        Metrics.reset();
+        GameService.assessStatus(new GameState());
+        assertEquals(0, Metrics.ASSESS_STATUS.getCount());
+        assertEquals(0, Metrics.GENERATE_LEGAL_MOVES.getCount());
+        assertEquals(0, Metrics.CHECK_SCANS.get());
+        assertEquals(0L, Metrics.start());
+    }
+
+    @Test
+    void testRulesLayerIsCountedWhileOn() {
+        Metrics.reset();
+        Metrics.setEnabled(true);
+        RulesEngine.generateLegalMoves(new GameState());
+        GameService.assessStatus(new GameState());
+        assertEquals(2, Metrics.GENERATE_LEGAL_MOVES.getCount());
+        assertEquals(1, Metrics.ASSESS_STATUS.getCount());
+        assertTrue(Metrics.CHECK_SCANS.get() >= 40, "king safety is checked for every candidate");
+        assertTrue(Metrics.DEEP_COPIES.get() >= 2);
+
+        String json = Metrics.snapshotJson();
+        assertTrue(json.startsWith("{\"enabled\":true,\"counters\":{\"legality_checks\":"), json);
+        assertTrue(json.contains("\"generate_legal_moves\":{\"count\":2,"), json);
+    }
+
+    @Test
+    void testStatsCommand() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GameSession s = new GameSession("W", "B", new PrintStream(bos, true, StandardCharsets.UTF_8));
+        s.handle("stats on");
+        assertTrue(Metrics.isEnabled());
+        s.handle("e2e4");
+        s.handle("stats json");
+        s.handle("stats");
+        s.handle("stats off");
+        String out = bos.toString(StandardCharsets.UTF_8);
+        assertTrue(out.contains("\"move_apply\":{\"count\":1,"), out);
+        assertTrue(out.contains("assess_status"), out);
+        assertTrue(out.contains("Metrics off."), out);
+    }
+}
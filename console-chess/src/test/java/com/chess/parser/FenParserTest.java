@@ -0,0 +1,40 @@
+package com.chess.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.PieceType;
+import com.chess.domain.Square;
+import com.chess.rules.RulesEngine;
+
+public class FenParserTest {
+
+    @Test
+    void testStartPositionRoundTrip() {
+        GameState st = FenParser.parse(FenParser.START_FEN);
+        assertEquals(PieceType.KING, st.getBoard().getPiece(new Square(4, 0)).getType());
+        assertEquals(FenParser.START_FEN, FenParser.format(new GameState()));
+        assertEquals(FenParser.START_FEN, FenParser.format(st));
+    }
+
+    @Test
+    void testEnPassantAndRightsAreRestored() {
+        GameState st = FenParser.parse("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3");
+        assertEquals(Color.WHITE, st.getToMove());
+        assertTrue(st.getRights().canWhiteKingSide());
+        assertFalse(st.getRights().canWhiteQueenSide());
+        assertEquals(new Square(5, 5), st.getEnPassantSquare());
+        assertTrue(RulesEngine.isLegalMove(st, new com.chess.domain.Move(new Square(4, 4), new Square(5, 5))));
+    }
+
+    @Test
+    void testRejectsMalformedBoard() {
+        assertThrows(IllegalArgumentException.class, () -> FenParser.parse("8/8/8/8/8/8/8 w - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> FenParser.parse("9/8/8/8/8/8/8/8 w - - 0 1"));
+    }
+}
@@ -0,0 +1,184 @@
+package com.chess.persist;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.parser.AlgebraicParser;
+import com.chess.parser.FenParser;
+import com.chess.rules.RulesEngine;
+import com.chess.service.MoveService;
+
+public class GameArchiveTest {
+
+    private static final String[] STARTS = {
+        null,
+        "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1",
+        "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1",
+        "1n2k3/P7/8/8/8/8/8/4K3 w - - 0 1",
+    };
+
+    /** A random game from {@code fen} (null: the initial position); its final FEN goes to {@code finalFen[0]}. */
+    private static List<Move> randomGame(String fen, Random rnd, int maxPlies, String[] finalFen) {
+        GameState st = (fen == null) ? new GameState() : FenParser.parse(fen);
+        List<Move> moves = new ArrayList<>();
+        while (moves.size() < maxPlies) {
+            List<Move> legal = RulesEngine.generateLegalMoves(st);
+            if (legal.isEmpty()) break;
+            Move m = legal.get(rnd.nextInt(legal.size()));
+            MoveService.apply(st, m);
+            st.switchTurn();
+            moves.add(m);
+        }
+        finalFen[0] = FenParser.format(st);
+        return moves;
+    }
+
+    @Test
+    void testRoundTripBothModes() throws Exception {
+        Random rnd = new Random(11);
+        String[] finalFen = new String[1];
+        for (MoveRankCodec.Mode mode : MoveRankCodec.Mode.values()) {
+            MoveRankCodec codec = new MoveRankCodec(mode);
+            long plies = 0, bytes = 0;
+            for (String fen : STARTS) {
+                for (int game = 0; game < 8; game++) {
+                    List<Move> moves = randomGame(fen, rnd, 150, finalFen);
+                    GameState start = (fen == null) ? new GameState() : FenParser.parse(fen);
+                    String startFen = FenParser.format(start);
+                    byte[] data = codec.encode(start, moves);
+                    assertEquals(startFen, FenParser.format(start), "encode leaves the start alone");
+
+                    assertEquals(moves, codec.decode(start, data, 0, data.length, moves.size()));
+                    assertEquals(finalFen[0], FenParser.format(start));
+                    plies += moves.size();
+                    bytes += data.length;
+                }
+            }
+            double perMove = (double) bytes / plies;
+            if (mode == MoveRankCodec.Mode.PLAIN) assertEquals(1.0, perMove, 1e-9);
+            else assertTrue(perMove < 0.85, "entropy coded random games: " + perMove + " bytes/move");
+        }
+    }
+
+    @Test
+    void testOrderingIsALegalPermutationWithCapturesFirst() {
+        GameState st = FenParser.parse("rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2");
+        List<Move> ordered = MoveRankCodec.orderedMoves(st);
+        List<Move> legal = RulesEngine.generateLegalMoves(st);
+        assertEquals(legal.size(), ordered.size());
+        assertEquals(new HashSet<>(legal), new HashSet<>(ordered));
+        assertEquals(AlgebraicParser.parse("e4d5"), ordered.get(0));
+        assertEquals(ordered, MoveRankCodec.orderedMoves(st), "deterministic");
+
+        List<Move> promo = MoveRankCodec.orderedMoves(FenParser.parse("1n2k3/P7/8/8/8/8/8/4K3 w - - 0 1"));
+        assertEquals(AlgebraicParser.parse("a7b8q"), promo.get(0));
+        assertEquals(AlgebraicParser.parse("a7a8q"), promo.get(5), "capture-promotions, then promotions");
+    }
+
+    @Test
+    void testRejectsIllegalMovesAndBadData() {
+        MoveRankCodec plain = new MoveRankCodec(MoveRankCodec.Mode.PLAIN);
+        List<Move> illegal = List.of(AlgebraicParser.parse("e2e4"), AlgebraicParser.parse("e2e4"));
+        assertThrows(IllegalArgumentException.class, () -> plain.encode(new GameState(), illegal));
+
+        byte[] data = plain.encode(new GameState(), List.of(AlgebraicParser.parse("e2e4")));
+        assertThrows(IOException.class, () -> plain.decode(new GameState(), data, 0, data.length, 2));
+        assertThrows(IOException.class, () -> plain.decode(new GameState(), new byte[] {40}, 0, 1, 1));
+        assertThrows(IOException.class, () -> plain.decode(new GameState(), new byte[] {0, 0}, 0, 2, 1));
+    }
+
+    @Test
+    void testStreamsArchiveThroughFile(@TempDir Path dir) throws Exception {
+        Random rnd = new Random(3);
+        String[] finalFen = new String[1];
+        String[] results = {"1-0", "0-1", "1/2-1/2", "*"};
+        List<ArchivedGame> games = new ArrayList<>();
+        List<String> finals = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            String fen = STARTS[i % STARTS.length];
+            games.add(new ArchivedGame(fen, randomGame(fen, rnd, 120, finalFen), results[i % 4]));
+            finals.add(finalFen[0]);
+        }
+        games.add(new ArchivedGame(List.of()));
+        finals.add(FenParser.START_FEN);
+
+        Path file = dir.resolve("games.cga");
+        try (GameArchiveWriter w = GameArchiveWriter.create(file, MoveRankCodec.Mode.ENTROPY)) {
+            for (ArchivedGame g : games) w.write(g);
+            assertEquals(games.size(), w.getGames());
+            assertTrue(w.getMoveBytes() < w.getPlies(), "under a byte per move");
+        }
+        try (GameArchiveReader r = GameArchiveReader.open(file)) {
+            assertEquals(MoveRankCodec.Mode.ENTROPY, r.getMode());
+            for (int i = 0; i < games.size(); i++) {
+                ArchivedGame g = r.next();
+                assertEquals(games.get(i).getMoves(), g.getMoves());
+                assertEquals(games.get(i).getStartFen(), g.getStartFen());
+                assertEquals(games.get(i).getResult(), g.getResult());
+                assertEquals(finals.get(i), FenParser.format(r.getFinalState()));
+            }
+            assertNull(r.next());
+        }
+
+        byte[] bytes = Files.readAllBytes(file);
+        GameArchiveReader cut = new GameArchiveReader(new ByteArrayInputStream(bytes, 0, bytes.length - 3));
+        assertThrows(IOException.class, () -> { while (cut.next() != null) { } });
+    }
+
+    @Test
+    void testRejectsForeignHeaders() throws Exception {
+        assertThrows(IOException.class, () -> new GameArchiveReader(new ByteArrayInputStream("hello, world".getBytes())));
+        assertThrows(IOException.class, () -> new GameArchiveReader(new ByteArrayInputStream(new byte[3])));
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        new GameArchiveWriter(bos, MoveRankCodec.Mode.PLAIN).close();
+        byte[] header = bos.toByteArray();
+        header[7] = 9;   // version
+        assertThrows(IOException.class, () -> new GameArchiveReader(new ByteArrayInputStream(header)));
+        assertThrows(IllegalArgumentException.class, () -> new ArchivedGame(null, List.of(), "2-0"));
+    }
+
+    /** An archive header for {@code mode} followed by {@code record}. */
+    private static GameArchiveReader archive(MoveRankCodec.Mode mode, int... record) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        new GameArchiveWriter(bos, mode).close();
+        for (int b : record) bos.write(b);
+        return new GameArchiveReader(new ByteArrayInputStream(bos.toByteArray()));
+    }
+
+    @Test
+    void testRejectsCorruptRecordHeaders() throws Exception {
+        for (MoveRankCodec.Mode mode : MoveRankCodec.Mode.values()) {
+            // a ply count of 2^31 - 1
+            GameArchiveReader hugePlies = archive(mode, 0xFF, 0xFF, 0xFF, 0xFF, 0x07, 0, 0);
+            assertThrows(IOException.class, hugePlies::next);
+            // a length whose fifth byte reaches the sign bit
+            GameArchiveReader negativeLength = archive(mode, 1, 0, 0x80, 0x80, 0x80, 0x80, 0x0F, 0);
+            assertThrows(IOException.class, negativeLength::next);
+            // a positive length far beyond what one ply can take
+            GameArchiveReader longLength = archive(mode, 1, 0, 0xFF, 0xFF, 0xFF, 0x7F, 0);
+            assertThrows(IOException.class, longLength::next);
+            // a five-byte length varint that never ends
+            GameArchiveReader endless = archive(mode, 1, 0, 0x80, 0x80, 0x80, 0x80, 0x80, 0x01);
+            assertThrows(IOException.class, endless::next);
+        }
+        assertThrows(IOException.class, archive(MoveRankCodec.Mode.PLAIN, 3, 0, 1, 0)::next);   // 3 plies in 1 byte
+        assertThrows(IOException.class, archive(MoveRankCodec.Mode.PLAIN, 1, 8, 1, 0)::next);   // unknown flag
+    }
+}
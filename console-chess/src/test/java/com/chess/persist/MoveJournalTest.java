@@ -0,0 +1,161 @@
+package com.chess.persist;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.PositionHistory;
+import com.chess.domain.Zobrist;
+import com.chess.parser.AlgebraicParser;
+import com.chess.parser.FenParser;
+import com.chess.service.MoveService;
+
+public class MoveJournalTest {
+
+    private static final String[] GAME = {
+        "e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6", "e1g1", "f8c5", "d2d4", "e5d4", "e4e5", "d7d5"
+    };
+
+    /** Knights out and back: the position after ply 7 is the one after ply 3 again. */
+    private static final String[] SHUFFLE = {"g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1"};
+
+    /** Plays {@code n} moves of GAME, journaling each one. */
+    private static GameState play(MoveJournal j, int n) throws Exception {
+        return play(j, GAME, n);
+    }
+
+    private static GameState play(MoveJournal j, String[] game, int n) throws Exception {
+        GameState st = new GameState();
+        for (int i = 0; i < n; i++) {
+            Move m = AlgebraicParser.parse(game[i]);
+            MoveService.apply(st, m);
+            st.switchTurn();
+            j.append(m, st);
+        }
+        return st;
+    }
+
+    @Test
+    void testRecoveryReplaysOnlyTheTailAfterCheckpoint(@TempDir Path dir) throws Exception {
+        GameState expected;
+        try (MoveJournal j = MoveJournal.open(dir, 5, 2)) {
+            expected = play(j, GAME.length);
+        }
+
+        MoveJournal.Recovery r = MoveJournal.recover(dir);
+        assertEquals(12, r.getPly());
+        assertEquals(10, r.getCheckpointPly());
+        assertEquals(2, r.getReplayed());
+        assertEquals(Zobrist.hash(expected), Zobrist.hash(r.getState()));
+        // the en-passant chance created by the replayed d7d5 is live
+        assertNotNull(r.getState().getEnPassantSquare());
+
+        List<Move> history = MoveJournal.readMoves(dir);
+        assertEquals(GAME.length, history.size());
+        assertEquals("e1g1", history.get(6).toString());
+    }
+
+    @Test
+    void testUnsyncedBatchIsLostAndTornTailIsIgnored(@TempDir Path dir) throws Exception {
+        MoveJournal j = MoveJournal.open(dir, 100, 3);
+        play(j, 5);   // records 1-3 synced, 4-5 still buffered when we "crash"
+
+        // simulate a torn write at the end of the log
+        Files.write(dir.resolve(MoveJournal.LOG_FILE), new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+
+        MoveJournal.Recovery r = MoveJournal.recover(dir);
+        assertEquals(3, r.getPly());
+        assertEquals(0, r.getCheckpointPly());
+
+        // reopening cuts the torn bytes and continues numbering after the last good record
+        try (MoveJournal reopened = MoveJournal.open(dir)) {
+            assertEquals(3, reopened.getPly());
+            Move m = AlgebraicParser.parse(GAME[3]);
+            GameState st = r.getState();
+            MoveService.apply(st, m);
+            st.switchTurn();
+            reopened.append(m, st);
+        }
+        assertEquals(4, MoveJournal.recover(dir).getPly());
+        assertTrue(Files.size(dir.resolve(MoveJournal.LOG_FILE)) == MoveJournal.HEADER_BYTES + 4 * MoveJournal.RECORD_BYTES);
+    }
+
+    @Test
+    void testFinishedJournalIsNotResumed(@TempDir Path dir) throws Exception {
+        try (MoveJournal j = MoveJournal.open(dir, 4, 2)) {
+            play(j, 6);
+            j.finish();
+        }
+        assertFalse(MoveJournal.exists(dir));
+        assertEquals(6, MoveJournal.readMoves(dir).size(), "the finished log stays readable");
+
+        try (MoveJournal next = MoveJournal.open(dir)) {
+            assertEquals(0, next.getPly());
+        }
+        assertTrue(MoveJournal.exists(dir));
+        assertFalse(Files.exists(dir.resolve(MoveJournal.FINISHED_FILE)));
+        assertFalse(Files.exists(dir.resolve(MoveJournal.CHECKPOINT_FILE)));
+        MoveJournal.Recovery r = MoveJournal.recover(dir);
+        assertEquals(0, r.getPly());
+        assertEquals(Zobrist.hash(new GameState()), Zobrist.hash(r.getState()));
+    }
+
+    @Test
+    void testRecoveryRebuildsRepetitionHistory(@TempDir Path dir) throws Exception {
+        GameState expected;
+        try (MoveJournal j = MoveJournal.open(dir, 3, 1)) {
+            expected = play(j, SHUFFLE, SHUFFLE.length);
+        }
+        long key = Zobrist.hash(expected);
+        assertEquals(1, expected.getHistory().repetitions(key));
+
+        MoveJournal.Recovery r = MoveJournal.recover(dir);
+        assertEquals(6, r.getCheckpointPly());
+        assertEquals(1, r.getReplayed());
+        assertTrue(r.isHistoryComplete());
+        assertEquals(key, Zobrist.hash(r.getState()));
+        assertEquals(1, r.getState().getHistory().repetitions(key), "ply 3 is remembered across the checkpoint");
+
+        // only the tail after the checkpoint is read: a damaged prefix does not matter
+        try (FileChannel ch = FileChannel.open(dir.resolve(MoveJournal.LOG_FILE), StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[MoveJournal.RECORD_BYTES]), MoveJournal.HEADER_BYTES);
+        }
+        MoveJournal.Recovery again = MoveJournal.recover(dir);
+        assertEquals(7, again.getPly());
+        assertEquals(1, again.getState().getHistory().repetitions(key));
+    }
+
+    @Test
+    void testRecoveryAfterLoadedPositionStartsHistoryAtCheckpoint(@TempDir Path dir) throws Exception {
+        GameState loaded = FenParser.parse("4k3/8/8/8/8/8/8/4K2R w K - 0 1");
+        try (MoveJournal j = MoveJournal.open(dir, 100, 1)) {
+            play(j, 4);
+            j.checkpoint(loaded);   // what GameSession does after 'load'
+        }
+        MoveJournal.Recovery r = MoveJournal.recover(dir);
+        assertTrue(r.isHistoryComplete());
+        assertEquals(0, r.getState().getHistory().recent(PositionHistory.SIZE).length);
+        assertEquals(Zobrist.hash(loaded), Zobrist.hash(r.getState()));
+        assertEquals(4, r.getPly());
+
+        // a checkpoint from before the history window was kept still loads, without one
+        Path cp = dir.resolve(MoveJournal.CHECKPOINT_FILE);
+        String text = Files.readString(cp);
+        Files.writeString(cp, text.replaceFirst("history: [^\\n]*\\n", ""));
+        MoveJournal.Recovery legacy = MoveJournal.recover(dir);
+        assertFalse(legacy.isHistoryComplete());
+        assertEquals(Zobrist.hash(loaded), Zobrist.hash(legacy.getState()));
+    }
+}
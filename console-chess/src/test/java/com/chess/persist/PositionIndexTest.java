@@ -0,0 +1,89 @@
+package com.chess.persist;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.parser.AlgebraicParser;
+
+public class PositionIndexTest {
+
+    private static List<Move> moves(String line) {
+        List<Move> out = new ArrayList<>();
+        for (String s : line.trim().split("\\s+")) out.add(AlgebraicParser.parse(s));
+        return out;
+    }
+
+    @Test
+    void testFindsGamesThatReachedPosition(@TempDir Path dir) throws Exception {
+        try (PositionIndexBuilder b = new PositionIndexBuilder(dir)) {
+            b.addGame(1, moves("e2e4 e7e5 g1f3"));
+            b.addGame(2, moves("d2d4 d7d5"));
+            b.addGame(3, moves("g1f3 e7e5 e2e4")); // transposes into game 1 at ply 3
+        }
+
+        GameState target = new GameState();
+        for (Move m : moves("e2e4 e7e5 g1f3")) {
+            com.chess.service.MoveService.apply(target, m);
+            target.switchTurn();
+        }
+
+        try (PositionIndex idx = PositionIndex.open(dir)) {
+            List<PositionHit> hits = idx.lookup(target);
+            assertEquals(2, hits.size());
+            assertTrue(hits.contains(new PositionHit(1, 3)));
+            assertTrue(hits.contains(new PositionHit(3, 3)));
+
+            // every game starts from the initial position
+            assertEquals(3, idx.lookup(new GameState()).size());
+        }
+    }
+
+    @Test
+    void testIncrementalAppendAndCompaction(@TempDir Path dir) throws Exception {
+        try (PositionIndexBuilder b = new PositionIndexBuilder(dir)) {
+            b.addGame(1, moves("e2e4 e7e5"));
+        }
+        try (PositionIndexBuilder b = new PositionIndexBuilder(dir)) {
+            b.addGame(2, moves("e2e4 c7c5"));
+        }
+
+        GameState afterE4 = new GameState();
+        com.chess.service.MoveService.apply(afterE4, AlgebraicParser.parse("e2e4"));
+        afterE4.switchTurn();
+
+        try (PositionIndex idx = PositionIndex.open(dir)) {
+            assertEquals(2, idx.segmentCount());
+            assertEquals(2, idx.lookup(afterE4).size());
+        }
+
+        PositionIndex.compact(dir);
+        try (PositionIndex idx = PositionIndex.open(dir)) {
+            assertEquals(1, idx.segmentCount());
+            assertEquals(6, idx.entryCount());
+            assertEquals(2, idx.lookup(afterE4).size());
+        }
+    }
+
+    @Test
+    void testManyBlocksLookup(@TempDir Path dir) throws Exception {
+        // small flush threshold forces several segments, each spanning many blocks
+        try (PositionIndexBuilder b = new PositionIndexBuilder(dir, 1000)) {
+            for (int i = 0; i < 5000; i++) b.addPosition(i * 7919L - 10_000_000L, i, i % 200);
+            b.addPosition(42L, 99_999, 1);
+        }
+        try (PositionIndex idx = PositionIndex.open(dir)) {
+            assertEquals(5001, idx.entryCount());
+            assertEquals(List.of(new PositionHit(99_999, 1)), idx.lookup(42L));
+            assertEquals(List.of(new PositionHit(4000, 0)), idx.lookup(4000 * 7919L - 10_000_000L));
+            assertTrue(idx.lookup(43L).isEmpty());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.chess.rules;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Piece;
+import com.chess.domain.PieceType;
+import com.chess.domain.Square;
+import com.chess.parser.FenParser;
+import com.chess.service.MoveHistory;
+
+public class MoveGeneratorTest {
+
+    /** Every from/to pair (and promotion) through MoveValidator: slow, but the definition of legal. */
+    private static Set<String> bruteForce(GameState st) {
+        Set<String> legal = new HashSet<>();
+        for (int from = 0; from < 64; from++) {
+            Piece p = st.getBoard().getPiece(Square.at(from));
+            if (p == null || p.getColor() != st.getToMove()) continue;
+            for (int to = 0; to < 64; to++) {
+                Move m = new Move(Square.at(from), Square.at(to));
+                if (MoveValidator.isLegal(st, m)) legal.add(m.toString());
+                int lastRank = (p.getColor() == Color.WHITE) ? 7 : 0;
+                if (p.getType() == PieceType.PAWN && Square.at(to).getRank() == lastRank) {
+                    for (PieceType pt : new PieceType[]{PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT}) {
+                        Move pm = new Move(Square.at(from), Square.at(to), pt);
+                        if (MoveValidator.isLegal(st, pm)) legal.add(pm.toString());
+                    }
+                }
+            }
+        }
+        return legal;
+    }
+
+    private static void assertMatchesValidator(GameState st) {
+        String fen = FenParser.format(st);
+        String before = fen + " " + st.getEnPassantFor();
+        List<Move> tactical = RulesEngine.generateTacticalMoves(st);
+        List<Move> quiet = RulesEngine.generateQuietMoves(st);
+
+        Set<String> generated = new HashSet<>();
+        for (Move m : tactical) {
+            assertTrue(MoveGenerator.isTactical(st, m), fen + " " + m);
+            assertTrue(generated.add(m.toString()), fen + " duplicate " + m);
+        }
+        for (Move m : quiet) {
+            assertFalse(MoveGenerator.isTactical(st, m), fen + " " + m);
+            assertTrue(generated.add(m.toString()), fen + " duplicate " + m);
+        }
+        assertEquals(bruteForce(st), generated, fen);
+        assertEquals(tactical.size() + quiet.size(), RulesEngine.generateLegalMoves(st).size(), fen);
+        assertEquals(before, FenParser.format(st) + " " + st.getEnPassantFor(), "position was modified");
+    }
+
+    @Test
+    void testSpecialMovesMatchValidator() {
+        String[] positions = {
+            FenParser.START_FEN,
+            "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1",            // castling both ways
+            "r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1",
+            "r3k2r/8/8/8/8/5r2/8/R3K2R w KQkq - 0 1",          // castling through an attacked square
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1",               // en passant
+            "8/8/8/K2pP2r/8/8/8/4k3 w - d6 0 1",               // en passant exposing the king
+            "1n2k3/P7/8/8/8/8/8/4K3 w - - 0 1",                // promotion, promotion with capture
+            "4k3/8/8/8/8/8/p7/1N2K3 b - - 0 1",
+            "4k3/8/8/8/1b6/8/3P4/4K3 w - - 0 1",               // pinned pawn
+            "4k3/8/8/8/8/8/4q3/4K3 w - - 0 1",                 // in check
+        };
+        for (String fen : positions) {
+            assertMatchesValidator(FenParser.parse(fen));
+        }
+    }
+
+    @Test
+    void testRandomGamesMatchValidator() {
+        Random rnd = new Random(7);
+        for (int game = 0; game < 6; game++) {
+            GameState st = new GameState();
+            MoveHistory h = new MoveHistory();
+            for (int ply = 0; ply < 60; ply++) {
+                assertMatchesValidator(st);
+                List<Move> moves = new ArrayList<>(RulesEngine.generateLegalMoves(st));
+                if (moves.isEmpty()) break;
+                h.play(st, moves.get(rnd.nextInt(moves.size())));
+            }
+        }
+    }
+}
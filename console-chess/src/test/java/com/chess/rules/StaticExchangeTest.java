@@ -0,0 +1,58 @@
+package com.chess.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.GameState;
+import com.chess.parser.AlgebraicParser;
+import com.chess.parser.FenParser;
+
+public class StaticExchangeTest {
+
+    private static int see(String fen, String move) {
+        GameState st = FenParser.parse(fen);
+        String before = FenParser.format(st);
+        int value = StaticExchange.evaluate(st, AlgebraicParser.parse(move));
+        assertEquals(before, FenParser.format(st), "position was modified");
+        return value;
+    }
+
+    @Test
+    void testUndefendedAndDefendedCaptures() {
+        assertEquals(100, see("4k3/8/8/3p4/8/8/8/3RK3 w - - 0 1", "d1d5"));            // free pawn
+        assertEquals(-400, see("4k3/8/2p5/3p4/8/8/8/3RK3 w - - 0 1", "d1d5"));         // RxP, PxR
+        assertEquals(0, see("4k3/8/2p5/3p4/4P3/8/8/4K3 w - - 0 1", "e4d5"));           // PxP, PxP: even trade
+        assertEquals(0, see("4k3/8/8/8/8/8/8/3RK3 w - - 0 1", "d1d5"));                // quiet move to a safe square
+        assertEquals(-500, see("4k3/8/2p5/8/8/8/8/3RK3 w - - 0 1", "d1d5"));           // quiet move to a guarded square
+    }
+
+    @Test
+    void testXRayAttackersJoinTheExchange() {
+        // Rd1 takes a pawn guarded by a rook; the second rook behind it on d2 wins the exchange
+        String fen = "3rk3/8/8/3p4/8/8/3R4/3RK3 w - - 0 1";
+        assertEquals(100, see(fen, "d2d5"));
+        // without the back rook the capture loses the exchange
+        assertEquals(-400, see("3rk3/8/8/3p4/8/8/3R4/4K3 w - - 0 1", "d2d5"));
+        // QxN, BxQ, then the bishop behind the queen takes back: 320 - 900 + 330
+        assertEquals(-250, see("4k3/6b1/5n2/8/8/2Q5/1B6/4K3 w - - 0 1", "c3f6"));
+        assertEquals(-580, see("4k3/6b1/5n2/8/8/2Q5/8/4K3 w - - 0 1", "c3f6"));
+    }
+
+    @Test
+    void testKingDoesNotRecaptureOnADefendedSquare() {
+        // QxP, RxQ; Kxe2 would walk into the second rook, so the queen is simply lost
+        assertEquals(-800, see("k3r3/4r3/8/8/8/3Q4/4p3/4K3 w - - 0 1", "d3e2"));
+        // with one rook the king takes back
+        assertEquals(-300, see("k7/4r3/8/8/8/3Q4/4p3/4K3 w - - 0 1", "d3e2"));
+    }
+
+    @Test
+    void testEnPassantAndPromotion() {
+        assertEquals(100, see("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5d6"));
+        assertEquals(800, see("4k3/P7/8/8/8/8/8/4K3 w - - 0 1", "a7a8q"));
+        assertTrue(StaticExchange.isAtLeast(FenParser.parse("1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1"), AlgebraicParser.parse("a7b8q"), 500));
+        assertFalse(StaticExchange.isAtLeast(FenParser.parse("1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1"), AlgebraicParser.parse("a7a8q"), 0));
+    }
+}
@@ -0,0 +1,65 @@
+package com.chess.search;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.parser.AlgebraicParser;
+import com.chess.parser.FenParser;
+import com.chess.rules.MoveGenerator;
+import com.chess.rules.RulesEngine;
+
+public class MovePickerTest {
+
+    private static List<Move> drain(MovePicker picker) {
+        List<Move> out = new ArrayList<>();
+        for (Move m = picker.next(); m != null; m = picker.next()) out.add(m);
+        return out;
+    }
+
+    private static Set<String> names(List<Move> moves) {
+        Set<String> s = new HashSet<>();
+        for (Move m : moves) s.add(m.toString());
+        return s;
+    }
+
+    @Test
+    void testStagesCoverEveryLegalMoveOnce() {
+        // White: Rd1 can take the queen on d5; Nb3xa5 loses the knight to Qxa5
+        GameState st = FenParser.parse("4k3/8/8/p2q4/8/1N6/8/3RK3 w - - 0 1");
+        int hash = AlgebraicParser.parse("e1f2").pack();
+        int killer = AlgebraicParser.parse("d1d2").pack();
+        int[] history = new int[64 * 64];
+        history[MovePicker.historyIndex(AlgebraicParser.parse("b3c5").pack())] = 500;
+
+        MovePicker picker = new MovePicker(st, hash, killer, 0, history, true);
+        List<Move> order = drain(picker);
+
+        assertEquals(names(RulesEngine.generateLegalMoves(st)), names(order));
+        assertEquals(order.size(), names(order).size(), "a move was handed out twice");
+        assertEquals(order.size(), picker.count());
+        assertEquals("e1f2", order.get(0).toString());   // hash move
+        assertEquals("d1d5", order.get(1).toString());   // winning capture
+        assertEquals("d1d2", order.get(2).toString());   // killer
+        assertEquals("b3c5", order.get(3).toString());   // best history
+        assertEquals("b3a5", order.get(order.size() - 1).toString());   // losing capture last
+        for (Move m : order.subList(2, order.size() - 1)) assertTrue(!MoveGenerator.isTactical(st, m));
+    }
+
+    @Test
+    void testIllegalHashAndKillerMovesAreSkipped() {
+        GameState st = new GameState();
+        int bogus = AlgebraicParser.parse("e2e5").pack();
+        MovePicker picker = new MovePicker(st, bogus, bogus, 0, new int[64 * 64], true);
+        List<Move> order = drain(picker);
+        assertEquals(20, order.size());
+        assertEquals(names(RulesEngine.generateLegalMoves(st)), names(order));
+    }
+}
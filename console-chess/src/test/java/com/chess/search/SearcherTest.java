@@ -0,0 +1,71 @@
+package com.chess.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.GameState;
+import com.chess.parser.FenParser;
+
+public class SearcherTest {
+
+    @Test
+    void testFindsMateInOne() {
+        // Scholar's mate pattern: Qh5xf7#
+        GameState st = FenParser.parse("r1bqkbnr/pppp1ppp/2n5/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 0 1");
+        SearchResult r = new Searcher().search(st, SearchLimits.depth(2));
+        assertEquals("h5f7", r.getBestMove().toString());
+        assertTrue(r.isMateScore());
+        assertEquals(1, r.mateIn());
+    }
+
+    @Test
+    void testWinsHangingQueen() {
+        GameState st = FenParser.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        SearchResult r = new Searcher().search(st, SearchLimits.depth(2));
+        assertEquals("d2d5", r.getBestMove().toString());
+        assertTrue(r.getScore() > 300);
+    }
+
+    @Test
+    void testNoMoveWhenCheckmated() {
+        GameState st = FenParser.parse("7k/7Q/6K1/8/8/8/8/8 b - - 0 1");
+        SearchResult r = new Searcher().search(st, SearchLimits.depth(3));
+        assertNull(r.getBestMove());
+        assertEquals(-Searcher.MATE, r.getScore());
+    }
+
+    @Test
+    void testStopBeforeStartReturnsALegalMoveQuickly() {
+        Searcher s = new Searcher();
+        s.setThreads(2);
+        s.stop();
+        SearchResult r = s.search(new GameState(), new SearchLimits().setInfinite(true));
+        assertNotNull(r.getBestMove());
+        // the flag is consumed, so the next search runs normally
+        assertEquals(1, s.search(new GameState(), SearchLimits.depth(1)).getDepth());
+    }
+
+    @Test
+    void testMoveOrderingSearchesFewerNodesForTheSameResult() {
+        long[] off = OrderingBenchmark.run(3, false);
+        long[] on = OrderingBenchmark.run(3, true);
+        assertTrue(on[0] * 2 < off[0], "ordered " + on[0] + " vs unordered " + off[0] + " nodes");
+
+        GameState st = FenParser.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        Searcher plain = new Searcher();
+        plain.setMoveOrdering(false);
+        assertEquals(plain.search(st, SearchLimits.depth(3)).getScore(),
+                     new Searcher().search(st, SearchLimits.depth(3)).getScore());
+    }
+
+    @Test
+    void testQuiescenceSeesTheRecapture() {
+        // Rxd5 wins a pawn at depth 1 but loses the rook to cxd5 right below the horizon
+        GameState st = FenParser.parse("4k3/8/2p5/3p4/8/8/8/3RK3 w - - 0 1");
+        SearchResult r = new Searcher().search(st, SearchLimits.depth(1));
+        assertTrue(!"d1d5".equals(r.getBestMove().toString()), "played " + r.getBestMove());
+    }
+}
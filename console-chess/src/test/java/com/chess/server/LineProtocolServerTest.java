@@ -0,0 +1,153 @@
+package com.chess.server;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.chess.metrics.Metrics;
+
+public class LineProtocolServerTest {
+
+    private static LineProtocolServer startServer() throws Exception {
+        LineProtocolServer srv = new LineProtocolServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        srv.start();
+        return srv;
+    }
+
+    /** Reads one reply (lines up to the "." terminator). */
+    private static List<String> readReply(BufferedReader in) throws Exception {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) lines.add(line);
+        return lines;
+    }
+
+    @Test
+    void testPipelinedCommandsAnsweredInOrder() throws Exception {
+        try (LineProtocolServer srv = startServer();
+             Socket s = new Socket(InetAddress.getLoopbackAddress(), srv.getPort())) {
+            s.setSoTimeout(10_000);
+            OutputStream out = s.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+
+            out.write("e2e4\ne7e5\ne1e3\nboard\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            assertTrue(readReply(in).isEmpty());   // e2e4
+            assertTrue(readReply(in).isEmpty());   // e7e5
+            assertEquals(List.of("Illegal move. Try again."), readReply(in));
+            List<String> board = readReply(in);
+            assertEquals("4 -- -- -- -- WP -- -- -- ", board.get(4));
+            assertEquals("5 -- -- -- -- BP -- -- -- ", board.get(3));
+            assertEquals("White (WHITE) to move.", board.get(board.size() - 1));
+
+            out.write("q\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals(List.of("Game ended. Goodbye!"), readReply(in));
+            assertNull(in.readLine(), "server closes the connection after q");
+        }
+    }
+
+    @Test
+    void testFileCommandsAreRefused(@TempDir Path dir) throws Exception {
+        Path target = dir.resolve("x");
+        try (LineProtocolServer srv = startServer();
+             Socket s = new Socket(InetAddress.getLoopbackAddress(), srv.getPort())) {
+            s.setSoTimeout(10_000);
+            OutputStream out = s.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+
+            out.write(("save " + target + "\nLOAD /etc/passwd\ne2e4\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals(List.of("Error: save is not available over the network."), readReply(in));
+            assertEquals(List.of("Error: load is not available over the network."), readReply(in));
+            assertTrue(readReply(in).isEmpty(), "the game goes on");
+            assertFalse(Files.exists(target));
+        }
+    }
+
+    @Test
+    void testMetricsAreReadOnlyOverTheNetwork() throws Exception {
+        boolean enabled = Metrics.isEnabled();
+        try (LineProtocolServer srv = startServer();
+             Socket s = new Socket(InetAddress.getLoopbackAddress(), srv.getPort())) {
+            s.setSoTimeout(10_000);
+            OutputStream out = s.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+
+            out.write((enabled ? "stats off\nSTATS reset\nstats json\n" : "stats on\nSTATS reset\nstats json\n")
+                      .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals(List.of("Error: stats " + (enabled ? "off" : "on") + " is not available over the network."), readReply(in));
+            assertEquals(List.of("Error: stats reset is not available over the network."), readReply(in));
+            assertTrue(readReply(in).get(0).startsWith("{"), "stats json still reports");
+        }
+        assertEquals(enabled, Metrics.isEnabled());
+    }
+
+    @Test
+    void testLineTooLongAnsweredAfterEarlierReplies() throws Exception {
+        try (LineProtocolServer srv = startServer();
+             Socket s = new Socket(InetAddress.getLoopbackAddress(), srv.getPort())) {
+            s.setSoTimeout(10_000);
+            OutputStream out = s.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+
+            out.write("e2e4\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            out.write(new byte[LineProtocolServer.MAX_LINE + 1]);
+            out.flush();
+
+            // e2e4 may or may not have been dispatched before the long line arrived; if it was,
+            // its (empty) reply comes first, and the error is always the last thing sent
+            List<String> lines = new ArrayList<>();
+            for (String line; (line = in.readLine()) != null; ) lines.add(line);
+            String error = "Line too long (max " + LineProtocolServer.MAX_LINE + " bytes).";
+            assertTrue(lines.equals(List.of(error, ".")) || lines.equals(List.of(".", error, ".")), lines.toString());
+        }
+    }
+
+    @Test
+    void testManyIdleConnectionsAreIndependentGames() throws Exception {
+        try (LineProtocolServer srv = startServer()) {
+            List<Socket> sockets = new ArrayList<>();
+            try {
+                for (int i = 0; i < 200; i++) {
+                    Socket s = new Socket(InetAddress.getLoopbackAddress(), srv.getPort());
+                    s.setSoTimeout(10_000);
+                    sockets.add(s);
+                }
+                long deadline = System.currentTimeMillis() + 10_000;
+                while (srv.connectionCount() < 200 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+                assertEquals(200, srv.connectionCount());
+
+                // only the first connection moves; the last one must still see the start position
+                Socket first = sockets.get(0);
+                first.getOutputStream().write("d2d4\n".getBytes(StandardCharsets.UTF_8));
+                readReply(new BufferedReader(new InputStreamReader(first.getInputStream(), StandardCharsets.UTF_8)));
+
+                Socket last = sockets.get(sockets.size() - 1);
+                last.getOutputStream().write("board\n".getBytes(StandardCharsets.UTF_8));
+                List<String> board = readReply(new BufferedReader(new InputStreamReader(last.getInputStream(), StandardCharsets.UTF_8)));
+                assertEquals("2 WP WP WP WP WP WP WP WP ", board.get(6));
+            } finally {
+                for (Socket s : sockets) s.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.chess.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class SessionManagerTest {
+
+    @Test
+    void testManyConcurrentSessionsKeepIndependentState() {
+        try (SessionManager mgr = new SessionManager()) {
+            int n = 500;
+            long[] ids = new long[n];
+            for (int i = 0; i < n; i++) ids[i] = mgr.open("W" + i, "B" + i);
+            assertEquals(n, mgr.sessionCount());
+
+            // even sessions open with e2e4, odd ones with d2d4
+            List<CompletableFuture<String>> replies = new ArrayList<>();
+            for (int i = 0; i < n; i++) replies.add(mgr.submit(ids[i], (i % 2 == 0) ? "e2e4" : "d2d4"));
+            for (int i = 0; i < n; i++) {
+                String out = replies.get(i).join();
+                assertTrue(out.contains("B" + i + " (BLACK) to move."), out);
+                String rank4 = out.lines().filter(l -> l.startsWith("4 ")).findFirst().orElseThrow();
+                assertEquals((i % 2 == 0) ? "4 -- -- -- -- WP -- -- -- " : "4 -- -- -- WP -- -- -- -- ", rank4);
+            }
+        }
+    }
+
+    @Test
+    void testCommandsRunInOrderAndQuitEndsSession() {
+        try (SessionManager mgr = new SessionManager()) {
+            long id = mgr.open("Alice", "Bob");
+            CompletableFuture<String> bad = mgr.submit(id, "e2e5");
+            CompletableFuture<String> good = mgr.submit(id, "e2e4");
+            CompletableFuture<String> pip = mgr.submit(id, "pip");
+
+            assertTrue(bad.join().startsWith("Illegal move."));
+            assertTrue(good.join().contains("Bob (BLACK) to move."));
+            assertTrue(pip.join().startsWith("a7a5 a7a6 b7b5"));
+
+            assertTrue(mgr.close(id).join().startsWith("Game ended. Goodbye!"));
+            CompletionException ex = assertThrows(CompletionException.class, () -> mgr.submit(id, "pip").join());
+            assertTrue(ex.getCause() instanceof IllegalArgumentException);
+            assertFalse(mgr.isOpen(id));
+        }
+    }
+
+    @Test
+    void testCommandsSubmittedWhileSessionEndsAlwaysComplete() throws Exception {
+        try (SessionManager mgr = new SessionManager()) {
+            for (int round = 0; round < 100; round++) {
+                long id = mgr.open("W", "B");
+                List<CompletableFuture<String>> replies = new ArrayList<>();
+                Thread flood = new Thread(() -> {
+                    // keep submitting until the session is gone, racing its final drain
+                    while (true) {
+                        CompletableFuture<String> f = mgr.submit(id, "pip");
+                        synchronized (replies) { replies.add(f); }
+                        if (f.isCompletedExceptionally() && !mgr.isOpen(id)) break;
+                        Thread.yield();
+                    }
+                });
+                flood.start();
+                mgr.close(id);
+                flood.join(10_000);
+                assertFalse(flood.isAlive());
+                synchronized (replies) {
+                    for (CompletableFuture<String> f : replies) {
+                        try {
+                            f.get(5, TimeUnit.SECONDS);
+                        } catch (ExecutionException e) {
+                            assertTrue(e.getCause() instanceof IllegalArgumentException
+                                    || e.getCause() instanceof IllegalStateException, e.toString());
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -12,6 +12,9 @@ import com.chess.domain.Move;
 import com.chess.domain.Piece;
 import com.chess.domain.PieceType;
 import com.chess.domain.Square;
+import com.chess.domain.Zobrist;
+import com.chess.parser.AlgebraicParser;
+import com.chess.parser.FenParser;
 import com.chess.rules.RulesEngine;
 
 public class GameServiceStatusTest {
@@ -72,4 +75,40 @@ public class GameServiceStatusTest {
         GameStatus status = GameService.assessStatus(state);
         assertTrue(status == GameStatus.IN_PROGRESS || status == GameStatus.CHECK);
     }
-}
\ No newline at end of file
+
+    private static void play(GameState st, String... moves) {
+        for (String m : moves) {
+            MoveService.apply(st, AlgebraicParser.parse(m));
+            st.switchTurn();
+        }
+    }
+
+    @Test
+    void testThreefoldRepetitionByKnightShuffle() {
+        GameState st = new GameState();
+        play(st, "g1f3", "g8f6", "f3g1", "f6g8");          // start position, second time
+        assertEquals(GameStatus.IN_PROGRESS, GameService.assessStatus(st));
+        play(st, "g1f3", "g8f6", "f3g1", "f6g8");          // third time
+        assertEquals(GameStatus.THREEFOLD_REPETITION, GameService.assessStatus(st));
+        assertEquals(Zobrist.recompute(st), Zobrist.hash(st));
+    }
+
+    @Test
+    void testPawnMoveCutsTheRepetitionWindow() {
+        GameState st = new GameState();
+        play(st, "g1f3", "g8f6", "f3g1", "f6g8", "e2e4", "e7e5");
+        assertEquals(0, st.getHistory().getReversiblePlies());
+        assertEquals(0, st.getHalfmoveClock());
+        play(st, "g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1", "f6g8");
+        assertEquals(GameStatus.THREEFOLD_REPETITION, GameService.assessStatus(st));
+        assertEquals(8, st.getHalfmoveClock());
+    }
+
+    @Test
+    void testFiftyMoveRule() {
+        GameState st = FenParser.parse("4k3/8/8/8/8/8/8/R3K3 w - - 99 80");
+        assertEquals(GameStatus.IN_PROGRESS, GameService.assessStatus(st));
+        play(st, "a1a2");
+        assertEquals(GameStatus.FIFTY_MOVE_RULE, GameService.assessStatus(st));
+    }
+}
@@ -0,0 +1,92 @@
+package com.chess.service;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.GameState;
+import com.chess.domain.Move;
+import com.chess.domain.Zobrist;
+import com.chess.parser.AlgebraicParser;
+import com.chess.parser.FenParser;
+import com.chess.rules.RulesEngine;
+
+public class MoveHistoryTest {
+
+    /** FEN covers board, side, rights and EP square; the EP side is not part of it. */
+    private static String snapshot(GameState st) {
+        return FenParser.format(st) + " " + st.getEnPassantFor();
+    }
+
+    @Test
+    void testUndoRestoresEveryLegalMoveExactly() {
+        String[] positions = {
+            FenParser.START_FEN,
+            "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1",           // castling both ways, rook moves
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1",              // en passant
+            "1n2k3/P7/8/8/8/8/8/4K3 w - - 0 1",               // promotion, promotion with capture
+        };
+        MoveHistory h = new MoveHistory();
+        for (String fen : positions) {
+            GameState st = FenParser.parse(fen);
+            String before = snapshot(st);
+            for (Move m : RulesEngine.generateLegalMoves(st)) {
+                h.play(st, m);
+                assertEquals(m, h.undo(st));
+                assertEquals(before, snapshot(st), m.toString());
+                assertEquals(Zobrist.recompute(st), Zobrist.hash(st), m.toString());
+            }
+        }
+    }
+
+    @Test
+    void testUndoRedoWalksTheGame() {
+        String[] game = {"e2e4", "d7d5", "e4e5", "f7f5", "e5f6", "g8f6", "g1f3", "e7e6", "f1e2", "f8e7", "e1g1"};
+        GameState st = new GameState();
+        MoveHistory h = new MoveHistory();
+        String[] seen = new String[game.length + 1];
+        seen[0] = snapshot(st);
+        for (int i = 0; i < game.length; i++) {
+            h.play(st, AlgebraicParser.parse(game[i]));
+            seen[i + 1] = snapshot(st);
+        }
+
+        for (int i = game.length; i > 0; i--) {
+            assertEquals(game[i - 1], h.undo(st).toString());
+            assertEquals(seen[i - 1], snapshot(st));
+        }
+        assertFalse(h.canUndo());
+        for (int i = 1; i <= game.length; i++) {
+            h.redo(st);
+            assertEquals(seen[i], snapshot(st));
+        }
+        assertFalse(h.canRedo());
+
+        // a new move after an undo drops the redo tail
+        h.undo(st);
+        h.play(st, AlgebraicParser.parse("e1f1"));
+        assertFalse(h.canRedo());
+        assertThrows(IllegalStateException.class, () -> h.redo(st));
+    }
+
+    @Test
+    void testCapacityBoundsTheStack() {
+        GameState st = new GameState();
+        MoveHistory h = new MoveHistory(2);
+        String afterTwo = null;
+        for (String m : List.of("g1f3", "g8f6", "f3g1", "f6g8")) {
+            h.play(st, AlgebraicParser.parse(m));
+            if (m.equals("g8f6")) afterTwo = snapshot(st);
+        }
+        assertEquals(2, h.undoCount());
+        h.undo(st);
+        h.undo(st);
+        assertFalse(h.canUndo());
+        assertTrue(h.canRedo());
+        assertEquals(afterTwo, snapshot(st));
+    }
+}
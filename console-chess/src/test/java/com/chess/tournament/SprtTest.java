@@ -0,0 +1,47 @@
+package com.chess.tournament;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class SprtTest {
+
+    @Test
+    void testEloFromScore() {
+        assertEquals(0.0, new MatchScore(10, 5, 10).getElo(), 1e-9);
+        assertEquals(190.85, new MatchScore(3, 0, 1).getElo(), 0.01);
+        assertEquals(-190.85, new MatchScore(1, 0, 3).getElo(), 0.01);
+        assertEquals(0.75, MatchScore.expectedScore(190.85), 1e-4);
+        assertEquals(Double.POSITIVE_INFINITY, new MatchScore(0, 4, 0).getEloMargin());
+
+        // more games, same score: a narrower interval
+        double few = new MatchScore(30, 40, 30).getEloMargin();
+        double many = new MatchScore(300, 400, 300).getEloMargin();
+        assertTrue(many < few / 3, few + " vs " + many);
+    }
+
+    @Test
+    void testBounds() {
+        Sprt sprt = new Sprt(0, 5, 0.05, 0.05);
+        assertEquals(-2.944, sprt.getLowerBound(), 1e-3);
+        assertEquals(2.944, sprt.getUpperBound(), 1e-3);
+        assertThrows(IllegalArgumentException.class, () -> new Sprt(5, 0, 0.05, 0.05));
+        assertThrows(IllegalArgumentException.class, () -> new Sprt(0, 5, 0, 0.05));
+    }
+
+    @Test
+    void testDecisions() {
+        Sprt sprt = new Sprt(0, 50, 0.05, 0.05);
+        // clearly stronger
+        assertEquals(Sprt.Decision.ACCEPT_H1, sprt.test(new MatchScore(600, 200, 200)));
+        // even match: not 50 Elo stronger
+        MatchScore even = new MatchScore(400, 200, 400);
+        assertEquals(-12.8, sprt.llr(even), 0.1);
+        assertEquals(Sprt.Decision.ACCEPT_H0, sprt.test(even));
+        // too few games to tell
+        assertEquals(Sprt.Decision.CONTINUE, sprt.test(new MatchScore(3, 2, 2)));
+        // all draws carry no information about the variance yet
+        assertEquals(0.0, sprt.llr(new MatchScore(0, 50, 0)));
+    }
+}
@@ -0,0 +1,94 @@
+package com.chess.tournament;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.parser.FenParser;
+import com.chess.search.SearchLimits;
+import com.chess.search.TranspositionTable;
+
+public class TournamentTest {
+
+    @Test
+    void testOpeningLines() {
+        GameState afterMoves = Tournament.parseOpening("e2e4 e7e5 g1f3");
+        assertTrue(FenParser.format(afterMoves).startsWith("rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1"));
+        GameState fen = Tournament.parseOpening("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+        assertEquals(Color.WHITE, fen.getToMove());
+        assertThrows(IllegalArgumentException.class, () -> Tournament.parseOpening("e2e4 e2e4"));
+        assertEquals(12, Tournament.parseOpenings(Tournament.DEFAULT_OPENINGS).size());
+    }
+
+    @Test
+    void testPairedGamesRunConcurrently() throws Exception {
+        Tournament t = new Tournament(new EngineVariant("a"), new EngineVariant("b").setMoveOrdering(false))
+                .setGames(6)
+                .setConcurrency(3)
+                .setLimits(SearchLimits.depth(1))
+                .setAdjudication(new Adjudication().setMaxPlies(12));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        Tournament.Result r = t.run(new PrintStream(bos, true, StandardCharsets.UTF_8));
+
+        List<GameRecord> games = r.getGames();
+        assertEquals(6, games.size());
+        assertEquals(6, r.getScore().getGames());
+        for (int i = 0; i < games.size(); i++) {
+            GameRecord g = games.get(i);
+            assertEquals(i, g.getIndex());
+            assertEquals(i / 2, g.getOpening());
+            assertEquals((i % 2 == 0) ? "a" : "b", g.getWhite());
+            assertTrue(g.getMoves().size() <= 12);
+        }
+        String out = bos.toString(StandardCharsets.UTF_8);
+        assertTrue(out.contains("Game 6 (opening 3)"), out);
+    }
+
+    @Test
+    void testHashBudgetIsSharedByConcurrentGames() {
+        EngineVariant a = new EngineVariant("a"), b = new EngineVariant("b").setHashMegabytes(4);
+        Tournament t = new Tournament(a, b).setGames(100).setConcurrency(8).setHashMegabytes(64);
+        assertEquals(4, t.searcherHashMegabytes(a), "16 searchers share 64 MB");
+        assertEquals(4, t.searcherHashMegabytes(b));
+        t.setHashMegabytes(1024);
+        assertEquals(TranspositionTable.DEFAULT_MB, t.searcherHashMegabytes(a), "never more than the engine asks for");
+        assertEquals(4, t.searcherHashMegabytes(b));
+        t.setConcurrency(64).setHashMegabytes(16);
+        assertEquals(1, t.searcherHashMegabytes(a), "at least 1 MB each");
+        t.setGames(1);
+        assertEquals(8, t.searcherHashMegabytes(new EngineVariant("c").setHashMegabytes(64)), "only running games count");
+        assertThrows(IllegalArgumentException.class, () -> t.setHashMegabytes(0));
+    }
+
+    @Test
+    void testAdjudication() {
+        Adjudication.Tracker resign = new Adjudication().setResign(500, 3).new Tracker();
+        assertEquals(null, resign.update(0, 600));
+        assertEquals(null, resign.update(1, 550));
+        assertEquals(Integer.valueOf(1), resign.update(2, 800));
+
+        Adjudication.Tracker draw = new Adjudication().setDraw(10, 10, 2).new Tracker();
+        assertEquals(null, draw.update(9, 0));
+        assertEquals(null, draw.update(10, 5));
+        assertEquals(null, draw.update(11, 50));
+        assertEquals(null, draw.update(12, -5));
+        assertEquals(Integer.valueOf(0), draw.update(13, 0));
+    }
+
+    @Test
+    void testEngineSpec() throws Exception {
+        EngineVariant v = EngineVariant.parse("old:hash=4,ordering=off");
+        assertEquals("old", v.getName());
+        assertEquals(4, v.getHashMegabytes());
+        assertTrue(!v.isMoveOrdering() && !v.newSearcher().isMoveOrdering());
+        assertThrows(IllegalArgumentException.class, () -> EngineVariant.parse("x:speed=9"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.chess.uci;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.chess.domain.Color;
+import com.chess.domain.GameState;
+import com.chess.domain.PieceType;
+import com.chess.domain.Square;
+import com.chess.eval.Network;
+
+public class UciAdapterTest {
+
+    private final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    private final UciAdapter uci = new UciAdapter(new PrintStream(bos, true, StandardCharsets.UTF_8));
+
+    private List<String> lines() {
+        return bos.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    @Test
+    void testHandshake() {
+        uci.handle("uci");
+        uci.handle("isready");
+        List<String> out = lines();
+        assertTrue(out.contains("uciok"));
+        assertTrue(out.contains("readyok"));
+        assertTrue(out.stream().anyMatch(l -> l.startsWith("option name Hash")));
+        assertTrue(out.stream().anyMatch(l -> l.startsWith("option name Threads")));
+    }
+
+    @Test
+    void testPositionMovesAreAppliedIncrementally() {
+        uci.handle("position startpos moves e2e4");
+        GameState afterFirst = uci.getCurrentPosition();
+        uci.handle("position startpos moves e2e4 e7e5");
+        // same object: only e7e5 was applied on top
+        assertSame(afterFirst, uci.getCurrentPosition());
+        assertEquals(Color.WHITE, uci.getCurrentPosition().getToMove());
+        assertEquals(PieceType.PAWN, uci.getCurrentPosition().getBoard().getPiece(new Square(4, 4)).getType());
+
+        // a different line is rebuilt from scratch
+        uci.handle("position startpos moves d2d4");
+        assertEquals(null, uci.getCurrentPosition().getBoard().getPiece(new Square(4, 3)));
+    }
+
+    @Test
+    void testGoDepthPrintsBestMove() {
+        uci.handle("position fen 4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        uci.handle("go depth 2");
+        uci.handle("isready"); // answered even while searching
+        uci.handle("stop");    // waits for the search thread to print bestmove
+        List<String> out = lines();
+        assertTrue(out.contains("readyok"));
+        assertTrue(out.stream().anyMatch(l -> l.startsWith("bestmove ")), out.toString());
+    }
+
+    @Test
+    void testGoInfiniteRunsUntilStop() throws Exception {
+        uci.handle("position startpos");
+        uci.handle("go infinite");
+        Thread.sleep(50);
+        assertTrue(lines().stream().noneMatch(l -> l.startsWith("bestmove")));
+        uci.handle("stop");
+        String last = lines().get(lines().size() - 1);
+        assertTrue(last.startsWith("bestmove "), last);
+    }
+
+    @Test
+    void testEmptyEvalFileRestoresTheBuiltInEvaluation(@TempDir Path dir) throws Exception {
+        Path net = dir.resolve("net.cnn");
+        Network.random(1).save(net);
+        uci.handle("setoption name EvalFile value " + net);
+        assertNotNull(uci.getSearcher().getNetwork());
+        uci.handle("setoption name EvalFile value");
+        assertNull(uci.getSearcher().getNetwork());
+    }
+
+    @Test
+    void testEveryGoIsAnsweredBeforeTheNext() {
+        uci.handle("position startpos");
+        for (int i = 0; i < 20; i++) {
+            uci.handle("go depth 1");
+            uci.handle("stop");
+        }
+        List<String> out = lines();
+        assertEquals(20, out.stream().filter(l -> l.startsWith("bestmove ")).count());
+        assertTrue(out.stream().noneMatch(l -> l.contains("already running")), out.toString());
+    }
+}
@@ -0,0 +1,132 @@
+package com.chess.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class LongHashTablesTest {
+
+    @Test
+    void testSetMatchesHashSetUnderRandomOperations() {
+        Random rnd = new Random(1);
+        LongHashSet set = new LongHashSet();
+        Set<Long> ref = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = rnd.nextInt(5000) - 10;   // small range: many repeats, removals and key 0
+            switch (rnd.nextInt(3)) {
+                case 0:  assertEquals(ref.add(key), set.add(key)); break;
+                case 1:  assertEquals(ref.remove(key), set.remove(key)); break;
+                default: assertEquals(ref.contains(key), set.contains(key)); break;
+            }
+        }
+        assertEquals(ref.size(), set.size());
+        Set<Long> seen = new HashSet<>();
+        set.forEach(k -> assertTrue(seen.add(k)));
+        assertEquals(ref, seen);
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+    }
+
+    @Test
+    void testIntMapMatchesHashMapUnderRandomOperations() {
+        Random rnd = new Random(2);
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> ref = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = (rnd.nextInt(4000) - 5) * 0x100000000L;   // only high bits differ
+            switch (rnd.nextInt(5)) {
+                case 0:  assertEquals(ref.merge(key, 3, Integer::sum).intValue(), map.addTo(key, 3)); break;
+                case 1:  assertEquals(ref.remove(key) != null, map.remove(key)); break;
+                case 2:  assertEquals(ref.putIfAbsent(key, 7) == null, map.putIfAbsent(key, 7)); break;
+                case 3:  ref.put(key, i); map.put(key, i); break;
+                default: assertEquals(ref.getOrDefault(key, -1).intValue(), map.getOrDefault(key, -1)); break;
+            }
+        }
+        assertEquals(ref.size(), map.size());
+        Map<Long, Integer> seen = new HashMap<>();
+        map.forEach((k, v) -> assertEquals(null, seen.put(k, v)));
+        assertEquals(ref, seen);
+    }
+
+    @Test
+    void testRemovalKeepsCollidingKeysReachable() {
+        // keys chosen to share a home slot in the smallest table, so they form one probe run
+        LongIntHashMap map = new LongIntHashMap();
+        int shift = LongHashing.shiftFor(map.capacity());
+        List<Long> run = new ArrayList<>();
+        for (long k = 1; run.size() < 6; k++) {
+            if (LongHashing.slot(k, shift) == LongHashing.slot(1, shift)) run.add(k);
+        }
+        for (long k : run) map.put(k, (int) k);
+        map.remove(run.get(1));
+        map.remove(run.get(3));
+        for (int i = 0; i < run.size(); i++) {
+            boolean kept = (i != 1 && i != 3);
+            assertEquals(kept, map.containsKey(run.get(i)), "key " + i);
+            if (kept) assertEquals((int) (long) run.get(i), map.getOrDefault(run.get(i), -1));
+        }
+    }
+
+    @Test
+    void testFullTableUsesSixteenBytesPerEntry() {
+        int n = 3 << 15;   // three quarters of 2^17
+        LongIntHashMap map = new LongIntHashMap(n);
+        assertEquals(1 << 17, map.capacity());
+        for (long k = 1; k <= n; k++) map.addTo(k * 0x9E3779B9L, 1);
+        assertEquals(1 << 17, map.capacity(), "no resize");
+        assertEquals(16.0, (double) map.memoryBytes() / n);
+        map.addTo(-1, 1);
+        assertEquals(1 << 18, map.capacity());
+
+        LongLongHashMap big = new LongLongHashMap();
+        big.addTo(42, Integer.MAX_VALUE);
+        assertEquals(2L * Integer.MAX_VALUE, big.addTo(42, Integer.MAX_VALUE));
+        assertEquals(1, big.size());
+    }
+
+    @Test
+    void testStripedTablesCountAcrossThreads() throws Exception {
+        StripedLongIntHashMap counts = new StripedLongIntHashMap(8, 0);
+        StripedLongHashSet seen = new StripedLongHashSet(5, 0);
+        assertEquals(8, counts.getStripeCount());
+        assertEquals(8, seen.getStripeCount());
+        AtomicInteger firstSeen = new AtomicInteger();
+        int threads = 4, perThread = 50_000, distinct = 10_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread w = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    long key = (i * 7L + offset) % distinct;   // key 0 included
+                    counts.addTo(key, 1);
+                    if (seen.add(key)) firstSeen.incrementAndGet();
+                }
+            });
+            workers.add(w);
+            w.start();
+        }
+        for (Thread w : workers) w.join();
+
+        assertEquals(distinct, counts.size());
+        assertEquals(distinct, seen.size());
+        assertEquals(distinct, firstSeen.get(), "each key was new to exactly one thread");
+        long[] total = {0};
+        counts.forEach((k, v) -> total[0] += v);
+        assertEquals((long) threads * perThread, total[0]);
+
+        StripedLongIntHashMap single = new StripedLongIntHashMap(1, 0);
+        single.put(-5, 9);
+        assertEquals(9, single.getOrDefault(-5, 0));
+    }
+}